@@ -0,0 +1,61 @@
+package controller;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de una partida completa
+ * Cada invocacion inicia una partida con initGame y termina turnos hasta que se alcanza la
+ * ronda maxima y existen ganadores
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameControllerBenchmark {
+
+    @Param({"2", "4"})
+    private int players;
+
+    @Param({"10", "100"})
+    private int rounds;
+
+    private GameController controller;
+
+    @Setup
+    public void setUp() {
+
+        controller = new GameController(players, 16);
+    }
+
+    /**
+     * Juega una partida de initGame hasta el ultimo endTurn
+     * @return Ronda en la que termino la partida
+     */
+
+    @Benchmark
+    public int initGameToEnd() {
+
+        controller.initGame(rounds);
+        while (controller.getWinners() == null) {
+
+            controller.endTurn();
+        }
+        return controller.getRoundNumber();
+    }
+}
@@ -0,0 +1,55 @@
+package controller.simulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark del simulador de partidas
+ * Cada invocacion juega una partida completa con la siguiente semilla
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchSimulatorBenchmark {
+
+    @Param({"2", "4"})
+    private int players;
+
+    @Param({"16", "32"})
+    private int mapSize;
+
+    private MatchSimulator simulator;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+
+        simulator = new MatchSimulator(players, mapSize, 100, new AggressivePolicy());
+    }
+
+    /**
+     * @return Turnos jugados en la partida
+     */
+
+    @Benchmark
+    public int play() {
+
+        return simulator.play(seed++).turns();
+    }
+}
@@ -0,0 +1,64 @@
+package controller.simulation;
+
+import controller.GameRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de la busqueda del jugador de Monte Carlo
+ * Cada invocacion es una iteracion de la busqueda en un hilo: bajar por el arbol, expandir un
+ * nodo y jugar una partida al azar desde el
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonteCarloPlayerBenchmark {
+
+    @Param({"2", "4"})
+    private int players;
+
+    @Param({"16"})
+    private int mapSize;
+
+    @Param({"4"})
+    private int playoutTurns;
+
+    private MonteCarloPlayer player;
+
+    @Setup
+    public void setUp() {
+
+        player = new MonteCarloPlayer(0, 1, playoutTurns, 0);
+        player.prepare(new MatchSimulator(players, mapSize, 100, new AggressivePolicy())
+                .start(new GameRandom(0)));
+    }
+
+    @Benchmark
+    public void iterate() {
+
+        player.iterate();
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        player.close();
+    }
+}
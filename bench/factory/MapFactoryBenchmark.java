@@ -0,0 +1,57 @@
+package factory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import model.map.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de la creacion de mapas
+ * Cada invocacion crea un mapa nuevo con una semilla fija, de manera que todas las
+ * mediciones generan el mismo mapa
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapFactoryBenchmark {
+
+    @Param({"8", "16", "32", "64"})
+    private int size;
+
+    private final MapFactory mapFactory = new MapFactory();
+
+    /**
+     * Mapa creado con createMapSeed, reparado con checkMap
+     */
+
+    @Benchmark
+    public Field createMapSeed() {
+
+        return mapFactory.createMapSeed(size, new Random(size), new Field());
+    }
+
+    /**
+     * Mapa creado con createConnectedMap, conexo por construccion
+     */
+
+    @Benchmark
+    public Field createConnectedMap() {
+
+        return mapFactory.createConnectedMap(size, new Random(size), new Field());
+    }
+}
@@ -0,0 +1,104 @@
+package model.items;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import model.items.attack.magic.AnimaBook;
+import model.items.attack.magic.DarkBook;
+import model.items.attack.magic.LightBook;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import model.items.attack.normal.Sword;
+import model.items.heal.Staff;
+import model.map.InvalidLocation;
+import model.units.Alpaca;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the damage of many attacks between random items, with the double dispatch of the
+ * items and with the damage table.
+ * <p>
+ * The pairs are drawn from all the item types, so the calls aren't monomorphic, as in a match
+ * with many units.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class DamageTableBenchmark {
+
+  private static final int ATTACKS = 4096;
+
+  private IEquipableItem[] attackers;
+  private IEquipableItem[] defenders;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    attackers = new IEquipableItem[ATTACKS];
+    defenders = new IEquipableItem[ATTACKS];
+    for (int i = 0; i < ATTACKS; i++) {
+      attackers[i] = randomItem(random);
+      defenders[i] = randomItem(random);
+    }
+  }
+
+  private static IEquipableItem randomItem(final Random random) {
+    int power = random.nextInt(60);
+    switch (random.nextInt(9)) {
+      case 0:
+        return new Alpaca(1, 0, new InvalidLocation()).getHand();
+      case 1:
+        return new Axe("Axe", power, 1, 3);
+      case 2:
+        return new Bow("Bow", power, 2, 3);
+      case 3:
+        return new Spear("Spear", power, 1, 3);
+      case 4:
+        return new Sword("Sword", power, 1, 3);
+      case 5:
+        return new AnimaBook("Anima", power, 1, 3);
+      case 6:
+        return new DarkBook("Dark", power, 1, 3);
+      case 7:
+        return new LightBook("Light", power, 1, 3);
+      default:
+        return new Staff("Staff", power, 1, 3);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ATTACKS)
+  public double doubleDispatch() {
+    double damage = 0;
+    for (int i = 0; i < ATTACKS; i++) {
+      damage += attackers[i].attack(defenders[i]);
+    }
+    return damage;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ATTACKS)
+  public double damageTable() {
+    double damage = 0;
+    for (int i = 0; i < ATTACKS; i++) {
+      damage += DamageTable.attack(attackers[i], defenders[i]);
+    }
+    return damage;
+  }
+}
@@ -0,0 +1,64 @@
+package model.map;
+
+import factory.MapFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the cell lookup of a field.
+ * <p>
+ * Every invocation looks up the same batch of coordinates, a quarter of which fall outside the
+ * map.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark {
+
+  private static final int LOOKUPS = 1024;
+
+  @Param({"8", "32", "128"})
+  private int size;
+
+  private Field map;
+  private final int[] rows = new int[LOOKUPS];
+  private final int[] columns = new int[LOOKUPS];
+
+  @Setup
+  public void setUp() {
+    map = new MapFactory().createConnectedMap(size, new Random(size), new Field());
+    Random random = new Random(LOOKUPS);
+    int span = size + size / 3;
+    for (int i = 0; i < LOOKUPS; i++) {
+      rows[i] = random.nextInt(span);
+      columns[i] = random.nextInt(span);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void getCell(final Blackhole blackhole) {
+    for (int i = 0; i < LOOKUPS; i++) {
+      blackhole.consume(map.getCell(rows[i], columns[i]));
+    }
+  }
+}
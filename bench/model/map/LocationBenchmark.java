@@ -0,0 +1,68 @@
+package model.map;
+
+import factory.MapFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the distance between two locations.
+ * <p>
+ * The target is the first cell, in row order, whose distance from the corner of the map is the
+ * requested path length. The maps are large enough to skip the distance cache, so every call
+ * runs a search.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationBenchmark {
+
+  private static final int SIZE = 64;
+
+  @Param({"1", "4", "16", "64"})
+  private int pathLength;
+
+  private Location from;
+  private Location to;
+
+  @Setup
+  public void setUp() {
+    Field map = new MapFactory().createConnectedMap(SIZE, new Random(SIZE), new Field());
+    from = map.getCell(0, 0);
+    for (int i = 0; i < SIZE * SIZE && to == null; i++) {
+      Location cell = map.getCell(i / SIZE, i % SIZE);
+      if (from.distanceTo(cell) == pathLength) {
+        to = cell;
+      }
+    }
+    if (to == null) {
+      throw new IllegalStateException("No cell at distance " + pathLength);
+    }
+  }
+
+  @Benchmark
+  public double distanceTo() {
+    return from.distanceTo(to);
+  }
+
+  @Benchmark
+  public double boundedDistanceTo() {
+    return from.distanceTo(to, pathLength);
+  }
+}
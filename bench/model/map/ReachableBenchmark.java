@@ -0,0 +1,70 @@
+package model.map;
+
+import factory.MapFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the query of the cells in movement range of a location, with one bounded search
+ * and with a distance query to every cell of the map.
+ * <p>
+ * The map is a connected map of 32 x 32 cells without the distance table, and the starting
+ * location is its center.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReachableBenchmark {
+
+  private static final int SIZE = 32;
+
+  @Param({"2", "5", "10"})
+  private int radius;
+
+  private Field map;
+  private Location center;
+  private final CellSet reachable = new CellSet();
+
+  @Setup
+  public void setUp() {
+    map = new MapFactory().createConnectedMap(SIZE, new Random(SIZE), new Field());
+    map.setDistanceCache(false);
+    center = map.getCell(SIZE / 2, SIZE / 2);
+  }
+
+  @Benchmark
+  public int reachableFrom() {
+    return map.reachableFrom(center, radius, true, reachable).size();
+  }
+
+  @Benchmark
+  public int distanceToEveryCell() {
+    int count = 0;
+    for (int row = 0; row < SIZE; row++) {
+      for (int col = 0; col < SIZE; col++) {
+        Location cell = map.getCell(row, col);
+        if (cell.getUnit() == null && center.distanceTo(cell, radius) <= radius) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
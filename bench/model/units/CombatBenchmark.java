@@ -0,0 +1,131 @@
+package model.units;
+
+import java.util.concurrent.TimeUnit;
+import model.items.IEquipableItem;
+import model.items.attack.magic.AnimaBook;
+import model.items.attack.magic.DarkBook;
+import model.items.attack.magic.LightBook;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import model.items.attack.normal.Sword;
+import model.items.heal.Staff;
+import model.map.Field;
+import model.map.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of an attack between two units, and of its forecast, for every pair of items.
+ * <p>
+ * Both units stand on adjacent cells and every item reaches from 1 to 3 cells, so all the
+ * pairings go through the whole attack, including the counterattack. The hit points are restored
+ * after every attack, so no unit dies during the measurements.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CombatBenchmark {
+
+  private static final int HIT_POINTS = 1000;
+
+  @Param({"Hand", "Axe", "Bow", "Spear", "Sword", "Anima", "Dark", "Light", "Staff"})
+  private String attackerItem;
+
+  @Param({"Hand", "Axe", "Bow", "Spear", "Sword", "Anima", "Dark", "Light", "Staff"})
+  private String defenderItem;
+
+  private IUnit attacker;
+  private IUnit defender;
+  private final CombatForecast forecast = new CombatForecast();
+
+  @Setup
+  public void setUp() {
+    Field map = new Field();
+    map.addCells(true, new Location(0, 0), new Location(0, 1));
+    attacker = armedUnit(attackerItem, map.getCell(0, 0));
+    defender = armedUnit(defenderItem, map.getCell(0, 1));
+  }
+
+  /**
+   * Creates a unit able to equip the given item, standing on the given cell.
+   * <p>
+   * A unit armed with its hand is a fighter without items.
+   */
+  private static IUnit armedUnit(final String itemName, final Location location) {
+    IEquipableItem item;
+    AbstractUnit unit;
+    switch (itemName) {
+      case "Hand":
+        unit = new Fighter(HIT_POINTS, 1, location);
+        location.setUnit(unit);
+        return unit;
+      case "Axe":
+        item = new Axe(itemName, 40, 1, 3);
+        unit = new Fighter(HIT_POINTS, 1, location, item);
+        break;
+      case "Bow":
+        item = new Bow(itemName, 25, 1, 3);
+        unit = new Archer(HIT_POINTS, 1, location, item);
+        break;
+      case "Spear":
+        item = new Spear(itemName, 30, 1, 3);
+        unit = new Hero(HIT_POINTS, 1, location, item);
+        break;
+      case "Sword":
+        item = new Sword(itemName, 50, 1, 3);
+        unit = new SwordMaster(HIT_POINTS, 1, location, item);
+        break;
+      case "Anima":
+        item = new AnimaBook(itemName, 40, 1, 3);
+        unit = new Sorcerer(HIT_POINTS, 1, location, item);
+        break;
+      case "Dark":
+        item = new DarkBook(itemName, 50, 1, 3);
+        unit = new Sorcerer(HIT_POINTS, 1, location, item);
+        break;
+      case "Light":
+        item = new LightBook(itemName, 50, 1, 3);
+        unit = new Sorcerer(HIT_POINTS, 1, location, item);
+        break;
+      case "Staff":
+        item = new Staff(itemName, 40, 1, 3);
+        unit = new Cleric(HIT_POINTS, 1, location, item);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown item " + itemName);
+    }
+    item.equipItem(unit);
+    location.setUnit(unit);
+    return unit;
+  }
+
+  @Benchmark
+  public double attackEnemy() {
+    attacker.attackEnemy(defender);
+    double hitPoints = defender.getCurrentHitPoints();
+    attacker.takeDamage(attacker.getCurrentHitPoints() - attacker.getMaxHitPoints());
+    defender.takeDamage(defender.getCurrentHitPoints() - defender.getMaxHitPoints());
+    return hitPoints;
+  }
+
+  @Benchmark
+  public double forecast() {
+    return forecast.forecast(attacker, defender).getDefenderHitPoints();
+  }
+}
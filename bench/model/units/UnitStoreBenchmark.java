@@ -0,0 +1,94 @@
+package model.units;
+
+import java.util.concurrent.TimeUnit;
+import model.map.InvalidLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the scans over many units, through the unit objects and through a store.
+ * <p>
+ * The units are created interleaved with other objects, so the objects aren't next to each other
+ * on the heap, as happens in a long simulation.
+ *
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class UnitStoreBenchmark {
+
+  @Param({"1000", "100000"})
+  private int units;
+
+  private IUnit[] objects;
+  private UnitStore store;
+  private int[] slots;
+  private Object[] padding;
+
+  @Setup
+  public void setUp() {
+    objects = new IUnit[units];
+    padding = new Object[units];
+    store = new UnitStore(null, units);
+    slots = new int[units];
+    for (int i = 0; i < units; i++) {
+      objects[i] = new Fighter(50, 1, new InvalidLocation());
+      padding[i] = new long[16];
+      objects[i].setMove(true);
+      if (i % 7 == 0) {
+        objects[i].setLifeDead();
+      }
+    }
+    for (int i = 0; i < units; i++) {
+      IUnit unit = new Fighter(50, 1, new InvalidLocation());
+      padding[i] = new long[16];
+      store.add(unit);
+      unit.setMove(true);
+      if (i % 7 == 0) {
+        unit.setLifeDead();
+      }
+    }
+  }
+
+  @Benchmark
+  public int livingObjects() {
+    int count = 0;
+    for (IUnit unit : objects) {
+      if (unit.getOwner() == null && unit.getLive()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int livingInStore() {
+    return store.livingUnits(UnitStore.NONE, slots);
+  }
+
+  @Benchmark
+  public void resetObjects() {
+    for (IUnit unit : objects) {
+      unit.setMove(false);
+    }
+  }
+
+  @Benchmark
+  public void resetInStore() {
+    store.resetMoves(UnitStore.NONE);
+  }
+}
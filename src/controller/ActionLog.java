@@ -0,0 +1,239 @@
+package controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Registro de solo agregar con las acciones que cambian el estado de una partida, para poder
+ * repetirla exactamente con ActionReplay
+ * Cada accion es un registro de tamaño fijo de RECORD_INTS enteros: el codigo de la accion, el
+ * indice del jugador que la hace y hasta cuatro argumentos. Las unidades se guardan como
+ * unitRef (indice del jugador y posicion en su lista de unidades) y los items como su posicion
+ * en el inventario, asi que el registro no guarda referencias a objetos
+ * Los registros se escriben en un buffer circular reservado al crear el registro, y se vacian en
+ * bloques cuando el buffer se llena o con flush, a la memoria o a un canal (por ejemplo un
+ * archivo), asi que agregar una accion no crea objetos
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public final class ActionLog {
+
+    /**
+     * Cantidad de enteros de cada registro
+     */
+    public static final int RECORD_INTS = 6;
+
+    /**
+     * Tamaño en bytes de un registro en un canal
+     */
+    public static final int RECORD_BYTES = RECORD_INTS * 4;
+
+    /**
+     * Inicio del registro: cantidad de jugadores, tamaño del mapa y estado del generador
+     */
+    public static final int START = 0;
+    public static final int INIT_GAME = 1;
+    public static final int INIT_ENDLESS_GAME = 2;
+    public static final int END_TURN = 3;
+    public static final int END_ROUND = 4;
+    public static final int REMOVE_TACTICIAN = 5;
+    public static final int SET_ACTUAL_PLAYER = 6;
+    public static final int SELECT_UNIT_IN = 7;
+    public static final int SET_ACTUAL_UNIT = 8;
+    public static final int EQUIP_ITEM = 9;
+    public static final int USE_ITEM_ON = 10;
+    public static final int SELECT_ITEM = 11;
+    public static final int GIVE_ITEM_TO = 12;
+    public static final int RESET_MOVEMENT = 13;
+    public static final int REMOVE_UNITS = 14;
+    public static final int SET_UNITS = 15;
+    public static final int CREATE_UNIT = 16;
+    public static final int SELECT_PLAYER_UNIT = 17;
+    public static final int SELECT_PLAYER_ITEM = 18;
+    public static final int ATTACK_UNIT = 19;
+    public static final int EQUIP_PLAYER_ITEM = 20;
+    public static final int SET_ITEM = 21;
+    public static final int TRADE_ITEM = 22;
+    public static final int GIFT_ITEM = 23;
+    public static final int RECEIVE_ITEM = 24;
+    public static final int MOVE_UNIT = 25;
+    public static final int MOVE_UNIT_ALONG = 26;
+    public static final int SET_LOCATION_UNIT = 27;
+
+    private final int[] ring;
+    private final int capacity;
+    private int head;
+    private int size;
+    private final WritableByteChannel channel;
+    private final ByteBuffer bytes;
+    private int[] history = new int[0];
+    private long flushed;
+
+    /**
+     * Crea un registro que guarda las acciones en memoria, en bloques de 1024 acciones
+     */
+
+    public ActionLog() {
+
+        this(1024, null);
+    }
+
+    /**
+     * Crea un registro que escribe las acciones en un canal
+     * @param batchSize cantidad de acciones del buffer, que se escriben juntas
+     * @param channel canal donde se escriben las acciones, o null para guardarlas en memoria
+     */
+
+    public ActionLog(int batchSize, WritableByteChannel channel) {
+
+        if (batchSize <= 0) {
+
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.capacity = batchSize;
+        this.ring = new int[batchSize * RECORD_INTS];
+        this.channel = channel;
+        this.bytes = channel == null ? null : ByteBuffer.allocateDirect(batchSize * RECORD_BYTES);
+    }
+
+    /**
+     * Agrega una accion al registro, vaciando el buffer si esta lleno
+     */
+
+    void append(int action, int player, int a, int b, int c, int d) {
+
+        if (size == capacity) {
+
+            flush();
+        }
+        int i = ((head + size) % capacity) * RECORD_INTS;
+        ring[i] = action;
+        ring[i + 1] = player;
+        ring[i + 2] = a;
+        ring[i + 3] = b;
+        ring[i + 4] = c;
+        ring[i + 5] = d;
+        size++;
+    }
+
+    /**
+     * Escribe las acciones del buffer en memoria o en el canal del registro
+     * @throws UncheckedIOException si no se pudo escribir en el canal
+     */
+
+    public void flush() {
+
+        if (channel == null) {
+
+            int needed = (int) (flushed + size) * RECORD_INTS;
+            if (history.length < needed) {
+
+                history = Arrays.copyOf(history, Math.max(needed, history.length * 2));
+            }
+        } else {
+
+            bytes.clear();
+        }
+        for (int n = 0; n < size; n++) {
+
+            int i = ((head + n) % capacity) * RECORD_INTS;
+            if (channel == null) {
+
+                System.arraycopy(ring, i, history, (int) (flushed + n) * RECORD_INTS, RECORD_INTS);
+            } else {
+
+                for (int j = 0; j < RECORD_INTS; j++) {
+
+                    bytes.putInt(ring[i + j]);
+                }
+            }
+        }
+        if (channel != null) {
+
+            bytes.flip();
+            try {
+
+                while (bytes.hasRemaining()) {
+
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+
+                throw new UncheckedIOException(e);
+            }
+        }
+        flushed += size;
+        head = (head + size) % capacity;
+        size = 0;
+    }
+
+    /**
+     * @return la cantidad de acciones agregadas al registro
+     */
+
+    public long getActionCount() {
+
+        return flushed + size;
+    }
+
+    /**
+     * Copia una de las acciones guardadas en memoria
+     * @param index numero de la accion, entre 0 y getActionCount() - 1
+     * @param record arreglo de al menos RECORD_INTS enteros donde se copia la accion
+     * @throws IllegalStateException si el registro escribe sus acciones en un canal
+     */
+
+    public void getAction(long index, int[] record) {
+
+        if (channel != null) {
+
+            throw new IllegalStateException("The actions were written to a channel");
+        }
+        if (index < 0 || index >= flushed + size) {
+
+            throw new IndexOutOfBoundsException("No action " + index);
+        }
+        if (index < flushed) {
+
+            System.arraycopy(history, (int) index * RECORD_INTS, record, 0, RECORD_INTS);
+        } else {
+
+            int i = ((head + (int) (index - flushed)) % capacity) * RECORD_INTS;
+            System.arraycopy(ring, i, record, 0, RECORD_INTS);
+        }
+    }
+
+    /**
+     * Lee las acciones que un registro escribio en un archivo
+     * @param file archivo con las acciones
+     * @return un registro en memoria con las acciones del archivo
+     * @throws IOException si no se pudo leer el archivo o su tamaño no es un numero entero de
+     * acciones
+     */
+
+    public static ActionLog read(Path file) throws IOException {
+
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long length = input.size();
+            if (length % RECORD_BYTES != 0 || length / RECORD_BYTES * RECORD_INTS > Integer.MAX_VALUE) {
+
+                throw new IOException("Not an action log: " + file);
+            }
+            ByteBuffer buffer = input.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            ActionLog log = new ActionLog();
+            int count = (int) (length / RECORD_BYTES);
+            log.history = new int[count * RECORD_INTS];
+            buffer.asIntBuffer().get(log.history);
+            log.flushed = count;
+            return log;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package controller;
+
+import model.items.IEquipableItem;
+import model.map.Field;
+import model.units.IUnit;
+
+/**
+ * Motor que repite las acciones de un ActionLog sobre un controlador
+ * Cada accion se vuelve a hacer con la misma llamada publica del controlador o del jugador que la
+ * hizo, asi que todo lo que esas llamadas hacen por si mismas, como los numeros aleatorios del
+ * orden de los turnos, vuelve a pasar igual. Por eso el controlador debe estar en el mismo estado
+ * que el controlador registrado cuando empezo el registro, por ejemplo creado con los mismos
+ * parametros y la misma semilla
+ * Las acciones sobre unidades o items que no se pudieron identificar al registrarlas se omiten
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public final class ActionReplay {
+
+    private ActionReplay() {
+    }
+
+    /**
+     * Repite todas las acciones de un registro
+     * @param log registro con las acciones, guardadas en memoria
+     * @param controller controlador donde se repiten las acciones
+     * @throws IllegalArgumentException si el controlador no tiene la cantidad de jugadores, el
+     * tamaño de mapa o el estado del generador con que empezo el registro, o si el registro tiene
+     * una accion desconocida
+     */
+
+    public static void replay(ActionLog log, GameController controller) {
+
+        int[] record = new int[ActionLog.RECORD_INTS];
+        for (long i = 0; i < log.getActionCount(); i++) {
+
+            log.getAction(i, record);
+            apply(record, controller);
+        }
+    }
+
+    /**
+     * Repite una accion
+     * @param record accion, como la guarda ActionLog
+     * @param controller controlador donde se repite la accion
+     */
+
+    private static void apply(int[] record, GameController controller) {
+
+        int a = record[2], b = record[3];
+        Tactician player = record[1] < 0 ? null : controller.getSeat(record[1]);
+        switch (record[0]) {
+
+            case ActionLog.START:
+                long state = (long) record[4] << 32 | (record[5] & 0xFFFFFFFFL);
+                if (a != controller.getNumberOfPlayers() || b != controller.getMapSize()
+                        || state != controller.gameRandom().getState()) {
+
+                    throw new IllegalArgumentException("The controller isn't in the state the log started from");
+                }
+                break;
+            case ActionLog.INIT_GAME:
+                controller.initGame(a);
+                break;
+            case ActionLog.INIT_ENDLESS_GAME:
+                controller.initEndlessGame();
+                break;
+            case ActionLog.END_TURN:
+                controller.endTurn();
+                break;
+            case ActionLog.END_ROUND:
+                controller.endRound();
+                break;
+            case ActionLog.REMOVE_TACTICIAN:
+                if (player != null) {
+
+                    controller.removeTactician(player.getName());
+                }
+                break;
+            case ActionLog.SET_ACTUAL_PLAYER:
+                controller.setActualPlayer(player);
+                break;
+            case ActionLog.SELECT_UNIT_IN:
+                controller.selectUnitIn(a, b);
+                break;
+            case ActionLog.SET_ACTUAL_UNIT:
+                controller.setActualUnit(controller.unitAt(a));
+                break;
+            case ActionLog.EQUIP_ITEM:
+                controller.equipItem(a);
+                break;
+            case ActionLog.USE_ITEM_ON:
+                controller.useItemOn(a, b);
+                break;
+            case ActionLog.SELECT_ITEM:
+                controller.selectItem(a);
+                break;
+            case ActionLog.GIVE_ITEM_TO:
+                controller.giveItemTo(a, b);
+                break;
+            case ActionLog.RESET_MOVEMENT:
+                controller.resetMovement(player);
+                break;
+            case ActionLog.REMOVE_UNITS:
+                controller.removeIUnit(player);
+                break;
+            case ActionLog.SET_UNITS:
+                controller.setUnits(player);
+                break;
+            case ActionLog.CREATE_UNIT:
+                createUnit(controller, player, a);
+                break;
+            default:
+                applyPlayerAction(record, controller, player);
+        }
+    }
+
+    /**
+     * Repite una accion hecha por un jugador
+     */
+
+    private static void applyPlayerAction(int[] record, GameController controller, Tactician player) {
+
+        int a = record[2], b = record[3], c = record[4];
+        IUnit unit = controller.unitAt(a);
+        IUnit actual = player == null ? null : player.getActualUnit();
+        switch (record[0]) {
+
+            case ActionLog.SELECT_PLAYER_UNIT:
+                if (unit != null) {
+
+                    player.setActualUnit(unit);
+                }
+                break;
+            case ActionLog.SELECT_PLAYER_ITEM:
+                if (itemIn(actual, b) != null) {
+
+                    player.setActualItem(itemIn(actual, b));
+                }
+                break;
+            case ActionLog.ATTACK_UNIT:
+                if (unit != null) {
+
+                    player.attackUnit(unit);
+                }
+                break;
+            case ActionLog.EQUIP_PLAYER_ITEM:
+                if (itemIn(actual, b) != null) {
+
+                    player.equipItem(itemIn(actual, b));
+                }
+                break;
+            case ActionLog.SET_ITEM:
+                if (itemIn(actual, b) != null) {
+
+                    player.setItem(itemIn(actual, b));
+                }
+                break;
+            case ActionLog.TRADE_ITEM:
+                if (itemIn(unit, b) != null && itemIn(actual, c) != null) {
+
+                    player.tradeItem(unit, itemIn(unit, b), itemIn(actual, c));
+                }
+                break;
+            case ActionLog.GIFT_ITEM:
+                if (unit != null && itemIn(actual, b) != null) {
+
+                    player.giftItem(unit, itemIn(actual, b));
+                }
+                break;
+            case ActionLog.RECEIVE_ITEM:
+                if (itemIn(unit, b) != null) {
+
+                    player.receiveItem(unit, itemIn(unit, b));
+                }
+                break;
+            case ActionLog.MOVE_UNIT:
+                player.moveUnit(a, b);
+                break;
+            case ActionLog.MOVE_UNIT_ALONG:
+                if (actual != null) {
+
+                    // cualquier camino mas corto a la misma celda cabe en el movimiento de la unidad
+                    Field map = controller.getGameMap();
+                    player.moveUnitAlong(map.findPath(actual.getLocation(), map.getCell(a, b)));
+                }
+                break;
+            case ActionLog.SET_LOCATION_UNIT:
+                player.setLocationUnit(a, b);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown action " + record[0]);
+        }
+    }
+
+    /**
+     * Vuelve a crear una unidad con la misma llamada del controlador
+     * @param type tipo de la unidad, en el orden de GameSnapshot.unitTypeOf
+     */
+
+    private static void createUnit(GameController controller, Tactician player, int type) {
+
+        switch (type) {
+
+            case 0:
+                controller.getAlpaca(player);
+                break;
+            case 1:
+                controller.getArcher(player);
+                break;
+            case 2:
+                controller.getCleric(player);
+                break;
+            case 3:
+                controller.getFighter(player);
+                break;
+            case 4:
+                controller.getHero(player);
+                break;
+            case 5:
+                controller.getSorcerer(player);
+                break;
+            case 6:
+                controller.getSwordMaster(player);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown unit type " + type);
+        }
+    }
+
+    /**
+     * @param unit unidad, o null
+     * @param slot posicion del item como la guarda el registro
+     * @return el item de la unidad en esa posicion, su mano si es -2, o null si no existe
+     */
+
+    private static IEquipableItem itemIn(IUnit unit, int slot) {
+
+        if (unit == null || slot < -2 || slot == -1 || slot >= unit.getItems().size()) {
+
+            return null;
+        }
+        return slot == -2 ? unit.getHand() : unit.getItems().get(slot);
+    }
+}
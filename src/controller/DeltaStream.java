@@ -0,0 +1,268 @@
+package controller;
+
+import controller.changes.GameListener;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import model.items.IEquipableItem;
+import model.map.Location;
+import model.units.IUnit;
+
+/**
+ * Cambios de una partida desde la ultima vez que se leyeron, para enviarlos a una interfaz o por
+ * la red sin volver a leer todo el estado despues de cada accion
+ * Se crea con GameController.getDeltaStream, que lo agrega como listener de los cambios de cada
+ * unidad de la partida, y el controlador le avisa cuando un jugador sale de la partida. Cada
+ * cambio se guarda como un registro de pocos bytes: un codigo seguido de enteros, con las unidades
+ * como unitRef (indice del jugador y posicion en su lista de unidades, igual que las entradas de
+ * GameSnapshot), las celdas como su indice en el mapa y los items como su indice en los registros
+ * del controlador, o -1 si es la mano de la unidad. Asi un cliente puede empezar con una foto de
+ * la partida y aplicar los cambios de cada accion, que ocupan bytes segun la cantidad de cambios
+ * y no segun el tamaño del mapa
+ * Los registros son:
+ * UNIT_MOVED unidad, celda anterior, celda nueva
+ * HIT_POINTS unidad, vida actual como double
+ * ITEM_MOVED item, unidad que lo tenia, unidad que lo recibe (-1 si no hay)
+ * EQUIPPED unidad, item equipado
+ * UNIT_DIED unidad
+ * PLAYER_REMOVED jugador
+ * TURN jugador con el turno, ronda
+ * RESYNC sin datos: el estado cambio entero, por ejemplo al empezar una partida o volver a una
+ * foto, y el cliente debe leer una foto nueva
+ * Los cambios de unidades que no estan en la lista de ningun jugador no se guardan
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public final class DeltaStream implements GameListener {
+
+    public static final byte UNIT_MOVED = 1;
+    public static final byte HIT_POINTS = 2;
+    public static final byte ITEM_MOVED = 3;
+    public static final byte EQUIPPED = 4;
+    public static final byte UNIT_DIED = 5;
+    public static final byte PLAYER_REMOVED = 6;
+    public static final byte TURN = 7;
+    public static final byte RESYNC = 8;
+
+    private final GameController controller;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    private IEquipableItem pendingItem;
+    private int pendingFrom;
+    private int pendingTo;
+    private Tactician turnOwner;
+    private int round;
+    private boolean muted;
+
+    /**
+     * Crea los cambios de una partida
+     * @param controller controlador de la partida
+     */
+
+    DeltaStream(GameController controller) {
+
+        this.controller = controller;
+        this.turnOwner = controller.getTurnOwner();
+        this.round = controller.getRoundNumber();
+    }
+
+    /**
+     * @return la referencia de una unidad de la partida, o -1 si los cambios no se guardan
+     */
+
+    private int refOf(IUnit unit) {
+
+        return muted ? -1 : controller.unitRef(unit);
+    }
+
+    @Override
+    public void onUnitMoved(IUnit unit, Location from, Location to) {
+
+        int ref = refOf(unit);
+        if (ref >= 0) {
+
+            reserve(13).put(UNIT_MOVED).putInt(ref).putInt(cellOf(from)).putInt(cellOf(to));
+        }
+    }
+
+    @Override
+    public void onHitPointsChanged(IUnit unit, double oldHitPoints, double hitPoints) {
+
+        int ref = refOf(unit);
+        if (ref >= 0) {
+
+            reserve(13).put(HIT_POINTS).putInt(ref).putDouble(hitPoints);
+        }
+    }
+
+    @Override
+    public void onItemAdded(IUnit unit, IEquipableItem item) {
+
+        int ref = refOf(unit);
+        if (ref >= 0) {
+
+            itemMoved(item, -1, ref);
+        }
+    }
+
+    @Override
+    public void onItemRemoved(IUnit unit, IEquipableItem item) {
+
+        int ref = refOf(unit);
+        if (ref >= 0) {
+
+            itemMoved(item, ref, -1);
+        }
+    }
+
+    @Override
+    public void onEquippedItemChanged(IUnit unit, IEquipableItem item) {
+
+        int ref = refOf(unit);
+        if (ref >= 0) {
+
+            reserve(9).put(EQUIPPED).putInt(ref)
+                    .putInt(item == null || item == unit.getHand() ? -1 : controller.itemId(item));
+        }
+    }
+
+    @Override
+    public void onLifeChanged(IUnit unit, boolean alive) {
+
+        int ref = refOf(unit);
+        if (ref >= 0 && !alive) {
+
+            reserve(5).put(UNIT_DIED).putInt(ref);
+        }
+    }
+
+    /**
+     * Guarda que un jugador salio de la partida
+     * @param seat indice del jugador
+     */
+
+    void playerRemoved(int seat) {
+
+        if (!muted) {
+
+            reserve(5).put(PLAYER_REMOVED).putInt(seat);
+        }
+    }
+
+    /**
+     * Descarta los cambios guardados y deja de guardar cambios hasta resync, mientras el estado
+     * cambia entero
+     */
+
+    void mute() {
+
+        muted = true;
+    }
+
+    /**
+     * Descarta los cambios guardados y guarda solo un RESYNC
+     */
+
+    void resync() {
+
+        muted = false;
+        buffer.clear();
+        pendingItem = null;
+        reserve(1).put(RESYNC);
+        turnOwner = controller.getTurnOwner();
+        round = controller.getRoundNumber();
+    }
+
+    /**
+     * @return la cantidad de bytes de los cambios que no se han leido, sin contar un posible
+     * cambio de turno
+     */
+
+    public int getPendingBytes() {
+
+        return buffer.position() + (pendingItem == null ? 0 : 13);
+    }
+
+    /**
+     * Copia en un buffer los cambios desde la ultima lectura, terminando con TURN si cambio el
+     * turno o la ronda, y los descarta
+     * @param target buffer donde se copian los cambios, desde su posicion
+     * @return la cantidad de bytes copiados
+     * @throws BufferOverflowException si el buffer no tiene espacio para los cambios, que se
+     * mantienen para la siguiente lectura
+     */
+
+    public int drainTo(ByteBuffer target) {
+
+        flushItem();
+        boolean turn = controller.getTurnOwner() != turnOwner || controller.getRoundNumber() != round;
+        int size = buffer.position() + (turn ? 9 : 0);
+        if (target.remaining() < size) {
+
+            throw new BufferOverflowException();
+        }
+        if (turn) {
+
+            turnOwner = controller.getTurnOwner();
+            round = controller.getRoundNumber();
+            reserve(9).put(TURN).putInt(turnOwner == null ? -1 : controller.seatOf(turnOwner))
+                    .putInt(round);
+        }
+        buffer.flip();
+        target.put(buffer);
+        buffer.clear();
+        return size;
+    }
+
+    /**
+     * Junta la salida de un item de un inventario con su llegada a otro, en cualquier orden, en un
+     * solo ITEM_MOVED
+     */
+
+    private void itemMoved(IEquipableItem item, int from, int to) {
+
+        if (pendingItem == item && (pendingFrom < 0) != (from < 0)
+                && Math.max(pendingFrom, pendingTo) != Math.max(from, to)) {
+
+            pendingFrom = Math.max(pendingFrom, from);
+            pendingTo = Math.max(pendingTo, to);
+            flushItem();
+            return;
+        }
+        flushItem();
+        pendingItem = item;
+        pendingFrom = from;
+        pendingTo = to;
+    }
+
+    private void flushItem() {
+
+        if (pendingItem != null) {
+
+            reserve(13).put(ITEM_MOVED).putInt(controller.itemId(pendingItem))
+                    .putInt(pendingFrom).putInt(pendingTo);
+            pendingItem = null;
+        }
+    }
+
+    private int cellOf(Location location) {
+
+        return controller.getGameMap().getCellIndex(location);
+    }
+
+    /**
+     * @return el buffer de los cambios, con espacio para al menos la cantidad de bytes pedida
+     */
+
+    private ByteBuffer reserve(int bytes) {
+
+        if (buffer.remaining() < bytes) {
+
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+                    buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        return buffer;
+    }
+}
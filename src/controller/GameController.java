@@ -1,13 +1,24 @@
 package controller;
 
+import controller.changes.ActualUnitChange;
+import controller.changes.GameEvents;
+import controller.changes.HeroDie;
+import controller.changes.UnitDie;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import factory.unit.*;
 import model.items.IEquipableItem;
 import model.map.Field;
+import model.map.FlowField;
+import model.map.InvalidLocation;
 import model.map.Location;
 import model.units.Alpaca;
 import model.units.IUnit;
+import model.units.UnitStore;
 import java.util.Random;
 import factory.*;
 
@@ -33,6 +44,20 @@ public class GameController {
   private int maxNumberOfPlayers;
   private MapFactory mapFactory;
   private IUnit actualUnit;
+  private final Map<Tactician, FlowField> enemyFields = new IdentityHashMap<>();
+  private final List<Tactician> seats = new ArrayList<>();
+  private final List<IUnit> units = new ArrayList<>();
+  private final Map<IUnit, Integer> unitIds = new IdentityHashMap<>();
+  private final List<IEquipableItem> items = new ArrayList<>();
+  private final Map<IEquipableItem, Integer> itemIds = new IdentityHashMap<>();
+  private final List<IEquipableItem> restoredItems = new ArrayList<>();
+  private static final Location OFF_MAP = new InvalidLocation();
+  private ActionLog actionLog;
+  private int nested;
+  private DeltaStream deltas;
+  private final Map<IUnit, Boolean> watched = new IdentityHashMap<>();
+  private final GameEvents events = newEvents();
+  private UnitStore unitStore;
 
 
   /**
@@ -47,13 +72,96 @@ public class GameController {
     this.mapSize = mapSize;
     this.actualRound = 1;
     this.maxRounds = -1;
-    this.random = new Random();
+    this.random = new GameRandom();
     this.maxNumberOfPlayers = numberOfPlayers;
     this.mapFactory = new MapFactory();
     this.gameMap = mapFactory.createMap(mapSize);
 
   }
 
+  /**
+   * Creates the controller for a new game where every random decision comes from the given
+   * generator, so two controllers created with equal seeds play the same game.
+   * <p>
+   * Snapshots need to read the state of the generator, which only {@link GameRandom} allows, so
+   * any other generator is replaced the first time a snapshot is taken by a {@link GameRandom}
+   * seeded from it.
+   *
+   * @param numberOfPlayers the number of players for this game
+   * @param mapSize         the dimensions of the map, for simplicity, all maps are squares
+   * @param random          the generator used for the map and the turns
+   */
+  public GameController(int numberOfPlayers, int mapSize, Random random) {
+
+    this.numberOfPlayers = numberOfPlayers;
+    this.mapSize = mapSize;
+    this.actualRound = 1;
+    this.maxRounds = -1;
+    this.random = random;
+    this.maxNumberOfPlayers = numberOfPlayers;
+    this.mapFactory = new MapFactory();
+    this.gameMap = mapFactory.createConnectedMap(mapSize, random, new Field());
+  }
+
+  /**
+   * Creates the controller of a game loaded from a file, on an existing map.
+   *
+   * @param numberOfPlayers    the number of players still in the game
+   * @param maxNumberOfPlayers the number of players the game started with
+   * @param mapSize            the dimensions the map was created with
+   * @param map                the map of the game
+   * @param random             the generator used for the turns
+   */
+  GameController(int numberOfPlayers, int maxNumberOfPlayers, int mapSize, Field map,
+      Random random) {
+
+    this.numberOfPlayers = numberOfPlayers;
+    this.mapSize = mapSize;
+    this.actualRound = 1;
+    this.maxRounds = -1;
+    this.random = random;
+    this.maxNumberOfPlayers = maxNumberOfPlayers;
+    this.mapFactory = new MapFactory();
+    this.gameMap = map;
+  }
+
+  /**
+   * Saves the whole game to a file: the map, the players, their units and items, and the state of
+   * the turns, in the binary format of {@link MatchFile}.
+   *
+   * @param file the file, which is replaced if it exists
+   * @throws IOException if the file can't be written
+   */
+  public void save(Path file) throws IOException {
+
+    MatchFile.save(this, file);
+  }
+
+  /**
+   * Loads a game saved with {@link #save(Path)}.
+   *
+   * @param file the file of the game
+   * @return a new controller where the game continues from the point where it was saved
+   * @throws IOException if the file can't be read or doesn't hold a valid game
+   */
+  public static GameController load(Path file) throws IOException {
+
+    return MatchFile.load(file);
+  }
+
+  /**
+   * Copies the whole game in memory, as if it was saved and loaded again.
+   * <p>
+   * The copy has its own map, players, units and items, so it can be played apart from this game,
+   * for example in another thread.
+   *
+   * @return a new controller where the game continues from the current point
+   */
+  public GameController copy() {
+
+    return MatchFile.copy(this);
+  }
+
   /**
    * Crea la lista inicial de jugadores
    *
@@ -143,6 +251,7 @@ public class GameController {
 
   public void setActualPlayer(Tactician player) {
 
+    record(ActionLog.SET_ACTUAL_PLAYER, player, 0, 0);
     this.actualPlayer = player;
   }
 
@@ -151,19 +260,27 @@ public class GameController {
    */
   public void endTurn() {
 
-    List<Tactician> list = this.listOfPlayers;
-    int tamano = list.size();
-    this.resetMovement(actualPlayer);
-    if (this.getTacticians().size() == 1) {
+    record(ActionLog.END_TURN, actualPlayer, 0, 0);
+    nested++;
+    try {
 
-      this.listOfWinners = this.getTacticians();
-    } else if (list.get(tamano - 1).getName() == this.actualPlayer.getName()) {
+      List<Tactician> list = this.listOfPlayers;
+      int tamano = list.size();
+      this.resetMovement(actualPlayer);
+      if (this.getTacticians().size() == 1) {
 
-      endRound();
-    } else {
+        this.listOfWinners = this.getTacticians();
+      } else if (list.get(tamano - 1).getName() == this.actualPlayer.getName()) {
+
+        endRound();
+      } else {
 
-      int i = list.indexOf(this.actualPlayer);
-      actualPlayer = list.get(i + 1);
+        int i = list.indexOf(this.actualPlayer);
+        actualPlayer = list.get(i + 1);
+      }
+    } finally {
+
+      nested--;
     }
   }
 
@@ -173,6 +290,7 @@ public class GameController {
 
   public void endRound() {
 
+    record(ActionLog.END_ROUND, actualPlayer, 0, 0);
     if (this.getTacticians().size() == 1) {
 
       this.listOfWinners = this.getTacticians();
@@ -189,28 +307,47 @@ public class GameController {
 
   /**
    * Removes a tactician and all of it's units from the game.
+   * <p>
+   * If the removed tactician was playing its turn, the turn goes to the next tactician, or the
+   * round ends when it was the last one.
    *
    * @param tactician the player to be removed
    */
   public void removeTactician(String tactician) {
 
-    for (int i = 0; i < this.getTacticians().size(); i++) {
+    record(ActionLog.REMOVE_TACTICIAN, seatNamed(tactician), 0, 0);
+    nested++;
+    try {
 
-      if (this.getTacticians().get(i).getName().equals(tactician)) {
+      for (int i = 0; i < this.getTacticians().size(); i++) {
 
-        if ((this.getTacticians().size() >= 2) && (this.actualPlayer == this.getTacticians().get(i))) {
-          removeIUnit(actualPlayer);
-          this.actualPlayer = this.getTacticians().get(i + 1);
-        }
+        Tactician player = this.getTacticians().get(i);
+        if (player.getName().equals(tactician)) {
 
-        this.listOfPlayers.remove(i);
-        this.numberOfPlayers--;
+          if (deltas != null) {
 
+            deltas.playerRemoved(seatOf(player));
+          }
+          removeIUnit(player);
+          this.listOfPlayers.remove(i);
+          this.numberOfPlayers--;
+          if (player == this.actualPlayer && i < this.getTacticians().size()) {
+
+            this.actualPlayer = this.getTacticians().get(i);
+          } else if (player == this.actualPlayer && this.getTacticians().size() > 0) {
+
+            endRound();
+          }
+          break;
+        }
       }
       if (this.getTacticians().size() == 1) {
 
         this.listOfWinners = this.getTacticians();
       }
+    } finally {
+
+      nested--;
     }
   }
   /**
@@ -220,18 +357,27 @@ public class GameController {
    */
   public void initGame(final int maxTurns) {
 
-    this.listOfWinners = null;
-    this.listOfPlayers = randomList(maxNumberOfPlayers, addPlayers(numberOfPlayers), random);
-    this.maxRounds = maxTurns;
-    this.actualRound = 1;
-    this.actualPlayer = this.listOfPlayers.get(0);
+    record(ActionLog.INIT_GAME, -1, maxTurns, 0);
+    nested++;
+    try {
 
-    for (int i = 0; i < listOfPlayers.size(); i++) {
+      this.listOfWinners = null;
+      this.listOfPlayers = randomList(maxNumberOfPlayers, newSeats(numberOfPlayers), random);
+      this.maxRounds = maxTurns;
+      this.actualRound = 1;
+      this.actualPlayer = this.listOfPlayers.get(0);
+
+      for (int i = 0; i < listOfPlayers.size(); i++) {
 
-      Tactician player = listOfPlayers.get(i);
-      List<IUnit> list = setUnits(player);
-      player.setUnits(list);
+        Tactician player = listOfPlayers.get(i);
+        List<IUnit> list = setUnits(player);
+        player.setUnits(list);
 
+      }
+      resyncDeltas();
+    } finally {
+
+      nested--;
     }
   }
 
@@ -240,20 +386,727 @@ public class GameController {
    */
   public void initEndlessGame() {
 
-    this.listOfWinners = null;
-    this.listOfPlayers = randomList(maxNumberOfPlayers, addPlayers(maxNumberOfPlayers), random);
-    this.actualRound = 1;
-    this.actualPlayer = this.listOfPlayers.get(0);
-    this.maxRounds = -1;
+    record(ActionLog.INIT_ENDLESS_GAME, -1, 0, 0);
+    nested++;
+    try {
+
+      this.listOfWinners = null;
+      this.listOfPlayers = randomList(maxNumberOfPlayers, newSeats(maxNumberOfPlayers), random);
+      this.actualRound = 1;
+      this.actualPlayer = this.listOfPlayers.get(0);
+      this.maxRounds = -1;
+
+      for (int i = 0; i < listOfPlayers.size(); i++) {
+
+        Tactician player = listOfPlayers.get(i);
+        List<IUnit> list = setUnits(player);
+        player.setUnits(list);
+      }
+      resyncDeltas();
+    } finally {
+
+      nested--;
+    }
+  }
+
+  /**
+   * Creates the players of a new game and registers them for the snapshots, discarding the
+   * players, units and items of the previous game. The enemy distances of the previous players
+   * are detached from the map and the stream of changes stops listening to the previous units, so
+   * neither is kept up to date for a finished game.
+   *
+   * @param players the number of players
+   * @return the new players, in the order they were created
+   */
+  private List<Tactician> newSeats(int players) {
+
+    List<Tactician> list = addPlayers(players);
+    seats.clear();
+    seats.addAll(list);
+    units.clear();
+    unitIds.clear();
+    items.clear();
+    itemIds.clear();
+    for (FlowField campo : enemyFields.values()) {
+
+      campo.detach();
+    }
+    enemyFields.clear();
+    for (IUnit unidad : watched.keySet()) {
+
+      unidad.removeChangeListener(deltas);
+    }
+    watched.clear();
+    return list;
+  }
+
+  /**
+   * Takes a snapshot of the current state of the game.
+   * <p>
+   * The snapshot stores the turn order, the round, the state of the random generator and, for every
+   * unit in the lists of the players, its type, owner, hit points, cell, equipped item, inventory
+   * and flags. Players, units and items are stored by their index in registries of this
+   * controller that only grow during a game, so the snapshot stays valid while the game goes on.
+   * The selected units and items of the players aren't part of the snapshot.
+   *
+   * @return an immutable snapshot that can be given to {@link #restore(GameSnapshot)}
+   */
+  public GameSnapshot snapshot() {
+
+    if (listOfPlayers == null) {
+
+      throw new IllegalStateException("The game hasn't started");
+    }
+    register();
+    int unitCount = 0, itemCount = 0;
+    for (int s = 0; s < seats.size(); s++) {
+
+      List<IUnit> playerUnits = seats.get(s).getPlayerUnits();
+      unitCount += playerUnits.size();
+      for (int i = 0; i < playerUnits.size(); i++) {
+
+        itemCount += playerUnits.get(i).getItems().size();
+      }
+    }
+    int[] turnOrder = new int[listOfPlayers.size()];
+    for (int i = 0; i < turnOrder.length; i++) {
+
+      turnOrder[i] = seatOf(listOfPlayers.get(i));
+    }
+    int[] seatStart = new int[seats.size() + 1];
+    int[] unitId = new int[unitCount];
+    byte[] unitType = new byte[unitCount];
+    int[] owner = new int[unitCount];
+    double[] hitPoints = new double[unitCount];
+    int[] cell = new int[unitCount];
+    byte[] flags = new byte[unitCount];
+    int[] equipped = new int[unitCount];
+    int[] itemStart = new int[unitCount + 1];
+    int[] inventories = new int[itemCount];
+    int entry = 0, slot = 0;
+    for (int s = 0; s < seats.size(); s++) {
+
+      seatStart[s] = entry;
+      List<IUnit> playerUnits = seats.get(s).getPlayerUnits();
+      for (int i = 0; i < playerUnits.size(); i++, entry++) {
+
+        IUnit unit = playerUnits.get(i);
+        unitId[entry] = unitIds.get(unit);
+        unitType[entry] = (byte) GameSnapshot.unitTypeOf(unit.getClass());
+        owner[entry] = seatOf(unit.getOwner());
+        hitPoints[entry] = unit.getCurrentHitPoints();
+        cell[entry] = gameMap.getCellIndex(unit.getLocation());
+        flags[entry] = (byte) ((unit.getLive() ? GameSnapshot.ALIVE : 0)
+            | (unit.getMove() ? GameSnapshot.MOVED : 0)
+            | (cell[entry] >= 0 && unit.getLocation().getUnit() == unit ? GameSnapshot.ON_MAP : 0));
+        List<IEquipableItem> inventory = unit.getItems();
+        IEquipableItem equippedItem = unit.getEquippedItem();
+        equipped[entry] = equippedItem == unit.getHand() || equippedItem == null
+            ? GameSnapshot.HAND : -2 - itemIds.get(equippedItem);
+        itemStart[entry] = slot;
+        for (int j = 0; j < inventory.size(); j++) {
+
+          IEquipableItem item = inventory.get(j);
+          if (item == equippedItem) {
+
+            equipped[entry] = j;
+          }
+          inventories[slot++] = itemIds.get(item);
+        }
+      }
+    }
+    seatStart[seats.size()] = entry;
+    itemStart[unitCount] = slot;
+    return new GameSnapshot(actualRound, maxRounds, numberOfPlayers, seatOf(actualPlayer),
+        listOfWinners != null, gameRandom().getState(), turnOrder, seatStart, unitId, unitType,
+        owner, hitPoints, cell, flags, equipped, itemStart, inventories);
+  }
+
+  /**
+   * Brings the game back to the state of a snapshot taken by this controller.
+   * <p>
+   * Only the units whose state changed are moved on the map, and the units that joined the game
+   * after the snapshot was taken are taken off the map and out of the lists of the players.
+   * A snapshot of another controller can be restored as long as both games were set up in the same
+   * way, with their players, units and items created in the same order.
+   *
+   * @param snapshot a snapshot of this game
+   * @throws IllegalArgumentException if the snapshot doesn't match the players, units and items of
+   *                                  this game
+   */
+  public void restore(GameSnapshot snapshot) {
+
+    register();
+    check(snapshot);
+    if (deltas != null) {
+
+      deltas.mute();
+    }
+    int unitCount = snapshot.getUnitCount();
+    boolean[] kept = new boolean[units.size()];
+    for (int e = 0; e < unitCount; e++) {
+
+      kept[snapshot.getUnitId(e)] = true;
+    }
+    for (int id = 0; id < units.size(); id++) {
+
+      IUnit unit = units.get(id);
+      Location location = unit.getLocation();
+      if (location != null && location.getUnit() == unit && !kept[id]) {
+
+        location.removeUnit();
+      }
+    }
+    for (int e = 0; e < unitCount; e++) {
+
+      IUnit unit = units.get(snapshot.getUnitId(e));
+      Location location = unit.getLocation();
+      if (location != null && location.getUnit() == unit && (!snapshot.isOnMap(e)
+          || gameMap.getCellIndex(location) != snapshot.getCell(e))) {
+
+        location.removeUnit();
+      }
+    }
+    for (int s = 0; s < snapshot.getSeatCount(); s++) {
+
+      restoreUnitsOf(seats.get(s), snapshot, snapshot.getFirstUnitOf(s), snapshot.getEndUnitOf(s));
+    }
+    for (int e = 0; e < unitCount; e++) {
+
+      restoreUnit(units.get(snapshot.getUnitId(e)), snapshot, e);
+    }
+    List<Tactician> players = new ArrayList<>(snapshot.getTurnOrderSize());
+    for (int i = 0; i < snapshot.getTurnOrderSize(); i++) {
+
+      players.add(seats.get(snapshot.getPlayerAt(i)));
+    }
+    this.listOfPlayers = players;
+    this.actualPlayer = snapshot.getTurnOwner() < 0 ? null : seats.get(snapshot.getTurnOwner());
+    this.actualRound = snapshot.getRoundNumber();
+    this.maxRounds = snapshot.getMaxRounds();
+    this.numberOfPlayers = snapshot.getNumberOfPlayers();
+    this.listOfWinners = snapshot.isFinished() ? players : null;
+    gameRandom().setState(snapshot.getRandomState());
+    resyncDeltas();
+  }
+
+  /**
+   * Checks that every player, unit and item of a snapshot is registered in this controller, before
+   * the game is changed.
+   */
+  private void check(GameSnapshot snapshot) {
+
+    if (snapshot.getSeatCount() > seats.size()) {
+
+      throw new IllegalArgumentException("The snapshot has players that aren't in this game");
+    }
+    for (int e = 0; e < snapshot.getUnitCount(); e++) {
+
+      int id = snapshot.getUnitId(e);
+      if (id >= units.size()
+          || GameSnapshot.unitTypeOf(units.get(id).getClass()) != snapshot.getUnitType(e)) {
+
+        throw new IllegalArgumentException("The snapshot has units that aren't in this game");
+      }
+      for (int j = 0; j < snapshot.getItemCount(e); j++) {
+
+        if (snapshot.getItem(e, j) >= items.size()) {
+
+          throw new IllegalArgumentException("The snapshot has items that aren't in this game");
+        }
+      }
+      if (-2 - snapshot.getEquippedSlot(e) >= items.size()) {
+
+        throw new IllegalArgumentException("The snapshot has items that aren't in this game");
+      }
+    }
+  }
+
+  /**
+   * Gives a player the units it had in a snapshot, replacing its list only if it changed.
+   */
+  private void restoreUnitsOf(Tactician player, GameSnapshot snapshot, int first, int end) {
+
+    List<IUnit> playerUnits = player.getPlayerUnits();
+    boolean same = playerUnits.size() == end - first;
+    for (int e = first; same && e < end; e++) {
+
+      same = playerUnits.get(e - first) == units.get(snapshot.getUnitId(e));
+    }
+    if (!same) {
+
+      List<IUnit> restored = new ArrayList<>(end - first);
+      for (int e = first; e < end; e++) {
+
+        restored.add(units.get(snapshot.getUnitId(e)));
+      }
+      player.setUnits(restored);
+    }
+  }
+
+  /**
+   * Gives a unit the state of one of the entries of a snapshot. The unit must already be off the
+   * map if it has to move to another cell.
+   */
+  private void restoreUnit(IUnit unit, GameSnapshot snapshot, int entry) {
+
+    Tactician owner = snapshot.getOwner(entry) < 0 ? null : seats.get(snapshot.getOwner(entry));
+    if (unit.getOwner() != owner) {
+
+      unit.setOwner(owner);
+    }
+    unit.setCurrentHitPoints(snapshot.getHitPoints(entry));
+    unit.setLive(snapshot.isAlive(entry));
+    unit.setMove(snapshot.hasMoved(entry));
+    restoredItems.clear();
+    for (int j = 0; j < snapshot.getItemCount(entry); j++) {
+
+      IEquipableItem item = items.get(snapshot.getItem(entry, j));
+      restoredItems.add(item);
+      if (item.getOwner() != unit) {
+
+        item.setOwner(unit);
+      }
+    }
+    unit.setItems(restoredItems);
+    int slot = snapshot.getEquippedSlot(entry);
+    unit.setEquippedItem(slot == GameSnapshot.HAND ? unit.getHand()
+        : slot >= 0 ? restoredItems.get(slot) : items.get(-2 - slot));
+    restoredItems.clear();
+    int cell = snapshot.getCell(entry);
+    if (cell < 0) {
+
+      if (gameMap.getCellIndex(unit.getLocation()) >= 0) {
+
+        unit.setLocation(OFF_MAP);
+      }
+    } else {
+
+      Location location = gameMap.getCell(cell);
+      unit.setLocation(location);
+      if (snapshot.isOnMap(entry) && location.getUnit() != unit) {
+
+        location.setUnit(unit);
+      }
+    }
+  }
+
+  /**
+   * Adds to the registries of the snapshots the players, units and items that joined the game
+   * since the last snapshot.
+   */
+  private void register() {
 
     for (int i = 0; i < listOfPlayers.size(); i++) {
 
-      Tactician player = listOfPlayers.get(i);
-      List<IUnit> list = setUnits(player);
-      player.setUnits(list);
+      if (seatOf(listOfPlayers.get(i)) < 0) {
+
+        seats.add(listOfPlayers.get(i));
+      }
+    }
+    for (int s = 0; s < seats.size(); s++) {
+
+      List<IUnit> playerUnits = seats.get(s).getPlayerUnits();
+      for (int i = 0; i < playerUnits.size(); i++) {
+
+        IUnit unit = playerUnits.get(i);
+        if (unit.getOwner() != null && seatOf(unit.getOwner()) < 0) {
+
+          seats.add(unit.getOwner());
+        }
+        if (!unitIds.containsKey(unit)) {
+
+          unitIds.put(unit, units.size());
+          units.add(unit);
+        }
+        List<IEquipableItem> inventory = unit.getItems();
+        for (int j = 0; j < inventory.size(); j++) {
+
+          registerItem(inventory.get(j));
+        }
+        if (unit.getEquippedItem() != unit.getHand() && unit.getEquippedItem() != null) {
+
+          registerItem(unit.getEquippedItem());
+        }
+      }
+    }
+  }
+
+  private void registerItem(IEquipableItem item) {
+
+    if (!itemIds.containsKey(item)) {
+
+      itemIds.put(item, items.size());
+      items.add(item);
+    }
+  }
+
+  /**
+   * @return the index of a player in the registry of the snapshots, or -1 if it isn't there
+   */
+  int seatOf(Tactician player) {
+
+    for (int i = 0; i < seats.size(); i++) {
+
+      if (seats.get(i) == player) {
+
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Starts recording the actions of the game in a log, so the game can be played again with
+   * {@link ActionReplay}.
+   * <p>
+   * The log starts with the number of players, the size of the map and the state of the random
+   * generator, which a controller must match to replay it. Only the calls made from outside the
+   * controller are recorded: the calls that a recorded call makes by itself, like the end of a
+   * round at the end of the last turn, happen again when it's replayed. Changes made straight on
+   * the units, items or map aren't recorded.
+   *
+   * @param log the log, or <code>null</code> to stop recording
+   */
+  public void setActionLog(ActionLog log) {
+
+    this.actionLog = log;
+    if (log != null) {
+
+      long state = gameRandom().getState();
+      log.append(ActionLog.START, -1, numberOfPlayers, mapSize, (int) (state >>> 32), (int) state);
     }
   }
 
+  /**
+   * @return the log where the actions of the game are recorded, or <code>null</code> if they
+   *     aren't being recorded
+   */
+  public ActionLog getActionLog() {
+
+    return actionLog;
+  }
+
+  /**
+   * Gives the dispatcher of the events of this game, shared by its players and their units. It
+   * starts with the listeners that remove dead units from the map, remove the players whose hero
+   * died and follow the unit selected by the players.
+   *
+   * @return the events of this game
+   */
+  public GameEvents getEvents() {
+    return events;
+  }
+
+  private GameEvents newEvents() {
+
+    GameEvents gameEvents = new GameEvents();
+    gameEvents.addListener(new UnitDie());
+    gameEvents.addListener(new HeroDie(this));
+    gameEvents.addListener(new ActualUnitChange(this));
+    return gameEvents;
+  }
+
+  /**
+   * Keeps the state of the units of the players in a {@link UnitStore} from now on, so the units
+   * become handles into its arrays and loops over the units, like resetting the moves at the end
+   * of a turn, run over the arrays. Units given to a player later join the store as they're
+   * added. Units are never taken out of the store, and copies of the game don't have one.
+   *
+   * @return the store of the units of this game
+   */
+  public UnitStore useUnitStore() {
+
+    if (unitStore == null) {
+
+      int count = 0;
+      for (int i = 0; listOfPlayers != null && i < listOfPlayers.size(); i++) {
+
+        count += listOfPlayers.get(i).getPlayerUnits().size();
+      }
+      unitStore = new UnitStore(gameMap, count);
+      for (int i = 0; listOfPlayers != null && i < listOfPlayers.size(); i++) {
+
+        watchAll(listOfPlayers.get(i).getPlayerUnits());
+      }
+    }
+    return unitStore;
+  }
+
+  /**
+   * Gives the changes of the game since they were last read, so a client can follow the game
+   * without reading the whole state after every action.
+   * <p>
+   * The first call creates the stream and starts listening to the changes of every unit of the
+   * players; units given to a player later are listened to as they join.
+   *
+   * @return the changes of this game
+   */
+  public DeltaStream getDeltaStream() {
+
+    if (deltas == null) {
+
+      deltas = new DeltaStream(this);
+      for (int s = 0; s < seats.size(); s++) {
+
+        watchAll(seats.get(s).getPlayerUnits());
+      }
+      if (listOfPlayers != null) {
+
+        for (int i = 0; i < listOfPlayers.size(); i++) {
+
+          watchAll(listOfPlayers.get(i).getPlayerUnits());
+        }
+      }
+    }
+    return deltas;
+  }
+
+  /**
+   * Starts listening to the changes of the given units, if the changes of the game are being
+   * streamed.
+   */
+  void watchAll(List<IUnit> unitList) {
+
+    for (int i = 0; (deltas != null || unitStore != null) && i < unitList.size(); i++) {
+
+      watch(unitList.get(i));
+    }
+  }
+
+  /**
+   * Starts listening to the changes of a unit, if the changes of the game are being streamed, and
+   * moves its state to the unit store, if the game has one.
+   */
+  void watch(IUnit unit) {
+
+    if (unitStore != null && unit != null) {
+
+      unitStore.add(unit);
+    }
+    if (deltas != null && unit != null && watched.put(unit, Boolean.TRUE) == null) {
+
+      unit.addChangeListener(deltas);
+    }
+  }
+
+  /**
+   * @return the index of an item in the registry of the snapshots, registering it if it's new
+   */
+  int itemId(IEquipableItem item) {
+
+    registerItem(item);
+    return itemIds.get(item);
+  }
+
+  private void resyncDeltas() {
+
+    if (deltas != null) {
+
+      deltas.resync();
+    }
+  }
+
+  /**
+   * @return true if a call made now would be recorded
+   */
+  boolean isRecording() {
+
+    return actionLog != null && nested == 0;
+  }
+
+  /**
+   * Records an action made from outside the controller.
+   */
+  void record(int action, int player, int a, int b, int c, int d) {
+
+    if (isRecording()) {
+
+      actionLog.append(action, player, a, b, c, d);
+    }
+  }
+
+  private void record(int action, int player, int a, int b) {
+
+    record(action, player, a, b, 0, 0);
+  }
+
+  /**
+   * Records an action made by a player.
+   */
+  void record(int action, Tactician player, int a, int b) {
+
+    if (isRecording()) {
+
+      actionLog.append(action, seatOf(player), a, b, 0, 0);
+    }
+  }
+
+  /**
+   * Records an action made by a player on a unit.
+   */
+  void record(int action, Tactician player, IUnit unit, int b, int c) {
+
+    if (isRecording()) {
+
+      actionLog.append(action, seatOf(player), unitRef(unit), b, c, 0);
+    }
+  }
+
+  /**
+   * Marks the start of a call that can make other recorded calls, which aren't recorded until
+   * {@link #endAction()}.
+   */
+  void beginAction() {
+
+    nested++;
+  }
+
+  /**
+   * Marks the end of a call started with {@link #beginAction()}.
+   */
+  void endAction() {
+
+    nested--;
+  }
+
+  /**
+   * Describes a unit by the index of its player and its position in the list of units of the
+   * player, so actions on it can be recorded.
+   *
+   * @return <code>seat &lt;&lt; 16 | position</code>, or -1 if the unit isn't in the list of a
+   *     player of the game
+   */
+  int unitRef(IUnit unit) {
+
+    int owner = unit == null ? -1 : seatOf(unit.getOwner());
+    int ref = owner < 0 ? -1 : positionIn(owner, unit);
+    for (int s = 0; ref < 0 && unit != null && s < seats.size(); s++) {
+
+      ref = positionIn(s, unit);
+    }
+    return ref;
+  }
+
+  private int positionIn(int seat, IUnit unit) {
+
+    List<IUnit> playerUnits = seats.get(seat).getPlayerUnits();
+    for (int i = 0; i < playerUnits.size(); i++) {
+
+      if (playerUnits.get(i) == unit) {
+
+        return seat << 16 | i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the unit described by {@link #unitRef(IUnit)}, or <code>null</code> if there isn't one
+   */
+  IUnit unitAt(int ref) {
+
+    int seat = ref >>> 16, index = ref & 0xFFFF;
+    if (ref < 0 || seat >= seats.size() || index >= seats.get(seat).getPlayerUnits().size()) {
+
+      return null;
+    }
+    return seats.get(seat).getPlayerUnits().get(index);
+  }
+
+  /**
+   * @return the index of the first registered player with the given name, or -1 if there isn't one
+   */
+  private int seatNamed(String name) {
+
+    for (int i = 0; i < seats.size(); i++) {
+
+      if (seats.get(i).getName().equals(name)) {
+
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Starts a loaded game with the given players, units and items as the registries of the
+   * snapshots, and brings it to the saved state.
+   */
+  void loadState(List<Tactician> players, List<IUnit> unitList, List<IEquipableItem> itemList,
+      GameSnapshot state) {
+
+    seats.clear();
+    seats.addAll(players);
+    units.clear();
+    unitIds.clear();
+    for (int i = 0; i < unitList.size(); i++) {
+
+      unitIds.put(unitList.get(i), i);
+      units.add(unitList.get(i));
+    }
+    items.clear();
+    itemIds.clear();
+    for (int i = 0; i < itemList.size(); i++) {
+
+      registerItem(itemList.get(i));
+    }
+    this.listOfPlayers = new ArrayList<>(players);
+    restore(state);
+  }
+
+  /**
+   * @return the dimensions the map was created with
+   */
+  int getMapSize() {
+
+    return mapSize;
+  }
+
+  /**
+   * @return the player with the given index in the registry of the snapshots
+   */
+  Tactician getSeat(int seat) {
+
+    return seats.get(seat);
+  }
+
+  /**
+   * @return the unit with the given index in the registry of the snapshots
+   */
+  IUnit getRegisteredUnit(int id) {
+
+    return units.get(id);
+  }
+
+  /**
+   * @return the item with the given index in the registry of the snapshots
+   */
+  IEquipableItem getRegisteredItem(int id) {
+
+    return items.get(id);
+  }
+
+  /**
+   * @return the number of items in the registry of the snapshots
+   */
+  int getRegisteredItemCount() {
+
+    return items.size();
+  }
+
+  /**
+   * @return the generator of the game, replacing it by one whose state can be read if needed
+   */
+  GameRandom gameRandom() {
+
+    if (!(random instanceof GameRandom)) {
+
+      random = new GameRandom(random.nextLong());
+    }
+    return (GameRandom) random;
+  }
+
   /**
    * @return the winner of this game, if the match ends in a draw returns a list of all the winners
    */
@@ -277,11 +1130,42 @@ public class GameController {
    */
   public void selectUnitIn(int x, int y) {
 
+    record(ActionLog.SELECT_UNIT_IN, actualPlayer, x, y);
     Location ubicacion = this.gameMap.getCell(x, y);
     IUnit unidadSeleccionada = ubicacion.getUnit();
     this.actualUnit = unidadSeleccionada;
   }
 
+  /**
+   * Busca las unidades enemigas que una unidad puede atacar con su item equipado
+   *
+   * @param unit unidad que ataca
+   * @return las unidades enemigas al alcance, ordenadas por distancia
+   */
+  public List<IUnit> getTargets(IUnit unit) {
+
+    return unit.getTargets(new ArrayList<>());
+  }
+
+  /**
+   * Entrega las distancias de cada celda del mapa a la unidad enemiga mas cercana de un jugador
+   * Se calculan una sola vez por jugador y el mapa las mantiene al dia mientras las unidades se
+   * mueven o mueren, asi que todas las unidades del jugador pueden usarlas para avanzar
+   *
+   * @param player jugador
+   * @return las distancias a las unidades de los demas jugadores
+   */
+  public FlowField getEnemyField(Tactician player) {
+
+    FlowField campo = enemyFields.get(player);
+    if (campo == null) {
+
+      campo = gameMap.createFlowField(unit -> unit.getOwner() != player);
+      enemyFields.put(player, campo);
+    }
+    return campo;
+  }
+
   /**
    * @return the inventory of the currently selected unit.
    */
@@ -296,10 +1180,18 @@ public class GameController {
    */
   public void equipItem(int index) {
 
-    if (this.actualPlayer.getInventoryUnit().get(index) != null) {
+    record(ActionLog.EQUIP_ITEM, actualPlayer, index, 0);
+    nested++;
+    try {
 
       IEquipableItem item = this.actualPlayer.getInventoryUnit().get(index);
-      this.actualPlayer.setItem(item);
+      if (item != null) {
+
+        this.actualPlayer.setItem(item);
+      }
+    } finally {
+
+      nested--;
     }
   }
 
@@ -311,10 +1203,17 @@ public class GameController {
    */
   public void useItemOn(int x, int y) {
 
-    Location locacion = this.getGameMap().getCell(x, y);
-    IUnit unit = locacion.getUnit();
-    this.actualPlayer.getActualUnit().attackEnemy(unit);
+    record(ActionLog.USE_ITEM_ON, actualPlayer, x, y);
+    nested++;
+    try {
 
+      Location locacion = this.getGameMap().getCell(x, y);
+      IUnit unit = locacion.getUnit();
+      this.actualPlayer.getActualUnit().attackEnemy(unit);
+    } finally {
+
+      nested--;
+    }
   }
 
   /**
@@ -324,8 +1223,16 @@ public class GameController {
    */
   public void selectItem(int index) {
 
-    IEquipableItem item = this.actualPlayer.getInventoryUnit().get(index);
-    this.actualPlayer.setActualItem(item);
+    record(ActionLog.SELECT_ITEM, actualPlayer, index, 0);
+    nested++;
+    try {
+
+      IEquipableItem item = this.actualPlayer.getInventoryUnit().get(index);
+      this.actualPlayer.setActualItem(item);
+    } finally {
+
+      nested--;
+    }
   }
 
   /**
@@ -336,11 +1243,11 @@ public class GameController {
    */
   public void giveItemTo(int x, int y) {
 
+    record(ActionLog.GIVE_ITEM_TO, actualPlayer, x, y);
     Location location = gameMap.getCell(x, y);
     IUnit unidad = location.getUnit();
     IUnit actualUnit = actualPlayer.getActualUnit();
     actualUnit.giveAway(unidad, actualPlayer.getActualItem());
-
   }
 
   /**
@@ -361,18 +1268,25 @@ public class GameController {
 
   public List<IUnit> setUnits(Tactician player) {
 
-    List<IUnit> list = new ArrayList<>();
+    record(ActionLog.SET_UNITS, player, 0, 0);
+    nested++;
+    try {
 
-    list.add(getAlpaca(player));
-    list.add(getArcher(player));
-    list.add(getCleric(player));
-    list.add(getFighter(player));
-    list.add(getHero(player));
-    list.add(getSorcerer(player));
-    list.add(getSwordMaster(player));
+      List<IUnit> list = new ArrayList<>();
 
-    return list;
+      list.add(getAlpaca(player));
+      list.add(getArcher(player));
+      list.add(getCleric(player));
+      list.add(getFighter(player));
+      list.add(getHero(player));
+      list.add(getSorcerer(player));
+      list.add(getSwordMaster(player));
+
+      return list;
+    } finally {
 
+      nested--;
+    }
   }
 
   /**
@@ -400,6 +1314,7 @@ public class GameController {
 
   public void setActualUnit(IUnit unit){
 
+    record(ActionLog.SET_ACTUAL_UNIT, actualPlayer, unit, 0, 0);
     if(this.actualPlayer.getPlayerUnits().contains(unit)){
 
       this.actualUnit = unit;
@@ -413,6 +1328,12 @@ public class GameController {
 
   public void resetMovement(Tactician player){
 
+    record(ActionLog.RESET_MOVEMENT, player, 0, 0);
+    if (unitStore != null) {
+
+      unitStore.resetMoves(player.getPlayerUnits());
+      return;
+    }
     for (int i = 0; i < player.getPlayerUnits().size(); i++){
 
       IUnit unidad = player.getPlayerUnits().get(i);
@@ -428,6 +1349,7 @@ public class GameController {
 
   public IUnit getAlpaca(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 0, 0);
     IUnit alpaca = new AlpacaFactory().createDefault(player);
     return alpaca;
   }
@@ -439,6 +1361,7 @@ public class GameController {
 
   public IUnit getArcher(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 1, 0);
     IUnit archer = new ArcherFactory().createDefault(player);
     return archer;
   }
@@ -450,6 +1373,7 @@ public class GameController {
 
   public IUnit getCleric(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 2, 0);
     IUnit cleric = new ClericFactory().createDefault(player);
     return cleric;
   }
@@ -461,6 +1385,7 @@ public class GameController {
 
   public  IUnit getFighter(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 3, 0);
     IUnit fighter = new FighterFactory().createDefault(player);
     return fighter;
   }
@@ -472,6 +1397,7 @@ public class GameController {
 
   public IUnit getHero(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 4, 0);
     IUnit hero = new HeroFactory().createDefault(player);
     return hero;
   }
@@ -483,6 +1409,7 @@ public class GameController {
 
   public IUnit getSorcerer(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 5, 0);
     IUnit sorcerer = new SorcererFactory().createDefault(player);
     return sorcerer;
   }
@@ -494,6 +1421,7 @@ public class GameController {
 
   public IUnit getSwordMaster(Tactician player){
 
+    record(ActionLog.CREATE_UNIT, player, 6, 0);
     IUnit swordMaster = new SwordMasterFactory().createDefault(player);
     return swordMaster;
   }
@@ -505,6 +1433,7 @@ public class GameController {
 
   public void removeIUnit(Tactician player){
 
+    record(ActionLog.REMOVE_UNITS, player, 0, 0);
     for(int i = 0; i < player.getPlayerUnits().size(); i++){
 
       player.getPlayerUnits().get(i).getLocation().removeUnit();
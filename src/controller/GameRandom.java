@@ -0,0 +1,77 @@
+package controller;
+
+import java.util.Random;
+
+/**
+ * Generador de numeros aleatorios de la partida cuyo estado se puede leer y volver a fijar
+ * Usa el mismo generador congruencial que java.util.Random, asi que con la misma semilla entrega
+ * exactamente los mismos numeros, pero guarda su estado en un long que las fotos de la partida
+ * pueden copiar (java.util.Random no deja leer su estado)
+ * No es seguro usarlo desde varios hilos a la vez, y el valor guardado de nextGaussian no forma
+ * parte del estado
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public class GameRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    /**
+     * Crea un generador con una semilla al azar
+     */
+
+    public GameRandom() {
+
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Crea un generador con una semilla dada
+     * @param seed semilla del generador
+     */
+
+    public GameRandom(long seed) {
+
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+
+        super.setSeed(seed);
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * @return el estado actual del generador
+     */
+
+    public long getState() {
+
+        return state;
+    }
+
+    /**
+     * Vuelve el generador a un estado entregado por getState
+     * @param state estado del generador
+     */
+
+    public void setState(long state) {
+
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,329 @@
+package controller;
+
+import model.units.Alpaca;
+import model.units.Archer;
+import model.units.Cleric;
+import model.units.Fighter;
+import model.units.Hero;
+import model.units.Sorcerer;
+import model.units.SwordMaster;
+
+/**
+ * Foto inmutable del estado de una partida, creada por GameController.snapshot y aplicada con
+ * GameController.restore
+ * Guarda el estado en arreglos de tipos primitivos, uno por cada dato de las unidades, en vez de
+ * copiar los objetos: tipo, dueño, vida actual, celda, item equipado, inventario y si ya se movio
+ * o sigue viva. Tambien guarda el orden de los turnos, la ronda y el estado del generador de la
+ * partida. Los jugadores, unidades e items se guardan por su indice en los registros del
+ * controlador, asi que una foto ocupa unos pocos KB y, como nunca cambia, se puede compartir en
+ * vez de copiarla
+ * Las entradas de unidades estan agrupadas por jugador, en el orden de la lista de unidades de
+ * cada uno
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public final class GameSnapshot {
+
+    /**
+     * Item equipado de una unidad que no tiene nada mas que su mano
+     */
+    public static final int HAND = -1;
+
+    static final byte ALIVE = 1;
+    static final byte MOVED = 2;
+    static final byte ON_MAP = 4;
+
+    private static final Class<?>[] UNIT_TYPES = {Alpaca.class, Archer.class, Cleric.class,
+            Fighter.class, Hero.class, Sorcerer.class, SwordMaster.class};
+
+    private final int roundNumber;
+    private final int maxRounds;
+    private final int numberOfPlayers;
+    private final int turnOwner;
+    private final boolean finished;
+    private final long randomState;
+    private final int[] turnOrder;
+    private final int[] seatStart;
+    private final int[] unitId;
+    private final byte[] unitType;
+    private final int[] owner;
+    private final double[] hitPoints;
+    private final int[] cell;
+    private final byte[] flags;
+    private final int[] equipped;
+    private final int[] itemStart;
+    private final int[] items;
+
+    /**
+     * Crea una foto con arreglos que ya no seran modificados por quien los entrega
+     */
+
+    GameSnapshot(int roundNumber, int maxRounds, int numberOfPlayers, int turnOwner,
+                 boolean finished, long randomState, int[] turnOrder, int[] seatStart,
+                 int[] unitId, byte[] unitType, int[] owner, double[] hitPoints, int[] cell,
+                 byte[] flags, int[] equipped, int[] itemStart, int[] items) {
+
+        this.roundNumber = roundNumber;
+        this.maxRounds = maxRounds;
+        this.numberOfPlayers = numberOfPlayers;
+        this.turnOwner = turnOwner;
+        this.finished = finished;
+        this.randomState = randomState;
+        this.turnOrder = turnOrder;
+        this.seatStart = seatStart;
+        this.unitId = unitId;
+        this.unitType = unitType;
+        this.owner = owner;
+        this.hitPoints = hitPoints;
+        this.cell = cell;
+        this.flags = flags;
+        this.equipped = equipped;
+        this.itemStart = itemStart;
+        this.items = items;
+    }
+
+    /**
+     * Entrega el tipo de una clase de unidad
+     * @param type clase de la unidad
+     * @return posicion de la clase en Alpaca, Archer, Cleric, Fighter, Hero, Sorcerer y
+     * SwordMaster, o -1 si es otra clase
+     */
+
+    public static int unitTypeOf(Class<?> type) {
+
+        for (int i = 0; i < UNIT_TYPES.length; i++) {
+
+            if (UNIT_TYPES[i] == type) {
+
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return la ronda de la partida
+     */
+
+    public int getRoundNumber() {
+
+        return roundNumber;
+    }
+
+    /**
+     * @return la cantidad maxima de rondas de la partida
+     */
+
+    public int getMaxRounds() {
+
+        return maxRounds;
+    }
+
+    /**
+     * @return la cantidad de jugadores que seguian en la partida
+     */
+
+    public int getNumberOfPlayers() {
+
+        return numberOfPlayers;
+    }
+
+    /**
+     * @return el indice del jugador que tenia el turno, o -1 si no habia ninguno
+     */
+
+    public int getTurnOwner() {
+
+        return turnOwner;
+    }
+
+    /**
+     * @return true si la partida ya tenia ganadores
+     */
+
+    public boolean isFinished() {
+
+        return finished;
+    }
+
+    /**
+     * @return el estado del generador de la partida
+     */
+
+    public long getRandomState() {
+
+        return randomState;
+    }
+
+    /**
+     * @return la cantidad de jugadores en el orden de los turnos
+     */
+
+    public int getTurnOrderSize() {
+
+        return turnOrder.length;
+    }
+
+    /**
+     * @param position posicion en el orden de los turnos
+     * @return el indice del jugador que juega en esa posicion
+     */
+
+    public int getPlayerAt(int position) {
+
+        return turnOrder[position];
+    }
+
+    /**
+     * @return la cantidad de jugadores registrados, incluidos los que ya perdieron
+     */
+
+    public int getSeatCount() {
+
+        return seatStart.length - 1;
+    }
+
+    /**
+     * @param seat indice de un jugador
+     * @return la primera entrada de las unidades del jugador
+     */
+
+    public int getFirstUnitOf(int seat) {
+
+        return seatStart[seat];
+    }
+
+    /**
+     * @param seat indice de un jugador
+     * @return la entrada que sigue a la ultima unidad del jugador
+     */
+
+    public int getEndUnitOf(int seat) {
+
+        return seatStart[seat + 1];
+    }
+
+    /**
+     * @return la cantidad de unidades de la foto
+     */
+
+    public int getUnitCount() {
+
+        return unitId.length;
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return el indice de la unidad en el registro del controlador
+     */
+
+    int getUnitId(int unit) {
+
+        return unitId[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return el tipo de la unidad, como lo entrega unitTypeOf
+     */
+
+    public int getUnitType(int unit) {
+
+        return unitType[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return el indice del dueño de la unidad, o -1 si no tenia
+     */
+
+    public int getOwner(int unit) {
+
+        return owner[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return la vida actual de la unidad
+     */
+
+    public double getHitPoints(int unit) {
+
+        return hitPoints[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return el indice de la celda de la unidad en el mapa, o -1 si no estaba en una celda del
+     * mapa
+     */
+
+    public int getCell(int unit) {
+
+        return cell[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return true si la unidad estaba viva
+     */
+
+    public boolean isAlive(int unit) {
+
+        return (flags[unit] & ALIVE) != 0;
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return true si la unidad ya se habia movido en el turno
+     */
+
+    public boolean hasMoved(int unit) {
+
+        return (flags[unit] & MOVED) != 0;
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return true si la unidad ocupaba su celda en el mapa
+     */
+
+    public boolean isOnMap(int unit) {
+
+        return (flags[unit] & ON_MAP) != 0;
+    }
+
+    /**
+     * Entrega el item equipado de una unidad
+     * @param unit entrada de una unidad
+     * @return la posicion del item en el inventario, HAND si no tenia nada equipado, o
+     * -2 - indice del item en el registro del controlador si el item no estaba en su inventario
+     */
+
+    public int getEquippedSlot(int unit) {
+
+        return equipped[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @return la cantidad de items en el inventario de la unidad
+     */
+
+    public int getItemCount(int unit) {
+
+        return itemStart[unit + 1] - itemStart[unit];
+    }
+
+    /**
+     * @param unit entrada de una unidad
+     * @param slot posicion en el inventario
+     * @return el indice del item en el registro del controlador
+     */
+
+    public int getItem(int unit, int slot) {
+
+        return items[itemStart[unit] + slot];
+    }
+}
@@ -0,0 +1,488 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.items.IEquipableItem;
+import model.items.attack.magic.AnimaBook;
+import model.items.attack.magic.DarkBook;
+import model.items.attack.magic.LightBook;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import model.items.attack.normal.Sword;
+import model.items.heal.Staff;
+import model.map.Field;
+import model.map.FieldCodec;
+import model.map.InvalidLocation;
+import model.map.Location;
+import model.units.Alpaca;
+import model.units.Archer;
+import model.units.Cleric;
+import model.units.Fighter;
+import model.units.Hero;
+import model.units.IUnit;
+import model.units.Sorcerer;
+import model.units.SwordMaster;
+
+/**
+ * Formato binario para guardar y cargar una partida completa, escrito y leido con un
+ * MappedByteBuffer sobre un FileChannel, sin serializacion de Java
+ * El archivo parte con el numero MAGIC y la version del formato, y sigue con el estado de los
+ * turnos, los nombres de los jugadores, el mapa (como lo escribe FieldCodec), los items y las
+ * unidades de cada jugador con su estado, en el mismo orden de una GameSnapshot. Al cargarlo se
+ * crean solo los objetos del modelo y el estado se aplica con GameController.restore
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+final class MatchFile {
+
+    /**
+     * Primeros bytes de todo archivo de partida ("TACT")
+     */
+    static final int MAGIC = 0x54414354;
+
+    /**
+     * Version actual del formato
+     */
+    static final short VERSION = 2;
+
+    private static final Class<?>[] ITEM_TYPES = {Axe.class, Bow.class, Spear.class,
+            Sword.class, AnimaBook.class, DarkBook.class, LightBook.class, Staff.class};
+
+    private MatchFile() {
+    }
+
+    /**
+     * Guarda una partida en un archivo, reemplazandolo si ya existe
+     * @param controller controlador de la partida
+     * @param file archivo donde se guardara
+     * @throws IOException si no se pudo escribir el archivo
+     * @throws IllegalArgumentException si la partida tiene unidades o items que no son de las
+     * clases del juego
+     */
+
+    static void save(GameController controller, Path file) throws IOException {
+
+        Encoding encoding = new Encoding(controller);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, encoding.size);
+            write(controller, encoding.state, encoding.names, encoding.itemNames, buffer);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Copia una partida en memoria, escribiendola y leyendola en un buffer en vez de un archivo
+     * @param controller controlador de la partida
+     * @return un nuevo controlador con la partida, con sus propios jugadores, unidades, items y
+     * mapa
+     * @throws IllegalArgumentException si la partida tiene unidades o items que no son de las
+     * clases del juego
+     */
+
+    static GameController copy(GameController controller) {
+
+        try {
+
+            Encoding encoding = new Encoding(controller);
+            ByteBuffer buffer = ByteBuffer.allocate((int) encoding.size);
+            write(controller, encoding.state, encoding.names, encoding.itemNames, buffer);
+            buffer.flip();
+            return read(buffer);
+        } catch (IOException e) {
+
+            throw new IllegalArgumentException("The match can't be copied", e);
+        }
+    }
+
+    /**
+     * Escribe la partida en el buffer
+     */
+
+    private static void write(GameController controller, GameSnapshot state, byte[][] names,
+                              byte[][] itemNames, ByteBuffer buffer) {
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(state.getNumberOfPlayers());
+        buffer.putInt(controller.getMaxNumberOfPlayers());
+        buffer.putInt(controller.getMapSize());
+        buffer.putInt(state.getRoundNumber());
+        buffer.putInt(state.getMaxRounds());
+        buffer.putInt(state.getTurnOwner());
+        buffer.putInt(names.length);
+        buffer.put((byte) (state.isFinished() ? 1 : 0));
+        buffer.putLong(state.getRandomState());
+        for (int s = 0; s < names.length; s++) {
+
+            buffer.putInt(names[s].length);
+            buffer.put(names[s]);
+        }
+        buffer.putInt(state.getTurnOrderSize());
+        for (int i = 0; i < state.getTurnOrderSize(); i++) {
+
+            buffer.putInt(state.getPlayerAt(i));
+        }
+        FieldCodec.write(controller.getGameMap(), buffer);
+        buffer.putInt(itemNames.length);
+        for (int i = 0; i < itemNames.length; i++) {
+
+            IEquipableItem item = controller.getRegisteredItem(i);
+            buffer.put((byte) itemTypeOf(item.getClass()));
+            buffer.putInt((int) item.getPower());
+            buffer.putInt(item.getMinRange());
+            buffer.putInt(item.getMaxRange());
+            buffer.putInt(itemNames[i].length);
+            buffer.put(itemNames[i]);
+        }
+        for (int s = 0; s < names.length; s++) {
+
+            buffer.putInt(state.getEndUnitOf(s) - state.getFirstUnitOf(s));
+            for (int e = state.getFirstUnitOf(s); e < state.getEndUnitOf(s); e++) {
+
+                IUnit unit = controller.getRegisteredUnit(state.getUnitId(e));
+                buffer.put((byte) state.getUnitType(e));
+                buffer.putInt(state.getOwner(e));
+                buffer.putInt(unit.getMaxHitPoints());
+                buffer.putInt(unit.getMovement());
+                buffer.putDouble(state.getHitPoints(e));
+                buffer.putInt(state.getCell(e));
+                buffer.put((byte) ((state.isAlive(e) ? GameSnapshot.ALIVE : 0)
+                        | (state.hasMoved(e) ? GameSnapshot.MOVED : 0)
+                        | (state.isOnMap(e) ? GameSnapshot.ON_MAP : 0)));
+                buffer.putInt(state.getEquippedSlot(e));
+                buffer.putInt(state.getItemCount(e));
+                for (int j = 0; j < state.getItemCount(e); j++) {
+
+                    buffer.putInt(state.getItem(e, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Carga una partida guardada con save
+     * @param file archivo de la partida
+     * @return un nuevo controlador con la partida
+     * @throws IOException si no se pudo leer el archivo o no es una partida valida
+     */
+
+    static GameController load(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE) {
+
+                throw new IOException("Not a match file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+
+                return read(buffer);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+
+                throw new IOException("Invalid match file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Lee una partida del buffer
+     */
+
+    private static GameController read(ByteBuffer buffer) throws IOException {
+
+        if (buffer.remaining() < 6 || buffer.getInt() != MAGIC) {
+
+            throw new IOException("Not a match file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+
+            throw new IOException("Unsupported match file version: " + version);
+        }
+        int numberOfPlayers = buffer.getInt();
+        int maxNumberOfPlayers = buffer.getInt();
+        int mapSize = buffer.getInt();
+        int roundNumber = buffer.getInt();
+        int maxRounds = buffer.getInt();
+        int turnOwner = buffer.getInt();
+        int seatCount = buffer.getInt();
+        boolean finished = buffer.get() != 0;
+        long randomState = buffer.getLong();
+        String[] names = new String[seatCount];
+        for (int s = 0; s < seatCount; s++) {
+
+            names[s] = readString(buffer);
+        }
+        int[] turnOrder = new int[buffer.getInt()];
+        for (int i = 0; i < turnOrder.length; i++) {
+
+            turnOrder[i] = buffer.getInt();
+        }
+        Field map = FieldCodec.read(buffer);
+        GameController controller = new GameController(numberOfPlayers, maxNumberOfPlayers,
+                mapSize, map, new GameRandom(0));
+        List<Tactician> seats = new ArrayList<>(seatCount);
+        for (int s = 0; s < seatCount; s++) {
+
+            seats.add(new Tactician(names[s], controller));
+        }
+        List<IEquipableItem> items = new ArrayList<>();
+        int itemCount = buffer.getInt();
+        for (int i = 0; i < itemCount; i++) {
+
+            int type = buffer.get();
+            int power = buffer.getInt(), minRange = buffer.getInt(), maxRange = buffer.getInt();
+            items.add(createItem(type, readString(buffer), power, minRange, maxRange));
+        }
+        List<IUnit> units = new ArrayList<>();
+        int[] seatStart = new int[seatCount + 1];
+        UnitColumns columns = new UnitColumns();
+        Location offMap = new InvalidLocation();
+        for (int s = 0; s < seatCount; s++) {
+
+            seatStart[s] = units.size();
+            int count = buffer.getInt();
+            List<IUnit> playerUnits = new ArrayList<>(Math.max(0, count));
+            for (int i = 0; i < count; i++) {
+
+                int type = buffer.get();
+                int owner = buffer.getInt();
+                IUnit unit = createUnit(type, buffer.getInt(), buffer.getInt(), offMap);
+                if (owner >= 0) {
+
+                    unit.setOwner(seats.get(owner));
+                }
+                columns.add(type, owner, buffer.getDouble(), buffer.getInt(), buffer.get(),
+                        buffer.getInt());
+                int slots = buffer.getInt();
+                if (slots < 0 || slots > buffer.remaining() / 4) {
+
+                    throw new BufferUnderflowException();
+                }
+                for (int j = 0; j < slots; j++) {
+
+                    columns.addItem(buffer.getInt());
+                }
+                units.add(unit);
+                playerUnits.add(unit);
+            }
+            seats.get(s).setUnits(playerUnits);
+        }
+        seatStart[seatCount] = units.size();
+        GameSnapshot state = columns.toSnapshot(roundNumber, maxRounds, numberOfPlayers, turnOwner,
+                finished, randomState, turnOrder, seatStart);
+        controller.loadState(seats, units, items, state);
+        return controller;
+    }
+
+    /**
+     * Lee un texto en UTF-8 precedido por su largo en bytes
+     * @throws BufferUnderflowException si el largo no cabe en lo que queda del buffer
+     */
+
+    private static String readString(ByteBuffer buffer) {
+
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+
+            throw new BufferUnderflowException();
+        }
+        byte[] text = new byte[length];
+        buffer.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return la posicion de una clase de item en los tipos del formato, o -1 si no esta
+     */
+
+    private static int itemTypeOf(Class<?> type) {
+
+        for (int i = 0; i < ITEM_TYPES.length; i++) {
+
+            if (ITEM_TYPES[i] == type) {
+
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Crea un item de uno de los tipos del formato
+     */
+
+    private static IEquipableItem createItem(int type, String name, int power, int minRange,
+                                             int maxRange) {
+
+        switch (type) {
+            case 0: return new Axe(name, power, minRange, maxRange);
+            case 1: return new Bow(name, power, minRange, maxRange);
+            case 2: return new Spear(name, power, minRange, maxRange);
+            case 3: return new Sword(name, power, minRange, maxRange);
+            case 4: return new AnimaBook(name, power, minRange, maxRange);
+            case 5: return new DarkBook(name, power, minRange, maxRange);
+            case 6: return new LightBook(name, power, minRange, maxRange);
+            case 7: return new Staff(name, power, minRange, maxRange);
+            default: throw new IllegalArgumentException("Unknown item type: " + type);
+        }
+    }
+
+    /**
+     * Crea una unidad de uno de los tipos de GameSnapshot, sin items
+     */
+
+    private static IUnit createUnit(int type, int hitPoints, int movement, Location location) {
+
+        switch (type) {
+            case 0: return new Alpaca(hitPoints, movement, location);
+            case 1: return new Archer(hitPoints, movement, location);
+            case 2: return new Cleric(hitPoints, movement, location);
+            case 3: return new Fighter(hitPoints, movement, location);
+            case 4: return new Hero(hitPoints, movement, location);
+            case 5: return new Sorcerer(hitPoints, movement, location);
+            case 6: return new SwordMaster(hitPoints, movement, location);
+            default: throw new IllegalArgumentException("Unknown unit type: " + type);
+        }
+    }
+
+    /**
+     * Datos de una partida que se calculan antes de escribirla: su foto, los nombres en UTF-8 y
+     * el tamaño total
+     */
+
+    private static final class Encoding {
+
+        private final GameSnapshot state;
+        private final byte[][] names;
+        private final byte[][] itemNames;
+        private final long size;
+
+        private Encoding(GameController controller) throws IOException {
+
+            GameSnapshot state = controller.snapshot();
+            int seatCount = state.getSeatCount();
+            byte[][] names = new byte[seatCount][];
+            long size = 4 + 2 + 7 * 4 + 1 + 8 + 4 + 4 * state.getTurnOrderSize();
+            for (int s = 0; s < seatCount; s++) {
+
+                names[s] = controller.getSeat(s).getName().getBytes(StandardCharsets.UTF_8);
+                size += 4 + names[s].length + 4;
+            }
+            size += FieldCodec.encodedSize(controller.getGameMap());
+            int itemCount = controller.getRegisteredItemCount();
+            byte[][] itemNames = new byte[itemCount][];
+            size += 4;
+            for (int i = 0; i < itemCount; i++) {
+
+                IEquipableItem item = controller.getRegisteredItem(i);
+                if (itemTypeOf(item.getClass()) < 0) {
+
+                    throw new IllegalArgumentException("Items of " + item.getClass() + " can't be saved");
+                }
+                itemNames[i] = item.getName().getBytes(StandardCharsets.UTF_8);
+                size += 1 + 3 * 4 + 4 + itemNames[i].length;
+            }
+            for (int e = 0; e < state.getUnitCount(); e++) {
+
+                if (state.getUnitType(e) < 0) {
+
+                    throw new IllegalArgumentException("Units of "
+                            + controller.getRegisteredUnit(state.getUnitId(e)).getClass() + " can't be saved");
+                }
+                size += 1 + 4 + 4 + 4 + 8 + 4 + 1 + 4 + 4 + 4L * state.getItemCount(e);
+            }
+            if (size > Integer.MAX_VALUE) {
+
+                throw new IOException("The match is too big to be saved in one file");
+            }
+            this.state = state;
+            this.names = names;
+            this.itemNames = itemNames;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Columnas del estado de las unidades que se van leyendo, para armar la GameSnapshot
+     */
+
+    private static final class UnitColumns {
+
+        private int size;
+        private int itemSize;
+        private byte[] unitType = new byte[16];
+        private int[] owner = new int[16];
+        private double[] hitPoints = new double[16];
+        private int[] cell = new int[16];
+        private byte[] flags = new byte[16];
+        private int[] equipped = new int[16];
+        private int[] itemStart = new int[17];
+        private int[] items = new int[16];
+
+        void add(int type, int unitOwner, double hp, int unitCell, byte unitFlags,
+                 int equippedSlot) {
+
+            if (size == unitType.length) {
+
+                int capacity = size * 2;
+                unitType = Arrays.copyOf(unitType, capacity);
+                owner = Arrays.copyOf(owner, capacity);
+                hitPoints = Arrays.copyOf(hitPoints, capacity);
+                cell = Arrays.copyOf(cell, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                equipped = Arrays.copyOf(equipped, capacity);
+                itemStart = Arrays.copyOf(itemStart, capacity + 1);
+            }
+            unitType[size] = (byte) type;
+            owner[size] = unitOwner;
+            hitPoints[size] = hp;
+            cell[size] = unitCell;
+            flags[size] = unitFlags;
+            equipped[size] = equippedSlot;
+            itemStart[size] = itemSize;
+            size++;
+            itemStart[size] = itemSize;
+        }
+
+        void addItem(int item) {
+
+            if (itemSize == items.length) {
+
+                items = Arrays.copyOf(items, itemSize * 2);
+            }
+            items[itemSize++] = item;
+            itemStart[size] = itemSize;
+        }
+
+        GameSnapshot toSnapshot(int roundNumber, int maxRounds, int numberOfPlayers, int turnOwner,
+                                boolean finished, long randomState, int[] turnOrder, int[] seatStart) {
+
+            int[] unitId = new int[size];
+            for (int i = 0; i < size; i++) {
+
+                unitId[i] = i;
+            }
+            return new GameSnapshot(roundNumber, maxRounds, numberOfPlayers, turnOwner, finished,
+                    randomState, turnOrder, seatStart, unitId, Arrays.copyOf(unitType, size),
+                    Arrays.copyOf(owner, size), Arrays.copyOf(hitPoints, size),
+                    Arrays.copyOf(cell, size), Arrays.copyOf(flags, size),
+                    Arrays.copyOf(equipped, size), Arrays.copyOf(itemStart, size + 1),
+                    Arrays.copyOf(items, itemSize));
+        }
+    }
+}
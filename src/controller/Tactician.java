@@ -1,12 +1,10 @@
 package controller;
 
-import controller.changes.ActualUnitChange;
-import controller.changes.HeroDie;
+import controller.changes.GameEvents;
 import model.items.IEquipableItem;
 import model.units.IUnit;
 import model.map.*;
 
-import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,10 +21,6 @@ public class Tactician {
     private IUnit actualUnit;
     private IEquipableItem actualItem;
     private GameController controller;
-    private PropertyChangeSupport handler1;
-    private PropertyChangeSupport handler2;
-    private ActualUnitChange actualUnitChange;
-    private HeroDie heroDie;
     private Field map;
 
     /**
@@ -41,12 +35,6 @@ public class Tactician {
         this.playerUnit = new ArrayList<IUnit>();
         this.controller = controller;
         this.map = controller.getGameMap();
-        actualUnitChange =  new ActualUnitChange(this.controller);
-        heroDie = new HeroDie(this.controller);
-        handler1 = new PropertyChangeSupport(this);
-        handler2 = new PropertyChangeSupport(this);
-        handler1.addPropertyChangeListener(actualUnitChange);
-        handler2.addPropertyChangeListener(heroDie);
     }
 
     /**
@@ -57,6 +45,7 @@ public class Tactician {
     public void setUnits(List<IUnit> newUnits){
 
         playerUnit = newUnits;
+        controller.watchAll(newUnits);
     }
 
     /**
@@ -66,11 +55,22 @@ public class Tactician {
 
     public void setActualUnit(IUnit newUnit){
 
-        if(this.getPlayerUnits().contains(newUnit)) {
+        controller.record(ActionLog.SELECT_PLAYER_UNIT, this, newUnit, 0, 0);
+        controller.beginAction();
+        try {
 
-            IUnit oldUnit = actualUnit;
-            actualUnit = newUnit;
-            handler1.firePropertyChange("actualUnit", oldUnit, newUnit);
+            if(this.getPlayerUnits().contains(newUnit)) {
+
+                IUnit oldUnit = actualUnit;
+                actualUnit = newUnit;
+                if (oldUnit != newUnit) {
+
+                    controller.getEvents().actualUnitChanged(this, newUnit);
+                }
+            }
+        } finally {
+
+            controller.endAction();
         }
     }
 
@@ -80,8 +80,16 @@ public class Tactician {
 
     public void heroDie(){
 
-        Tactician newTactician = this;
-        handler2.firePropertyChange("heroDie", null, newTactician);
+        controller.getEvents().heroDied(this);
+    }
+
+    /**
+     * @return los eventos de la partida del jugador
+     */
+
+    public GameEvents getEvents() {
+
+        return controller.getEvents();
     }
 
     /**
@@ -92,6 +100,7 @@ public class Tactician {
 
     public void setActualItem(IEquipableItem newItem){
 
+        recordItem(ActionLog.SELECT_PLAYER_ITEM, actualUnit, actualUnit, newItem, null);
         if(this.getActualUnit().getItems().contains(newItem)) {
 
             actualItem = newItem;
@@ -186,7 +195,15 @@ public class Tactician {
 
     public void attackUnit(IUnit unit){
 
-        this.actualUnit.attackEnemy(unit);
+        controller.record(ActionLog.ATTACK_UNIT, this, unit, 0, 0);
+        controller.beginAction();
+        try {
+
+            this.actualUnit.attackEnemy(unit);
+        } finally {
+
+            controller.endAction();
+        }
     }
 
     /**
@@ -196,6 +213,7 @@ public class Tactician {
 
     public void equipItem(IEquipableItem item){
 
+        recordItem(ActionLog.EQUIP_PLAYER_ITEM, actualUnit, actualUnit, item, null);
         this.actualUnit.setEquippedItem(item);
     }
 
@@ -208,6 +226,7 @@ public class Tactician {
 
     public void tradeItem(IUnit unit, IEquipableItem received, IEquipableItem delivered){
 
+        recordItem(ActionLog.TRADE_ITEM, unit, unit, received, delivered);
         this.actualUnit.trade(unit, received, delivered);
     }
 
@@ -219,6 +238,7 @@ public class Tactician {
 
     public void giftItem(IUnit unit, IEquipableItem gift){
 
+        recordItem(ActionLog.GIFT_ITEM, unit, actualUnit, gift, null);
         this.actualUnit.giveAway(unit, gift);
     }
 
@@ -230,6 +250,7 @@ public class Tactician {
 
     public void receiveItem(IUnit unit, IEquipableItem received){
 
+        recordItem(ActionLog.RECEIVE_ITEM, unit, unit, received, null);
         this.actualUnit.receive(unit, received);
     }
 
@@ -242,6 +263,7 @@ public class Tactician {
     public void addUnit(IUnit unit){
 
         this.playerUnit.add(unit);
+        controller.watch(unit);
     }
 
     /**
@@ -251,6 +273,7 @@ public class Tactician {
 
     public void setItem(IEquipableItem item){
 
+        recordItem(ActionLog.SET_ITEM, actualUnit, actualUnit, item, null);
         if(this.actualUnit.getItems().contains(item)){
 
             this.actualUnit.setEquippedItem(item);
@@ -274,11 +297,12 @@ public class Tactician {
 
     public void moveUnit(int x, int y) {
 
+        controller.record(ActionLog.MOVE_UNIT, this, x, y);
         if (this.getActualUnit() != null) {
             Location actualPosicion = this.getActualUnit().getLocation();
             Location posicionFutura = this.getMap().getCell(x, y);
-            if (actualPosicion.distanceTo(posicionFutura) <= this.getActualUnit().getMovement() &&
-                    actualPosicion.getNeighbours().contains(posicionFutura) && posicionFutura.getUnit() == null && !this.getActualUnit().getMove()) {
+            if (actualPosicion.distanceTo(posicionFutura, this.getActualUnit().getMovement()) <= this.getActualUnit().getMovement() &&
+                    actualPosicion.isNeighbour(posicionFutura) && posicionFutura.getUnit() == null && !this.getActualUnit().getMove()) {
                 actualPosicion.removeUnit();
                 posicionFutura.setUnit(this.getActualUnit());
                 this.getActualUnit().setLocation(posicionFutura);
@@ -287,6 +311,48 @@ public class Tactician {
         }
     }
 
+    /**
+     * Mueve a la unidad actual a lo largo de un camino, paso a paso, hasta gastar su movimiento
+     * La unidad avanza mientras cada celda del camino sea vecina de la anterior y este libre, y
+     * queda en la ultima celda a la que llego. El camino puede empezar en la celda de la unidad,
+     * como los que entrega Field.findPath
+     * @param path celdas del camino
+     */
+
+    public void moveUnitAlong(List<Location> path) {
+
+        IUnit unidad = this.getActualUnit();
+        if (unidad == null || unidad.getMove()) {
+
+            return;
+        }
+        Location actualPosicion = unidad.getLocation();
+        Location destino = actualPosicion;
+        int pasos = 0;
+        for (int i = 0; i < path.size() && pasos < unidad.getMovement(); i++) {
+
+            Location siguiente = this.getMap().getCell(path.get(i).getRow(), path.get(i).getColumn());
+            if (i == 0 && siguiente == actualPosicion) {
+
+                continue;
+            }
+            if (!destino.isNeighbour(siguiente) || siguiente.getUnit() != null) {
+
+                break;
+            }
+            destino = siguiente;
+            pasos++;
+        }
+        if (destino != actualPosicion) {
+
+            controller.record(ActionLog.MOVE_UNIT_ALONG, this, destino.getRow(), destino.getColumn());
+            actualPosicion.removeUnit();
+            destino.setUnit(unidad);
+            unidad.setLocation(destino);
+            unidad.setMove(true);
+        }
+    }
+
     /**
      * Setea la location de una unidad
      * @param x posicion en x
@@ -295,7 +361,47 @@ public class Tactician {
 
     public void setLocationUnit(int x, int y){
 
+        controller.record(ActionLog.SET_LOCATION_UNIT, this, x, y);
         this.actualUnit.setLocation(this.getMap().getCell(x, y));
         this.getMap().getCell(x, y).setUnit(this.actualUnit);
     }
+
+    /**
+     * Registra una accion del jugador con items, si la partida se esta registrando
+     * Los items se guardan como su posicion en el inventario de una unidad: -2 es la mano de la
+     * unidad y -1 un item que no esta en su inventario
+     * @param action codigo de la accion en ActionLog
+     * @param unit unidad sobre la que se hace la accion
+     * @param owner unidad que tiene el primer item
+     * @param item primer item de la accion
+     * @param delivered item de la unidad actual que se entrega en un intercambio, o null
+     */
+
+    private void recordItem(int action, IUnit unit, IUnit owner, IEquipableItem item,
+                            IEquipableItem delivered) {
+
+        if (controller.isRecording()) {
+
+            controller.record(action, this, unit, slotOf(owner, item),
+                    delivered == null ? 0 : slotOf(actualUnit, delivered));
+        }
+    }
+
+    /**
+     * @return la posicion de un item en el inventario de una unidad, -2 si es su mano o -1 si no
+     * lo tiene
+     */
+
+    private static int slotOf(IUnit unit, IEquipableItem item) {
+
+        if (unit == null) {
+
+            return -1;
+        }
+        if (item == unit.getHand()) {
+
+            return -2;
+        }
+        return unit.getItems().indexOf(item);
+    }
 }
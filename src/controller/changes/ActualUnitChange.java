@@ -1,12 +1,10 @@
 package controller.changes;
 
 import controller.GameController;
+import controller.Tactician;
 import model.units.IUnit;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-
-public class ActualUnitChange implements PropertyChangeListener {
+public class ActualUnitChange implements GameListener {
 
     private GameController controller;
 
@@ -16,10 +14,9 @@ public class ActualUnitChange implements PropertyChangeListener {
     }
 
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
+    public void onActualUnitChanged(Tactician player, IUnit unit) {
 
 
-        IUnit unit = (IUnit) evt.getNewValue();
         int x = unit.getLocation().getRow();
         int y = unit.getLocation().getColumn();
         if( x != -1 && y != -1) {
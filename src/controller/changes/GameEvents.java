@@ -0,0 +1,204 @@
+package controller.changes;
+
+import controller.Tactician;
+import java.util.Arrays;
+import model.items.IEquipableItem;
+import model.map.Location;
+import model.units.IUnit;
+
+/**
+ * Repartidor de los eventos de una partida a sus listeners
+ * Cada controlador tiene uno, compartido por sus jugadores y sus unidades, para las muertes y los
+ * cambios de unidad seleccionada, y cada unidad con listeners de sus cambios tiene el suyo, en vez
+ * de un PropertyChangeSupport por objeto. Los listeners se guardan en un arreglo que solo crece al
+ * agregar listeners, asi que repartir un evento es recorrer el arreglo sin crear objetos
+ * Un listener agregado mientras se reparte un evento recibe desde el siguiente evento
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public final class GameEvents {
+
+    private GameListener[] listeners = new GameListener[4];
+    private int count;
+
+    /**
+     * Agrega un listener, que recibe los eventos despues de los listeners ya agregados
+     * @param listener listener que se agrega
+     */
+
+    public void addListener(GameListener listener) {
+
+        if (count == listeners.length) {
+
+            listeners = Arrays.copyOf(listeners, count * 2);
+        }
+        listeners[count++] = listener;
+    }
+
+    /**
+     * Quita un listener, si estaba
+     * @param listener listener que se quita
+     * @return true si el listener estaba
+     */
+
+    public boolean removeListener(GameListener listener) {
+
+        for (int i = 0; i < count; i++) {
+
+            if (listeners[i] == listener) {
+
+                GameListener[] copy = listeners.clone();
+                System.arraycopy(copy, i + 1, copy, i, count - i - 1);
+                copy[--count] = null;
+                listeners = copy;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Avisa que una unidad murio
+     * @param unit unidad que murio
+     */
+
+    public void unitDied(IUnit unit) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onUnitDied(unit);
+        }
+    }
+
+    /**
+     * Avisa que murio el heroe de un jugador
+     * @param player jugador del heroe
+     */
+
+    public void heroDied(Tactician player) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onHeroDied(player);
+        }
+    }
+
+    /**
+     * Avisa que un jugador cambio su unidad seleccionada
+     * @param player jugador que cambio su unidad
+     * @param unit nueva unidad seleccionada
+     */
+
+    public void actualUnitChanged(Tactician player, IUnit unit) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onActualUnitChanged(player, unit);
+        }
+    }
+
+    /**
+     * Avisa que una unidad cambio de celda
+     * @param unit unidad que se movio
+     * @param from celda anterior, o null
+     * @param to celda nueva, o null
+     */
+
+    public void unitMoved(IUnit unit, Location from, Location to) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onUnitMoved(unit, from, to);
+        }
+    }
+
+    /**
+     * Avisa que cambiaron los puntos de vida de una unidad
+     * @param unit unidad
+     * @param oldHitPoints puntos de vida anteriores
+     * @param hitPoints puntos de vida nuevos
+     */
+
+    public void hitPointsChanged(IUnit unit, double oldHitPoints, double hitPoints) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onHitPointsChanged(unit, oldHitPoints, hitPoints);
+        }
+    }
+
+    /**
+     * Avisa que una unidad recibio un item
+     * @param unit unidad
+     * @param item item agregado a su inventario
+     */
+
+    public void itemAdded(IUnit unit, IEquipableItem item) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onItemAdded(unit, item);
+        }
+    }
+
+    /**
+     * Avisa que una unidad perdio un item
+     * @param unit unidad
+     * @param item item quitado de su inventario
+     */
+
+    public void itemRemoved(IUnit unit, IEquipableItem item) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onItemRemoved(unit, item);
+        }
+    }
+
+    /**
+     * Avisa que una unidad cambio su item equipado
+     * @param unit unidad
+     * @param item item equipado, que puede ser su mano, o null
+     */
+
+    public void equippedItemChanged(IUnit unit, IEquipableItem item) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onEquippedItemChanged(unit, item);
+        }
+    }
+
+    /**
+     * Avisa que una unidad murio o volvio a la vida
+     * @param unit unidad
+     * @param alive si quedo viva
+     */
+
+    public void lifeChanged(IUnit unit, boolean alive) {
+
+        GameListener[] current = listeners;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+
+            current[i].onLifeChanged(unit, alive);
+        }
+    }
+}
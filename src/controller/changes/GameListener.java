@@ -0,0 +1,98 @@
+package controller.changes;
+
+import controller.Tactician;
+import model.items.IEquipableItem;
+import model.map.Location;
+import model.units.IUnit;
+
+/**
+ * Listener de los eventos de una partida que reparte GameEvents
+ * Cada metodo es un tipo de evento, asi que se llaman directamente con sus argumentos y no se crea
+ * un objeto por evento. Los metodos no hacen nada si no se sobreescriben
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public interface GameListener {
+
+    /**
+     * Una unidad murio
+     * @param unit unidad que murio
+     */
+
+    default void onUnitDied(IUnit unit) {
+    }
+
+    /**
+     * El heroe de un jugador murio
+     * @param player jugador del heroe
+     */
+
+    default void onHeroDied(Tactician player) {
+    }
+
+    /**
+     * Un jugador cambio su unidad seleccionada
+     * @param player jugador que cambio su unidad
+     * @param unit nueva unidad seleccionada
+     */
+
+    default void onActualUnitChanged(Tactician player, IUnit unit) {
+    }
+
+    /**
+     * Una unidad cambio de celda
+     * @param unit unidad que se movio
+     * @param from celda anterior, o null
+     * @param to celda nueva, o null
+     */
+
+    default void onUnitMoved(IUnit unit, Location from, Location to) {
+    }
+
+    /**
+     * Cambiaron los puntos de vida de una unidad
+     * @param unit unidad
+     * @param oldHitPoints puntos de vida anteriores
+     * @param hitPoints puntos de vida nuevos
+     */
+
+    default void onHitPointsChanged(IUnit unit, double oldHitPoints, double hitPoints) {
+    }
+
+    /**
+     * Una unidad recibio un item
+     * @param unit unidad
+     * @param item item agregado a su inventario
+     */
+
+    default void onItemAdded(IUnit unit, IEquipableItem item) {
+    }
+
+    /**
+     * Una unidad perdio un item
+     * @param unit unidad
+     * @param item item quitado de su inventario
+     */
+
+    default void onItemRemoved(IUnit unit, IEquipableItem item) {
+    }
+
+    /**
+     * Una unidad cambio su item equipado
+     * @param unit unidad
+     * @param item item equipado, que puede ser su mano, o null
+     */
+
+    default void onEquippedItemChanged(IUnit unit, IEquipableItem item) {
+    }
+
+    /**
+     * Una unidad murio o volvio a la vida
+     * @param unit unidad
+     * @param alive si quedo viva
+     */
+
+    default void onLifeChanged(IUnit unit, boolean alive) {
+    }
+}
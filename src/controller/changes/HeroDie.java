@@ -3,10 +3,7 @@ package controller.changes;
 import controller.GameController;
 import controller.Tactician;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-
-public class HeroDie implements PropertyChangeListener {
+public class HeroDie implements GameListener {
 
     private GameController controller;
 
@@ -16,10 +13,9 @@ public class HeroDie implements PropertyChangeListener {
     }
 
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
+    public void onHeroDied(Tactician tactician) {
 
-        Tactician tactician = (Tactician) evt.getNewValue();
-        this.controller.getTacticians().remove(tactician);
+        this.controller.removeTactician(tactician.getName());
 
     }
 }
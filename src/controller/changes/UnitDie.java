@@ -3,16 +3,12 @@ package controller.changes;
 import model.map.Location;
 import model.units.IUnit;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-
-public class UnitDie implements PropertyChangeListener {
+public class UnitDie implements GameListener {
 
 
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
+    public void onUnitDied(IUnit unit) {
 
-        IUnit unit = (IUnit) evt.getNewValue();
         unit.setLifeDead();
         Location location = unit.getLocation();
         location.removeUnit();
@@ -0,0 +1,80 @@
+package controller.simulation;
+
+import controller.GameController;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import model.items.heal.IHeal;
+import model.map.Location;
+import model.units.IUnit;
+
+/**
+ * Estrategia simple para partidas simuladas
+ * Cada unidad equipa su primer item, avanza una celda hacia el enemigo mas cercano y ataca al
+ * enemigo mas cercano que tenga a su alcance; las unidades sin items, como las alpacas, no atacan. Las unidades con items de curacion, en cambio, usan
+ * su item sobre el aliado herido que tengan a su alcance
+ * No crea objetos durante la partida, salvo las copias del inventario que entrega IUnit
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public class AggressivePolicy implements MatchPolicy {
+
+    /**
+     * Lista de objetivos de cada hilo, reutilizada en cada busqueda
+     */
+    private final ThreadLocal<List<IUnit>> objetivos = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public int chooseItem(IUnit unit, GameController controller, Random random) {
+
+        if (unit.getEquippedItem() == unit.getHand() && unit.getItems().size() > 0) {
+
+            return 0;
+        }
+        return -1;
+    }
+
+    @Override
+    public Location chooseMove(IUnit unit, GameController controller, Random random) {
+
+        return controller.getEnemyField(unit.getOwner()).nextStep(unit.getLocation());
+    }
+
+    @Override
+    public IUnit chooseTarget(IUnit unit, GameController controller, Random random) {
+
+        if (unit.getEquippedItem() == unit.getHand()) {
+
+            return null;
+        }
+        if (unit.getEquippedItem() instanceof IHeal) {
+
+            return woundedAlly(unit);
+        }
+        List<IUnit> enemigos = unit.getTargets(objetivos.get());
+        return enemigos.isEmpty() ? null : enemigos.get(0);
+    }
+
+    /**
+     * Busca al aliado herido que la unidad pueda curar
+     * @param unit unidad con un item de curacion
+     * @return el aliado, o null si no hay ninguno al alcance
+     */
+
+    private IUnit woundedAlly(IUnit unit) {
+
+        List<IUnit> aliados = unit.getOwner().getPlayerUnits();
+        for (int i = 0; i < aliados.size(); i++) {
+
+            IUnit aliado = aliados.get(i);
+            if (aliado != unit && MatchSimulator.isOnMap(aliado)
+                    && aliado.getCurrentHitPoints() < aliado.getMaxHitPoints()
+                    && unit.canAttack(aliado)) {
+
+                return aliado;
+            }
+        }
+        return null;
+    }
+}
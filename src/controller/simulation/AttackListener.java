@@ -0,0 +1,23 @@
+package controller.simulation;
+
+import model.units.IUnit;
+
+/**
+ * Observador de los ataques de una partida simulada
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public interface AttackListener {
+
+    /**
+     * Se llama despues de que una unidad usa su item sobre otra, incluyendo el contraataque
+     * Las perdidas son negativas cuando la unidad fue curada
+     * @param attacker unidad que uso su item
+     * @param target unidad sobre la que se uso el item
+     * @param attackerLoss vida que perdio la unidad que ataco
+     * @param targetLoss vida que perdio la unidad atacada
+     */
+
+    void attacked(IUnit attacker, IUnit target, double attackerLoss, double targetLoss);
+}
@@ -0,0 +1,47 @@
+package controller.simulation;
+
+import controller.GameController;
+import java.util.Random;
+import model.map.Location;
+import model.units.IUnit;
+
+/**
+ * Estrategia con la que juega un jugador en una partida simulada
+ * El simulador le pregunta a la estrategia que hacer con cada una de las unidades del jugador
+ * durante su turno y luego ejecuta esas decisiones a traves del GameController
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public interface MatchPolicy {
+
+    /**
+     * Elige el item que equipara la unidad
+     * @param unit unidad seleccionada
+     * @param controller controlador de la partida
+     * @param random generador de la partida
+     * @return indice del item en el inventario de la unidad, o -1 para no cambiarlo
+     */
+
+    int chooseItem(IUnit unit, GameController controller, Random random);
+
+    /**
+     * Elige la celda a la que se movera la unidad
+     * @param unit unidad seleccionada
+     * @param controller controlador de la partida
+     * @param random generador de la partida
+     * @return celda de destino, o null para no moverse
+     */
+
+    Location chooseMove(IUnit unit, GameController controller, Random random);
+
+    /**
+     * Elige la unidad sobre la que se usara el item equipado
+     * @param unit unidad seleccionada
+     * @param controller controlador de la partida
+     * @param random generador de la partida
+     * @return unidad objetivo, o null para no usar el item
+     */
+
+    IUnit chooseTarget(IUnit unit, GameController controller, Random random);
+}
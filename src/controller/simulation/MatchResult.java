@@ -0,0 +1,29 @@
+package controller.simulation;
+
+/**
+ * Resultado de una partida simulada
+ * Los ganadores se guardan como una mascara de bits de los asientos, donde el asiento i es
+ * el jugador "Player i"
+ * @param seed semilla de la partida
+ * @param rounds ronda en la que termino la partida
+ * @param turns cantidad de turnos jugados
+ * @param winners mascara de bits con los asientos ganadores
+ * @param attacks cantidad de veces que se uso un item sobre otra unidad
+ * @param damage daño total recibido por las unidades, sin contar curaciones
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public record MatchResult(long seed, int rounds, int turns, int winners, int attacks,
+                          double damage) {
+
+    /**
+     * @param seat asiento del jugador
+     * @return true si el jugador de ese asiento gano la partida
+     */
+
+    public boolean isWinner(int seat) {
+
+        return (winners & (1 << seat)) != 0;
+    }
+}
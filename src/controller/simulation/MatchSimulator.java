@@ -0,0 +1,342 @@
+package controller.simulation;
+
+import controller.GameController;
+import controller.GameRandom;
+import controller.Tactician;
+import factory.item.AnimaFactory;
+import factory.item.AxeFactory;
+import factory.item.BowFactory;
+import factory.item.DarkFactory;
+import factory.item.ItemFactory;
+import factory.item.LightFactory;
+import factory.item.SpearFactory;
+import factory.item.StaffFactory;
+import factory.item.SwordFactory;
+import java.util.List;
+import java.util.Random;
+import model.items.IEquipableItem;
+import model.map.Field;
+import model.map.Location;
+import model.units.Archer;
+import model.units.Cleric;
+import model.units.Fighter;
+import model.units.Hero;
+import model.units.IUnit;
+import model.units.Sorcerer;
+import model.units.SwordMaster;
+
+/**
+ * Simulador de partidas sin interfaz grafica
+ * Juega una partida completa a traves del GameController: la inicia con initGame, ubica y
+ * arma a las unidades de cada jugador en celdas al azar y, en cada turno, le pregunta a la
+ * estrategia del jugador que hacer con cada unidad, usando selectUnitIn, equipItem,
+ * Tactician.moveUnit y useItemOn, hasta que getWinners deja de ser null
+ * Toda la partida depende solo de la semilla, por lo que dos partidas con la misma semilla
+ * terminan igual. Un simulador reutiliza sus arreglos entre partidas, asi que no debe
+ * compartirse entre hilos
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public class MatchSimulator {
+
+    /**
+     * Cantidad maxima de jugadores, uno por cada bit de la mascara de ganadores
+     */
+
+    public static final int MAX_PLAYERS = 32;
+
+    private final int players;
+    private final int mapSize;
+    private final int maxRounds;
+    private final MatchPolicy[] policies;
+    private final String[] seatNames;
+    private final Tactician[] seats;
+    private final ItemFactory[] books;
+    private final ItemFactory axeFactory = new AxeFactory();
+    private final ItemFactory bowFactory = new BowFactory();
+    private final ItemFactory spearFactory = new SpearFactory();
+    private final ItemFactory staffFactory = new StaffFactory();
+    private final ItemFactory swordFactory = new SwordFactory();
+    private int attacks;
+    private double damage;
+    private AttackListener attackListener;
+
+    /**
+     * Crea un simulador de partidas
+     * @param players cantidad de jugadores
+     * @param mapSize tamaño del mapa
+     * @param maxRounds cantidad maxima de rondas
+     * @param policies estrategia de cada asiento; si hay menos estrategias que jugadores se
+     *                 repiten en orden
+     */
+
+    public MatchSimulator(int players, int mapSize, int maxRounds, MatchPolicy... policies) {
+
+        if (players < 2 || players > MAX_PLAYERS) {
+
+            throw new IllegalArgumentException("Players must be between 2 and " + MAX_PLAYERS);
+        }
+        if (maxRounds < 1) {
+
+            throw new IllegalArgumentException("A simulated match needs a limit of rounds");
+        }
+        if (policies.length == 0) {
+
+            throw new IllegalArgumentException("At least one policy is needed");
+        }
+        this.players = players;
+        this.mapSize = mapSize;
+        this.maxRounds = maxRounds;
+        this.policies = policies.clone();
+        this.seatNames = new String[players];
+        this.seats = new Tactician[players];
+        for (int i = 0; i < players; i++) {
+
+            seatNames[i] = "Player " + i;
+        }
+        this.books = new ItemFactory[] {new AnimaFactory(), new DarkFactory(), new LightFactory()};
+    }
+
+    /**
+     * Registra al observador de los ataques de las partidas siguientes
+     * @param listener observador, o null para no observar los ataques
+     */
+
+    public void setAttackListener(AttackListener listener) {
+
+        this.attackListener = listener;
+    }
+
+    /**
+     * Juega una partida completa
+     * @param seed semilla de la partida
+     * @return resultado de la partida
+     */
+
+    public MatchResult play(long seed) {
+
+        Random random = new GameRandom(seed);
+        GameController controller = start(random);
+
+        attacks = 0;
+        damage = 0;
+        int turns = 0;
+        while (controller.getWinners() == null) {
+
+            Tactician jugador = controller.getTurnOwner();
+            playTurn(controller, jugador, policies[seatOf(jugador) % policies.length], random);
+            turns++;
+            if (controller.getWinners() == null && controller.getTurnOwner() == jugador) {
+
+                controller.endTurn();
+            }
+        }
+
+        int winners = 0;
+        List<Tactician> ganadores = controller.getWinners();
+        for (int i = 0; i < ganadores.size(); i++) {
+
+            winners |= 1 << seatOf(ganadores.get(i));
+        }
+        MatchResult result = new MatchResult(seed, controller.getRoundNumber(), turns, winners,
+                attacks, damage);
+        for (int i = 0; i < players; i++) {
+
+            seats[i] = null;
+        }
+        return result;
+    }
+
+    /**
+     * Crea una partida, la inicia con initGame y arma y ubica a las unidades de los jugadores
+     * @param random generador de la partida
+     * @return controlador de la partida, listo para el primer turno
+     */
+
+    GameController start(Random random) {
+
+        GameController controller = new GameController(players, mapSize, random);
+        controller.initGame(maxRounds);
+        List<Tactician> jugadores = controller.getTacticians();
+        for (int i = 0; i < jugadores.size(); i++) {
+
+            Tactician jugador = jugadores.get(i);
+            seats[seatOf(jugador.getName())] = jugador;
+        }
+        deploy(controller, random);
+        return controller;
+    }
+
+    /**
+     * Juega el turno de un jugador, unidad por unidad
+     * El turno termina antes si el jugador pierde a su hero o si la partida termina
+     * @param controller controlador de la partida
+     * @param jugador jugador del turno
+     * @param policy estrategia del jugador
+     * @param random generador de la partida
+     */
+
+    private void playTurn(GameController controller, Tactician jugador, MatchPolicy policy,
+                          Random random) {
+
+        List<IUnit> unidades = jugador.getPlayerUnits();
+        for (int i = 0; i < unidades.size(); i++) {
+
+            if (controller.getWinners() != null || controller.getTurnOwner() != jugador) {
+
+                return;
+            }
+            IUnit unidad = unidades.get(i);
+            if (!isOnMap(unidad)) {
+
+                continue;
+            }
+            Location ubicacion = unidad.getLocation();
+            controller.selectUnitIn(ubicacion.getRow(), ubicacion.getColumn());
+            jugador.setActualUnit(controller.getActualUnit());
+
+            int item = policy.chooseItem(unidad, controller, random);
+            if (item >= 0) {
+
+                controller.equipItem(item);
+            }
+            Location destino = policy.chooseMove(unidad, controller, random);
+            if (destino != null) {
+
+                jugador.moveUnit(destino.getRow(), destino.getColumn());
+            }
+            IUnit objetivo = policy.chooseTarget(unidad, controller, random);
+            if (objetivo != null && isOnMap(objetivo)) {
+
+                double vidaUnidad = unidad.getCurrentHitPoints();
+                double vidaObjetivo = objetivo.getCurrentHitPoints();
+                Location celda = objetivo.getLocation();
+                controller.useItemOn(celda.getRow(), celda.getColumn());
+                double perdidaUnidad = vidaUnidad - unidad.getCurrentHitPoints();
+                double perdidaObjetivo = vidaObjetivo - objetivo.getCurrentHitPoints();
+                attacks++;
+                damage += Math.max(0, perdidaUnidad) + Math.max(0, perdidaObjetivo);
+                if (attackListener != null) {
+
+                    attackListener.attacked(unidad, objetivo, perdidaUnidad, perdidaObjetivo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Arma a las unidades de todos los jugadores y las ubica en celdas libres al azar
+     * @param controller controlador de la partida
+     * @param random generador de la partida
+     */
+
+    private void deploy(GameController controller, Random random) {
+
+        Field mapa = controller.getGameMap();
+        int libres = mapSize * mapSize;
+        for (int i = 0; i < players; i++) {
+
+            Tactician jugador = seats[i];
+            List<IUnit> unidades = jugador.getPlayerUnits();
+            if (unidades.size() > libres) {
+
+                throw new IllegalArgumentException("The map is too small for all the units");
+            }
+            for (int j = 0; j < unidades.size(); j++) {
+
+                IUnit unidad = unidades.get(j);
+                arm(unidad, random);
+                Location celda;
+                do {
+
+                    celda = mapa.getCell(random.nextInt(mapSize), random.nextInt(mapSize));
+                } while (celda.getUnit() != null);
+                jugador.setActualUnit(unidad);
+                jugador.setLocationUnit(celda.getRow(), celda.getColumn());
+                libres--;
+            }
+        }
+    }
+
+    /**
+     * Le entrega a la unidad el item por defecto que puede equipar
+     * Los sorcerers reciben un libro al azar y las alpacas no reciben nada
+     * @param unidad unidad a armar
+     * @param random generador de la partida
+     */
+
+    private void arm(IUnit unidad, Random random) {
+
+        ItemFactory fabrica = null;
+        if (unidad instanceof Archer) {
+
+            fabrica = bowFactory;
+        } else if (unidad instanceof Cleric) {
+
+            fabrica = staffFactory;
+        } else if (unidad instanceof Fighter) {
+
+            fabrica = axeFactory;
+        } else if (unidad instanceof Hero) {
+
+            fabrica = spearFactory;
+        } else if (unidad instanceof Sorcerer) {
+
+            fabrica = books[random.nextInt(books.length)];
+        } else if (unidad instanceof SwordMaster) {
+
+            fabrica = swordFactory;
+        }
+        if (fabrica != null) {
+
+            IEquipableItem item = fabrica.createDefault();
+            unidad.addItem(item);
+            item.setOwner(unidad);
+        }
+    }
+
+    /**
+     * @param nombre nombre de un jugador
+     * @return asiento del jugador con ese nombre
+     */
+
+    private int seatOf(String nombre) {
+
+        for (int i = 0; i < players; i++) {
+
+            if (seatNames[i].equals(nombre)) {
+
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown player " + nombre);
+    }
+
+    /**
+     * @param jugador jugador de la partida actual
+     * @return asiento del jugador
+     */
+
+    private int seatOf(Tactician jugador) {
+
+        for (int i = 0; i < players; i++) {
+
+            if (seats[i] == jugador) {
+
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown player " + jugador.getName());
+    }
+
+    /**
+     * @param unit unidad de la partida
+     * @return true si la unidad sigue viva y ocupando su celda del mapa
+     */
+
+    static boolean isOnMap(IUnit unit) {
+
+        return unit.getLive() && unit.getLocation().getUnit() == unit;
+    }
+}
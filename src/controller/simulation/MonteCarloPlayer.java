@@ -0,0 +1,885 @@
+package controller.simulation;
+
+import controller.GameController;
+import controller.GameSnapshot;
+import controller.Tactician;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.items.IEquipableItem;
+import model.items.heal.IHeal;
+import model.map.Location;
+import model.units.IUnit;
+
+/**
+ * Jugador controlado por una busqueda de arbol de Monte Carlo (UCT)
+ * Juega el turno completo del jugador de turno decision por decision: que unidad activar (o
+ * terminar el turno), que item equipar y a que celda vecina moverla, y sobre quien usar su item.
+ * Cada decision se busca durante un tiempo fijo: el arbol se recorre con UCT desde el estado
+ * actual, aplicando las acciones con la API del controlador (selectUnitIn, equipItem,
+ * Tactician.moveUnit, useItemOn y endTurn), y desde cada hoja se juega una partida al azar por
+ * algunos turnos. El estado se vuelve a la raiz con GameController.restore, asi que no se copian
+ * objetos entre partidas
+ * La busqueda se reparte entre hilos con paralelismo de raiz: cada hilo tiene su propia copia de
+ * la partida y su propio arbol, y la decision es la accion con mas visitas sumando todos los
+ * arboles. Despues de cada decision cada arbol sigue desde el hijo elegido, y al empezar otro
+ * turno se busca en el arbol el nodo con el mismo estado para reutilizar lo ya explorado
+ * Los hilos de la busqueda se crean la primera vez que se necesitan y se reutilizan en todas las
+ * decisiones; se detienen al cerrar el jugador con close
+ * Un jugador no debe usarse desde varios hilos a la vez
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public class MonteCarloPlayer implements AutoCloseable {
+
+    /**
+     * Constante de exploracion de UCT
+     */
+
+    public static final double EXPLORATION = Math.sqrt(2);
+
+    private static final int SELECT = 0;
+    private static final int ACT = 1;
+    private static final int TARGET = 2;
+    private static final int END_TURN = -1;
+    private static final int MAX_UNITS = 31;
+    private static final int MAX_ACTIONS = 1024;
+
+    private final long moveNanos;
+    private final int playoutTurns;
+    private final int maxNodes;
+    private final Worker[] workers;
+    private ExecutorService pool;
+    private boolean closed;
+    private String[] names;
+    private long playouts;
+
+    /**
+     * Crea un jugador
+     * @param moveMillis tiempo de busqueda de cada decision, en milisegundos
+     * @param threads cantidad de hilos de la busqueda
+     * @param playoutTurns cantidad maxima de turnos de cada partida al azar
+     * @param seed semilla de las partidas al azar
+     */
+
+    public MonteCarloPlayer(long moveMillis, int threads, int playoutTurns, long seed) {
+
+        this(moveMillis, threads, playoutTurns, 200_000, seed);
+    }
+
+    /**
+     * Crea un jugador
+     * @param moveMillis tiempo de busqueda de cada decision, en milisegundos
+     * @param threads cantidad de hilos de la busqueda
+     * @param playoutTurns cantidad maxima de turnos de cada partida al azar
+     * @param maxNodes cantidad maxima de nodos del arbol de cada hilo, al menos 2 para que la
+     *                 raiz pueda tener hijos
+     * @param seed semilla de las partidas al azar
+     */
+
+    public MonteCarloPlayer(long moveMillis, int threads, int playoutTurns, int maxNodes,
+                            long seed) {
+
+        if (moveMillis < 0 || threads < 1 || playoutTurns < 1 || maxNodes < 2) {
+
+            throw new IllegalArgumentException("Invalid search parameters");
+        }
+        this.moveNanos = moveMillis * 1_000_000;
+        this.playoutTurns = playoutTurns;
+        this.maxNodes = maxNodes;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+
+            workers[i] = new Worker(new Random(seed + i));
+        }
+    }
+
+    /**
+     * Juega el turno completo del jugador de turno y lo termina
+     * @param controller controlador de la partida
+     * @throws IllegalStateException si el jugador ya se cerro
+     */
+
+    public void playTurn(GameController controller) {
+
+        if (closed) {
+
+            throw new IllegalStateException("The player was closed");
+        }
+        Tactician jugador = controller.getTurnOwner();
+        if (jugador == null || controller.getWinners() != null) {
+
+            return;
+        }
+        prepare(controller);
+        Match live = new Match(controller, names);
+        while (controller.getWinners() == null && controller.getTurnOwner() == jugador) {
+
+            int action = search();
+            live.apply(action);
+            for (Worker worker : workers) {
+
+                worker.advance(action);
+            }
+        }
+    }
+
+    /**
+     * @return la cantidad de partidas al azar jugadas desde que se creo el jugador
+     */
+
+    public long getPlayouts() {
+
+        return playouts;
+    }
+
+    /**
+     * Detiene los hilos de la busqueda. Despues de cerrarlo el jugador ya no puede jugar turnos
+     */
+
+    @Override
+    public void close() {
+
+        closed = true;
+        if (pool != null) {
+
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    /**
+     * Deja a cada hilo con una copia de la partida, reutilizando la parte de su arbol que
+     * empieza en el estado actual
+     * @param controller controlador de la partida
+     */
+
+    void prepare(GameController controller) {
+
+        List<Tactician> jugadores = controller.getTacticians();
+        if (names == null || !knows(jugadores)) {
+
+            names = new String[jugadores.size()];
+            for (int i = 0; i < names.length; i++) {
+
+                names[i] = jugadores.get(i).getName();
+            }
+            for (Worker worker : workers) {
+
+                worker.root = null;
+            }
+        }
+        for (Worker worker : workers) {
+
+            worker.reset(controller.copy());
+        }
+    }
+
+    /**
+     * Hace una iteracion de la busqueda en el primer hilo, despues de prepare
+     */
+
+    void iterate() {
+
+        workers[0].iterate();
+        playouts++;
+    }
+
+    /**
+     * Busca la siguiente decision durante el tiempo de cada decision
+     * @return la accion con mas visitas en todos los arboles
+     */
+
+    private int search() {
+
+        long deadline = System.nanoTime() + moveNanos;
+        if (workers.length == 1) {
+
+            playouts += workers[0].search(deadline);
+        } else {
+
+            // el primer arbol se busca en este hilo y los demas en los hilos del jugador
+            if (pool == null) {
+
+                pool = Executors.newFixedThreadPool(workers.length - 1, tarea -> {
+
+                    Thread hilo = new Thread(tarea, "monte-carlo-search");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+            }
+            List<Future<Long>> tareas = new ArrayList<>(workers.length - 1);
+            for (int i = 1; i < workers.length; i++) {
+
+                Worker worker = workers[i];
+                tareas.add(pool.submit(() -> worker.search(deadline)));
+            }
+            playouts += workers[0].search(deadline);
+            for (Future<Long> tarea : tareas) {
+
+                try {
+
+                    playouts += tarea.get();
+                } catch (InterruptedException e) {
+
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("The search was interrupted", e);
+                } catch (ExecutionException e) {
+
+                    throw new IllegalStateException("The search failed", e.getCause());
+                }
+            }
+        }
+        int[] acciones = new int[MAX_ACTIONS];
+        long[] visitas = new long[MAX_ACTIONS];
+        int cantidad = 0;
+        for (Worker worker : workers) {
+
+            Node raiz = worker.root;
+            for (int i = 0; i < raiz.childCount; i++) {
+
+                Node hijo = raiz.children[i];
+                int j = 0;
+                while (j < cantidad && acciones[j] != hijo.action) {
+
+                    j++;
+                }
+                if (j == cantidad) {
+
+                    acciones[cantidad++] = hijo.action;
+                }
+                visitas[j] += hijo.visits;
+            }
+        }
+        if (cantidad == 0) {
+
+            // ninguna raiz alcanzo a expandirse, pasar el turno siempre es valido
+            return END_TURN;
+        }
+        int mejor = 0;
+        for (int j = 1; j < cantidad; j++) {
+
+            if (visitas[j] > visitas[mejor]) {
+
+                mejor = j;
+            }
+        }
+        return acciones[mejor];
+    }
+
+    /**
+     * @return true si todos los jugadores de la partida ya tienen indice
+     */
+
+    private boolean knows(List<Tactician> jugadores) {
+
+        for (int i = 0; i < jugadores.size(); i++) {
+
+            boolean found = false;
+            for (int j = 0; j < names.length && !found; j++) {
+
+                found = names[j].equals(jugadores.get(i).getName());
+            }
+            if (!found) {
+
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nodo del arbol: el estado al que se llega con la accion desde el nodo padre
+     */
+
+    private static final class Node {
+
+        private static final Node[] NONE = new Node[0];
+
+        private Node parent;
+        private final int action;
+        private final int mover;
+        private Node[] children = NONE;
+        private int childCount;
+        private int[] untried;
+        private int untriedCount;
+        private int visits;
+        private double value;
+        private long hash;
+        private boolean terminal;
+
+        private Node(Node parent, int action, int mover) {
+
+            this.parent = parent;
+            this.action = action;
+            this.mover = mover;
+        }
+    }
+
+    /**
+     * Partida de un hilo con el estado del turno en curso: las unidades que ya se activaron, la
+     * unidad activa y la fase de su activacion
+     */
+
+    private static final class Match {
+
+        private final GameController game;
+        private final Tactician[] seats;
+        private final List<IUnit> targets = new ArrayList<>();
+        private Tactician owner;
+        private int acted;
+        private int unit = -1;
+        private int phase;
+
+        private Match(GameController game, String[] names) {
+
+            this.game = game;
+            this.seats = new Tactician[names.length];
+            List<Tactician> jugadores = game.getTacticians();
+            for (int i = 0; i < jugadores.size(); i++) {
+
+                for (int j = 0; j < names.length; j++) {
+
+                    if (names[j].equals(jugadores.get(i).getName())) {
+
+                        seats[j] = jugadores.get(i);
+                    }
+                }
+            }
+            newTurn();
+        }
+
+        private void newTurn() {
+
+            owner = game.getTurnOwner();
+            acted = 0;
+            unit = -1;
+            phase = SELECT;
+        }
+
+        private boolean isOver() {
+
+            return game.getWinners() != null || owner == null;
+        }
+
+        private boolean isTurnStart() {
+
+            return phase == SELECT && acted == 0;
+        }
+
+        /**
+         * @return el indice del jugador de turno
+         */
+
+        private int mover() {
+
+            for (int i = 0; i < seats.length; i++) {
+
+                if (seats[i] == owner) {
+
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Escribe las acciones posibles en el estado actual
+         * @param out arreglo donde se escriben
+         * @return la cantidad de acciones
+         */
+
+        private int actions(int[] out) {
+
+            int count = 0;
+            List<IUnit> unidades = owner.getPlayerUnits();
+            if (phase == SELECT) {
+
+                for (int i = 0; i < unidades.size() && i < MAX_UNITS; i++) {
+
+                    if ((acted & 1 << i) == 0 && MatchSimulator.isOnMap(unidades.get(i))) {
+
+                        out[count++] = i;
+                    }
+                }
+                out[count++] = END_TURN;
+            } else if (phase == ACT) {
+
+                IUnit unidad = unidades.get(unit);
+                List<IEquipableItem> items = unidad.getItems();
+                Location celda = unidad.getLocation();
+                for (int item = 0; item <= items.size(); item++) {
+
+                    if (item > 0 && items.get(item - 1) == unidad.getEquippedItem()) {
+
+                        continue;
+                    }
+                    out[count++] = item << 8;
+                    for (int k = 0; !unidad.getMove() && k < celda.getNeighbourCount() && k < 255; k++) {
+
+                        if (celda.getNeighbour(k).getUnit() == null && count < out.length) {
+
+                            out[count++] = item << 8 | k + 1;
+                        }
+                    }
+                }
+            } else {
+
+                out[count++] = 0;
+                List<IUnit> objetivos = targetsOf(unidades.get(unit));
+                for (int i = 0; i < objetivos.size() && count < out.length; i++) {
+
+                    out[count++] = i + 1;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Aplica una accion con la API del controlador
+         * @param action accion, como la escribe actions
+         */
+
+        private void apply(int action) {
+
+            List<IUnit> unidades = owner.getPlayerUnits();
+            if (phase == SELECT) {
+
+                if (action == END_TURN) {
+
+                    game.endTurn();
+                    newTurn();
+                    return;
+                }
+                select(action);
+                acted |= 1 << action;
+                unit = action;
+                phase = ACT;
+            } else if (phase == ACT) {
+
+                IUnit unidad = unidades.get(unit);
+                int item = action >>> 8, move = action & 0xFF;
+                if (item > 0) {
+
+                    game.equipItem(item - 1);
+                }
+                if (move > 0) {
+
+                    Location destino = unidad.getLocation().getNeighbour(move - 1);
+                    owner.moveUnit(destino.getRow(), destino.getColumn());
+                }
+                phase = TARGET;
+            } else {
+
+                if (action > 0) {
+
+                    Location celda = targetsOf(unidades.get(unit)).get(action - 1).getLocation();
+                    game.useItemOn(celda.getRow(), celda.getColumn());
+                }
+                unit = -1;
+                phase = SELECT;
+            }
+            if (game.getWinners() == null && game.getTurnOwner() != owner) {
+
+                newTurn();
+            }
+        }
+
+        /**
+         * Selecciona una unidad del jugador de turno en el controlador y en el jugador
+         * @param index posicion de la unidad en la lista del jugador
+         */
+
+        private void select(int index) {
+
+            Location celda = owner.getPlayerUnits().get(index).getLocation();
+            game.selectUnitIn(celda.getRow(), celda.getColumn());
+            owner.setActualUnit(game.getActualUnit());
+        }
+
+        /**
+         * @return los enemigos al alcance de la unidad, o los aliados heridos si tiene equipado un
+         * item de curacion
+         */
+
+        private List<IUnit> targetsOf(IUnit unidad) {
+
+            targets.clear();
+            IEquipableItem item = unidad.getEquippedItem();
+            if (item == unidad.getHand()) {
+
+                return targets;
+            }
+            if (!(item instanceof IHeal)) {
+
+                return unidad.getTargets(targets);
+            }
+            List<IUnit> aliados = unidad.getOwner().getPlayerUnits();
+            for (int i = 0; i < aliados.size(); i++) {
+
+                IUnit aliado = aliados.get(i);
+                if (aliado != unidad && MatchSimulator.isOnMap(aliado)
+                        && aliado.getCurrentHitPoints() < aliado.getMaxHitPoints()
+                        && unidad.canAttack(aliado)) {
+
+                    targets.add(aliado);
+                }
+            }
+            return targets;
+        }
+
+        /**
+         * Evalua el estado para cada jugador: los ganadores se reparten 1 y, si la partida sigue,
+         * cada jugador recibe su parte de la vida de todas las unidades en el mapa
+         * @param out arreglo donde se escribe el valor de cada jugador
+         */
+
+        private void evaluate(double[] out) {
+
+            List<Tactician> ganadores = game.getWinners();
+            double total = 0;
+            for (int p = 0; p < seats.length; p++) {
+
+                out[p] = 0;
+                if (seats[p] == null || (ganadores != null && !ganadores.contains(seats[p]))
+                        || (ganadores == null && !game.getTacticians().contains(seats[p]))) {
+
+                    continue;
+                }
+                if (ganadores != null) {
+
+                    out[p] = 1;
+                } else {
+
+                    List<IUnit> unidades = seats[p].getPlayerUnits();
+                    for (int i = 0; i < unidades.size(); i++) {
+
+                        if (MatchSimulator.isOnMap(unidades.get(i))) {
+
+                            out[p] += Math.max(0, unidades.get(i).getCurrentHitPoints());
+                        }
+                    }
+                }
+                total += out[p];
+            }
+            for (int p = 0; total > 0 && p < seats.length; p++) {
+
+                out[p] /= total;
+            }
+        }
+    }
+
+    /**
+     * Busqueda de un hilo, con su copia de la partida y su arbol
+     */
+
+    private final class Worker {
+
+        private final Random random;
+        private final int[] actions = new int[MAX_ACTIONS];
+        private Match match;
+        private GameSnapshot rootState;
+        private int rootActed;
+        private int rootUnit;
+        private int rootPhase;
+        private Node root;
+        private int nodes;
+        private double[] reward;
+
+        private Worker(Random random) {
+
+            this.random = random;
+        }
+
+        /**
+         * Empieza a buscar sobre una copia de la partida, desde el nodo del arbol anterior con
+         * el mismo estado si lo hay
+         */
+
+        private void reset(GameController copy) {
+
+            match = new Match(copy, names);
+            reward = new double[names.length];
+            rootState = copy.snapshot();
+            saveRoot();
+            long hash = hash(rootState);
+            Node encontrado = root == null ? null : find(root, hash);
+            if (encontrado == null) {
+
+                root = new Node(null, END_TURN, -1);
+                root.hash = hash;
+                nodes = 1;
+            } else {
+
+                encontrado.parent = null;
+                root = encontrado;
+                nodes = count(root);
+            }
+        }
+
+        /**
+         * Aplica la accion elegida y deja como raiz al hijo que le corresponde
+         */
+
+        private void advance(int action) {
+
+            restoreRoot();
+            Node hijo = null;
+            for (int i = 0; i < root.childCount && hijo == null; i++) {
+
+                if (root.children[i].action == action) {
+
+                    hijo = root.children[i];
+                }
+            }
+            int mover = match.mover();
+            match.apply(action);
+            rootState = match.game.snapshot();
+            saveRoot();
+            if (hijo == null) {
+
+                hijo = new Node(null, action, mover);
+                if (match.isTurnStart()) {
+
+                    hijo.hash = hash(rootState);
+                }
+            }
+            hijo.parent = null;
+            root = hijo;
+            nodes = count(root);
+        }
+
+        /**
+         * Itera hasta el tiempo limite, al menos una vez
+         * @return la cantidad de iteraciones
+         */
+
+        private long search(long deadline) {
+
+            long count = 0;
+            do {
+
+                iterate();
+                count++;
+            } while (System.nanoTime() < deadline);
+            return count;
+        }
+
+        /**
+         * Baja por el arbol con UCT, agrega un nodo, juega una partida al azar desde el y suma el
+         * resultado en el camino
+         */
+
+        private void iterate() {
+
+            restoreRoot();
+            Node node = root;
+            while (!node.terminal) {
+
+                if (node.untried == null) {
+
+                    int count = match.actions(actions);
+                    node.untried = new int[count];
+                    System.arraycopy(actions, 0, node.untried, 0, count);
+                    node.untriedCount = count;
+                    node.children = new Node[count];
+                }
+                if (node.untriedCount > 0 && nodes < maxNodes) {
+
+                    int i = random.nextInt(node.untriedCount);
+                    int action = node.untried[i];
+                    node.untried[i] = node.untried[--node.untriedCount];
+                    Node hijo = new Node(node, action, match.mover());
+                    match.apply(action);
+                    hijo.terminal = match.isOver();
+                    if (match.isTurnStart() && !hijo.terminal) {
+
+                        hijo.hash = hash(match.game.snapshot());
+                    }
+                    node.children[node.childCount++] = hijo;
+                    nodes++;
+                    node = hijo;
+                    break;
+                }
+                if (node.childCount == 0) {
+
+                    break;
+                }
+                node = select(node);
+                match.apply(node.action);
+            }
+            playout();
+            for (Node n = node; n != null; n = n.parent) {
+
+                n.visits++;
+                if (n.mover >= 0) {
+
+                    n.value += reward[n.mover];
+                }
+            }
+        }
+
+        /**
+         * @return el hijo con mayor valor UCT para el jugador que elige en el nodo
+         */
+
+        private Node select(Node node) {
+
+            double log = Math.log(node.visits);
+            Node mejor = null;
+            double valorMejor = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < node.childCount; i++) {
+
+                Node hijo = node.children[i];
+                double valor = hijo.visits == 0 ? Double.POSITIVE_INFINITY
+                        : hijo.value / hijo.visits + EXPLORATION * Math.sqrt(log / hijo.visits);
+                if (valor > valorMejor) {
+
+                    valorMejor = valor;
+                    mejor = hijo;
+                }
+            }
+            return mejor;
+        }
+
+        /**
+         * Juega al azar hasta que termina la partida o pasan los turnos de la partida al azar, y
+         * evalua el estado final
+         * Las unidades se activan en orden, se mueven y equipan al azar y usan su item sobre un
+         * objetivo al azar si tienen alguno
+         */
+
+        private void playout() {
+
+            int turnos = 0;
+            while (!match.isOver() && turnos < playoutTurns) {
+
+                Tactician jugador = match.owner;
+                int count = match.actions(actions);
+                int action;
+                if (match.phase == SELECT) {
+
+                    action = actions[0];
+                } else if (match.phase == TARGET && count > 1) {
+
+                    action = actions[1 + random.nextInt(count - 1)];
+                } else {
+
+                    action = actions[random.nextInt(count)];
+                }
+                match.apply(action);
+                if (match.owner != jugador) {
+
+                    turnos++;
+                }
+            }
+            match.evaluate(reward);
+        }
+
+        private void saveRoot() {
+
+            rootActed = match.acted;
+            rootUnit = match.unit;
+            rootPhase = match.phase;
+        }
+
+        private void restoreRoot() {
+
+            match.game.restore(rootState);
+            match.owner = match.game.getTurnOwner();
+            match.acted = rootActed;
+            match.unit = rootUnit;
+            match.phase = rootPhase;
+            if (rootUnit >= 0) {
+
+                // las fotos no guardan la unidad seleccionada
+                match.select(rootUnit);
+            }
+        }
+
+        /**
+         * Busca en el arbol un nodo de inicio de turno con el hash entregado
+         */
+
+        private Node find(Node from, long hash) {
+
+            ArrayDeque<Node> pendientes = new ArrayDeque<>();
+            pendientes.add(from);
+            while (!pendientes.isEmpty()) {
+
+                Node node = pendientes.poll();
+                if (node.hash == hash) {
+
+                    return node;
+                }
+                for (int i = 0; i < node.childCount; i++) {
+
+                    pendientes.add(node.children[i]);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Cuenta los nodos del arbol que parte en un nodo, sin recursion porque el arbol puede ser
+         * muy profundo
+         */
+
+        private int count(Node from) {
+
+            int total = 0;
+            ArrayDeque<Node> pendientes = new ArrayDeque<>();
+            pendientes.push(from);
+            while (!pendientes.isEmpty()) {
+
+                Node node = pendientes.pop();
+                total++;
+                for (int i = 0; i < node.childCount; i++) {
+
+                    pendientes.push(node.children[i]);
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * @return un hash del estado de una foto, para reconocer el mismo estado en otra copia de la
+     * partida
+     */
+
+    static long hash(GameSnapshot state) {
+
+        long hash = mix(mix(mix(1, state.getRoundNumber()), state.getTurnOwner()),
+                state.getRandomState());
+        for (int i = 0; i < state.getTurnOrderSize(); i++) {
+
+            hash = mix(hash, state.getPlayerAt(i));
+        }
+        for (int e = 0; e < state.getUnitCount(); e++) {
+
+            hash = mix(hash, state.getCell(e));
+            hash = mix(hash, Double.doubleToLongBits(state.getHitPoints(e)));
+            hash = mix(hash, (state.isAlive(e) ? 1 : 0) | (state.hasMoved(e) ? 2 : 0)
+                    | (state.isOnMap(e) ? 4 : 0));
+            hash = mix(hash, state.getEquippedSlot(e));
+            for (int j = 0; j < state.getItemCount(e); j++) {
+
+                hash = mix(hash, state.getItem(e, j));
+            }
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long hash, long value) {
+
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,134 @@
+package controller.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Juega muchas partidas simuladas en paralelo y junta sus estadisticas
+ * Las partidas se reparten en un ForkJoinPool, que balancea la carga robando trabajo entre
+ * hilos. Cada tarea hoja usa su propio MatchSimulator, por lo que cada partida tiene su propio
+ * GameController, Field y Random, y la semilla de la partida i se deriva solo de la semilla
+ * maestra y de i. Asi el resultado del torneo es el mismo con cualquier cantidad de hilos
+ * Las estrategias se comparten entre hilos, por lo que no deben guardar estado
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public class TournamentRunner {
+
+    /**
+     * Cantidad de partidas bajo la cual una tarea deja de dividirse
+     */
+
+    static final int LEAF_MATCHES = 16;
+
+    private final int players;
+    private final int mapSize;
+    private final int maxRounds;
+    private final MatchPolicy[] policies;
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea un torneo que usa el pool comun, con un hilo por nucleo
+     * @param players cantidad de jugadores por partida
+     * @param mapSize tamaño del mapa
+     * @param maxRounds cantidad maxima de rondas por partida
+     * @param policies estrategia de cada asiento
+     */
+
+    public TournamentRunner(int players, int mapSize, int maxRounds, MatchPolicy... policies) {
+
+        this(ForkJoinPool.commonPool(), players, mapSize, maxRounds, policies);
+    }
+
+    /**
+     * Crea un torneo que juega sus partidas en el pool dado
+     * @param pool pool donde se jugaran las partidas
+     * @param players cantidad de jugadores por partida
+     * @param mapSize tamaño del mapa
+     * @param maxRounds cantidad maxima de rondas por partida
+     * @param policies estrategia de cada asiento
+     */
+
+    public TournamentRunner(ForkJoinPool pool, int players, int mapSize, int maxRounds,
+                            MatchPolicy... policies) {
+
+        // Valida los parametros igual que lo hara cada simulador
+        new MatchSimulator(players, mapSize, maxRounds, policies);
+        this.pool = pool;
+        this.players = players;
+        this.mapSize = mapSize;
+        this.maxRounds = maxRounds;
+        this.policies = policies.clone();
+    }
+
+    /**
+     * Juega un torneo
+     * @param masterSeed semilla de la que se derivan las semillas de todas las partidas
+     * @param matches cantidad de partidas
+     * @return estadisticas de todas las partidas
+     */
+
+    public TournamentStats run(long masterSeed, int matches) {
+
+        return pool.invoke(new Matches(masterSeed, 0, matches));
+    }
+
+    /**
+     * Deriva la semilla de una partida, mezclando los bits de la semilla maestra y del indice
+     * (la funcion de mezcla de SplitMix64)
+     * @param masterSeed semilla maestra del torneo
+     * @param match indice de la partida
+     * @return semilla de la partida
+     */
+
+    public static long matchSeed(long masterSeed, long match) {
+
+        long z = masterSeed + (match + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Tarea que juega las partidas de un intervalo de indices, dividiendolo en dos mientras
+     * sea grande
+     */
+
+    private class Matches extends RecursiveTask<TournamentStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long masterSeed;
+        private final int from;
+        private final int to;
+
+        Matches(long masterSeed, int from, int to) {
+
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentStats compute() {
+
+            if (to - from <= LEAF_MATCHES) {
+
+                TournamentStats stats = new TournamentStats();
+                MatchSimulator simulator = new MatchSimulator(players, mapSize, maxRounds, policies);
+                simulator.setAttackListener(stats);
+                for (int i = from; i < to; i++) {
+
+                    stats.add(simulator.play(matchSeed(masterSeed, i)));
+                }
+                return stats;
+            }
+            int middle = (from + to) >>> 1;
+            Matches left = new Matches(masterSeed, from, middle);
+            left.fork();
+            TournamentStats right = new Matches(masterSeed, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+}
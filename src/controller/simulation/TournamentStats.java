@@ -0,0 +1,214 @@
+package controller.simulation;
+
+import model.units.Alpaca;
+import model.units.Archer;
+import model.units.Cleric;
+import model.units.Fighter;
+import model.units.Hero;
+import model.units.IUnit;
+import model.units.Sorcerer;
+import model.units.SwordMaster;
+
+/**
+ * Estadisticas acumuladas de un conjunto de partidas simuladas
+ * Cada hilo de un torneo llena sus propias estadisticas, que luego se juntan con merge. Como
+ * solo se guardan sumas, el resultado no depende de como se repartieron las partidas
+ * Un enfrentamiento es un ataque entre unidades de distintos jugadores; lo gana la unidad que
+ * perdio menos vida. Los histogramas cuentan el daño que hizo cada ataque, segun el tipo de la
+ * unidad que ataco, en intervalos de <code>BUCKET_WIDTH</code>
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+
+public class TournamentStats implements AttackListener {
+
+    /**
+     * Tipos de unidad, en el orden de los arreglos de estadisticas
+     */
+
+    public static final Class<?>[] UNIT_TYPES = {Alpaca.class, Archer.class, Cleric.class,
+            Fighter.class, Hero.class, Sorcerer.class, SwordMaster.class};
+
+    /**
+     * Ancho de cada intervalo de los histogramas de daño
+     */
+
+    public static final int BUCKET_WIDTH = 10;
+
+    /**
+     * Cantidad de intervalos de los histogramas; el ultimo junta todo el daño mayor
+     */
+
+    public static final int BUCKETS = 16;
+
+    private long matches;
+    private long rounds;
+    private long turns;
+    private final long[] seatWins = new long[MatchSimulator.MAX_PLAYERS];
+    private final long[] fights = new long[UNIT_TYPES.length];
+    private final long[] fightsWon = new long[UNIT_TYPES.length];
+    private final long[][] damage = new long[UNIT_TYPES.length][BUCKETS];
+
+    /**
+     * Agrega el resultado de una partida
+     * @param result resultado de la partida
+     */
+
+    public void add(MatchResult result) {
+
+        matches++;
+        rounds += result.rounds();
+        turns += result.turns();
+        for (int i = 0; i < seatWins.length; i++) {
+
+            if (result.isWinner(i)) {
+
+                seatWins[i]++;
+            }
+        }
+    }
+
+    @Override
+    public void attacked(IUnit attacker, IUnit target, double attackerLoss, double targetLoss) {
+
+        if (attacker.getOwner() == target.getOwner()) {
+
+            return;
+        }
+        int atacante = typeOf(attacker);
+        int atacado = typeOf(target);
+        fights[atacante]++;
+        fights[atacado]++;
+        if (attackerLoss < targetLoss) {
+
+            fightsWon[atacante]++;
+        } else if (targetLoss < attackerLoss) {
+
+            fightsWon[atacado]++;
+        }
+        int intervalo = (int) Math.max(0, Math.min(BUCKETS - 1, targetLoss / BUCKET_WIDTH));
+        damage[atacante][intervalo]++;
+    }
+
+    /**
+     * Junta las estadisticas de otro conjunto de partidas con estas
+     * @param other estadisticas a agregar
+     * @return estas estadisticas
+     */
+
+    public TournamentStats merge(TournamentStats other) {
+
+        matches += other.matches;
+        rounds += other.rounds;
+        turns += other.turns;
+        for (int i = 0; i < seatWins.length; i++) {
+
+            seatWins[i] += other.seatWins[i];
+        }
+        for (int i = 0; i < UNIT_TYPES.length; i++) {
+
+            fights[i] += other.fights[i];
+            fightsWon[i] += other.fightsWon[i];
+            for (int j = 0; j < BUCKETS; j++) {
+
+                damage[i][j] += other.damage[i][j];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return cantidad de partidas jugadas
+     */
+
+    public long getMatches() {
+
+        return matches;
+    }
+
+    /**
+     * @return cantidad total de turnos jugados
+     */
+
+    public long getTurns() {
+
+        return turns;
+    }
+
+    /**
+     * @return promedio de rondas por partida
+     */
+
+    public double getAverageRounds() {
+
+        return matches == 0 ? 0 : (double) rounds / matches;
+    }
+
+    /**
+     * @param seat asiento del jugador
+     * @return fraccion de las partidas que gano ese asiento, contando los empates
+     */
+
+    public double getSeatWinRate(int seat) {
+
+        return matches == 0 ? 0 : (double) seatWins[seat] / matches;
+    }
+
+    /**
+     * @param type tipo de unidad, uno de <code>UNIT_TYPES</code>
+     * @return cantidad de enfrentamientos de las unidades de ese tipo
+     */
+
+    public long getFights(Class<?> type) {
+
+        return fights[indexOf(type)];
+    }
+
+    /**
+     * @param type tipo de unidad, uno de <code>UNIT_TYPES</code>
+     * @return fraccion de los enfrentamientos que ganaron las unidades de ese tipo
+     */
+
+    public double getWinRate(Class<?> type) {
+
+        int i = indexOf(type);
+        return fights[i] == 0 ? 0 : (double) fightsWon[i] / fights[i];
+    }
+
+    /**
+     * @param type tipo de unidad, uno de <code>UNIT_TYPES</code>
+     * @return copia del histograma del daño hecho por las unidades de ese tipo
+     */
+
+    public long[] getDamageHistogram(Class<?> type) {
+
+        return damage[indexOf(type)].clone();
+    }
+
+    /**
+     * @param unit unidad de la partida
+     * @return posicion del tipo de la unidad en <code>UNIT_TYPES</code>
+     */
+
+    private static int typeOf(IUnit unit) {
+
+        return indexOf(unit.getClass());
+    }
+
+    /**
+     * @param type tipo de unidad
+     * @return posicion del tipo en <code>UNIT_TYPES</code>
+     */
+
+    private static int indexOf(Class<?> type) {
+
+        for (int i = 0; i < UNIT_TYPES.length; i++) {
+
+            if (UNIT_TYPES[i] == type) {
+
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown unit type " + type.getName());
+    }
+}
@@ -15,97 +15,37 @@ public class MapFactory {
 
     /**
      * Se encarga de chequear el mapa, verificando que el mapa sea conexo
-     * En caso contrario agrega vecinos a los nodos que no poseen
+     * En caso contrario recorre las celdas y une cada par de celdas adyacentes
+     * que esten en componentes distintas, agregando un solo puente por componente
      * hasta que logre que sea conexo
      * @param map Mapa a verificar
      * @return Mapa modificado y conexo
      */
     public Field checkMap(Field map) {
 
-        if (map.isConnected()) {
-            return map;
-        } else {
-
-            for (int i = 0; i <map.getSize(); i++) {
-                for (int j = 0; j < map.getSize(); j++) {
-
-                    Location location = map.getCell(i, j);
-                    if(location.getNeighbours().size() < 2){
-                        if(location.getRow() <= map.getSize()-1 && location.getRow() >= 0){
-                            if(location.getRow() == 0) {
-                                location.addNeighbour(map.getCell(i + 1, j));
-                                map.getCell(i + 1, j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i - 1, j));
-                                map.getCell(i - 1, j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j + 1));
-                                map.getCell(i , j + 1).addNeighbour(location);
-
-                            }
-                            else if(location.getRow() == map.getSize()-1){
-                                location.addNeighbour(map.getCell(i + 1, j));
-                                map.getCell(i + 1, j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i - 1, j));
-                                map.getCell(i - 1 , j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j - 1));
-                                map.getCell(i, j - 1).addNeighbour(location);
-
-                            }
-                            else{
-
-                                location.addNeighbour(map.getCell(i - 1, j));
-                                map.getCell(i - 1, j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j - 1));
-                                map.getCell(i, j - 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j + 1));
-                                map.getCell(i, j + 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i + 1, j));
-                                map.getCell(i + 1, j).addNeighbour(location);
-
-                            }
-                        }
-                        if(map.isConnected()){
-                            return map;
-                        }
-                        else if(location.getColumn() <= map.getSize()-1 && location.getColumn() >= 0){
-                            if(location.getColumn() == 0) {
-                                location.addNeighbour(map.getCell(i, j + 1));
-                                map.getCell(i, j + 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j - 1));
-                                map.getCell(i, j - 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i + 1, j));
-                                map.getCell(i + 1, j).addNeighbour(location);
-
-                            }
-                            else if(location.getColumn() == map.getSize()-1){
-                                location.addNeighbour(map.getCell(i, j + 1));
-                                map.getCell(i, j + 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j - 1));
-                                map.getCell(i, j - 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i - 1, j));
-                                map.getCell(i - 1, j).addNeighbour(location);
-
-                            }
-                            else{
-
-                                location.addNeighbour(map.getCell(i, j + 1));
-                                map.getCell(i, j + 1).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i + 1, j));
-                                map.getCell(i + 1, j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i - 1, j));
-                                map.getCell(i - 1, j).addNeighbour(location);
-                                location.addNeighbour(map.getCell(i, j - 1));
-                                map.getCell(i, j - 1).addNeighbour(location);
-
-                            }
-                        }
-                        if(map.isConnected()){
-                            return map;
-                        }
+        for (int i = 0; i < map.getSize() && !map.isConnected(); i++) {
+            for (int j = 0; j < map.getSize() && !map.isConnected(); j++) {
 
-                    }
-                }
+                Location location = map.getCell(i, j);
+                joinComponents(map, location, map.getCell(i, j + 1));
+                joinComponents(map, location, map.getCell(i + 1, j));
             }
-            return map;
+        }
+        return map;
+    }
+
+    /**
+     * Conecta dos celdas del mapa si estan en componentes distintas
+     * @param map Mapa de las celdas
+     * @param location Primera celda
+     * @param adjacent Celda adyacente a la primera
+     */
+    private void joinComponents(Field map, Location location, Location adjacent) {
+
+        int component = map.getComponent(location);
+        int adjacentComponent = map.getComponent(adjacent);
+        if (component >= 0 && adjacentComponent >= 0 && component != adjacentComponent) {
+            location.addNeighbour(adjacent);
         }
     }
 
@@ -123,6 +63,62 @@ public class MapFactory {
         return getField(size, field, seed);
     }
 
+    /**
+     * Crea un mapa conexo en una sola pasada, sin necesidad de repararlo con checkMap
+     * Recorre las celdas por filas y conecta cada una con la celda de arriba y la de la
+     * izquierda con probabilidad 2/3, igual que addCells; si no se conecto con ninguna, se
+     * conecta con una de ellas al azar. Como toda celda queda unida a una celda anterior, las
+     * conexiones forman un arbol cobertor mas conexiones extra y el mapa siempre es conexo
+     * El mapa depende solo de la semilla y se crea en tiempo lineal
+     * @param size Tamaño del mapa
+     * @param seed Semilla para Random
+     * @param field Mapa base donde se creara
+     * @return El mapa conexo
+     */
+
+    public Field createConnectedMap(int size, Random seed, Field field){
+
+        field.setRandom(seed);
+        field.setCompactNeighbours(true);
+        for(int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+
+                Location location = new Location(i, j);
+                field.addCell(location);
+                Location arriba = field.getCell(i - 1, j);
+                Location izquierda = field.getCell(i, j - 1);
+                boolean conectada = false;
+                if(i > 0 && seed.nextDouble() > 1.0 / 3){
+                    location.addNeighbour(arriba);
+                    conectada = true;
+                }
+                if(j > 0 && seed.nextDouble() > 1.0 / 3){
+                    location.addNeighbour(izquierda);
+                    conectada = true;
+                }
+                if(!conectada && i > 0 && j > 0){
+                    location.addNeighbour(seed.nextBoolean() ? arriba : izquierda);
+                }
+                else if(!conectada && (i > 0 || j > 0)){
+                    location.addNeighbour(i > 0 ? arriba : izquierda);
+                }
+            }
+        }
+        field.setDistanceCache(true);
+        return field;
+    }
+
+    /**
+     * Crea un mapa conexo en una sola pasada con una semilla al azar
+     * @param size Tamaño del mapa
+     * @return El mapa conexo
+     */
+
+    public Field createConnectedMap(int size){
+
+        return createConnectedMap(size, new Random(), new Field());
+    }
+
     /**
      * Crea un mapa con la semilla del controlador
      * @param size Tamaño del mapa
@@ -139,6 +135,8 @@ public class MapFactory {
     /**
      * Encargado de introducir las celdas al mapa
      * Con un numero al azar crea celdas con o sin vecinos
+     * El mapa entregado guarda sus conexiones como mascaras de direcciones y la tabla de
+     * distancias entre sus celdas
      * @param size Tamaño del mapa
      * @param map Mapa base
      * @param seed Semilla (testeos)
@@ -168,6 +166,9 @@ public class MapFactory {
                 }
             }
         }
-        return checkMap(map);
+        Field field = checkMap(map);
+        field.setCompactNeighbours(true);
+        field.setDistanceCache(true);
+        return field;
     }
 }
@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.magic.AnimaBook;
 
 /**
@@ -10,6 +11,12 @@ import model.items.attack.magic.AnimaBook;
 
 public class AnimaFactory implements ItemFactory {
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(AnimaBook.class, "Anima", 40, 1, 3);
+
     /**
      * Crea una AnimaBook con parametros dados por el usuario
      * @param power daño del arma
@@ -31,6 +38,6 @@ public class AnimaFactory implements ItemFactory {
     @Override
     public AnimaBook createDefault(){
 
-        return new AnimaBook("Anima", 40, 1, 3);
+        return new AnimaBook(DEFAULT);
     }
 }
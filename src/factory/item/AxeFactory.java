@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.normal.Axe;
 
 /**
@@ -11,6 +12,12 @@ import model.items.attack.normal.Axe;
 
 public class AxeFactory implements ItemFactory {
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(Axe.class, "Axe", 40, 1, 2);
+
     /**
      * Crea una Axe con parametros dados por el usuario
      * @param power daño del arma
@@ -33,6 +40,6 @@ public class AxeFactory implements ItemFactory {
     @Override
     public Axe createDefault(){
 
-        return new Axe("Axe", 40, 1, 2);
+        return new Axe(DEFAULT);
     }
 }
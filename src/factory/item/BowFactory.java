@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.normal.Bow;
 
 /**
@@ -11,6 +12,12 @@ import model.items.attack.normal.Bow;
 
 public class BowFactory implements ItemFactory {
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(Bow.class, "Bow", 25, 2, 3);
+
     /**
      * Crea una Bow con parametros dados por el usuario
      * @param power daño del arma
@@ -33,6 +40,6 @@ public class BowFactory implements ItemFactory {
     @Override
     public Bow createDefault(){
 
-        return new Bow("Bow",25, 2,3);
+        return new Bow(DEFAULT);
     }
 }
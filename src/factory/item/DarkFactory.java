@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.magic.DarkBook;
 
 /**
@@ -11,6 +12,12 @@ import model.items.attack.magic.DarkBook;
 
 public class DarkFactory implements ItemFactory{
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(DarkBook.class, "Dark", 50, 1, 3);
+
     /**
      * Crea una DarkBook con parametros dados por el usuario
      * @param power daño del arma
@@ -33,6 +40,6 @@ public class DarkFactory implements ItemFactory{
     @Override
     public DarkBook createDefault(){
 
-        return new DarkBook("Dark", 50, 1, 3);
+        return new DarkBook(DEFAULT);
     }
 }
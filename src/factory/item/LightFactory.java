@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.magic.LightBook;
 
 /**
@@ -11,6 +12,12 @@ import model.items.attack.magic.LightBook;
 
 public class LightFactory implements ItemFactory {
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(LightBook.class, "Light", 50, 1, 3);
+
     /**
      * Crea una LightBook con parametros dados por el usuario
      * @param power daño del arma
@@ -33,6 +40,6 @@ public class LightFactory implements ItemFactory {
     @Override
     public LightBook createDefault(){
 
-        return new LightBook("Light", 50, 1, 3);
+        return new LightBook(DEFAULT);
     }
 }
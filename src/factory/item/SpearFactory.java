@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.normal.Spear;
 
 /**
@@ -11,6 +12,12 @@ import model.items.attack.normal.Spear;
 
 public class SpearFactory implements ItemFactory {
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(Spear.class, "Spear", 30, 1, 2);
+
     /**
      * Crea una Spear con parametros dados por el usuario
      * @param power daño del arma
@@ -33,6 +40,6 @@ public class SpearFactory implements ItemFactory {
     @Override
     public Spear createDefault(){
 
-        return new Spear("Spear", 30, 1, 2);
+        return new Spear(DEFAULT);
     }
 }
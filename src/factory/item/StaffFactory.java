@@ -1,6 +1,7 @@
 package factory.item;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.items.heal.Staff;
 import model.units.IUnit;
 
@@ -13,6 +14,12 @@ import model.units.IUnit;
 
 public class StaffFactory implements ItemFactory{
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(Staff.class, "Staff", 40, 1, 3);
+
     /**
      * Crea una Staff con parametros dados por el usuario
      * @param power daño del arma
@@ -35,6 +42,6 @@ public class StaffFactory implements ItemFactory{
     @Override
     public Staff createDefault(){
 
-        return new Staff("Staff", 40, 1, 3);
+        return new Staff(DEFAULT);
     }
 }
@@ -1,5 +1,6 @@
 package factory.item;
 
+import model.items.ItemType;
 import model.items.attack.normal.Sword;
 
 /**
@@ -11,6 +12,12 @@ import model.items.attack.normal.Sword;
 
 public class SwordFactory implements ItemFactory {
 
+    /**
+     * Estadisticas compartidas por todos los items por defecto
+     */
+
+    private static final ItemType DEFAULT = ItemType.of(Sword.class, "Sword", 50, 1, 2);
+
     /**
      * Crea una Sword con parametros dados por el usuario
      * @param power daño del arma
@@ -33,6 +40,6 @@ public class SwordFactory implements ItemFactory {
     @Override
     public Sword createDefault(){
 
-        return new Sword("Sword", 50, 1, 2);
+        return new Sword(DEFAULT);
     }
 }
@@ -0,0 +1,307 @@
+package model.items;
+
+import model.items.attack.magic.AbstractBook;
+import model.items.attack.magic.AnimaBook;
+import model.items.attack.magic.DarkBook;
+import model.items.attack.magic.LightBook;
+import model.items.attack.normal.AbstractAttack;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import model.items.attack.normal.Sword;
+import model.items.heal.AbstractHeal;
+import model.items.heal.Staff;
+import model.map.InvalidLocation;
+import model.units.Alpaca;
+import model.units.IUnit;
+
+/**
+ * Precomputed damage of every pair of item types.
+ * <p>
+ * The damage of an attack is <code>defender.counterX(attacker)</code>, where the counter method is
+ * chosen by the attacker, and every counter method is one of <code>power</code>,
+ * <code>power * 1.5</code> or <code>max(power - 20, 0)</code>. So for every pair of types the
+ * damage is <code>power * multiplier</code>, or <code>max(power * multiplier + offset, 0)</code>
+ * when the offset isn't zero, which gives exactly the same doubles as the counter methods.
+ * <p>
+ * The table is generated once from the item classes themselves: a probe item records which
+ * counter method each attacker calls, and each counter method of each defender is evaluated with
+ * a few powers to get its multiplier and offset. A pair whose counter method doesn't follow that
+ * form, or an item of any other class, keeps using the double dispatch.
+ * <p>
+ * The position of an item in the table is kept by its {@link ItemType}, and it's only used when
+ * the item is exactly of the class of its type, so a lookup doesn't call any method of the items
+ * besides their type and the power of the attacker.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+public final class DamageTable {
+
+  /**
+   * Type of the items that aren't part of the table.
+   */
+  public static final int UNKNOWN = -1;
+
+  /**
+   * Item classes in the table, grouped by their base class: the hand, the normal weapons, the
+   * books and the staff.
+   */
+  private static final Class<?>[] TYPES = {Hand.class, Axe.class, Bow.class, Spear.class,
+      Sword.class, AnimaBook.class, DarkBook.class, LightBook.class, Staff.class};
+
+  private static final int LAST_WEAPON = 4, LAST_BOOK = 7;
+
+  private static final int SWORD = 0, AXE = 1, SPEAR = 2, BOW = 3, ANIMA = 4, DARK = 5, LIGHT = 6,
+      STAFF = 7;
+
+  private static final double[] MULTIPLIERS = new double[TYPES.length * TYPES.length];
+  private static final double[] OFFSETS = new double[TYPES.length * TYPES.length];
+
+  static {
+    IEquipableItem[] items = {new Alpaca(1, 0, new InvalidLocation()).getHand(),
+        new Axe("Axe", 1, 1, 1), new Bow("Bow", 1, 2, 2), new Spear("Spear", 1, 1, 1),
+        new Sword("Sword", 1, 1, 1), new AnimaBook("Anima", 1, 1, 1),
+        new DarkBook("Dark", 1, 1, 1), new LightBook("Light", 1, 1, 1),
+        new Staff("Staff", 1, 1, 1)};
+    Probe probe = new Probe();
+    for (int attacker = 0; attacker < TYPES.length; attacker++) {
+      probe.counter = UNKNOWN;
+      items[attacker].attack(probe);
+      for (int defender = 0; defender < TYPES.length; defender++) {
+        fill(attacker * TYPES.length + defender, items[defender], probe.counter, probe);
+      }
+    }
+  }
+
+  private DamageTable() {
+  }
+
+  /**
+   * Computes the entry of the table for an attacker that calls a counter method of a defender.
+   */
+  private static void fill(final int entry, final IEquipableItem defender, final int counter,
+      final Probe probe) {
+    MULTIPLIERS[entry] = Double.NaN;
+    if (counter == UNKNOWN) {
+      return;
+    }
+    double low = counter(defender, counter, probe, 100);
+    double high = counter(defender, counter, probe, 200);
+    double multiplier = (high - low) / 100;
+    double offset = low - 100 * multiplier;
+    for (double power : new double[]{-40, -10, -0.0, 0, 5, 20, 33.5, 50, 1000}) {
+      double expected = counter(defender, counter, probe, power);
+      double damage = offset == 0 ? power * multiplier
+          : Math.max(power * multiplier + offset, 0);
+      if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(damage)) {
+        return;
+      }
+    }
+    MULTIPLIERS[entry] = multiplier;
+    OFFSETS[entry] = offset;
+  }
+
+  /**
+   * Calls a counter method of an item with a probe of the given power.
+   */
+  private static double counter(final IEquipableItem defender, final int counter,
+      final Probe probe, final double power) {
+    probe.power = power;
+    switch (counter) {
+      case SWORD:
+        return defender.counterSword(probe);
+      case AXE:
+        return defender.counterAxe(probe);
+      case SPEAR:
+        return defender.counterSpear(probe);
+      case BOW:
+        return defender.counterBow(probe);
+      case ANIMA:
+        return defender.counterAnima(probe);
+      case DARK:
+        return defender.counterDark(probe);
+      case LIGHT:
+        return defender.counterLight(probe);
+      default:
+        return defender.counterStaff(probe);
+    }
+  }
+
+  /**
+   * Gets the type of an item class.
+   *
+   * @param type
+   *     the class of an item
+   * @return the position of the class in the table, or <code>UNKNOWN</code> for subclasses and
+   *     any other class
+   */
+  public static int typeOf(final Class<?> type) {
+    for (int i = 0; i < TYPES.length; i++) {
+      if (TYPES[i] == type) {
+        return i;
+      }
+    }
+    return UNKNOWN;
+  }
+
+  /**
+   * Gets the position of an item in the table from its type.
+   */
+  private static int typeOf(final IEquipableItem item) {
+    ItemType type = item.getType();
+    return type == null || type.getItemClass() != item.getClass() ? UNKNOWN
+        : type.getDamageType();
+  }
+
+  /**
+   * Calculates the damage an item does to another, the same as
+   * <code>attacker.attack(defender)</code>.
+   *
+   * @param attacker
+   *     the item used to attack
+   * @param defender
+   *     the item equipped by the unit that receives the attack
+   * @return the damage of the attack
+   */
+  public static double attack(final IEquipableItem attacker, final IEquipableItem defender) {
+    int attackerType = typeOf(attacker),
+        defenderType = typeOf(defender);
+    if (attackerType == UNKNOWN || defenderType == UNKNOWN) {
+      return attacker.attack(defender);
+    }
+    int entry = attackerType * TYPES.length + defenderType;
+    double multiplier = MULTIPLIERS[entry];
+    if (multiplier != multiplier) {
+      return attacker.attack(defender);
+    }
+    double offset = OFFSETS[entry];
+    double damage = power(attacker, attackerType) * multiplier;
+    return offset == 0 ? damage : Math.max(damage + offset, 0);
+  }
+
+  /**
+   * Gets the power of an item of a known type, calling the method of its base class.
+   * <p>
+   * Casting to the base class lets the compiler bind the call, while
+   * <code>IEquipableItem.getPower()</code> has too many implementations to be inlined.
+   */
+  private static double power(final IEquipableItem item, final int type) {
+    if (type == 0) {
+      return ((Hand) item).getPower();
+    }
+    if (type <= LAST_WEAPON) {
+      return ((AbstractAttack) item).getPower();
+    }
+    if (type <= LAST_BOOK) {
+      return ((AbstractBook) item).getPower();
+    }
+    return ((AbstractHeal) item).getPower();
+  }
+
+  /**
+   * Item used to generate the table, it records the counter method it receives and it has any
+   * power.
+   */
+  private static final class Probe implements IEquipableItem {
+
+    private int counter;
+    private double power;
+
+    @Override
+    public IUnit getOwner() {
+      return null;
+    }
+
+    @Override
+    public ItemType getType() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return "Probe";
+    }
+
+    @Override
+    public double getPower() {
+      return power;
+    }
+
+    @Override
+    public int getMinRange() {
+      return 1;
+    }
+
+    @Override
+    public int getMaxRange() {
+      return 1;
+    }
+
+    @Override
+    public double counterAnima(final IEquipableItem item) {
+      counter = ANIMA;
+      return 0;
+    }
+
+    @Override
+    public double counterDark(final IEquipableItem item) {
+      counter = DARK;
+      return 0;
+    }
+
+    @Override
+    public double counterLight(final IEquipableItem item) {
+      counter = LIGHT;
+      return 0;
+    }
+
+    @Override
+    public double counterAxe(final IEquipableItem item) {
+      counter = AXE;
+      return 0;
+    }
+
+    @Override
+    public double counterSpear(final IEquipableItem item) {
+      counter = SPEAR;
+      return 0;
+    }
+
+    @Override
+    public double counterSword(final IEquipableItem item) {
+      counter = SWORD;
+      return 0;
+    }
+
+    @Override
+    public double counterBow(final IEquipableItem item) {
+      counter = BOW;
+      return 0;
+    }
+
+    @Override
+    public double counterStaff(final IEquipableItem item) {
+      counter = STAFF;
+      return 0;
+    }
+
+    @Override
+    public double attack(final IEquipableItem equippedItem) {
+      return 0;
+    }
+
+    @Override
+    public void equipItem(final IUnit unit) {
+    }
+
+    @Override
+    public void setOwner(final IUnit unit) {
+    }
+
+    @Override
+    public boolean equalsTo(final IEquipableItem item) {
+      return item == this;
+    }
+  }
+}
@@ -10,19 +10,13 @@ import model.units.IUnit;
 
 public class Hand implements IEquipableItem {
 
-    private String name;
-    private double power;
-    private int minRange;
-    private int maxRange;
+    private static final ItemType TYPE = ItemType.of(Hand.class, "Hand", 0, 1, 1);
+
     private IUnit owner;
 
 
     public Hand(IUnit unit) {
 
-        this.name = "Hand";
-        this.power = 0;
-        this.minRange = 1;
-        this.maxRange = 1;
         this.owner = unit;
         unit.setEquippedItem(this);
     }
@@ -39,20 +33,24 @@ public class Hand implements IEquipableItem {
         return owner;
     }
 
+    public ItemType getType() {
+        return TYPE;
+    }
+
     public String getName() {
-        return name;
+        return TYPE.getName();
     }
 
     public double getPower() {
-        return power;
+        return TYPE.getPower();
     }
 
     public int getMinRange() {
-        return minRange;
+        return TYPE.getMinRange();
     }
 
     public int getMaxRange() {
-        return maxRange;
+        return TYPE.getMaxRange();
     }
 
     public double counterSword(IEquipableItem item){
@@ -112,13 +110,6 @@ public class Hand implements IEquipableItem {
     @Override
     public boolean equalsTo(IEquipableItem item){
 
-        if(item instanceof Hand){
-
-            return (this.getName()==item.getName()) &&
-                    (this.getPower()==item.getPower()) &&
-                    (this.getMinRange()==item.getMinRange()) &&
-                    (this.getMaxRange()==item.getMaxRange());
-        }
-        return false;
+        return item != null && TYPE.equals(item.getType());
     }
 }
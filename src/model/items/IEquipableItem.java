@@ -19,6 +19,12 @@ public interface IEquipableItem {
    */
   IUnit getOwner();
 
+  /**
+   * @return the stats this item shares with the other items of its kind, or null if it doesn't
+   *     have any
+   */
+  ItemType getType();
+
   /**
    * @return the name of the item
    */
@@ -114,6 +120,11 @@ public interface IEquipableItem {
    */
   void setOwner(IUnit unit);
 
+  /**
+   * @param item
+   *      item to compare with
+   * @return true if both items have the same type
+   */
   boolean equalsTo(IEquipableItem item);
 
 }
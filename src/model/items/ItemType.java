@@ -0,0 +1,220 @@
+package model.items;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable stats shared by all the items of the same kind.
+ * <p>
+ * An item only keeps its owner and a reference to its type, so creating many equal items, like
+ * the default items of the factories, doesn't copy the name, power and ranges into each one.
+ * Types are cached: {@link #of} gives the same object for the same class and stats, so the items
+ * with the same stats usually share their type. The cache keeps at most
+ * <code>MAX_CACHED_TYPES</code> types, the types created after it's full aren't shared, so the
+ * items compare their types with {@link #equals}.
+ * <p>
+ * The type also keeps the position of its class in the {@link DamageTable}, so the damage of an
+ * attack is found without looking up the class of the items.
+ *
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+public final class ItemType {
+
+  /**
+   * Largest number of types kept by the cache
+   */
+  public static final int MAX_CACHED_TYPES = 4096;
+  private static final int NOT_COMPUTED = -2;
+  private static final Cache CACHE = new Cache(MAX_CACHED_TYPES);
+
+  private final Class<? extends IEquipableItem> itemClass;
+  private final String name;
+  private final int power;
+  private final int minRange;
+  private final int maxRange;
+  private int damageType = NOT_COMPUTED;
+
+  private ItemType(final Class<? extends IEquipableItem> itemClass, final String name,
+      final int power, final int minRange, final int maxRange) {
+    this.itemClass = itemClass;
+    this.name = name;
+    this.power = power;
+    this.minRange = Math.max(minRange, 1);
+    this.maxRange = Math.max(maxRange, this.minRange);
+  }
+
+  /**
+   * Gets the type with the given stats, creating it the first time. Finding a cached type doesn't
+   * create any object.
+   *
+   * @param itemClass
+   *     the class of the items of this type
+   * @param name
+   *     the name of the items
+   * @param power
+   *     the power of the items
+   * @param minRange
+   *     the minimum range of the items, at least 1
+   * @param maxRange
+   *     the maximum range of the items, at least the minimum range
+   * @return the shared type
+   */
+  public static ItemType of(final Class<? extends IEquipableItem> itemClass, final String name,
+      final int power, final int minRange, final int maxRange) {
+    return CACHE.of(itemClass, name, power, minRange, maxRange);
+  }
+
+  /**
+   * @return the class of the items of this type
+   */
+  public Class<? extends IEquipableItem> getItemClass() {
+    return itemClass;
+  }
+
+  /**
+   * @return the name of the items
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the power of the items
+   */
+  public int getPower() {
+    return power;
+  }
+
+  /**
+   * @return the minimum range of the items
+   */
+  public int getMinRange() {
+    return minRange;
+  }
+
+  /**
+   * @return the maximum range of the items
+   */
+  public int getMaxRange() {
+    return maxRange;
+  }
+
+  /**
+   * @return the position of the class of the items in the damage table, or
+   *     <code>DamageTable.UNKNOWN</code>
+   */
+  public int getDamageType() {
+    int type = damageType;
+    if (type == NOT_COMPUTED) {
+      type = DamageTable.typeOf(itemClass);
+      damageType = type;
+    }
+    return type;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof ItemType)) {
+      return false;
+    }
+    ItemType type = (ItemType) other;
+    return itemClass == type.itemClass && Objects.equals(name, type.name) && power == type.power
+        && minRange == type.minRange && maxRange == type.maxRange;
+  }
+
+  @Override
+  public int hashCode() {
+    return ((itemClass.hashCode() * 31 + Objects.hashCode(name)) * 31 + power) * 961
+        + minRange * 31 + maxRange;
+  }
+
+  @Override
+  public String toString() {
+    return itemClass.getSimpleName() + "[" + name + ", " + power + ", " + minRange + "-"
+        + maxRange + "]";
+  }
+
+  /**
+   * Types shared by their stats, stored by class and then by name, with the few types of the same
+   * class and name in an array.
+   * <p>
+   * The lookups don't lock nor create objects; only adding a type is synchronized. Once the cache
+   * has <code>capacity</code> types, the new types are returned without being stored.
+   */
+  static final class Cache {
+
+    private final int capacity;
+    private final Map<Class<?>, Map<String, ItemType[]>> types = new ConcurrentHashMap<>();
+    private int size;
+
+    /**
+     * @param capacity
+     *     the largest number of types kept
+     */
+    Cache(final int capacity) {
+      this.capacity = capacity;
+    }
+
+    /**
+     * Gets the type with the given stats, creating it if it isn't stored.
+     *
+     * @see ItemType#of
+     */
+    ItemType of(final Class<? extends IEquipableItem> itemClass, final String name,
+        final int power, final int minRange, final int maxRange) {
+      int min = Math.max(minRange, 1);
+      int max = Math.max(maxRange, min);
+      if (name == null) {
+        return new ItemType(itemClass, null, power, min, max);
+      }
+      Map<String, ItemType[]> byName = types.get(itemClass);
+      ItemType type = find(byName == null ? null : byName.get(name), power, min, max);
+      return type != null ? type : add(itemClass, name, power, min, max);
+    }
+
+    /**
+     * @return the number of stored types
+     */
+    synchronized int size() {
+      return size;
+    }
+
+    private synchronized ItemType add(final Class<? extends IEquipableItem> itemClass,
+        final String name, final int power, final int minRange, final int maxRange) {
+      Map<String, ItemType[]> byName = types.computeIfAbsent(itemClass,
+          key -> new ConcurrentHashMap<>());
+      ItemType[] sameName = byName.get(name);
+      ItemType type = find(sameName, power, minRange, maxRange);
+      if (type != null) {
+        return type;
+      }
+      type = new ItemType(itemClass, name, power, minRange, maxRange);
+      if (size < capacity) {
+        ItemType[] grown = sameName == null ? new ItemType[1]
+            : Arrays.copyOf(sameName, sameName.length + 1);
+        grown[grown.length - 1] = type;
+        byName.put(name, grown);
+        size++;
+      }
+      return type;
+    }
+
+    private static ItemType find(final ItemType[] sameName, final int power, final int minRange,
+        final int maxRange) {
+      if (sameName != null) {
+        for (ItemType type : sameName) {
+          if (type.power == power && type.minRange == minRange && type.maxRange == maxRange) {
+            return type;
+          }
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package model.items.attack.magic;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -26,9 +27,18 @@ public class AnimaBook extends AbstractBook {
      *       the maximum range of the weapon
      */
 
-    public AnimaBook(final String name, int power, int minRange, int maxRange){
+    public AnimaBook(final String name, int power, int minRange, int maxRange) {
+        this(ItemType.of(AnimaBook.class, name, power, minRange, maxRange));
+    }
 
-        super(name, power, minRange, maxRange);
+    /**
+     * Creates a new AnimaBook with shared stats
+     *
+     * @param type
+     *     the stats of the item, created for this class
+     */
+    public AnimaBook(final ItemType type) {
+        super(type);
     }
 
     @Override
@@ -59,18 +69,6 @@ public class AnimaBook extends AbstractBook {
 
     }
 
-    @Override
-    public boolean equalsTo(IEquipableItem unit){
-
-        if(unit instanceof AnimaBook){
-
-            return (this.getName()==unit.getName()) &&
-                    (this.getPower()==unit.getPower()) &&
-                    (this.getMinRange()==unit.getMinRange()) &&
-                    (this.getMaxRange()==unit.getMaxRange());
-        }
-        return false;
-    }
 
 
 
@@ -1,6 +1,7 @@
 package model.items.attack.magic;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -25,9 +26,18 @@ public class DarkBook extends AbstractBook {
      *       the maximum range of the weapon
      */
 
-    public DarkBook(final String name, int power, int minRange, int maxRange){
+    public DarkBook(final String name, int power, int minRange, int maxRange) {
+        this(ItemType.of(DarkBook.class, name, power, minRange, maxRange));
+    }
 
-        super(name, power, minRange, maxRange);
+    /**
+     * Creates a new DarkBook with shared stats
+     *
+     * @param type
+     *     the stats of the item, created for this class
+     */
+    public DarkBook(final ItemType type) {
+        super(type);
     }
 
     @Override
@@ -56,18 +66,6 @@ public class DarkBook extends AbstractBook {
 
     }
 
-    @Override
-    public boolean equalsTo(IEquipableItem unit){
-
-        if(unit instanceof DarkBook){
-
-            return (this.getName()==unit.getName()) &&
-                    (this.getPower()==unit.getPower()) &&
-                    (this.getMinRange()==unit.getMinRange()) &&
-                    (this.getMaxRange()==unit.getMaxRange());
-        }
-        return false;
-    }
 
 
 
@@ -1,6 +1,7 @@
 package model.items.attack.magic;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -25,9 +26,18 @@ public class LightBook extends AbstractBook {
      *       the maximum range of the weapon
      */
 
-    public LightBook(final String name, int power, int minRange, int maxRange){
+    public LightBook(final String name, int power, int minRange, int maxRange) {
+        this(ItemType.of(LightBook.class, name, power, minRange, maxRange));
+    }
 
-        super(name, power, minRange, maxRange);
+    /**
+     * Creates a new LightBook with shared stats
+     *
+     * @param type
+     *     the stats of the item, created for this class
+     */
+    public LightBook(final ItemType type) {
+        super(type);
     }
 
     @Override
@@ -57,18 +67,6 @@ public class LightBook extends AbstractBook {
 
     }
 
-    @Override
-    public boolean equalsTo(IEquipableItem unit){
-
-        if(unit instanceof LightBook){
-
-            return (this.getName()==unit.getName()) &&
-                    (this.getPower()==unit.getPower()) &&
-                    (this.getMinRange()==unit.getMinRange()) &&
-                    (this.getMaxRange()==unit.getMaxRange());
-        }
-        return false;
-    }
 
 
 
@@ -1,6 +1,7 @@
 package model.items.attack.normal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -11,31 +12,25 @@ import model.units.IUnit;
  */
 public abstract class AbstractAttack implements IMelee {
 
-    private String name;
-    private double power;
-    protected int maxRange;
-    protected int minRange;
+    private final ItemType type;
     private IUnit owner;
 
 
 
     /**
-     * Constructor for a default item without any special behaviour.
+     * Constructor for an item of the given type.
      *
-     * @param name
-     *     the name of the item
-     * @param power
-     *     the power of the item (this could be the amount of damage or healing the item does)
-     * @param minRange
-     *     the minimum range of the item
-     * @param maxRange
-     *     the maximum range of the item
+     * @param type
+     *     the shared stats of the item, for the class of this item or one of its superclasses
+     * @throws IllegalArgumentException
+     *     if the type is for another class of item
      */
-    public AbstractAttack(final String name, int power, int minRange, int maxRange) {
-        this.name = name;
-        this.power = power;
-        this.minRange = Math.max(minRange, 1);
-        this.maxRange = Math.max(maxRange, this.minRange);
+    protected AbstractAttack(final ItemType type) {
+        if (!type.getItemClass().isAssignableFrom(getClass())) {
+            throw new IllegalArgumentException("The type " + type + " isn't for a "
+                + getClass().getSimpleName());
+        }
+        this.type = type;
     }
 
 
@@ -43,20 +38,24 @@ public abstract class AbstractAttack implements IMelee {
         return owner;
     }
 
+    public ItemType getType() {
+        return type;
+    }
+
     public String getName() {
-        return name;
+        return type.getName();
     }
 
     public double getPower() {
-        return power;
+        return type.getPower();
     }
 
     public int getMinRange() {
-        return minRange;
+        return type.getMinRange();
     }
 
     public int getMaxRange() {
-        return maxRange;
+        return type.getMaxRange();
     }
 
     public double counterSword(IEquipableItem item){
@@ -105,8 +104,8 @@ public abstract class AbstractAttack implements IMelee {
         this.owner = unit;
     }
 
+    public boolean equalsTo(IEquipableItem item){
 
-
-
-
+        return item != null && this.type.equals(item.getType());
+    }
 }
@@ -1,6 +1,7 @@
 package model.items.attack.normal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -27,7 +28,18 @@ public class Axe extends AbstractAttack {
    *     the maximum range of the axe
    */
   public Axe(final String name, int power, int minRange, int maxRange) {
-    super(name, power, minRange, maxRange); }
+    this(ItemType.of(Axe.class, name, power, minRange, maxRange));
+  }
+
+  /**
+   * Creates a new Axe with shared stats
+   *
+   * @param type
+   *     the stats of the item, created for this class
+   */
+  public Axe(final ItemType type) {
+    super(type);
+  }
 
   @Override
   public double attack(IEquipableItem item){
@@ -62,18 +74,6 @@ public class Axe extends AbstractAttack {
 
   }
 
-  @Override
-  public boolean equalsTo(IEquipableItem unit){
-
-    if(unit instanceof Axe){
-
-      return (this.getName()==unit.getName()) &&
-              (this.getPower()==unit.getPower()) &&
-              (this.getMinRange()==unit.getMinRange()) &&
-              (this.getMaxRange()==unit.getMaxRange());
-    }
-    return false;
-  }
 
 
 }
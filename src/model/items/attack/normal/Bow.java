@@ -1,6 +1,7 @@
 package model.items.attack.normal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -25,9 +26,17 @@ public class Bow extends AbstractAttack {
    *     the maximum range of the bow
    */
   public Bow(final String name, int power, int minRange, int maxRange) {
-    super(name, power, minRange, maxRange);
-    this.minRange = Math.max(minRange, 2);
-    this.maxRange = Math.max(maxRange, this.minRange);
+    this(ItemType.of(Bow.class, name, power, Math.max(minRange, 2), maxRange));
+  }
+
+  /**
+   * Creates a new Bow with shared stats
+   *
+   * @param type
+   *     the stats of the item, created for this class
+   */
+  public Bow(final ItemType type) {
+    super(type);
   }
 
   @Override
@@ -56,18 +65,6 @@ public class Bow extends AbstractAttack {
 
   }
 
-  @Override
-  public boolean equalsTo(IEquipableItem unit){
-
-    if(unit instanceof Bow){
-
-      return (this.getName()==unit.getName()) &&
-              (this.getPower()==unit.getPower()) &&
-              (this.getMinRange()==unit.getMinRange()) &&
-              (this.getMaxRange()==unit.getMaxRange());
-    }
-    return false;
-  }
 
 
 
@@ -1,6 +1,7 @@
 package model.items.attack.normal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -26,7 +27,17 @@ public class  Spear extends AbstractAttack {
    *     the maximum range of the axe
    */
   public Spear(final String name, int power, int minRange, int maxRange) {
-    super(name, power, minRange, maxRange);
+    this(ItemType.of(Spear.class, name, power, minRange, maxRange));
+  }
+
+  /**
+   * Creates a new Spear with shared stats
+   *
+   * @param type
+   *     the stats of the item, created for this class
+   */
+  public Spear(final ItemType type) {
+    super(type);
   }
 
 
@@ -61,17 +72,5 @@ public class  Spear extends AbstractAttack {
     unit.equipSpear(this);
   }
 
-  @Override
-  public boolean equalsTo(IEquipableItem unit){
-
-    if(unit instanceof Spear){
-
-      return (this.getName()==unit.getName()) &&
-              (this.getPower()==unit.getPower()) &&
-              (this.getMinRange()==unit.getMinRange()) &&
-              (this.getMaxRange()==unit.getMaxRange());
-    }
-    return false;
-  }
 
 }
@@ -1,6 +1,7 @@
 package model.items.attack.normal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -26,7 +27,17 @@ public class Sword extends AbstractAttack {
    *     the maximum range of the weapon
    */
   public Sword(final String name, int power, int minRange, int maxRange) {
-    super(name, power, minRange, maxRange);
+    this(ItemType.of(Sword.class, name, power, minRange, maxRange));
+  }
+
+  /**
+   * Creates a new Sword with shared stats
+   *
+   * @param type
+   *     the stats of the item, created for this class
+   */
+  public Sword(final ItemType type) {
+    super(type);
   }
 
 
@@ -54,18 +65,6 @@ public class Sword extends AbstractAttack {
     unit.equipSword(this);
   }
 
-  @Override
-  public boolean equalsTo(IEquipableItem unit){
-
-    if(unit instanceof Sword){
-
-      return (this.getName()==unit.getName()) &&
-              (this.getPower()==unit.getPower()) &&
-              (this.getMinRange()==unit.getMinRange()) &&
-              (this.getMaxRange()==unit.getMaxRange());
-    }
-    return false;
-  }
 
 
 }
@@ -1,57 +1,55 @@
 package model.items.heal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 public abstract class AbstractHeal implements IHeal {
 
 
 
-    private String name;
-    private double power;
-    private int maxRange;
-    private int minRange;
+    private final ItemType type;
     private IUnit owner;
 
 
     /**
-     * Constructor for a default item without any special behaviour.
+     * Constructor for an item of the given type.
      *
-     * @param name
-     *     the name of the item
-     * @param power
-     *     the power of the item (this could be the amount of damage or healing the item does)
-     * @param minRange
-     *     the minimum range of the item
-     * @param maxRange
-     *     the maximum range of the item
+     * @param type
+     *     the shared stats of the item, for the class of this item or one of its superclasses
+     * @throws IllegalArgumentException
+     *     if the type is for another class of item
      */
-    public AbstractHeal(final String name, final int power, final int minRange, final int maxRange) {
-        this.name = name;
-        this.power = power;
-        this.minRange = Math.max(minRange, 1);
-        this.maxRange = Math.max(maxRange, this.minRange);
-
+    protected AbstractHeal(final ItemType type) {
+        if (!type.getItemClass().isAssignableFrom(getClass())) {
+            throw new IllegalArgumentException("The type " + type + " isn't for a "
+                + getClass().getSimpleName());
+        }
+        this.type = type;
     }
 
     public IUnit getOwner() {
         return owner;
     }
 
+    public ItemType getType() {
+        return type;
+    }
+
     public String getName() {
-        return name;
+        return type.getName();
     }
 
     public double getPower() {
-        return -power;
+        return -type.getPower();
     }
 
     public int getMinRange() {
-        return minRange;
+        return type.getMinRange();
     }
 
     public int getMaxRange() {
-        return maxRange;
+        return type.getMaxRange();
     }
 
 
@@ -103,6 +101,10 @@ public abstract class AbstractHeal implements IHeal {
         this.owner = unit;
     }
 
-    public double getHeal(){ return power;}
+    public double getHeal(){ return type.getPower();}
 
+    public boolean equalsTo(IEquipableItem item){
+
+        return item != null && this.type.equals(item.getType());
+    }
 }
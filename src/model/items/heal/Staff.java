@@ -1,6 +1,7 @@
 package model.items.heal;
 
 import model.items.IEquipableItem;
+import model.items.ItemType;
 import model.units.IUnit;
 
 /**
@@ -26,8 +27,17 @@ public class Staff extends AbstractHeal {
    *     the maximum range of the staff
    */
   public Staff(final String name, int power, int minRange, int maxRange) {
-    super(name, power, minRange, maxRange);
+    this(ItemType.of(Staff.class, name, power, minRange, maxRange));
+  }
 
+  /**
+   * Creates a new Staff with shared stats
+   *
+   * @param type
+   *     the stats of the item, created for this class
+   */
+  public Staff(final ItemType type) {
+    super(type);
   }
 
   public double attack(IEquipableItem item){
@@ -44,17 +54,5 @@ public class Staff extends AbstractHeal {
 
   }
 
-  @Override
-  public boolean equalsTo(IEquipableItem unit){
-
-    if(unit instanceof Staff){
-
-      return (this.getName()==unit.getName()) &&
-              (this.getPower()==unit.getPower()) &&
-              (this.getMinRange()==unit.getMinRange()) &&
-              (this.getMaxRange()==unit.getMaxRange());
-    }
-    return false;
-  }
 
 }
@@ -0,0 +1,110 @@
+package model.map;
+
+import java.util.Arrays;
+
+/**
+ * Set of cells of a field, stored as the indices of the cells.
+ * <p>
+ * The members are kept both in an array, in the order they were added, and in a bitmap over the
+ * indices of the cells, so adding, checking and iterating are constant time per cell and clearing
+ * only touches the cells in the set. A set can be filled again as many times as needed without
+ * allocating, as long as the field doesn't grow.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+public class CellSet {
+
+  private Field field;
+  private int[] members = new int[0];
+  private long[] bits = new long[0];
+  private int size;
+
+  /**
+   * Empties the set and prepares it to hold cells of a field.
+   */
+  void reset(final Field field, final int cells) {
+    clear();
+    this.field = field;
+    if (members.length < cells) {
+      members = new int[cells];
+      bits = new long[(cells + 63) >>> 6];
+    }
+  }
+
+  /**
+   * Adds the cell with the given index, which must not be in the set yet.
+   */
+  void add(final int index) {
+    bits[index >>> 6] |= 1L << index;
+    members[size++] = index;
+  }
+
+  /**
+   * Removes all the cells of the set.
+   */
+  public void clear() {
+    if (size > members.length / 64) {
+      Arrays.fill(bits, 0);
+    } else {
+      for (int i = 0; i < size; i++) {
+        bits[members[i] >>> 6] = 0;
+      }
+    }
+    size = 0;
+  }
+
+  /**
+   * @return the number of cells in the set
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return <code>true</code> if the set has no cells; <code>false</code> otherwise
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Gets the index in the field of one of the cells of the set.
+   *
+   * @param i
+   *     the position of the cell in the set, between 0 and <code>size() - 1</code>
+   * @return the index of the cell
+   */
+  public int getIndex(final int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException(i);
+    }
+    return members[i];
+  }
+
+  /**
+   * Gets one of the cells of the set.
+   *
+   * @param i
+   *     the position of the cell in the set, between 0 and <code>size() - 1</code>
+   * @return the cell
+   */
+  public Location getCell(final int i) {
+    return field.cellAt(getIndex(i));
+  }
+
+  /**
+   * Checks if the cell with the given index of the field is in the set.
+   */
+  public boolean contains(final int index) {
+    return index >= 0 && index < members.length && (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   * Checks if a location is one of the cells of the set.
+   */
+  public boolean contains(final Location cell) {
+    return field != null && cell.getField() == field && contains(cell.getIndex())
+        && field.cellAt(cell.getIndex()) == cell;
+  }
+}
@@ -1,7 +1,12 @@
 package model.map;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.lang.Math;
+import controller.Tactician;
+import model.units.IUnit;
 
 /**
  * This class represents the map where the units are located and the game is played.
@@ -9,15 +14,47 @@ import java.lang.Math;
  * The field is an undirected graph composed of <i>Location</i> nodes where the weight of every edge
  * of the graph is 1.
  * Since all cells of the map should be reachable, the graph must be connected.
+ * <p>
+ * The distance, range and path queries can be made from several threads at the same time, every
+ * query works over its own search arrays and the rows of the distance table are published safely.
+ * Changes to the map (cells, connections, units and flow fields) and the queries of the connected
+ * components, which are updated lazily, must not run at the same time as anything else.
  *
  * @author Ignacio Slater Muñoz
  * @since 1.0
  */
 public class Field {
 
-  private Map<String, Location> map = new HashMap<>();
+  /**
+   * Largest number of cells for which the distances between all the cells are cached
+   */
+  public static final int MAX_CACHED_CELLS = 1024;
+  private static final int UNREACHABLE = -1;
+  private static final int OUTSIDE = -2;
+  private static final int NOT_ADJACENT = -3;
+  private static final Location INVALID_CELL = new InvalidLocation();
+  private static final int[] ROW_STEP = {-1, 1, 0, 0};
+  private static final int[] COLUMN_STEP = {0, 0, -1, 1};
+
+  private List<Location> cells = new ArrayList<>();
+  private Location[] grid = new Location[0];
+  private int firstRow;
+  private int firstColumn;
+  private int rows;
+  private int columns;
+  private Map<String, Location> mapView;
+  private boolean compactNeighbours;
+  private byte[] directions = new byte[0];
+  private int[] parent = new int[0];
+  private int[] componentSize = new int[0];
+  private int components;
+  private boolean componentsOutdated;
   private Random random = new Random();
-  private StringBuilder builder = new StringBuilder();
+  private final AtomicReference<Search> spareSearch = new AtomicReference<>();
+  private volatile boolean distanceCache;
+  private volatile DistanceTable distanceTable;
+  private final Occupancy occupancy = new Occupancy();
+  private final List<FlowField> flowFields = new ArrayList<>();
 
   /**
    * Add cells to the map.
@@ -32,7 +69,7 @@ public class Field {
       addCell(cell);
       Location[] adjacentCells = getAdjacentCells(cell);
       for (Location adjacentCell : adjacentCells) {
-        if (connectAll || random.nextDouble() > 1.0 / 3 || cell.getNeighbours().size() < 1) {
+        if (connectAll || random.nextDouble() > 1.0 / 3 || cell.getNeighbourCount() < 1) {
           addConnection(cell, adjacentCell);
         }
       }
@@ -40,13 +77,124 @@ public class Field {
   }
 
   /**
-   * Adds a cell to the map
+   * Adds a cell to the map, without connecting it to the adjacent cells
    *
    * @param cell
    *     the location to be added
    */
-  private void addCell(final Location cell) {
-    map.put(cell.toString(), cell);
+  public void addCell(final Location cell) {
+    invalidateDistances();
+    int slot = gridSlot(cell.getRow(), cell.getColumn());
+    if (slot < 0) {
+      growGrid(cell.getRow(), cell.getColumn());
+      slot = gridSlot(cell.getRow(), cell.getColumn());
+    }
+    Location old = grid[slot];
+    if (old != null) {
+      componentsOutdated = true;
+      expandAround(old);
+      grid[slot] = cell;
+      cells.set(old.getIndex(), cell);
+      cell.setField(this, old.getIndex());
+      old.setField(null, -1);
+    } else {
+      grid[slot] = cell;
+      cell.setField(this, cells.size());
+      cells.add(cell);
+      occupancy.ensureCapacity(cells.size());
+      if (directions.length < cells.size()) {
+        int capacity = Math.max(16, cells.size() * 2);
+        directions = Arrays.copyOf(directions, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        componentSize = Arrays.copyOf(componentSize, capacity);
+      }
+      parent[cell.getIndex()] = cell.getIndex();
+      componentSize[cell.getIndex()] = 1;
+      components++;
+      if (cell.getNeighbourCount() > 0) {
+        componentsOutdated = true;
+      }
+    }
+    directions[cell.getIndex()] = 0;
+    occupancy.set(cell.getIndex(), cell.getUnit());
+    if (compactNeighbours) {
+      cell.compactLinks();
+    }
+  }
+
+  /**
+   * Moves the links of a cell, and of the cells whose direction masks point to it, back to the
+   * locations, so they keep pointing to it after it's removed from the grid.
+   */
+  private void expandAround(final Location cell) {
+    cell.expandLinks();
+    for (int d = 0; d < 4; d++) {
+      Location adjacent = getCell(cell.getRow() - ROW_STEP[d], cell.getColumn() - COLUMN_STEP[d]);
+      if (contains(adjacent) && (directions[adjacent.getIndex()] & (1 << d)) != 0) {
+        adjacent.expandLinks();
+      }
+    }
+  }
+
+  /**
+   * Gets the position of a cell in the grid
+   *
+   * @return the index of the cell in the grid, or -1 if it's out of the grid's bounds
+   */
+  private int gridSlot(final int row, final int col) {
+    int r = row - firstRow,
+        c = col - firstColumn;
+    if (r < 0 || r >= rows || c < 0 || c >= columns) {
+      return -1;
+    }
+    return r * columns + c;
+  }
+
+  /**
+   * Enlarges the grid so it includes the cell at (row, col).
+   * <p>
+   * The grid at least doubles it's size in the directions that grow, so adding the cells of a map
+   * one by one only copies the grid a logarithmic number of times.
+   */
+  private void growGrid(final int row, final int col) {
+    int top = row, left = col, bottom = row + 1, right = col + 1;
+    if (rows > 0) {
+      top = row < firstRow ? Math.min(row, firstRow - rows) : firstRow;
+      left = col < firstColumn ? Math.min(col, firstColumn - columns) : firstColumn;
+      bottom = row >= firstRow + rows ? Math.max(row + 1, firstRow + 2 * rows) : firstRow + rows;
+      right = col >= firstColumn + columns ? Math.max(col + 1, firstColumn + 2 * columns)
+          : firstColumn + columns;
+    }
+    Location[] newGrid = new Location[(bottom - top) * (right - left)];
+    for (int r = 0; r < rows; r++) {
+      System.arraycopy(grid, r * columns, newGrid,
+          (firstRow + r - top) * (right - left) + firstColumn - left, columns);
+    }
+    grid = newGrid;
+    firstRow = top;
+    firstColumn = left;
+    rows = bottom - top;
+    columns = right - left;
+  }
+
+  /**
+   * Removes all the cells of the map
+   */
+  public void clear() {
+    invalidateDistances();
+    for (Location cell : cells) {
+      cell.expandLinks();
+    }
+    for (Location cell : cells) {
+      cell.setField(null, -1);
+    }
+    cells.clear();
+    occupancy.clear();
+    components = 0;
+    componentsOutdated = false;
+    grid = new Location[0];
+    rows = 0;
+    columns = 0;
   }
 
   /**
@@ -78,64 +226,1081 @@ public class Field {
    * @return the Location that represents the cell at (row, col)
    */
   public Location getCell(final int row, final int col) {
-    String id = generateID(row, col);
-    return map.getOrDefault(id, new InvalidLocation());
+    int slot = gridSlot(row, col);
+    Location cell = slot < 0 ? null : grid[slot];
+    return cell == null ? INVALID_CELL : cell;
   }
 
   public double getSize(){
-    int tamano = this.map.size();
+    int tamano = this.cells.size();
     return Math.sqrt(tamano);
   }
 
   /**
-   * Creates a map key from a row and a column
+   * Gives a view of the cells of the map, where every cell is mapped from it's id.
+   * <p>
+   * The view is backed by the map, and is kept for compatibility; {@link #getCell(int, int)} is
+   * the fast way to access a cell.
    *
-   * @param row
-   *     the row of the cell
-   * @param col
-   *     the column of the cell
-   * @return a string of the form (row, col)
+   * @return a map with the cells of the field, of the form (row, col) -> cell
    */
-  private String generateID(final int row, final int col) {
-    builder.setLength(0);
-    builder.append("(").append(row).append(", ").append(col).append(")");
-    return builder.toString();
-  }
-
   public Map<String, Location> getMap() {
-    return this.map;
+    if (mapView == null) {
+      mapView = new CellMap();
+    }
+    return mapView;
   }
 
   /**
-   * Checks if the map is connected using BFS.
+   * Checks if the map is connected.
+   * <p>
+   * The connected components of the map are kept in a disjoint set that's updated every time two
+   * cells are connected, so this check doesn't need to visit the map. Removing a connection makes
+   * the components be computed again the next time they're needed.
    *
    * @return true if the map is connected, false otherwise.
    */
   public boolean isConnected() {
-    Set<Location> visitedNodes = new HashSet<>();
-    Queue<Location> toVisit = new LinkedList<>();
-    toVisit.add(map.entrySet().iterator().next().getValue());
+    return getComponentCount() <= 1;
+  }
+
+  /**
+   * @return the number of connected components of the map
+   */
+  public int getComponentCount() {
+    updateComponents();
+    return components;
+  }
+
+  /**
+   * Gets the connected component a cell belongs to.
+   * <p>
+   * Two cells are in the same component when there's a path between them, so they get the same
+   * number.
+   *
+   * @param cell
+   *     the cell of the map
+   * @return a number that identifies the component of the cell, or -1 if the location isn't part
+   *     of the map
+   */
+  public int getComponent(final Location cell) {
+    if (!contains(cell)) {
+      return -1;
+    }
+    updateComponents();
+    return find(cell.getIndex());
+  }
+
+  /**
+   * Called by the locations of the map when a connection is added
+   */
+  void connectionAdded(final Location cell1, final Location cell2) {
+    invalidateDistances();
+    if (!componentsOutdated && contains(cell1) && contains(cell2)) {
+      union(cell1.getIndex(), cell2.getIndex());
+    }
+  }
+
+  /**
+   * Called by the locations of the map when a connection is removed
+   */
+  void connectionRemoved() {
+    invalidateDistances();
+    componentsOutdated = true;
+  }
+
+  /**
+   * Computes the components from scratch if a connection was removed since the last time
+   */
+  private void updateComponents() {
+    if (!componentsOutdated) {
+      return;
+    }
+    componentsOutdated = false;
+    components = cells.size();
+    for (int i = 0; i < components; i++) {
+      parent[i] = i;
+      componentSize[i] = 1;
+    }
+    for (Location cell : cells) {
+      for (int i = 0, count = cell.getNeighbourCount(); i < count; i++) {
+        Location neighbour = cell.getNeighbour(i);
+        if (contains(neighbour)) {
+          union(cell.getIndex(), neighbour.getIndex());
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the root of the set that contains a cell
+   */
+  private int find(int id) {
+    while (parent[id] != id) {
+      parent[id] = parent[parent[id]];
+      id = parent[id];
+    }
+    return id;
+  }
+
+  /**
+   * Joins the sets of two cells
+   */
+  private void union(final int id1, final int id2) {
+    int root1 = find(id1),
+        root2 = find(id2);
+    if (root1 == root2) {
+      return;
+    }
+    if (componentSize[root1] < componentSize[root2]) {
+      parent[root1] = root2;
+      componentSize[root2] += componentSize[root1];
+    } else {
+      parent[root2] = root1;
+      componentSize[root1] += componentSize[root2];
+    }
+    components--;
+  }
+
+  /**
+   * Calculates the length of the shortest path between two locations of the field.
+   *
+   * @param from
+   *     the starting location
+   * @param to
+   *     the location to reach
+   * @return the length of the shortest path, or <code>Double.POSITIVE_INFINITY</code> if there is
+   *     no path between the two locations
+   */
+  public double distance(final Location from, final Location to) {
+    return distance(from, to, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Calculates the length of the shortest path between two locations, without looking further
+   * than a given number of steps.
+   * <p>
+   * The search is a breadth first search over the cells of the map that stops as soon as the
+   * target is found or the frontier goes past <code>maxDistance</code>, so it's meant to be used
+   * for movement and range checks.
+   *
+   * @param from
+   *     the starting location
+   * @param to
+   *     the location to reach
+   * @param maxDistance
+   *     the maximum length of the paths that are explored
+   * @return the length of the shortest path, or <code>Double.POSITIVE_INFINITY</code> if there is
+   *     no path of at most <code>maxDistance</code> steps
+   */
+  public double distance(final Location from, final Location to, final int maxDistance) {
+    if (from.equals(to)) {
+      return 0;
+    }
+    if (!contains(from)) {
+      return searchDistance(from, to, maxDistance);
+    }
+    DistanceTable table = distanceCache ? distanceRow(from.getIndex()) : null;
+    if (table != null) {
+      Location target = contains(to) ? to : getCell(to.getRow(), to.getColumn());
+      if (!contains(target)) {
+        return Double.POSITIVE_INFINITY;
+      }
+      int steps = table.steps[from.getIndex() * table.size + target.getIndex()];
+      return steps >= 0 && steps <= maxDistance ? steps : Double.POSITIVE_INFINITY;
+    }
+    Search search = borrowSearch();
+    int steps = search(search, from.getIndex(), to, maxDistance);
+    releaseSearch(search);
+    if (steps == OUTSIDE) {
+      return searchDistance(from, to, maxDistance);
+    }
+    return steps >= 0 ? steps : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Enables or disables the table of distances between all the cells of the map.
+   * <p>
+   * While enabled, the row of a cell is filled the first time a distance from that cell is needed
+   * after the map changes, and the following queries from it become lookups. Maps with more than
+   * <code>MAX_CACHED_CELLS</code> cells keep using the search.
+   *
+   * @param enabled
+   *     whether the distances should be cached
+   */
+  public void setDistanceCache(final boolean enabled) {
+    this.distanceCache = enabled;
+    if (!enabled) {
+      invalidateDistances();
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the table of distances is enabled
+   */
+  public boolean isDistanceCache() {
+    return distanceCache;
+  }
+
+  /**
+   * Enables the distance table and fills all of its rows right away.
+   *
+   * @return <code>true</code> if the table could be built; <code>false</code> otherwise
+   */
+  public boolean precomputeDistances() {
+    setDistanceCache(true);
+    for (int source = 0; source < cells.size(); source++) {
+      if (distanceRow(source) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Discards the table of distances, called every time the connections of the map change.
+   */
+  private void invalidateDistances() {
+    distanceTable = null;
+    for (int i = 0; i < flowFields.size(); i++) {
+      flowFields.get(i).invalidate();
+    }
+  }
+
+  /**
+   * Makes sure the row of the distance table for a cell is filled, with a breadth first search
+   * from that cell.
+   * <p>
+   * Two queries may fill the same row at the same time, they write the same values. The row is
+   * only marked as ready after it's filled, so the queries that find it ready see all of it.
+   *
+   * @param source
+   *     the index of the cell
+   * @return the table with the row filled, or <code>null</code> if the map is too big or the cell
+   *     reaches locations that aren't part of it
+   */
+  private DistanceTable distanceRow(final int source) {
+    int size = cells.size();
+    if (size > MAX_CACHED_CELLS) {
+      return null;
+    }
+    DistanceTable table = distanceTable;
+    if (table == null || table.size != size) {
+      table = new DistanceTable(size);
+      distanceTable = table;
+    }
+    if (table.rows.get(source) != 0) {
+      return table;
+    }
+    Search search = borrowSearch();
+    try {
+      if (search(search, source, null, Integer.MAX_VALUE) == OUTSIDE) {
+        return null;
+      }
+      Arrays.fill(table.steps, source * size, (source + 1) * size, (short) -1);
+      for (int i = 0; i < search.explored; i++) {
+        table.steps[source * size + search.queue[i]] = (short) search.depth[search.queue[i]];
+      }
+    } finally {
+      releaseSearch(search);
+    }
+    table.rows.set(source, 1);
+    return table;
+  }
+
+  /**
+   * Breadth first search over the indices of the cells.
+   *
+   * @param source
+   *     the index of the starting cell
+   * @param to
+   *     the location to reach, or <code>null</code> to explore everything in range
+   * @param maxDistance
+   *     the maximum length of the paths that are explored
+   * @return the length of the shortest path, <code>UNREACHABLE</code> if there is none or
+   *     <code>OUTSIDE</code> if the search reached a location that isn't part of the map
+   */
+  private int search(final Search search, final int source, final Location to,
+      final int maxDistance) {
+    int[] visited = search.visited, depth = search.depth, queue = search.queue;
+    int stamp = search.stamp;
+    int head = 0, tail = 0;
+    visited[source] = stamp;
+    depth[source] = 0;
+    queue[tail++] = source;
+    try {
+      while (head < tail) {
+        int current = queue[head++];
+        int steps = depth[current] + 1;
+        if (steps > maxDistance) {
+          break;
+        }
+        Location cell = cells.get(current);
+        for (int i = 0, count = cell.getNeighbourCount(); i < count; i++) {
+          Location neighbour = cell.getNeighbour(i);
+          if (to != null && neighbour.equals(to)) {
+            return steps;
+          }
+          if (!contains(neighbour)) {
+            return OUTSIDE;
+          }
+          int id = neighbour.getIndex();
+          if (visited[id] != stamp) {
+            visited[id] = stamp;
+            depth[id] = steps;
+            queue[tail++] = id;
+          }
+        }
+      }
+      return UNREACHABLE;
+    } finally {
+      search.explored = tail;
+    }
+  }
+
+  /**
+   * Finds all the cells of the map that can be reached from a location in at most a given number
+   * of steps.
+   *
+   * @param from
+   *     the starting location
+   * @param radius
+   *     the maximum number of steps
+   * @param blockOccupied
+   *     whether the cells with a unit can't be crossed nor reached
+   * @return a new set with the reachable cells
+   * @see #reachableFrom(Location, int, boolean, CellSet)
+   */
+  public CellSet reachableFrom(final Location from, final int radius,
+      final boolean blockOccupied) {
+    return reachableFrom(from, radius, blockOccupied, new CellSet());
+  }
+
+  /**
+   * Finds all the cells of the map that can be reached from a location in at most a given number
+   * of steps, with a breadth first search that stops at that number of steps.
+   * <p>
+   * The starting cell is always part of the result, even if it has a unit, since that's where the
+   * unit that moves is. Connections to locations that aren't part of this map are ignored.
+   *
+   * @param from
+   *     the starting location
+   * @param radius
+   *     the maximum number of steps
+   * @param blockOccupied
+   *     whether the cells with a unit can't be crossed nor reached
+   * @param result
+   *     the set where the cells are stored, its previous contents are discarded
+   * @return the given set, with the reachable cells
+   */
+  public CellSet reachableFrom(final Location from, final int radius,
+      final boolean blockOccupied, final CellSet result) {
+    int size = cells.size();
+    result.reset(this, size);
+    Location source = contains(from) ? from : getCell(from.getRow(), from.getColumn());
+    if (radius < 0 || !contains(source)) {
+      return result;
+    }
+    Search search = borrowSearch();
+    int[] visited = search.visited, depth = search.depth, queue = search.queue;
+    int stamp = search.stamp;
+    int head = 0, tail = 0;
+    visited[source.getIndex()] = stamp;
+    depth[source.getIndex()] = 0;
+    queue[tail++] = source.getIndex();
+    result.add(source.getIndex());
+    while (head < tail) {
+      int current = queue[head++];
+      int steps = depth[current] + 1;
+      if (steps > radius) {
+        break;
+      }
+      Location cell = cells.get(current);
+      for (int i = 0, count = cell.getNeighbourCount(); i < count; i++) {
+        Location neighbour = cell.getNeighbour(i);
+        if (!contains(neighbour)) {
+          continue;
+        }
+        int id = neighbour.getIndex();
+        if (visited[id] != stamp) {
+          visited[id] = stamp;
+          if (blockOccupied && neighbour.getUnit() != null) {
+            continue;
+          }
+          depth[id] = steps;
+          queue[tail++] = id;
+          result.add(id);
+        }
+      }
+    }
+    releaseSearch(search);
+    return result;
+  }
+
+  /**
+   * Finds the units that are between a minimum and a maximum number of steps away from a location,
+   * with a breadth first search that stops at the maximum.
+   * <p>
+   * The cells with units don't block the search, since the range of an item isn't blocked by
+   * other units.
+   *
+   * @param from
+   *     the starting location
+   * @param minRange
+   *     the minimum distance of the units
+   * @param maxRange
+   *     the maximum distance of the units
+   * @param result
+   *     the list where the units are stored, its previous contents are discarded
+   * @return the given list, with the units ordered by their distance to the location
+   */
+  public List<IUnit> unitsInRange(final Location from, final int minRange, final int maxRange,
+      final List<IUnit> result) {
+    result.clear();
+    if (maxRange < minRange || maxRange < 0) {
+      return result;
+    }
+    if (!contains(from)) {
+      return searchUnits(from, minRange, maxRange, result);
+    }
+    Search search = borrowSearch();
+    int[] visited = search.visited, depth = search.depth, queue = search.queue;
+    int stamp = search.stamp;
+    int head = 0, tail = 0;
+    visited[from.getIndex()] = stamp;
+    depth[from.getIndex()] = 0;
+    queue[tail++] = from.getIndex();
+    while (head < tail) {
+      int current = queue[head++];
+      Location cell = cells.get(current);
+      if (depth[current] >= minRange && cell.getUnit() != null) {
+        result.add(cell.getUnit());
+      }
+      int steps = depth[current] + 1;
+      if (steps > maxRange) {
+        continue;
+      }
+      for (int i = 0, count = cell.getNeighbourCount(); i < count; i++) {
+        Location neighbour = cell.getNeighbour(i);
+        if (!contains(neighbour)) {
+          releaseSearch(search);
+          return searchUnits(from, minRange, maxRange, result);
+        }
+        int id = neighbour.getIndex();
+        if (visited[id] != stamp) {
+          visited[id] = stamp;
+          depth[id] = steps;
+          queue[tail++] = id;
+        }
+      }
+    }
+    releaseSearch(search);
+    return result;
+  }
+
+  /**
+   * Search of the units in range that works directly over the locations, used when the locations
+   * in range aren't all part of this map.
+   */
+  static List<IUnit> searchUnits(final Location from, final int minRange, final int maxRange,
+      final List<IUnit> result) {
+    result.clear();
+    Map<Location, Integer> steps = new IdentityHashMap<>();
+    Queue<Location> toVisit = new ArrayDeque<>();
+    steps.put(from, 0);
+    toVisit.add(from);
     while (!toVisit.isEmpty()) {
-      if (visitedNodes.size() == map.size()) {
-        return true;
-      }
-      Location currentNode = toVisit.poll();
-      for (Location neighbour :
-          currentNode.getNeighbours()) {
-        if (!visitedNodes.contains(neighbour)) {
-          visitedNodes.add(neighbour);
+      Location current = toVisit.poll();
+      int distance = steps.get(current);
+      if (distance >= minRange && current.getUnit() != null) {
+        result.add(current.getUnit());
+      }
+      if (distance == maxRange) {
+        continue;
+      }
+      for (int i = 0; i < current.getNeighbourCount(); i++) {
+        Location neighbour = current.getNeighbour(i);
+        if (!steps.containsKey(neighbour)) {
+          steps.put(neighbour, distance + 1);
           toVisit.add(neighbour);
         }
       }
     }
-    return false;
+    return result;
+  }
+
+  /**
+   * Finds a shortest path between two cells of the map that doesn't go through cells with units.
+   *
+   * @param from
+   *     the starting location
+   * @param to
+   *     the location to reach
+   * @return a new list with the path
+   * @see #findPath(Location, Location, List)
+   */
+  public List<Location> findPath(final Location from, final Location to) {
+    return findPath(from, to, new ArrayList<>());
+  }
+
+  /**
+   * Finds a shortest path between two cells of the map that doesn't go through cells with units,
+   * with an A* search guided by the Manhattan distance to the target.
+   * <p>
+   * The starting cell may have a unit, since that's the unit that moves, but the target must be
+   * free. The heuristic is only valid while every connection joins adjacent cells, so if the
+   * search finds any other kind of connection it starts again as a breadth first search.
+   *
+   * @param from
+   *     the starting location
+   * @param to
+   *     the location to reach
+   * @param path
+   *     the list where the path is stored, its previous contents are discarded
+   * @return the given list, with the cells of the path from <code>from</code> to <code>to</code>,
+   *     both included, or empty if there's no path
+   */
+  public List<Location> findPath(final Location from, final Location to,
+      final List<Location> path) {
+    path.clear();
+    Location source = contains(from) ? from : getCell(from.getRow(), from.getColumn());
+    Location target = contains(to) ? to : getCell(to.getRow(), to.getColumn());
+    if (!contains(source) || !contains(target)) {
+      return path;
+    }
+    if (source == target) {
+      path.add(source);
+      return path;
+    }
+    if (target.getUnit() != null) {
+      return path;
+    }
+    Search search = borrowSearch();
+    int steps = aStar(search, source.getIndex(), target, true);
+    if (steps == NOT_ADJACENT) {
+      search.start(cells.size());
+      steps = aStar(search, source.getIndex(), target, false);
+    }
+    if (steps >= 0) {
+      for (int id = target.getIndex(); id != source.getIndex(); id = search.cameFrom[id]) {
+        path.add(cells.get(id));
+      }
+      path.add(source);
+      Collections.reverse(path);
+    }
+    releaseSearch(search);
+    return path;
+  }
+
+  /**
+   * A* search over the indices of the cells, that doesn't enter cells with units.
+   *
+   * @param source
+   *     the index of the starting cell
+   * @param target
+   *     the cell to reach
+   * @param heuristic
+   *     whether the Manhattan distance should guide the search
+   * @return the length of the path, <code>UNREACHABLE</code> if there is none or
+   *     <code>NOT_ADJACENT</code> if the heuristic is used and the search found a connection
+   *     between cells that aren't adjacent
+   */
+  private int aStar(final Search search, final int source, final Location target,
+      final boolean heuristic) {
+    int[] visited = search.visited, depth = search.depth;
+    int[] closed = search.closed, cameFrom = search.cameFrom;
+    int stamp = search.stamp;
+    visited[source] = stamp;
+    depth[source] = 0;
+    search.push(source, 0, heuristic ? manhattan(cells.get(source), target) : 0);
+    while (search.heapSize > 0) {
+      int current = search.pop();
+      if (closed[current] == stamp) {
+        continue;
+      }
+      if (current == target.getIndex()) {
+        return depth[current];
+      }
+      closed[current] = stamp;
+      Location cell = cells.get(current);
+      int steps = depth[current] + 1;
+      for (int i = 0, count = cell.getNeighbourCount(); i < count; i++) {
+        Location neighbour = cell.getNeighbour(i);
+        if (!contains(neighbour)) {
+          continue;
+        }
+        if (heuristic && manhattan(cell, neighbour) != 1) {
+          return NOT_ADJACENT;
+        }
+        int id = neighbour.getIndex();
+        if (closed[id] == stamp || neighbour.getUnit() != null) {
+          continue;
+        }
+        if (visited[id] != stamp || steps < depth[id]) {
+          visited[id] = stamp;
+          depth[id] = steps;
+          cameFrom[id] = current;
+          search.push(id, steps, heuristic ? manhattan(neighbour, target) : 0);
+        }
+      }
+    }
+    return UNREACHABLE;
+  }
+
+  private static int manhattan(final Location from, final Location to) {
+    return Math.abs(from.getRow() - to.getRow()) + Math.abs(from.getColumn() - to.getColumn());
+  }
+
+  /**
+   * Takes the arrays of a search, ready for a new search over the current cells. The arrays of the
+   * last finished search are reused, unless another query is using them.
+   */
+  private Search borrowSearch() {
+    Search search = spareSearch.getAndSet(null);
+    if (search == null) {
+      search = new Search();
+    }
+    search.start(cells.size());
+    return search;
+  }
+
+  /**
+   * Gives back the arrays of a finished search, so the next query can reuse them.
+   */
+  private void releaseSearch(final Search search) {
+    spareSearch.set(search);
+  }
+
+  /**
+   * The arrays used by a breadth first or A* search over the indices of the cells.
+   * <p>
+   * Every query takes its own, so queries from different threads don't mix their marks.
+   */
+  private static final class Search {
+
+    private int[] visited = new int[0];
+    private int[] depth = new int[0];
+    private int[] queue = new int[0];
+    private int[] closed = new int[0];
+    private int[] cameFrom = new int[0];
+    private int[] heapCells = new int[0];
+    private long[] heapKeys = new long[0];
+    private int heapSize;
+    private int stamp;
+    private int explored;
+
+    /**
+     * Prepares the arrays for the given number of cells and starts a new mark for the visited
+     * cells.
+     */
+    private void start(final int size) {
+      if (visited.length < size) {
+        visited = new int[size];
+        depth = new int[size];
+        queue = new int[size];
+        closed = new int[size];
+        cameFrom = new int[size];
+        stamp = 0;
+      }
+      if (++stamp == 0) {
+        Arrays.fill(visited, 0);
+        Arrays.fill(closed, 0);
+        stamp = 1;
+      }
+      heapSize = 0;
+      explored = 0;
+    }
+
+    /**
+     * Adds a cell to the open set of the A* search. The cells are ordered by the estimated length
+     * of their paths and then by the longest path so far, so ties go to the cells closer to the
+     * target.
+     */
+    private void push(final int cell, final int steps, final int estimate) {
+      if (heapSize == heapCells.length) {
+        int capacity = Math.max(16, heapSize * 2);
+        heapCells = Arrays.copyOf(heapCells, capacity);
+        heapKeys = Arrays.copyOf(heapKeys, capacity);
+      }
+      long key = ((long) (steps + estimate) << 32) - steps;
+      int i = heapSize++;
+      while (i > 0 && heapKeys[(i - 1) >>> 1] > key) {
+        heapKeys[i] = heapKeys[(i - 1) >>> 1];
+        heapCells[i] = heapCells[(i - 1) >>> 1];
+        i = (i - 1) >>> 1;
+      }
+      heapKeys[i] = key;
+      heapCells[i] = cell;
+    }
+
+    /**
+     * Takes the first cell out of the open set of the A* search.
+     */
+    private int pop() {
+      int first = heapCells[0];
+      long key = heapKeys[--heapSize];
+      int cell = heapCells[heapSize];
+      int i = 0;
+      while (2 * i + 1 < heapSize) {
+        int child = 2 * i + 1;
+        if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+          child++;
+        }
+        if (heapKeys[child] >= key) {
+          break;
+        }
+        heapKeys[i] = heapKeys[child];
+        heapCells[i] = heapCells[child];
+        i = child;
+      }
+      heapKeys[i] = key;
+      heapCells[i] = cell;
+      return first;
+    }
+  }
+
+  /**
+   * The distances between all the cells of the map, filled one row at a time.
+   */
+  private static final class DistanceTable {
+
+    private final int size;
+    private final short[] steps;
+    private final AtomicIntegerArray rows;
+
+    private DistanceTable(final int size) {
+      this.size = size;
+      this.steps = new short[size * size];
+      this.rows = new AtomicIntegerArray(size);
+    }
+  }
+
+  /**
+   * @return the cell of the map with the given index
+   */
+  Location cellAt(final int index) {
+    return cells.get(index);
+  }
+
+  /**
+   * Breadth first search that works directly over the locations, used when a path goes through
+   * cells that aren't part of this map.
+   *
+   * @return the distance between the nodes
+   */
+  static double searchDistance(final Location from, final Location to, final int maxDistance) {
+    if (from.equals(to)) {
+      return 0;
+    }
+    Map<Location, Integer> steps = new IdentityHashMap<>();
+    Queue<Location> toVisit = new ArrayDeque<>();
+    steps.put(from, 0);
+    toVisit.add(from);
+    while (!toVisit.isEmpty()) {
+      Location current = toVisit.poll();
+      int distance = steps.get(current) + 1;
+      if (distance > maxDistance) {
+        break;
+      }
+      for (int i = 0; i < current.getNeighbourCount(); i++) {
+        Location neighbour = current.getNeighbour(i);
+        if (neighbour.equals(to)) {
+          return distance;
+        }
+        if (!steps.containsKey(neighbour)) {
+          steps.put(neighbour, distance);
+          toVisit.add(neighbour);
+        }
+      }
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Checks if a location is one of the cells currently stored in this map
+   */
+  boolean contains(final Location cell) {
+    return cell.getField() == this && cells.get(cell.getIndex()) == cell;
+  }
+
+  /**
+   * Updates the index of the units after a unit is placed on a cell of the map or removed from it.
+   */
+  void unitChanged(final Location cell) {
+    if (contains(cell)) {
+      occupancy.set(cell.getIndex(), cell.getUnit());
+      for (int i = 0; i < flowFields.size(); i++) {
+        flowFields.get(i).unitChanged(cell.getIndex());
+      }
+    }
+  }
+
+  /**
+   * Creates the distances from every cell of the map to the nearest cell with a unit that
+   * satisfies a condition.
+   * <p>
+   * The map keeps the distances up to date while units are placed and removed, until
+   * <code>FlowField.detach()</code> is called.
+   *
+   * @param goal
+   *     the condition of the units that are the goals
+   * @return the distances to the goals
+   */
+  public FlowField createFlowField(final Predicate<IUnit> goal) {
+    FlowField flowField = new FlowField(this, goal);
+    flowFields.add(flowField);
+    return flowField;
+  }
+
+  /**
+   * Stops updating the given distances.
+   */
+  void removeFlowField(final FlowField flowField) {
+    flowFields.remove(flowField);
+  }
+
+  /**
+   * @return the number of flow fields the map keeps up to date
+   */
+  public int getFlowFieldCount() {
+    return flowFields.size();
+  }
+
+  /**
+   * @return the number of cells of the map
+   */
+  public int getCellCount() {
+    return cells.size();
+  }
+
+  /**
+   * Gets the position of a cell in the cells of this map, the same index used by
+   * <code>CellSet</code> and <code>FlowField</code>.
+   *
+   * @param cell
+   *     a location
+   * @return the index of the cell, or -1 if it isn't part of this map
+   */
+  public int getCellIndex(final Location cell) {
+    return cell != null && contains(cell) ? cell.getIndex() : -1;
+  }
+
+  /**
+   * @param index
+   *     a number between 0 and <code>getCellCount() - 1</code>
+   * @return the cell of the map with the given index
+   */
+  public Location getCell(final int index) {
+    return cells.get(index);
+  }
+
+  /**
+   * Checks if there's a cell of the map at the given position and it doesn't have a unit.
+   */
+  public boolean isFree(final int row, final int col) {
+    Location cell = getCell(row, col);
+    return contains(cell) && occupancy.get(cell.getIndex()) == null;
+  }
+
+  /**
+   * @return the unit on the cell of the map at the given position, or <code>null</code> if there
+   *     isn't one
+   */
+  public IUnit getUnitAt(final int row, final int col) {
+    Location cell = getCell(row, col);
+    return contains(cell) ? occupancy.get(cell.getIndex()) : null;
+  }
+
+  /**
+   * @return the number of units on the cells of the map
+   */
+  public int getUnitCount() {
+    return occupancy.size();
+  }
+
+  /**
+   * Finds the units of a tactician that are on the map.
+   *
+   * @param owner
+   *     the owner of the units
+   * @param result
+   *     the list where the units are stored, its previous contents are discarded
+   * @return the given list, with the units ordered by the position of their cells
+   */
+  public List<IUnit> getUnitsOf(final Tactician owner, final List<IUnit> result) {
+    result.clear();
+    occupancy.unitsOf(owner, result);
+    return result;
+  }
+
+  /**
+   * Finds the enemy units that are at most a number of steps away from a unit.
+   * <p>
+   * The enemies are the units of other tacticians, or every other unit if the unit doesn't have an
+   * owner. Only the occupied cells are checked, so the cost depends on the number of units and not
+   * on the size of the map.
+   *
+   * @param unit
+   *     the unit whose enemies are searched
+   * @param radius
+   *     the maximum distance of the enemies
+   * @param result
+   *     the list where the units are stored, its previous contents are discarded
+   * @return the given list, with the units ordered by the position of their cells
+   */
+  public List<IUnit> getEnemiesWithin(final IUnit unit, final int radius,
+      final List<IUnit> result) {
+    result.clear();
+    long[] allies = unit.getOwner() == null ? null : occupancy.cellsOf(unit.getOwner());
+    occupancy.collect(occupancy.occupied(), allies, result);
+    Location from = unit.getLocation();
+    int enemies = 0;
+    for (int i = 0; i < result.size(); i++) {
+      IUnit enemy = result.get(i);
+      if (enemy != unit && from.distanceTo(enemy.getLocation(), radius) <= radius) {
+        result.set(enemies++, enemy);
+      }
+    }
+    result.subList(enemies, result.size()).clear();
+    return result;
+  }
+
+  /**
+   * Enables or disables the compact storage of the connections of the map.
+   * <p>
+   * While enabled, every cell whose neighbours are all adjacent cells of the map keeps them as a
+   * 4 bit mask (up, down, left, right) in a byte of this field instead of in the location. Cells
+   * with any other kind of neighbour keep their own list of neighbours.
+   *
+   * @param enabled
+   *     whether the connections should be stored as direction masks
+   */
+  public void setCompactNeighbours(final boolean enabled) {
+    compactNeighbours = enabled;
+    for (Location cell : cells) {
+      if (enabled) {
+        cell.compactLinks();
+      } else {
+        cell.expandLinks();
+      }
+    }
+  }
+  /**
+   * @return <code>true</code> if the connections are stored as direction masks when possible
+   */
+  public boolean isCompactNeighbours() {
+    return compactNeighbours;
+  }
+
+  /**
+   * Gets the direction from a cell to an adjacent one
+   *
+   * @return the direction (0 up, 1 down, 2 left, 3 right), or -1 if the second location isn't the
+   *     cell of this map next to the first one
+   */
+  private int directionTo(final Location from, final Location to) {
+    int dRow = to.getRow() - from.getRow(),
+        dColumn = to.getColumn() - from.getColumn();
+    for (int d = 0; d < 4; d++) {
+      if (ROW_STEP[d] == dRow && COLUMN_STEP[d] == dColumn) {
+        return getCell(to.getRow(), to.getColumn()) == to ? d : -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Writes the neighbours of a cell as it's direction mask.
+   *
+   * @return <code>true</code> if all the neighbours could be written as directions
+   */
+  boolean setDirections(final Location cell, final Location[] links, final int count) {
+    byte mask = 0;
+    for (int i = 0; i < count; i++) {
+      int d = directionTo(cell, links[i]);
+      if (d < 0) {
+        return false;
+      }
+      mask |= 1 << d;
+    }
+    directions[cell.getIndex()] = mask;
+    return true;
+  }
+
+  /**
+   * Adds a neighbour to the direction mask of a cell.
+   *
+   * @return <code>true</code> if the neighbour could be written as a direction
+   */
+  boolean linkDirection(final Location cell, final Location neighbour) {
+    int d = directionTo(cell, neighbour);
+    if (d < 0) {
+      return false;
+    }
+    directions[cell.getIndex()] |= 1 << d;
+    return true;
+  }
+
+  /**
+   * Removes a neighbour from the direction mask of a cell
+   */
+  void unlinkDirection(final Location cell, final Location neighbour) {
+    int d = directionTo(cell, neighbour);
+    if (d >= 0) {
+      directions[cell.getIndex()] &= ~(1 << d);
+    }
+  }
+
+  /**
+   * Checks if the direction mask of a cell points to another location
+   */
+  boolean isLinked(final Location cell, final Location neighbour) {
+    int d = directionTo(cell, neighbour);
+    return d >= 0 && (directions[cell.getIndex()] & (1 << d)) != 0;
+  }
+
+  /**
+   * @return the number of directions set in the mask of a cell
+   */
+  int directionCount(final Location cell) {
+    return Integer.bitCount(directions[cell.getIndex()]);
+  }
+
+  /**
+   * Gets one of the neighbours stored in the direction mask of a cell
+   *
+   * @param index
+   *     the position of the neighbour among the set directions
+   */
+  Location directionLink(final Location cell, final int index) {
+    int mask = directions[cell.getIndex()];
+    for (int d = 0, found = 0; d < 4; d++) {
+      if ((mask & (1 << d)) != 0 && found++ == index) {
+        return grid[gridSlot(cell.getRow() + ROW_STEP[d], cell.getColumn() + COLUMN_STEP[d])];
+      }
+    }
+    throw new IndexOutOfBoundsException(index);
+  }
+
+  /**
+   * Takes the neighbours out of the direction mask of a cell
+   *
+   * @return an array with the neighbours
+   */
+  Location[] directionLinks(final Location cell) {
+    Location[] links = new Location[directionCount(cell)];
+    for (int i = 0; i < links.length; i++) {
+      links[i] = directionLink(cell, i);
+    }
+    directions[cell.getIndex()] = 0;
+    return links;
   }
 
   /**
    * Removes a connection from two locations of the field
    */
   public void removeConnection(final Location cell1, final Location cell2) {
-    if (cell1.getNeighbours().size() > 1 && cell2.getNeighbours().size() > 1) {
+    if (cell1.getNeighbourCount() > 1 && cell2.getNeighbourCount() > 1) {
       cell1.removeNeighbour(cell2);
     }
   }
@@ -157,6 +1322,71 @@ public class Field {
     this.random = seed;
   }
 
+  /**
+   * View of the cells of the field as a map from their ids to the cells
+   */
+  private class CellMap extends AbstractMap<String, Location> {
+
+    @Override
+    public int size() {
+      return cells.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Location get(final Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+      String id = (String) key;
+      int comma = id.indexOf(", ");
+      if (!id.startsWith("(") || !id.endsWith(")") || comma < 0) {
+        return null;
+      }
+      try {
+        int row = Integer.parseInt(id.substring(1, comma));
+        int col = Integer.parseInt(id.substring(comma + 2, id.length() - 1));
+        Location cell = getCell(row, col);
+        return cell == INVALID_CELL ? null : cell;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public void clear() {
+      Field.this.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Location>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, Location>> iterator() {
+          Iterator<Location> iterator = cells.iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return iterator.hasNext();
+            }
 
+            @Override
+            public Entry<String, Location> next() {
+              Location cell = iterator.next();
+              return new SimpleImmutableEntry<>(cell.toString(), cell);
+            }
+          };
+        }
 
+        @Override
+        public int size() {
+          return cells.size();
+        }
+      };
+    }
+  }
 }
@@ -0,0 +1,160 @@
+package model.map;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of the cells and connections of a field.
+ * <p>
+ * Every cell is written as its row, its column and a mask with the directions of the adjacent
+ * cells it's linked to, in the order of the cells of the field, followed by the links that can't
+ * be written as a direction, as pairs of cell indices. Each link is stored on the side of the cell
+ * that holds it, so connections that only go one way are kept as they are. Links to locations that
+ * aren't part of the field aren't stored.
+ * <p>
+ * Reading a field only creates its locations; the links are restored straight into the direction
+ * masks of the field when it keeps its neighbours compact.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+public final class FieldCodec {
+
+  private static final int[] ROW_STEP = {-1, 1, 0, 0};
+  private static final int[] COLUMN_STEP = {0, 0, -1, 1};
+  private static final byte COMPACT = 1;
+  private static final byte DISTANCE_CACHE = 2;
+  private static final int CELL_BYTES = 9;
+
+  private FieldCodec() {
+  }
+
+  /**
+   * Computes the number of bytes that {@link #write(Field, ByteBuffer)} writes for a field.
+   */
+  public static long encodedSize(final Field field) {
+    int count = field.getCellCount();
+    long extra = 0;
+    for (int i = 0; i < count; i++) {
+      Location cell = field.getCell(i);
+      for (int j = 0, links = cell.getNeighbourCount(); j < links; j++) {
+        Location neighbour = cell.getNeighbour(j);
+        if (directionTo(field, cell, neighbour) < 0 && field.getCellIndex(neighbour) >= 0) {
+          extra++;
+        }
+      }
+    }
+    return 4 + 1 + (long) CELL_BYTES * count + 4 + 8 * extra;
+  }
+
+  /**
+   * Writes the cells and connections of a field at the position of a buffer.
+   *
+   * @param field
+   *     the field to write
+   * @param buffer
+   *     a buffer with at least {@link #encodedSize(Field)} bytes remaining
+   */
+  public static void write(final Field field, final ByteBuffer buffer) {
+    int count = field.getCellCount();
+    buffer.putInt(count);
+    buffer.put((byte) ((field.isCompactNeighbours() ? COMPACT : 0)
+        | (field.isDistanceCache() ? DISTANCE_CACHE : 0)));
+    int extra = 0;
+    for (int i = 0; i < count; i++) {
+      Location cell = field.getCell(i);
+      int mask = 0;
+      for (int j = 0, links = cell.getNeighbourCount(); j < links; j++) {
+        Location neighbour = cell.getNeighbour(j);
+        int d = directionTo(field, cell, neighbour);
+        if (d >= 0) {
+          mask |= 1 << d;
+        } else if (field.getCellIndex(neighbour) >= 0) {
+          extra++;
+        }
+      }
+      buffer.putInt(cell.getRow());
+      buffer.putInt(cell.getColumn());
+      buffer.put((byte) mask);
+    }
+    buffer.putInt(extra);
+    for (int i = 0; i < count && extra > 0; i++) {
+      Location cell = field.getCell(i);
+      for (int j = 0, links = cell.getNeighbourCount(); j < links; j++) {
+        Location neighbour = cell.getNeighbour(j);
+        int index = field.getCellIndex(neighbour);
+        if (directionTo(field, cell, neighbour) < 0 && index >= 0) {
+          buffer.putInt(i);
+          buffer.putInt(index);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads a field written by {@link #write(Field, ByteBuffer)} from the position of a buffer.
+   *
+   * @param buffer
+   *     the buffer with the field
+   * @return a new field with the same cells, in the same order, and the same connections
+   * @throws IllegalArgumentException
+   *     if the buffer doesn't hold a valid field
+   */
+  public static Field read(final ByteBuffer buffer) {
+    int count = buffer.getInt();
+    byte settings = buffer.get();
+    if (count < 0 || (long) count * CELL_BYTES > buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid number of cells: " + count);
+    }
+    Field field = new Field();
+    field.setCompactNeighbours((settings & COMPACT) != 0);
+    int start = buffer.position();
+    for (int i = 0; i < count; i++) {
+      int offset = start + i * CELL_BYTES;
+      field.addCell(new Location(buffer.getInt(offset), buffer.getInt(offset + 4)));
+    }
+    if (field.getCellCount() != count) {
+      throw new IllegalArgumentException("Repeated cells in the field");
+    }
+    for (int i = 0; i < count; i++) {
+      int mask = buffer.get(start + i * CELL_BYTES + 8);
+      Location cell = field.getCell(i);
+      for (int d = 0; mask != 0; d++, mask >>>= 1) {
+        if ((mask & 1) != 0) {
+          Location neighbour = field.getCell(cell.getRow() + ROW_STEP[d],
+              cell.getColumn() + COLUMN_STEP[d]);
+          if (field.getCellIndex(neighbour) < 0) {
+            throw new IllegalArgumentException("Link to a missing cell from " + cell);
+          }
+          cell.link(neighbour);
+        }
+      }
+    }
+    buffer.position(start + count * CELL_BYTES);
+    int extra = buffer.getInt();
+    for (int i = 0; i < extra; i++) {
+      int from = buffer.getInt(), to = buffer.getInt();
+      if (from < 0 || from >= count || to < 0 || to >= count) {
+        throw new IllegalArgumentException("Link between missing cells " + from + ", " + to);
+      }
+      field.getCell(from).link(field.getCell(to));
+    }
+    // the links were added one way, without telling the field
+    field.connectionRemoved();
+    field.setDistanceCache((settings & DISTANCE_CACHE) != 0);
+    return field;
+  }
+
+  /**
+   * @return the direction from a cell to the cell of the field next to it, or -1 if the neighbour
+   *     isn't that cell
+   */
+  private static int directionTo(final Field field, final Location cell, final Location neighbour) {
+    for (int d = 0; d < 4; d++) {
+      if (neighbour.getRow() - cell.getRow() == ROW_STEP[d]
+          && neighbour.getColumn() - cell.getColumn() == COLUMN_STEP[d]) {
+        return field.getCell(neighbour.getRow(), neighbour.getColumn()) == neighbour ? d : -1;
+      }
+    }
+    return -1;
+  }
+}
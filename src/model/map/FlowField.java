@@ -0,0 +1,325 @@
+package model.map;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+import model.units.IUnit;
+
+/**
+ * Distances from every cell of a field to the nearest goal cell, where the goals are the cells
+ * with units that satisfy a condition, like the units of the enemies of a tactician.
+ * <p>
+ * The distances are computed with a single breadth first search that starts from all the goals at
+ * once, so any number of units can walk towards their nearest goal by stepping to the neighbour
+ * with the lowest distance, without searching on their own. The distances follow the connections
+ * of the map and don't treat the cells with units as obstacles, so they only change when a goal
+ * appears or disappears:
+ * <ul>
+ *   <li>a new goal only lowers the distances around it, with a search from that goal alone;</li>
+ *   <li>a removed goal only raises the distances of the cells that were closest to it, which are
+ *   searched again from the cells around them.</li>
+ * </ul>
+ * Changes in the connections of the map make the distances be computed again from scratch the
+ * next time they're needed. The search goes out from the goals, so the connections are assumed to
+ * go both ways, as they do in the maps of the game.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+public class FlowField {
+
+  /**
+   * Distance of the cells that can't reach any goal.
+   */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final Field field;
+  private final Predicate<IUnit> goal;
+  private boolean outdated = true;
+  private int[] distances = new int[0];
+  private int[] sources = new int[0];
+  private boolean[] goals = new boolean[0];
+  private int[] queue = new int[0];
+  private int[] marks = new int[0];
+  private int mark;
+  private long[] seeds = new long[0];
+  private int goalCount;
+  private int[] pending = new int[0];
+  private boolean[] isPending = new boolean[0];
+  private int[] removals = new int[0];
+  private int pendingCount;
+
+  /**
+   * Creates the distances of a field to the units that satisfy a condition.
+   */
+  FlowField(final Field field, final Predicate<IUnit> goal) {
+    this.field = field;
+    this.goal = goal;
+  }
+
+  /**
+   * Discards the distances after the connections of the map change.
+   */
+  void invalidate() {
+    outdated = true;
+  }
+
+  /**
+   * Records that a unit was placed on a cell of the field or removed from it, so the distances are
+   * updated the next time they're needed.
+   *
+   * @param cell
+   *     the index of the cell
+   */
+  void unitChanged(final int cell) {
+    if (!outdated && !isPending[cell]) {
+      isPending[cell] = true;
+      pending[pendingCount++] = cell;
+    }
+  }
+
+  /**
+   * Brings the distances up to date.
+   * <p>
+   * Only the net changes since the last query count, so a unit that leaves and comes back to a
+   * cell doesn't change anything. The new goals are added before the old ones are removed, so when
+   * a goal moves to a nearby cell only the cells that got further away are searched again. If the
+   * removed goals are a large part of the goals, computing everything from scratch is cheaper.
+   */
+  private void refresh() {
+    if (outdated) {
+      update();
+      return;
+    }
+    if (pendingCount == 0) {
+      return;
+    }
+    int added = 0, removed = 0;
+    for (int i = 0; i < pendingCount; i++) {
+      int cell = pending[i];
+      isPending[cell] = false;
+      IUnit unit = field.cellAt(cell).getUnit();
+      boolean isGoal = unit != null && goal.test(unit);
+      if (isGoal && !goals[cell]) {
+        pending[added++] = cell;
+      } else if (!isGoal && goals[cell]) {
+        removals[removed++] = cell;
+      }
+    }
+    pendingCount = 0;
+    if (removed == 0 && added == 0) {
+      return;
+    }
+    if (removed > 0 && 2 * removed >= goalCount) {
+      update();
+      return;
+    }
+    for (int i = 0; i < added; i++) {
+      int cell = pending[i];
+      goals[cell] = true;
+      distances[cell] = 0;
+      sources[cell] = cell;
+      queue[i] = cell;
+    }
+    goalCount += added - removed;
+    spread(0, added, null, 0);
+    if (removed > 0) {
+      removeGoals(removed);
+    }
+  }
+
+  /**
+   * Computes all the distances from scratch.
+   */
+  private void update() {
+    int size = field.getCellCount();
+    if (distances.length < size) {
+      distances = new int[size];
+      sources = new int[size];
+      goals = new boolean[size];
+      queue = new int[size];
+      marks = new int[size];
+      mark = 0;
+      pending = new int[size];
+      isPending = new boolean[size];
+      removals = new int[size];
+    }
+    Arrays.fill(distances, 0, size, UNREACHABLE);
+    Arrays.fill(isPending, false);
+    pendingCount = 0;
+    int tail = 0;
+    for (int i = 0; i < size; i++) {
+      IUnit unit = field.cellAt(i).getUnit();
+      goals[i] = unit != null && goal.test(unit);
+      if (goals[i]) {
+        distances[i] = 0;
+        sources[i] = i;
+        queue[tail++] = i;
+      }
+    }
+    spread(0, tail, null, 0);
+    goalCount = tail;
+    outdated = false;
+  }
+
+  /**
+   * Raises the distances of the cells whose nearest goal was removed.
+   * <p>
+   * Those cells are connected to a removed goal through cells with the same nearest goal, so
+   * they're found with a search from the removed goals. Every other cell keeps its distance, since
+   * its nearest goal is still there. The cells that were found are then reached again from the
+   * cells around them, in order of distance.
+   *
+   * @param removed
+   *     the number of removed goals
+   */
+  private void removeGoals(final int removed) {
+    if (++mark == 0) {
+      Arrays.fill(marks, 0);
+      mark = 1;
+    }
+    int head = 0, tail = 0;
+    for (int i = 0; i < removed; i++) {
+      goals[removals[i]] = false;
+      marks[removals[i]] = mark;
+      queue[tail++] = removals[i];
+    }
+    while (head < tail) {
+      Location current = field.cellAt(queue[head++]);
+      for (int i = 0, count = current.getNeighbourCount(); i < count; i++) {
+        Location neighbour = current.getNeighbour(i);
+        if (field.contains(neighbour)) {
+          int id = neighbour.getIndex();
+          if (marks[id] != mark && marks[sources[id]] == mark && !goals[id]) {
+            marks[id] = mark;
+            queue[tail++] = id;
+          }
+        }
+      }
+    }
+    int seedCount = 0;
+    if (seeds.length < tail) {
+      seeds = new long[Math.max(tail, seeds.length * 2)];
+    }
+    for (int i = 0; i < tail; i++) {
+      int id = queue[i];
+      distances[id] = UNREACHABLE;
+      Location current = field.cellAt(id);
+      int best = UNREACHABLE, source = -1;
+      for (int j = 0, count = current.getNeighbourCount(); j < count; j++) {
+        Location neighbour = current.getNeighbour(j);
+        if (field.contains(neighbour) && marks[neighbour.getIndex()] != mark
+            && distances[neighbour.getIndex()] < best) {
+          best = distances[neighbour.getIndex()];
+          source = sources[neighbour.getIndex()];
+        }
+      }
+      if (source >= 0) {
+        distances[id] = best + 1;
+        sources[id] = source;
+        seeds[seedCount++] = ((long) (best + 1) << 32) | id;
+      }
+    }
+    Arrays.sort(seeds, 0, seedCount);
+    spread(0, 0, seeds, seedCount);
+  }
+
+  /**
+   * Breadth first search that lowers the distances of the neighbours of the cells in the queue,
+   * merging in cells with already known distances in increasing order.
+   *
+   * @param head
+   *     the first cell of the queue
+   * @param tail
+   *     the end of the queue
+   * @param sortedSeeds
+   *     cells with their distance in the upper 32 bits, sorted, or <code>null</code>
+   * @param seedCount
+   *     the number of seeds
+   */
+  private void spread(int head, int tail, final long[] sortedSeeds, final int seedCount) {
+    int nextSeed = 0;
+    while (head < tail || nextSeed < seedCount) {
+      int current;
+      if (nextSeed < seedCount && (head == tail
+          || sortedSeeds[nextSeed] >>> 32 <= distances[queue[head]])) {
+        current = (int) sortedSeeds[nextSeed++];
+        if (distances[current] != sortedSeeds[nextSeed - 1] >>> 32) {
+          continue;
+        }
+      } else {
+        current = queue[head++];
+      }
+      int steps = distances[current] + 1;
+      Location cell = field.cellAt(current);
+      for (int i = 0, count = cell.getNeighbourCount(); i < count; i++) {
+        Location neighbour = cell.getNeighbour(i);
+        if (field.contains(neighbour) && steps < distances[neighbour.getIndex()]) {
+          int id = neighbour.getIndex();
+          distances[id] = steps;
+          sources[id] = sources[current];
+          if (tail == queue.length) {
+            System.arraycopy(queue, head, queue, 0, tail - head);
+            tail -= head;
+            head = 0;
+          }
+          queue[tail++] = id;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the distance from a cell to the nearest goal.
+   *
+   * @param cell
+   *     a cell of the field
+   * @return the length of the shortest path to a goal, or <code>UNREACHABLE</code> if there's no
+   *     path or the location isn't part of the field
+   */
+  public int getDistance(final Location cell) {
+    refresh();
+    return field.contains(cell) ? distances[cell.getIndex()] : UNREACHABLE;
+  }
+
+  /**
+   * Gets the distances of all the cells to the nearest goal.
+   *
+   * @return an array where the distance of each cell is at the same position as the index of the
+   *     cell in a <code>CellSet</code>; it's updated in place, so it must not be modified
+   */
+  public int[] getDistances() {
+    refresh();
+    return distances;
+  }
+
+  /**
+   * Chooses the step towards the nearest goal from a cell.
+   *
+   * @param from
+   *     the current cell
+   * @return the free neighbour with the lowest distance, if it's lower than the distance of the
+   *     current cell; <code>null</code> otherwise
+   */
+  public Location nextStep(final Location from) {
+    if (!field.contains(from)) {
+      return null;
+    }
+    int best = getDistance(from);
+    Location step = null;
+    for (int i = 0, count = from.getNeighbourCount(); i < count; i++) {
+      Location neighbour = from.getNeighbour(i);
+      if (neighbour.getUnit() == null && getDistance(neighbour) < best) {
+        best = getDistance(neighbour);
+        step = neighbour;
+      }
+    }
+    return step;
+  }
+
+  /**
+   * Stops updating the distances, so the field no longer keeps them.
+   */
+  public void detach() {
+    field.removeFlowField(this);
+  }
+}
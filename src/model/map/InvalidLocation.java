@@ -1,5 +1,7 @@
 package model.map;
 
+import model.units.IUnit;
+
 /**
  * This class represents an empty or invalid location on the game's map.
  *
@@ -22,4 +24,17 @@ public class InvalidLocation extends Location {
   @Override
   protected void addTo(final Location location) {
   }
+
+  @Override
+  protected void link(final Location location) {
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * An invalid location can't hold units.
+   */
+  @Override
+  public void setUnit(final IUnit unit) {
+  }
 }
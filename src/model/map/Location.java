@@ -1,6 +1,7 @@
 package model.map;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import model.units.IUnit;
 
@@ -23,9 +24,14 @@ public class Location {
 
   private final int row;
   private final int column;
-  private final String id;
-  private Set<Location> neighbours = new HashSet<>();
+  private static final Location[] NO_LINKS = new Location[0];
+
+  private String id;
+  private Location[] links = NO_LINKS;
+  private int linkCount;
   private IUnit unit;
+  private Field field;
+  private int index = -1;
 
   /**
    * Creates a new location of the game map.
@@ -38,7 +44,6 @@ public class Location {
   public Location(final int row, final int column) {
     this.row = row;
     this.column = column;
-    id = "(" + row + ", " + column + ")";
   }
 
   /**
@@ -57,8 +62,15 @@ public class Location {
         && column == ((Location) other).column;
   }
 
+  /**
+   * The id is only built the first time it's needed, so creating the cells of a big map doesn't
+   * create a string for each of them.
+   */
   @Override
   public String toString() {
+    if (id == null) {
+      id = "(" + row + ", " + column + ")";
+    }
     return id;
   }
 
@@ -70,7 +82,13 @@ public class Location {
    */
   public void addNeighbour(final Location neighbour) {
     neighbour.addTo(this);
-    neighbour.neighbours.add(this);
+    neighbour.link(this);
+    if (field != null) {
+      field.connectionAdded(this, neighbour);
+    }
+    if (neighbour.field != null && neighbour.field != field) {
+      neighbour.field.connectionAdded(this, neighbour);
+    }
   }
 
   /**
@@ -80,7 +98,85 @@ public class Location {
    *     location to add this as neighbour
    */
   protected void addTo(final Location location) {
-    location.neighbours.add(this);
+    location.putLink(this);
+  }
+
+  /**
+   * Adds a location as a neighbour of this one
+   *
+   * @param location
+   *     location to be added as neighbour
+   */
+  protected void link(final Location location) {
+    putLink(location);
+  }
+
+  /**
+   * Stores a location as a neighbour of this one, if it wasn't already.
+   * <p>
+   * When this location's links are kept as a direction mask in it's map and the new neighbour
+   * can't be written as a direction, the links are moved back to this location.
+   */
+  private void putLink(final Location location) {
+    if (links == null) {
+      if (field.linkDirection(this, location)) {
+        return;
+      }
+      expandLinks();
+    }
+    for (int i = 0; i < linkCount; i++) {
+      if (links[i] == location) {
+        return;
+      }
+    }
+    if (linkCount == links.length) {
+      links = Arrays.copyOf(links, Math.max(4, linkCount * 2));
+    }
+    links[linkCount++] = location;
+  }
+
+  /**
+   * Removes a location from the neighbours of this one
+   */
+  private void dropLink(final Location location) {
+    if (links == null) {
+      field.unlinkDirection(this, location);
+      return;
+    }
+    for (int i = 0; i < linkCount; i++) {
+      if (links[i] == location) {
+        links[i] = links[--linkCount];
+        links[linkCount] = null;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Moves the links of this location from the direction mask of it's map to this location.
+   */
+  void expandLinks() {
+    if (links == null) {
+      links = field.directionLinks(this);
+      linkCount = links.length;
+    }
+  }
+
+  /**
+   * Tries to store the links of this location as a direction mask in it's map.
+   *
+   * @return <code>true</code> if all the neighbours are adjacent cells of the map
+   */
+  boolean compactLinks() {
+    if (links == null) {
+      return true;
+    }
+    if (!field.setDirections(this, links, linkCount)) {
+      return false;
+    }
+    links = null;
+    linkCount = 0;
+    return true;
   }
 
   /**
@@ -90,8 +186,35 @@ public class Location {
    *     the cell to be checked
    * @return <code>true</code> if the two locations are adjacent; <code>false</code> otherwise
    */
-  boolean isNeighbour(final Location otherLocation) {
-    return neighbours.contains(otherLocation);
+  public boolean isNeighbour(final Location otherLocation) {
+    if (links == null) {
+      return field.isLinked(this, otherLocation);
+    }
+    for (int i = 0; i < linkCount; i++) {
+      if (links[i] == otherLocation) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the number of cells adjacent to this one
+   */
+  public int getNeighbourCount() {
+    return links == null ? field.directionCount(this) : linkCount;
+  }
+
+  /**
+   * Gets one of the cells adjacent to this one, so the neighbours can be iterated without
+   * creating a new set.
+   *
+   * @param index
+   *     a number between 0 and <code>getNeighbourCount() - 1</code>
+   * @return the neighbour at that position
+   */
+  public Location getNeighbour(final int index) {
+    return links == null ? field.directionLink(this, index) : links[index];
   }
 
   /**
@@ -111,6 +234,9 @@ public class Location {
 
     if(this.unit == null){
       this.unit = unit;
+      if (field != null && unit != null) {
+        field.unitChanged(this);
+      }
     }
   }
 
@@ -119,7 +245,12 @@ public class Location {
    *
    */
   public void removeUnit(){
-    this.unit = null;
+    if (this.unit != null) {
+      this.unit = null;
+      if (field != null) {
+        field.unitChanged(this);
+      }
+    }
   }
 
   /**
@@ -129,15 +260,30 @@ public class Location {
    *     the neighbour to be removed
    */
   public void removeNeighbour(final Location neighbour) {
-    neighbours.remove(neighbour);
-    neighbour.neighbours.remove(neighbour);
+    dropLink(neighbour);
+    if (field != null) {
+      field.connectionRemoved();
+    }
+    if (neighbour.field != null && neighbour.field != field) {
+      neighbour.field.connectionRemoved();
+    }
   }
 
   /**
+   * Gives a copy of the adjacent cells.
+   * <p>
+   * {@link #getNeighbourCount()} and {@link #getNeighbour(int)} give the same cells without
+   * creating a new set.
+   *
    * @return a hash set of this location adjacent cells
    */
   public Set<Location> getNeighbours() {
-    return Set.copyOf(neighbours);
+    int count = getNeighbourCount();
+    Location[] neighbours = new Location[count];
+    for (int i = 0; i < count; i++) {
+      neighbours[i] = getNeighbour(i);
+    }
+    return Set.copyOf(Arrays.asList(neighbours));
   }
 
   /**
@@ -148,27 +294,72 @@ public class Location {
    * @return the length of the shortest path to the other location
    */
   public double distanceTo(final Location otherNode) {
-    return shortestPathTo(otherNode, new HashSet<>());
+    return distanceTo(otherNode, Integer.MAX_VALUE);
   }
 
   /**
-   * Gets the shortest path to another node storing a set of already visited nodes
+   * Calculates the distance from this location to another, only if it's at most
+   * <code>maxDistance</code> cells away.
    *
-   * @return the distance between the nodes
+   * @param otherNode
+   *     the other location
+   * @param maxDistance
+   *     the maximum distance to look for
+   * @return the length of the shortest path to the other location, or
+   *     <code>Double.POSITIVE_INFINITY</code> if it's further than <code>maxDistance</code>
    */
-  private double shortestPathTo(final Location otherNode, final Set<Location> visited) {
-    if (otherNode.equals(this)) {
-      return 0;
+  public double distanceTo(final Location otherNode, final int maxDistance) {
+    if (field != null) {
+      return field.distance(this, otherNode, maxDistance);
     }
-    visited.add(this);
-    double distance = Double.POSITIVE_INFINITY;
-    for (Location node :
-        neighbours) {
-      if (!visited.contains(node)) {
-        distance = Math.min(distance, 1 + node.shortestPathTo(otherNode, new HashSet<>(visited)));
-      }
+    return Field.searchDistance(this, otherNode, maxDistance);
+  }
+
+  /**
+   * Finds the units that are between a minimum and a maximum number of steps away from this
+   * location.
+   *
+   * @param minRange
+   *     the minimum distance of the units
+   * @param maxRange
+   *     the maximum distance of the units
+   * @param result
+   *     the list where the units are stored, its previous contents are discarded
+   * @return the given list, with the units ordered by their distance to this location
+   */
+  public List<IUnit> unitsInRange(final int minRange, final int maxRange,
+      final List<IUnit> result) {
+    if (field != null) {
+      return field.unitsInRange(this, minRange, maxRange, result);
     }
-    return distance;
+    return Field.searchUnits(this, minRange, maxRange, result);
+  }
+
+  /**
+   * @return the map that contains this location, or <code>null</code> if it isn't in one
+   */
+  Field getField() {
+    return field;
+  }
+
+  /**
+   * @return the position of this location in the cells of it's map
+   */
+  int getIndex() {
+    return index;
+  }
+
+  /**
+   * Sets the map that contains this location.
+   *
+   * @param field
+   *     the map where the location was added
+   * @param index
+   *     the position of this location in the cells of the map
+   */
+  void setField(final Field field, final int index) {
+    this.field = field;
+    this.index = index;
   }
 
   /**
@@ -0,0 +1,231 @@
+package model.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.units.IUnit;
+
+/**
+ * Index of the units placed on the cells of a field.
+ * <p>
+ * Every cell index maps to a slot in a dense array of units, or to <code>FREE</code>, and every
+ * owner has a bitset with the cells of its units, plus one bitset with all the occupied cells. The
+ * owner of a unit is read when it's placed. The index is kept up to date by the cells of the field
+ * every time a unit is placed on them or removed from them.
+ * <p>
+ * An owner is forgotten when its last unit leaves the index, and its entry is reused by the next
+ * new owner, so the players of finished games aren't kept.
+ *
+ * @author Ignacio Slater Muñoz
+ * @since 2.0
+ */
+final class Occupancy {
+
+  private static final int FREE = -1;
+  private static final Object RELEASED = new Object();
+
+  private int[] cellSlot = new int[0];
+  private IUnit[] slotUnit = new IUnit[0];
+  private int[] slotOwner = new int[0];
+  private int[] freeSlots = new int[0];
+  private int freeSlotCount;
+  private int slotCount;
+  private int unitCount;
+  private long[] occupied = new long[0];
+  private final List<Object> owners = new ArrayList<>();
+  private final List<long[]> ownerCells = new ArrayList<>();
+  private int[] ownerUnits = new int[0];
+
+  /**
+   * Makes room for the given number of cells.
+   */
+  void ensureCapacity(final int cells) {
+    if (cellSlot.length >= cells) {
+      return;
+    }
+    int capacity = Math.max(16, cells * 2),
+        oldCapacity = cellSlot.length;
+    cellSlot = Arrays.copyOf(cellSlot, capacity);
+    Arrays.fill(cellSlot, oldCapacity, capacity, FREE);
+    int words = (capacity + 63) >>> 6;
+    occupied = Arrays.copyOf(occupied, words);
+    for (int i = 0; i < ownerCells.size(); i++) {
+      ownerCells.set(i, Arrays.copyOf(ownerCells.get(i), words));
+    }
+  }
+
+  /**
+   * Removes all the units of the index.
+   */
+  void clear() {
+    Arrays.fill(cellSlot, FREE);
+    Arrays.fill(slotUnit, null);
+    Arrays.fill(occupied, 0);
+    owners.clear();
+    ownerCells.clear();
+    Arrays.fill(ownerUnits, 0);
+    freeSlotCount = 0;
+    slotCount = 0;
+    unitCount = 0;
+  }
+
+  /**
+   * Records the unit placed on a cell, replacing the previous one if there was any.
+   *
+   * @param cell
+   *     the index of the cell
+   * @param unit
+   *     the unit on the cell, or <code>null</code> if the cell is free
+   */
+  void set(final int cell, final IUnit unit) {
+    remove(cell);
+    if (unit == null) {
+      return;
+    }
+    int slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : newSlot();
+    int owner = ownerId(unit.getOwner());
+    slotUnit[slot] = unit;
+    slotOwner[slot] = owner;
+    cellSlot[cell] = slot;
+    occupied[cell >>> 6] |= 1L << cell;
+    ownerCells.get(owner)[cell >>> 6] |= 1L << cell;
+    ownerUnits[owner]++;
+    unitCount++;
+  }
+
+  /**
+   * Frees a cell.
+   */
+  void remove(final int cell) {
+    int slot = cellSlot[cell];
+    if (slot == FREE) {
+      return;
+    }
+    int owner = slotOwner[slot];
+    occupied[cell >>> 6] &= ~(1L << cell);
+    ownerCells.get(owner)[cell >>> 6] &= ~(1L << cell);
+    if (--ownerUnits[owner] == 0) {
+      owners.set(owner, RELEASED);
+    }
+    slotUnit[slot] = null;
+    cellSlot[cell] = FREE;
+    if (freeSlots.length <= freeSlotCount) {
+      freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlotCount * 2));
+    }
+    freeSlots[freeSlotCount++] = slot;
+    unitCount--;
+  }
+
+  private int newSlot() {
+    if (slotUnit.length <= slotCount) {
+      int capacity = Math.max(16, slotCount * 2);
+      slotUnit = Arrays.copyOf(slotUnit, capacity);
+      slotOwner = Arrays.copyOf(slotOwner, capacity);
+    }
+    return slotCount++;
+  }
+
+  /**
+   * Gets the id of an owner, registering it in a released entry or a new one when it has no units
+   * in the index.
+   */
+  private int ownerId(final Object owner) {
+    int id = indexOfOwner(owner);
+    if (id >= 0) {
+      return id;
+    }
+    id = indexOfOwner(RELEASED);
+    if (id >= 0) {
+      owners.set(id, owner);
+      return id;
+    }
+    id = owners.size();
+    owners.add(owner);
+    ownerCells.add(new long[occupied.length]);
+    if (ownerUnits.length <= id) {
+      ownerUnits = Arrays.copyOf(ownerUnits, Math.max(4, id * 2));
+    }
+    return id;
+  }
+
+  /**
+   * @return the number of owners with units in the index
+   */
+  int ownerCount() {
+    int count = 0;
+    for (int i = 0; i < owners.size(); i++) {
+      count += owners.get(i) == RELEASED ? 0 : 1;
+    }
+    return count;
+  }
+
+  private int indexOfOwner(final Object owner) {
+    for (int i = 0; i < owners.size(); i++) {
+      if (owners.get(i) == owner) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the unit on a cell, or <code>null</code> if it's free
+   */
+  IUnit get(final int cell) {
+    int slot = cellSlot[cell];
+    return slot == FREE ? null : slotUnit[slot];
+  }
+
+  /**
+   * @return the number of units in the index
+   */
+  int size() {
+    return unitCount;
+  }
+
+  /**
+   * Adds the units of an owner to a list, ordered by the index of their cells.
+   */
+  void unitsOf(final Object owner, final List<IUnit> result) {
+    int id = indexOfOwner(owner);
+    if (id >= 0) {
+      collect(ownerCells.get(id), null, result);
+    }
+  }
+
+  /**
+   * Adds to a list the units whose cells are in a bitset and not in another.
+   *
+   * @param cells
+   *     the cells to look at
+   * @param excluded
+   *     the cells to skip, or <code>null</code> to skip none
+   * @param result
+   *     the list where the units are added
+   */
+  void collect(final long[] cells, final long[] excluded, final List<IUnit> result) {
+    for (int word = 0; word < cells.length; word++) {
+      long bits = excluded == null ? cells[word] : cells[word] & ~excluded[word];
+      while (bits != 0) {
+        result.add(slotUnit[cellSlot[(word << 6) + Long.numberOfTrailingZeros(bits)]]);
+        bits &= bits - 1;
+      }
+    }
+  }
+
+  /**
+   * @return the bitset of the occupied cells
+   */
+  long[] occupied() {
+    return occupied;
+  }
+
+  /**
+   * @return the bitset of the cells with units of an owner, or <code>null</code> if it has none
+   *     in the index
+   */
+  long[] cellsOf(final Object owner) {
+    int id = indexOfOwner(owner);
+    return id < 0 ? null : ownerCells.get(id);
+  }
+}
@@ -2,15 +2,14 @@ package model.units;
 
 import static java.lang.Math.min;
 
-import java.beans.PropertyChangeSupport;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import controller.Tactician;
-import controller.changes.ActualUnitChange;
-import controller.changes.HeroDie;
+import controller.changes.GameEvents;
+import controller.changes.GameListener;
 import controller.changes.UnitDie;
+import model.items.DamageTable;
 import model.items.Hand;
 import model.items.IEquipableItem;
 import model.map.InvalidLocation;
@@ -28,7 +27,12 @@ import model.map.Location;
  */
 public abstract class AbstractUnit implements IUnit {
 
-  private List<IEquipableItem> items = new ArrayList<>();
+  /**
+   * Handles the death of the units that don't belong to any player.
+   */
+  private static final UnitDie DETACHED_DEATH = new UnitDie();
+
+  private final Inventory items;
   private double currentHitPoints;
   private final int maxHitPoints;
   private final int movement;
@@ -39,8 +43,9 @@ public abstract class AbstractUnit implements IUnit {
   private boolean move;
   private Hand hand;
   private Tactician owner;
-  private UnitDie unitDie;
-  private PropertyChangeSupport handler1;
+  private GameEvents changes;
+  private UnitStore store;
+  private int slot = -1;
 
 
   /**
@@ -61,22 +66,22 @@ public abstract class AbstractUnit implements IUnit {
     this.currentHitPoints = hitPoints;
     this.movement = movement;
     this.location = location;
-    this.items.addAll(Arrays.asList(items).subList(0, min(maxItems, items.length)));
+    this.items = new Inventory(maxItems);
+    for (int i = 0; i < min(maxItems, items.length); i++) {
+      this.items.add(items[i]);
+    }
     this.maxItems = maxItems;
     this.life = true;
     this.owner = null;
     this.move = false;
     this.hand = new Hand(this);
     this.equippedItem = hand;
-    this.unitDie =  new UnitDie();
-    this.handler1 = new PropertyChangeSupport(this);
-    handler1.addPropertyChangeListener(unitDie);
   }
 
 
   public double getCurrentHitPoints() {
 
-    return currentHitPoints;
+    return store == null ? currentHitPoints : store.hitPoints[slot];
   }
 
   public int getMaxHitPoints(){
@@ -86,7 +91,7 @@ public abstract class AbstractUnit implements IUnit {
 
   public List<IEquipableItem> getItems() {
 
-    return List.copyOf(items);
+    return items.view();
   }
 
   public IEquipableItem getEquippedItem() {
@@ -96,14 +101,30 @@ public abstract class AbstractUnit implements IUnit {
 
   public void setEquippedItem(final IEquipableItem item) {
 
+    IEquipableItem old = this.equippedItem;
     this.equippedItem = item;
+    if (store != null) {
+      store.setEquipped(slot, item, hand);
+    }
+    if (changes != null && !Objects.equals(old, item)) {
+      changes.equippedItemChanged(this, item);
+    }
   }
 
   public void setOwner(Tactician player){
 
+    Location cell = this.getLocation();
+    boolean placed = cell != null && cell.getUnit() == this;
+    if (placed) {
+      cell.removeUnit();
+    }
     this.owner = player;
-
-
+    if (store != null) {
+      store.setOwner(slot, player);
+    }
+    if (placed) {
+      cell.setUnit(this);
+    }
   }
 
   public Tactician getOwner(){
@@ -118,7 +139,14 @@ public abstract class AbstractUnit implements IUnit {
 
   public void setLocation(final Location location) {
 
+    Location old = this.location;
     this.location = location;
+    if (store != null) {
+      store.setCell(slot, location);
+    }
+    if (changes != null && !Objects.equals(old, location)) {
+      changes.unitMoved(this, old, location);
+    }
   }
 
   public int getMovement() {
@@ -133,21 +161,22 @@ public abstract class AbstractUnit implements IUnit {
 
   public void addItem(IEquipableItem item){
 
-    if(this.getItems().size() < this.getMaxItems()) {
+    if (items.add(item) && changes != null) {
 
-      items.add(item);
+      changes.itemAdded(this, item);
     }
   }
 
   public void removeItem(IEquipableItem item){
 
-
-    this.items.remove(item);
+    if (this.items.remove(item) && changes != null) {
+      changes.itemRemoved(this, item);
+    }
   }
 
   public boolean getLive(){
 
-    return life;
+    return store == null ? life : (store.flags[slot] & UnitStore.ALIVE) != 0;
   }
 
   public Hand getHand(){
@@ -157,8 +186,7 @@ public abstract class AbstractUnit implements IUnit {
 
   public void takeDamage(double damage){
 
-    this.currentHitPoints -= damage;
-
+    setCurrentHitPoints(this.getCurrentHitPoints() - damage);
   }
   
   public void equipAxe(IEquipableItem item){ }
@@ -179,26 +207,36 @@ public abstract class AbstractUnit implements IUnit {
 
   public void die(){
 
-
-    handler1.firePropertyChange("Unit", null, this);
-
+    if (owner != null) {
+      owner.getEvents().unitDied(this);
+    } else {
+      DETACHED_DEATH.onUnitDied(this);
+    }
   }
 
   public void unEquipAItem(IEquipableItem item){
 
     if(this.getEquippedItem() == item) {
 
-      this.equippedItem = this.getHand();
+      setEquippedItem(this.getHand());
     }
   }
 
   public void unEquipItem(){
 
-    this.equippedItem = this.getHand();
+    setEquippedItem(this.getHand());
   }
 
   public double check(double num, double vidaMaxima, double vidaActual) {
 
+    return checked(num, vidaMaxima, vidaActual);
+  }
+
+  /**
+   * Limits a healing, a negative damage, to the hit points the unit is missing.
+   */
+  static double checked(double num, double vidaMaxima, double vidaActual) {
+
     if (num <= 0) {
       if (vidaActual - num >= vidaMaxima) {
         return -(vidaMaxima - vidaActual);
@@ -211,13 +249,29 @@ public abstract class AbstractUnit implements IUnit {
 
   public boolean canAttack(IUnit unit){
 
-    return (this.getLocation().distanceTo(unit.getLocation()) <=this.getEquippedItem().getMaxRange()) &&
-            (this.getLocation().distanceTo(unit.getLocation()) >= this.getEquippedItem().getMinRange());
+    int maxRange = this.getEquippedItem().getMaxRange();
+    double distance = this.getLocation().distanceTo(unit.getLocation(), maxRange);
+    return (distance <= maxRange) && (distance >= this.getEquippedItem().getMinRange());
+  }
+
+  public List<IUnit> getTargets(List<IUnit> targets) {
+
+    IEquipableItem item = this.getEquippedItem();
+    this.getLocation().unitsInRange(item.getMinRange(), item.getMaxRange(), targets);
+    int enemies = 0;
+    for (int i = 0; i < targets.size(); i++) {
+      IUnit unit = targets.get(i);
+      if (unit != this && (this.getOwner() == null || unit.getOwner() != this.getOwner())) {
+        targets.set(enemies++, unit);
+      }
+    }
+    targets.subList(enemies, targets.size()).clear();
+    return targets;
   }
 
 
   public void moveTo(final Location targetLocation) {
-    if (getLocation().distanceTo(targetLocation) <= getMovement()
+    if (getLocation().distanceTo(targetLocation, getMovement()) <= getMovement()
         && targetLocation.getUnit() == null) {
       setLocation(targetLocation);
     }
@@ -226,9 +280,9 @@ public abstract class AbstractUnit implements IUnit {
   public void trade(IUnit unit, IEquipableItem received, IEquipableItem delivered){
 
 
-    if(this.getLocation().distanceTo(unit.getLocation()) <= 1 && (this.getLocation().getNeighbours().size()> 0 && unit.getLocation().getNeighbours().size()>0)){
+    if(this.getLocation().distanceTo(unit.getLocation(), 1) <= 1 && (this.getLocation().getNeighbourCount()> 0 && unit.getLocation().getNeighbourCount()>0)){
 
-      if(this.getItems().contains(delivered) && unit.getItems().contains(received)){
+      if(this.items.contains(delivered) && unit.getItems().contains(received)){
 
         this.unEquipAItem(delivered);
         unit.unEquipAItem(received);
@@ -244,7 +298,7 @@ public abstract class AbstractUnit implements IUnit {
 
   public void giveAway(IUnit unit, IEquipableItem gift) {
 
-    if(unit.getLocation().distanceTo(this.getLocation()) <=1 && (this.getLocation().getNeighbours().size()> 0 && unit.getLocation().getNeighbours().size()>0)){
+    if(unit.getLocation().distanceTo(this.getLocation(), 1) <=1 && (this.getLocation().getNeighbourCount()> 0 && unit.getLocation().getNeighbourCount()>0)){
 
       if(unit.getItems().size() < unit.getMaxItems()){
 
@@ -258,10 +312,10 @@ public abstract class AbstractUnit implements IUnit {
 
   public void receive(IUnit unit, IEquipableItem received) {
 
-    if(this.getLocation().distanceTo(unit.getLocation()) <= 1
-            && (this.getLocation().getNeighbours().size()> 0 && unit.getLocation().getNeighbours().size()>0)){
+    if(this.getLocation().distanceTo(unit.getLocation(), 1) <= 1
+            && (this.getLocation().getNeighbourCount()> 0 && unit.getLocation().getNeighbourCount()>0)){
 
-        if(this.getItems().size() < this.getMaxItems()){
+        if(this.items.hasRoom()){
 
           unit.unEquipAItem(received);
           this.addItem(received);
@@ -276,7 +330,7 @@ public abstract class AbstractUnit implements IUnit {
     if (this.canAttack(unit)) {
 
       double damage = 0;
-      damage = this.getEquippedItem().attack(unit.getEquippedItem());
+      damage = DamageTable.attack(this.getEquippedItem(), unit.getEquippedItem());
       damage = check(damage, unit.getMaxHitPoints(), unit.getCurrentHitPoints());
       this.Damage(unit, damage);
     }
@@ -289,7 +343,7 @@ public abstract class AbstractUnit implements IUnit {
       attacker.die();
     } else if (attacker.canAttack(this) && damage > 0) {
 
-      double dano = attacker.getEquippedItem().attack(this.getEquippedItem());
+      double dano = DamageTable.attack(attacker.getEquippedItem(), this.getEquippedItem());
       dano = check(dano, this.getMaxHitPoints(), this.getCurrentHitPoints());
       this.takeDamage(dano);
       if (this.getCurrentHitPoints() <= 0) {
@@ -306,18 +360,102 @@ public abstract class AbstractUnit implements IUnit {
 
   public void setLifeDead(){
 
-    this.life = false;
+    setLive(false);
+  }
+
+  public void setLive(boolean alive){
+
+    boolean old = this.getLive();
+    if (store == null) {
+      this.life = alive;
+    } else {
+      setFlag(UnitStore.ALIVE, alive);
+    }
+    if (changes != null && old != alive) {
+      changes.lifeChanged(this, alive);
+    }
+  }
+
+  public void setCurrentHitPoints(double hitPoints){
+
+    double old = this.getCurrentHitPoints();
+    if (store == null) {
+      this.currentHitPoints = hitPoints;
+    } else {
+      store.hitPoints[slot] = hitPoints;
+    }
+    if (changes != null && old != hitPoints) {
+      changes.hitPointsChanged(this, old, hitPoints);
+    }
+  }
+
+  public void setItems(List<IEquipableItem> newItems){
+
+    if (newItems == items.view()) {
+      return;
+    }
+    this.items.clear();
+    for (int i = 0; i < newItems.size() && i < this.getMaxItems(); i++) {
+      this.items.add(newItems.get(i));
+    }
   }
 
   public void setMove(boolean condition){
 
-    this.move = condition;
+    if (store == null) {
+      this.move = condition;
+    } else {
+      setFlag(UnitStore.MOVED, condition);
+    }
   }
 
 
   public boolean getMove(){
 
-    return this.move;
+    return store == null ? this.move : (store.flags[slot] & UnitStore.MOVED) != 0;
+  }
+
+  public void addChangeListener(GameListener listener) {
+
+    if (changes == null) {
+      changes = new GameEvents();
+    }
+    changes.addListener(listener);
+  }
+
+  public boolean removeChangeListener(GameListener listener) {
+
+    return changes != null && changes.removeListener(listener);
+  }
+
+  /**
+   * Moves the changing state of this unit into a slot of a store, that keeps it from now on.
+   */
+  void attach(final UnitStore unitStore, final int unitSlot) {
+    this.store = unitStore;
+    this.slot = unitSlot;
+  }
+
+  /**
+   * @return the store that keeps the state of this unit, or null
+   */
+  UnitStore getStore() {
+    return store;
+  }
+
+  /**
+   * @return the slot of this unit in its store, or -1
+   */
+  int getSlot() {
+    return slot;
+  }
+
+  private void setFlag(final byte flag, final boolean value) {
+    if (value) {
+      store.flags[slot] |= flag;
+    } else {
+      store.flags[slot] &= ~flag;
+    }
   }
 
 }
@@ -49,7 +49,7 @@ public class Alpaca extends AbstractUnit {
       return (this.getMaxHitPoints()==unit.getMaxHitPoints()) &&
               (this.getLocation()==unit.getLocation()) &&
               (this.getLive()==unit.getLive()) &&
-              (this.getItems()==unit.getItems());
+              this.getItems().equals(unit.getItems());
     }
     return false;
   }
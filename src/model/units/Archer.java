@@ -56,7 +56,7 @@ public class Archer extends AbstractUnit {
       return (this.getMaxHitPoints()==unit.getMaxHitPoints()) &&
               (this.getLocation()==unit.getLocation()) &&
               (this.getLive()==unit.getLive()) &&
-              (this.getItems()==unit.getItems());
+              this.getItems().equals(unit.getItems());
     }
     return false;
   }
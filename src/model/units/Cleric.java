@@ -50,7 +50,7 @@ public class Cleric extends AbstractUnit {
       return (this.getMaxHitPoints()==unit.getMaxHitPoints()) &&
               (this.getLocation()==unit.getLocation()) &&
               (this.getLive()==unit.getLive()) &&
-              (this.getItems()==unit.getItems());
+              this.getItems().equals(unit.getItems());
     }
     return false;
   }
@@ -0,0 +1,125 @@
+package model.units;
+
+import model.items.DamageTable;
+
+/**
+ * Outcome of an attack between two units, computed without changing them.
+ * <p>
+ * {@link #forecast} follows the same steps as <code>attackEnemy</code> and <code>Damage</code> of
+ * the units of this package: the attack only happens if the attacker can reach the defender with
+ * its equipped item, and an <i>Alpaca</i> never attacks. The damage is limited by
+ * <code>check</code>, so a healing doesn't go over the maximum hit points, and the defender
+ * counterattacks if it survives, can reach the attacker and the attack did some damage. A unit
+ * dies when its hit points reach 0.
+ * <p>
+ * A forecast is a holder that's filled again by every call, so scoring many pairs of units
+ * doesn't create objects. It isn't safe to share between threads.
+ *
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+public final class CombatForecast {
+
+  private boolean attack;
+  private double damage;
+  private boolean counterattack;
+  private double counterDamage;
+  private double attackerHitPoints;
+  private double defenderHitPoints;
+  private boolean attackerKilled;
+  private boolean defenderKilled;
+
+  /**
+   * Computes what would happen if a unit attacked another, keeping the result in this holder.
+   *
+   * @param attacker
+   *     the unit that attacks
+   * @param defender
+   *     the unit that receives the attack
+   * @return this forecast
+   */
+  public CombatForecast forecast(final IUnit attacker, final IUnit defender) {
+    attack = !(attacker instanceof Alpaca) && attacker.canAttack(defender);
+    damage = 0;
+    counterattack = false;
+    counterDamage = 0;
+    attackerHitPoints = attacker.getCurrentHitPoints();
+    defenderHitPoints = defender.getCurrentHitPoints();
+    attackerKilled = false;
+    defenderKilled = false;
+    if (!attack) {
+      return this;
+    }
+    damage = AbstractUnit.checked(
+        DamageTable.attack(attacker.getEquippedItem(), defender.getEquippedItem()),
+        defender.getMaxHitPoints(), defenderHitPoints);
+    defenderHitPoints -= damage;
+    if (defenderHitPoints <= 0) {
+      defenderKilled = true;
+    } else if (defender.canAttack(attacker) && damage > 0) {
+      counterattack = true;
+      counterDamage = AbstractUnit.checked(
+          DamageTable.attack(defender.getEquippedItem(), attacker.getEquippedItem()),
+          attacker.getMaxHitPoints(), attackerHitPoints);
+      attackerHitPoints -= counterDamage;
+      attackerKilled = attackerHitPoints <= 0;
+    }
+    return this;
+  }
+
+  /**
+   * @return true if the attack happens
+   */
+  public boolean isAttack() {
+    return attack;
+  }
+
+  /**
+   * @return the damage done to the defender, negative if it's healed
+   */
+  public double getDamage() {
+    return damage;
+  }
+
+  /**
+   * @return true if the defender counterattacks
+   */
+  public boolean isCounterattack() {
+    return counterattack;
+  }
+
+  /**
+   * @return the damage done to the attacker by the counterattack
+   */
+  public double getCounterDamage() {
+    return counterDamage;
+  }
+
+  /**
+   * @return the hit points of the attacker after the attack
+   */
+  public double getAttackerHitPoints() {
+    return attackerHitPoints;
+  }
+
+  /**
+   * @return the hit points of the defender after the attack
+   */
+  public double getDefenderHitPoints() {
+    return defenderHitPoints;
+  }
+
+  /**
+   * @return true if the attacker dies by the counterattack
+   */
+  public boolean isAttackerKilled() {
+    return attackerKilled;
+  }
+
+  /**
+   * @return true if the defender dies by the attack
+   */
+  public boolean isDefenderKilled() {
+    return defenderKilled;
+  }
+}
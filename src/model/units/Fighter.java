@@ -51,7 +51,7 @@ public class Fighter extends AbstractUnit {
       return (this.getMaxHitPoints()==unit.getMaxHitPoints()) &&
               (this.getLocation()==unit.getLocation()) &&
               (this.getLive()==unit.getLive()) &&
-              (this.getItems()==unit.getItems());
+              this.getItems().equals(unit.getItems());
     }
     return false;
   }
@@ -3,6 +3,7 @@ package model.units;
 import java.util.List;
 
 import controller.Tactician;
+import controller.changes.GameListener;
 import model.items.Hand;
 import model.items.IEquipableItem;
 import model.map.Location;
@@ -24,7 +25,8 @@ public interface IUnit {
   double getCurrentHitPoints();
 
   /**
-   * @return the items carried by this unit
+   * @return the items carried by this unit, as an unmodifiable list that follows the changes of
+   *     the inventory
    */
   List<IEquipableItem> getItems();
 
@@ -163,6 +165,20 @@ public interface IUnit {
 
   boolean canAttack(IUnit unit);
 
+  /**
+   * Finds all the enemy units this unit can attack with its equipped item, with a single search
+   * of the cells in the range of the item.
+   * <p>
+   * The enemies are the units of other tacticians, or every other unit if this unit doesn't have
+   * an owner.
+   *
+   * @param targets
+   *      the list where the units are stored, its previous contents are discarded
+   * @return the given list, with the units ordered by their distance to this unit
+   */
+
+  List<IUnit> getTargets(List<IUnit> targets);
+
   /**
    *
    * @return maximum unit life
@@ -279,6 +295,50 @@ public interface IUnit {
 
   void setLifeDead();
 
+  /**
+   * Modifica si la unidad esta viva, para volver a un estado anterior de la partida
+   * @param alive <code>true</code> si la unidad esta viva
+   */
+
+  void setLive(boolean alive);
+
+  /**
+   * Modifica los puntos de vida actuales de la unidad, sin las reglas del combate
+   * @param hitPoints nuevos puntos de vida
+   */
+
+  void setCurrentHitPoints(double hitPoints);
+
+  /**
+   * Reemplaza el inventario de la unidad por los items entregados, en el mismo orden y hasta
+   * la cantidad maxima de items de la unidad
+   * @param newItems items del nuevo inventario
+   */
+
+  void setItems(List<IEquipableItem> newItems);
+
+  /**
+   * Adds a listener that is told every time the location, hit points, inventory, equipped item or
+   * life of this unit change.
+   * <p>
+   * The changes arrive through the typed methods of {@link GameListener}:
+   * <code>onUnitMoved</code>, <code>onHitPointsChanged</code>, <code>onItemAdded</code>,
+   * <code>onItemRemoved</code>, <code>onEquippedItemChanged</code> and <code>onLifeChanged</code>,
+   * so telling a change doesn't create any object. A value set to what it already was isn't told,
+   * and neither is replacing the whole inventory with {@link #setItems(List)}.
+   *
+   * @param listener the listener
+   */
+  void addChangeListener(GameListener listener);
+
+  /**
+   * Stops telling a listener the changes of this unit.
+   *
+   * @param listener the listener
+   * @return true if the listener had been added
+   */
+  boolean removeChangeListener(GameListener listener);
+
   /**
    * Entrega el tactician dueño de la unidad
    * @return a Tactician
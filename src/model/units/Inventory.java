@@ -0,0 +1,176 @@
+package model.units;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import model.items.IEquipableItem;
+
+/**
+ * The items carried by a unit, in the order they were added.
+ * <p>
+ * The items are kept in an array sized by the maximum amount of items of the unit, so adding,
+ * removing and looking up items never allocates. Units without a real limit, like the
+ * <i>Alpaca</i>, start with a small array that doubles when it's full.
+ * <p>
+ * Items are compared by identity. {@link #view()} is an unmodifiable list that always shows the
+ * current items; it's created once with the inventory.
+ *
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+final class Inventory {
+
+  /**
+   * Largest limit that gets its whole array up front.
+   */
+  static final int FIXED_CAPACITY = 16;
+
+  private final int maxItems;
+  private IEquipableItem[] items;
+  private int size;
+  private final List<IEquipableItem> view = new View();
+
+  /**
+   * Creates an empty inventory.
+   *
+   * @param maxItems
+   *     the maximum amount of items it can hold
+   */
+  Inventory(final int maxItems) {
+    this.maxItems = Math.max(maxItems, 0);
+    this.items = new IEquipableItem[Math.min(this.maxItems, FIXED_CAPACITY)];
+  }
+
+  /**
+   * @return the amount of items in the inventory
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the item in the given position
+   * @throws IndexOutOfBoundsException
+   *     if there's no item in that position
+   */
+  IEquipableItem get(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return items[index];
+  }
+
+  /**
+   * @return the position of the item, or -1 if it isn't in the inventory
+   */
+  int indexOf(final Object item) {
+    for (int i = 0; i < size; i++) {
+      if (items[i] == item) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if the item is in the inventory
+   */
+  boolean contains(final Object item) {
+    return indexOf(item) >= 0;
+  }
+
+  /**
+   * @return true if another item fits in the inventory
+   */
+  boolean hasRoom() {
+    return size < maxItems;
+  }
+
+  /**
+   * Adds an item at the end if there's room for it.
+   *
+   * @return true if the item was added
+   */
+  boolean add(final IEquipableItem item) {
+    if (!hasRoom()) {
+      return false;
+    }
+    if (size == items.length) {
+      items = Arrays.copyOf(items, (int) Math.min(maxItems, Math.max(4L, 2L * size)));
+    }
+    items[size++] = item;
+    return true;
+  }
+
+  /**
+   * Removes an item, keeping the order of the others.
+   *
+   * @return true if the item was in the inventory
+   */
+  boolean remove(final IEquipableItem item) {
+    int index = indexOf(item);
+    if (index < 0) {
+      return false;
+    }
+    System.arraycopy(items, index + 1, items, index, size - index - 1);
+    items[--size] = null;
+    return true;
+  }
+
+  /**
+   * Removes all the items.
+   */
+  void clear() {
+    Arrays.fill(items, 0, size, null);
+    size = 0;
+  }
+
+  /**
+   * @return an unmodifiable list backed by this inventory
+   */
+  List<IEquipableItem> view() {
+    return view;
+  }
+
+  /**
+   * Read-only list over the items of the inventory.
+   */
+  private final class View extends AbstractList<IEquipableItem> implements RandomAccess {
+
+    @Override
+    public IEquipableItem get(final int index) {
+      return Inventory.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int indexOf(final Object item) {
+      return Inventory.this.indexOf(item);
+    }
+
+    @Override
+    public int lastIndexOf(final Object item) {
+      for (int i = size - 1; i >= 0; i--) {
+        if (items[i] == item) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public boolean contains(final Object item) {
+      return Inventory.this.contains(item);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return size == 0;
+    }
+  }
+}
@@ -69,7 +69,7 @@ public class Sorcerer extends AbstractUnit {
             return (this.getMaxHitPoints()==unit.getMaxHitPoints()) &&
                     (this.getLocation()==unit.getLocation()) &&
                     (this.getLive()==unit.getLive()) &&
-                    (this.getItems()==unit.getItems());
+                    this.getItems().equals(unit.getItems());
         }
         return false;
     }
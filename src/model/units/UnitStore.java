@@ -0,0 +1,379 @@
+package model.units;
+
+import controller.Tactician;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import model.items.IEquipableItem;
+import model.map.Field;
+import model.map.Location;
+
+/**
+ * Struct-of-arrays storage for the state of the units of a match.
+ * <p>
+ * Every unit added to the store gets a slot, and from then on its hit points and its alive and
+ * moved flags live only in the arrays of the store, so the unit object is a handle that reads and
+ * writes them. The store also keeps, for every slot, the maximum hit points, the movement, the
+ * index of the cell in the map of the store, the index of the owner and the index of the
+ * equipped item, which the unit updates whenever it moves, changes owner or equips an item.
+ * <p>
+ * With the state in parallel arrays, loops over many units, like resetting the moves of a player
+ * at the end of its turn or finding the living units of a player, don't follow a pointer per unit,
+ * and the changing state of every unit is saved and restored with {@link #save} and
+ * {@link #restore}, a few array copies.
+ * <p>
+ * Owners and items get their indices the first time they're seen; units are never removed.
+ *
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+public final class UnitStore {
+
+  /**
+   * Equipped item index of a unit that uses its hand.
+   */
+  public static final int HAND = -1;
+
+  /**
+   * Cell of a unit that isn't on the map, and owner of a unit without owner.
+   */
+  public static final int NONE = -1;
+
+  static final byte ALIVE = 1;
+  static final byte MOVED = 2;
+
+  private final Field map;
+  private AbstractUnit[] units;
+  double[] hitPoints;
+  private int[] maxHitPoints;
+  private int[] movement;
+  private int[] cell;
+  private int[] owner;
+  private int[] equipped;
+  byte[] flags;
+  private int size;
+  private final List<Tactician> owners = new ArrayList<>();
+  private final List<IEquipableItem> items = new ArrayList<>();
+  private final Map<IEquipableItem, Integer> itemIds = new IdentityHashMap<>();
+
+  /**
+   * Creates an empty store.
+   *
+   * @param map
+   *     the map whose cells are indexed
+   * @param capacity
+   *     the amount of units it holds before growing
+   */
+  public UnitStore(final Field map, final int capacity) {
+    this.map = map;
+    int length = Math.max(capacity, 1);
+    units = new AbstractUnit[length];
+    hitPoints = new double[length];
+    maxHitPoints = new int[length];
+    movement = new int[length];
+    cell = new int[length];
+    owner = new int[length];
+    equipped = new int[length];
+    flags = new byte[length];
+  }
+
+  /**
+   * Moves the state of a unit into a new slot of the store. A unit that's already in this store
+   * keeps its slot.
+   *
+   * @param unit
+   *     the unit
+   * @return the slot of the unit
+   * @throws IllegalArgumentException
+   *     if the unit isn't an {@link AbstractUnit} or it's in another store
+   */
+  public int add(final IUnit unit) {
+    if (!(unit instanceof AbstractUnit)) {
+      throw new IllegalArgumentException("Only units extending AbstractUnit can be stored");
+    }
+    AbstractUnit abstractUnit = (AbstractUnit) unit;
+    if (abstractUnit.getStore() == this) {
+      return abstractUnit.getSlot();
+    }
+    if (abstractUnit.getStore() != null) {
+      throw new IllegalArgumentException("The unit is in another store");
+    }
+    if (size == units.length) {
+      grow();
+    }
+    int slot = size++;
+    units[slot] = abstractUnit;
+    hitPoints[slot] = unit.getCurrentHitPoints();
+    maxHitPoints[slot] = unit.getMaxHitPoints();
+    movement[slot] = unit.getMovement();
+    flags[slot] = (byte) ((unit.getLive() ? ALIVE : 0) | (unit.getMove() ? MOVED : 0));
+    setCell(slot, unit.getLocation());
+    setOwner(slot, unit.getOwner());
+    setEquipped(slot, unit.getEquippedItem(), unit.getHand());
+    abstractUnit.attach(this, slot);
+    return slot;
+  }
+
+  private void grow() {
+    int length = units.length * 2;
+    units = Arrays.copyOf(units, length);
+    hitPoints = Arrays.copyOf(hitPoints, length);
+    maxHitPoints = Arrays.copyOf(maxHitPoints, length);
+    movement = Arrays.copyOf(movement, length);
+    cell = Arrays.copyOf(cell, length);
+    owner = Arrays.copyOf(owner, length);
+    equipped = Arrays.copyOf(equipped, length);
+    flags = Arrays.copyOf(flags, length);
+  }
+
+  /**
+   * @return the amount of units in the store
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the unit in a slot
+   */
+  public IUnit getUnit(final int slot) {
+    checkSlot(slot);
+    return units[slot];
+  }
+
+  /**
+   * @return the current hit points of the unit in a slot
+   */
+  public double getHitPoints(final int slot) {
+    checkSlot(slot);
+    return hitPoints[slot];
+  }
+
+  /**
+   * @return the maximum hit points of the unit in a slot
+   */
+  public int getMaxHitPoints(final int slot) {
+    checkSlot(slot);
+    return maxHitPoints[slot];
+  }
+
+  /**
+   * @return the movement of the unit in a slot
+   */
+  public int getMovement(final int slot) {
+    checkSlot(slot);
+    return movement[slot];
+  }
+
+  /**
+   * @return the index of the cell of the unit in a slot, or <code>NONE</code> if it isn't on the
+   *     map of the store
+   */
+  public int getCell(final int slot) {
+    checkSlot(slot);
+    return cell[slot];
+  }
+
+  /**
+   * @return the index of the owner of the unit in a slot, or <code>NONE</code>
+   */
+  public int getOwner(final int slot) {
+    checkSlot(slot);
+    return owner[slot];
+  }
+
+  /**
+   * @return the index of the item equipped by the unit in a slot, or <code>HAND</code>
+   */
+  public int getEquipped(final int slot) {
+    checkSlot(slot);
+    return equipped[slot];
+  }
+
+  /**
+   * @return true if the unit in a slot is alive
+   */
+  public boolean isAlive(final int slot) {
+    checkSlot(slot);
+    return (flags[slot] & ALIVE) != 0;
+  }
+
+  /**
+   * @return true if the unit in a slot already moved this turn
+   */
+  public boolean hasMoved(final int slot) {
+    checkSlot(slot);
+    return (flags[slot] & MOVED) != 0;
+  }
+
+  /**
+   * @return the index of a player among the owners of the store, or <code>NONE</code> if none of
+   *     its units has been in the store
+   */
+  public int ownerIndex(final Tactician player) {
+    for (int i = 0; i < owners.size(); i++) {
+      if (owners.get(i) == player) {
+        return i;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * @return the owner with the given index
+   */
+  public Tactician getOwnerAt(final int index) {
+    return owners.get(index);
+  }
+
+  /**
+   * @return the item with the given index
+   */
+  public IEquipableItem getItem(final int index) {
+    return items.get(index);
+  }
+
+  /**
+   * Lets all the units of an owner move again.
+   *
+   * @param ownerIndex
+   *     the index of the owner
+   */
+  public void resetMoves(final int ownerIndex) {
+    int[] owner = this.owner;
+    byte[] flags = this.flags;
+    for (int i = 0; i < size; i++) {
+      if (owner[i] == ownerIndex) {
+        flags[i] &= ~MOVED;
+      }
+    }
+  }
+
+  /**
+   * Lets the given units move again. The units in this store are reset through their slots, and
+   * any other unit through itself, so every unit of the list is reset whoever its owner is.
+   *
+   * @param units
+   *     the units
+   */
+  public void resetMoves(final List<? extends IUnit> units) {
+    byte[] flags = this.flags;
+    for (int i = 0; i < units.size(); i++) {
+      IUnit unit = units.get(i);
+      if (unit instanceof AbstractUnit && ((AbstractUnit) unit).getStore() == this) {
+        flags[((AbstractUnit) unit).getSlot()] &= ~MOVED;
+      } else {
+        unit.setMove(false);
+      }
+    }
+  }
+
+  /**
+   * Finds the living units of an owner.
+   *
+   * @param ownerIndex
+   *     the index of the owner
+   * @param slots
+   *     array where the slots of the units are written, in slot order, as many as fit
+   * @return the amount of living units of the owner
+   */
+  public int livingUnits(final int ownerIndex, final int[] slots) {
+    int[] owner = this.owner;
+    byte[] flags = this.flags;
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (owner[i] == ownerIndex && (flags[i] & ALIVE) != 0) {
+        if (count < slots.length) {
+          slots[count] = i;
+        }
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Saves the hit points and the alive and moved flags of all the units.
+   *
+   * @param frame
+   *     a frame to reuse, or null
+   * @return the frame with the state
+   */
+  public Frame save(final Frame frame) {
+    Frame target = frame == null || frame.hitPoints.length < size ? new Frame(size) : frame;
+    System.arraycopy(hitPoints, 0, target.hitPoints, 0, size);
+    System.arraycopy(flags, 0, target.flags, 0, size);
+    target.size = size;
+    return target;
+  }
+
+  /**
+   * Gives the units of a frame their saved hit points and flags. The units added after the frame
+   * was saved keep their state. This doesn't change the map, so a unit that comes back to life
+   * has to be put back on its cell, and the listeners of the units aren't told.
+   *
+   * @param frame
+   *     a frame saved from this store
+   */
+  public void restore(final Frame frame) {
+    System.arraycopy(frame.hitPoints, 0, hitPoints, 0, frame.size);
+    System.arraycopy(frame.flags, 0, flags, 0, frame.size);
+  }
+
+  void setCell(final int slot, final Location location) {
+    cell[slot] = map == null ? NONE : map.getCellIndex(location);
+  }
+
+  void setOwner(final int slot, final Tactician player) {
+    int index = player == null ? NONE : ownerIndex(player);
+    if (player != null && index == NONE) {
+      index = owners.size();
+      owners.add(player);
+    }
+    owner[slot] = index;
+  }
+
+  void setEquipped(final int slot, final IEquipableItem item, final IEquipableItem hand) {
+    if (item == null || item == hand) {
+      equipped[slot] = HAND;
+      return;
+    }
+    Integer id = itemIds.get(item);
+    if (id == null) {
+      id = items.size();
+      itemIds.put(item, id);
+      items.add(item);
+    }
+    equipped[slot] = id;
+  }
+
+  private void checkSlot(final int slot) {
+    if (slot < 0 || slot >= size) {
+      throw new IndexOutOfBoundsException("Slot: " + slot + ", Size: " + size);
+    }
+  }
+
+  /**
+   * Hit points and flags of the units of a store at some moment.
+   */
+  public static final class Frame {
+
+    private final double[] hitPoints;
+    private final byte[] flags;
+    private int size;
+
+    private Frame(final int capacity) {
+      hitPoints = new double[capacity];
+      flags = new byte[capacity];
+    }
+
+    /**
+     * @return the amount of units saved in the frame
+     */
+    public int size() {
+      return size;
+    }
+  }
+}
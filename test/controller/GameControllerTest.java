@@ -1,20 +1,34 @@
 package controller;
 
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.stream.IntStream;
 
+import controller.changes.GameListener;
 import factory.MapFactory;
 import factory.item.AxeFactory;
 import factory.unit.*;
 import model.items.IEquipableItem;
+import model.items.attack.normal.Bow;
 import model.map.Field;
+import model.map.FlowField;
 import model.map.InvalidLocation;
 import model.map.Location;
+import model.units.Alpaca;
+import model.units.Archer;
 import model.units.IUnit;
+import model.units.UnitStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -474,6 +488,43 @@ class GameControllerTest {
 
   }
 
+  /**
+   * Verifica que la muerte de un hero retire al jugador con removeTactician: sus unidades salen
+   * del mapa y la cantidad de jugadores sigue a la lista, asi que las rondas siguientes terminan
+   * bien
+   */
+  @Test
+  void heroDieRemovesTactician() {
+
+    controller.initGame(4);
+    Tactician owner = controller.getTurnOwner();
+    Tactician player = controller.getTacticians().get(2);
+    IUnit hero = null;
+    int celda = 0;
+    for (IUnit unit : player.getPlayerUnits()) {
+      player.setActualUnit(unit);
+      player.setLocationUnit(celda / 4, celda % 4);
+      celda++;
+      if (unit.isHero()) {
+        hero = unit;
+      }
+    }
+    assertNotNull(hero);
+    List<Location> celdas = new ArrayList<>();
+    player.getPlayerUnits().forEach(unit -> celdas.add(unit.getLocation()));
+
+    hero.die();
+    assertFalse(controller.getTacticians().contains(player));
+    assertEquals(3, controller.getNumberOfPlayers());
+    assertSame(owner, controller.getTurnOwner());
+    for (Location location : celdas) {
+      assertNull(location.getUnit());
+    }
+    IntStream.range(0, 6).forEach(i -> controller.endTurn());
+    assertEquals(3, controller.getRoundNumber());
+    assertEquals(3, controller.getTacticians().size());
+  }
+
   @Test
   void getActualUnit(){
 
@@ -621,4 +672,876 @@ class GameControllerTest {
 
   }
 
-}
\ No newline at end of file
+
+  /**
+   * Verifica que dos partidas creadas con la misma semilla tengan el mismo mapa y el mismo
+   * orden de turnos
+   */
+  @Test
+  void seededGames() {
+
+    GameController game1 = new GameController(4, 6, new Random(randomSeed));
+    GameController game2 = new GameController(4, 6, new Random(randomSeed));
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 6; j++) {
+
+        Location cell1 = game1.getGameMap().getCell(i, j);
+        Location cell2 = game2.getGameMap().getCell(i, j);
+        assertEquals(cell1.getNeighbourCount(), cell2.getNeighbourCount());
+        for (int k = 0; k < cell1.getNeighbourCount(); k++) {
+          assertEquals(cell1.getNeighbour(k), cell2.getNeighbour(k));
+        }
+      }
+    }
+    assertTrue(game1.getGameMap().isConnected());
+
+    game1.initGame(3);
+    game2.initGame(3);
+    for (int i = 0; i < 12; i++) {
+
+      assertEquals(game1.getTurnOwner().getName(), game2.getTurnOwner().getName());
+      game1.endTurn();
+      game2.endTurn();
+    }
+    assertEquals(4, game1.getWinners().size());
+  }
+
+  /**
+   * Verifica que si muere el hero del jugador actual, el turno pase al siguiente jugador y la
+   * ronda pueda seguir
+   */
+  @Test
+  void heroDieInTurn() {
+
+    controller.initGame(4);
+    List<Tactician> players = controller.getTacticians();
+    Tactician last = players.get(players.size() - 1);
+    controller.setActualPlayer(last);
+    for (IUnit unit : last.getPlayerUnits()) {
+      if (unit.isHero()) {
+        unit.die();
+      }
+    }
+    assertEquals(3, controller.getNumberOfPlayers());
+    assertFalse(controller.getTacticians().contains(last));
+    assertEquals(2, controller.getRoundNumber());
+    assertEquals(controller.getTacticians().get(0), controller.getTurnOwner());
+    IntStream.range(0, 3).forEach(i -> controller.endTurn());
+    assertEquals(3, controller.getRoundNumber());
+    assertNull(controller.getWinners());
+  }
+
+  /**
+   * Verifica que al empezar una partida nueva el stream de cambios deje de escuchar a las unidades
+   * de la partida anterior y escuche a las nuevas
+   */
+  @Test
+  void deltaStreamNewGame() {
+
+    GameController game = new GameController(3, 6, new Random(randomSeed));
+    DeltaStream deltas = game.getDeltaStream();
+    game.initGame(5);
+    IUnit vieja = game.getTacticians().get(0).getPlayerUnits().get(0);
+
+    game.initGame(5);
+    assertFalse(vieja.removeChangeListener(deltas));
+    IUnit nueva = game.getTacticians().get(0).getPlayerUnits().get(0);
+    assertTrue(nueva.removeChangeListener(deltas));
+  }
+
+  /**
+   * Verifica que al empezar una partida nueva el mapa deje de actualizar las distancias de los
+   * jugadores de la partida anterior
+   */
+  @Test
+  void enemyFieldsNewGame() {
+
+    GameController game = new GameController(3, 6, new Random(randomSeed));
+    game.initGame(5);
+    game.getTacticians().forEach(game::getEnemyField);
+    assertEquals(3, game.getGameMap().getFlowFieldCount());
+
+    game.initGame(5);
+    assertEquals(0, game.getGameMap().getFlowFieldCount());
+    game.getTacticians().forEach(game::getEnemyField);
+    game.initEndlessGame();
+    game.getEnemyField(game.getTurnOwner());
+    assertEquals(1, game.getGameMap().getFlowFieldCount());
+  }
+
+  /**
+   * Verifica que al retirar un jugador sus unidades salgan del mapa y las de los demas se queden
+   */
+  @Test
+  void removeTacticianUnits() {
+
+    controller.initGame(4);
+    Tactician removed = controller.getTacticians().get(1);
+    Tactician other = controller.getTacticians().get(2);
+    int celda = 0;
+    for (Tactician jugador : List.of(removed, other)) {
+      for (IUnit unit : jugador.getPlayerUnits()) {
+        jugador.setActualUnit(unit);
+        jugador.setLocationUnit(celda / 4, celda % 4);
+        assertSame(unit, controller.getGameMap().getCell(celda / 4, celda % 4).getUnit());
+        celda++;
+      }
+    }
+    List<Location> celdas = new ArrayList<>();
+    removed.getPlayerUnits().forEach(unit -> celdas.add(unit.getLocation()));
+
+    controller.removeTactician(removed.getName());
+    for (Location location : celdas) {
+      assertNull(location.getUnit());
+    }
+    for (IUnit unit : other.getPlayerUnits()) {
+      assertSame(unit, unit.getLocation().getUnit());
+    }
+  }
+
+  /**
+   * Verifica que al retirar al jugador que tiene el turno, el turno pase al siguiente jugador, o
+   * que termine la ronda si era el ultimo
+   */
+  @Test
+  void removeTacticianInTurn() {
+
+    controller.initGame(4);
+    List<Tactician> players = new ArrayList<>(controller.getTacticians());
+    controller.setActualPlayer(players.get(1));
+    controller.removeTactician(players.get(1).getName());
+    assertEquals(1, controller.getRoundNumber());
+    assertSame(players.get(2), controller.getTurnOwner());
+
+    controller.setActualPlayer(players.get(3));
+    controller.removeTactician(players.get(3).getName());
+    assertEquals(2, controller.getRoundNumber());
+    assertEquals(2, controller.getTacticians().size());
+    assertEquals(controller.getTacticians().get(0), controller.getTurnOwner());
+    assertNull(controller.getWinners());
+
+    Tactician other = controller.getTacticians().get(1);
+    controller.removeTactician(controller.getTacticians().get(0).getName());
+    assertEquals(2, controller.getRoundNumber());
+    assertSame(other, controller.getTurnOwner());
+    assertEquals(List.of(other), controller.getWinners());
+  }
+
+  /**
+   * Verifica que los listeners de la partida reciban la muerte de las unidades, la del heroe y
+   * los cambios de unidad seleccionada, despues de los listeners del controlador
+   */
+  @Test
+  void gameEvents() {
+
+    controller.initGame(4);
+    Tactician jugador = controller.getTurnOwner();
+    List<String> eventos = new ArrayList<>();
+    GameListener listener = new GameListener() {
+      @Override
+      public void onUnitDied(IUnit unit) {
+        eventos.add("unit " + unit.getLive());
+      }
+
+      @Override
+      public void onHeroDied(Tactician player) {
+        eventos.add("hero " + controller.getTacticians().contains(player));
+      }
+
+      @Override
+      public void onActualUnitChanged(Tactician player, IUnit unit) {
+        eventos.add("actual " + (player.getActualUnit() == unit));
+      }
+    };
+    controller.getEvents().addListener(listener);
+    IUnit heroe = jugador.getPlayerUnits().stream().filter(IUnit::isHero)
+        .findFirst().orElseThrow();
+    jugador.setActualUnit(heroe);
+    jugador.setActualUnit(heroe);
+    heroe.die();
+    assertEquals(List.of("actual true", "hero false", "unit false"), eventos);
+    assertSame(controller.getEvents(), jugador.getEvents());
+
+    controller.getEvents().removeListener(listener);
+    controller.getTurnOwner().getPlayerUnits().get(0).die();
+    assertEquals(3, eventos.size());
+  }
+
+  /**
+   * Verifica que una partida con las unidades en un UnitStore se juegue igual que sin el, y que
+   * al terminar un turno se reinicie el movimiento de las unidades del jugador
+   */
+  @Test
+  void unitStore() {
+
+    GameController conStore = new GameController(3, 8, new Random(randomSeed));
+    GameController sinStore = new GameController(3, 8, new Random(randomSeed));
+    conStore.initGame(10);
+    sinStore.initGame(10);
+    UnitStore store = conStore.useUnitStore();
+    int unidades = 0;
+    for (Tactician jugador : conStore.getTacticians()) {
+      unidades += jugador.getPlayerUnits().size();
+    }
+    assertEquals(unidades, store.size());
+    for (GameController game : List.of(conStore, sinStore)) {
+      Field map = game.getGameMap();
+      int celda = 0;
+      for (Tactician jugador : game.getTacticians()) {
+        for (IUnit unidad : jugador.getPlayerUnits()) {
+          while (!map.isFree(celda / 8, celda % 8)) {
+            celda++;
+          }
+          jugador.setActualUnit(unidad);
+          jugador.setLocationUnit(celda / 8, celda % 8);
+        }
+      }
+      for (int turno = 0; turno < 4; turno++) {
+        Tactician jugador = game.getTurnOwner();
+        for (IUnit unidad : jugador.getPlayerUnits()) {
+          unidad.setMove(true);
+        }
+        jugador.getPlayerUnits().get(0).takeDamage(turno);
+        game.endTurn();
+        assertFalse(jugador.getPlayerUnits().get(0).getMove());
+      }
+    }
+    assertSameState(sinStore.snapshot(), conStore.snapshot());
+    IUnit unidad = conStore.getTurnOwner().getPlayerUnits().get(1);
+    int slot = 0;
+    while (store.getUnit(slot) != unidad) {
+      slot++;
+    }
+    assertEquals(conStore.getGameMap().getCellIndex(unidad.getLocation()), store.getCell(slot));
+    assertSame(conStore.getTurnOwner(), store.getOwnerAt(store.getOwner(slot)));
+  }
+
+  /**
+   * Verifica que con el almacen de unidades se reseteen todas las unidades de la lista del
+   * jugador, aunque no tengan dueño
+   */
+  @Test
+  void unitStoreResetMovement() {
+
+    controller.initGame(4);
+    UnitStore store = controller.useUnitStore();
+    Tactician jugador = controller.getTurnOwner();
+    IUnit sinDueno = new Alpaca(50, 2, controller.getGameMap().getCell(0, 0));
+    jugador.addUnit(sinDueno);
+    assertNull(sinDueno.getOwner());
+    jugador.getPlayerUnits().forEach(unidad -> unidad.setMove(true));
+    controller.resetMovement(jugador);
+    for (IUnit unidad : jugador.getPlayerUnits()) {
+      assertFalse(unidad.getMove());
+    }
+
+    // un jugador que solo tiene unidades sin dueño no tiene indice en el almacen
+    Tactician nuevo = new Tactician("Player 9", controller);
+    IUnit otra = new Alpaca(50, 2, controller.getGameMap().getCell(0, 1));
+    nuevo.setUnits(new ArrayList<>(List.of(otra)));
+    assertEquals(UnitStore.NONE, store.ownerIndex(nuevo));
+    otra.setMove(true);
+    controller.resetMovement(nuevo);
+    assertFalse(otra.getMove());
+  }
+
+  /**
+   * Verifica que los objetivos de una unidad sean las unidades enemigas que puede atacar
+   */
+  @Test
+  void getTargets() {
+
+    Tactician player1 = new Tactician("Player 1", controller);
+    Tactician player2 = new Tactician("Player 2", controller);
+    Field map = new Field();
+    for (int i = 0; i < 16; i++) {
+      map.addCells(true, new Location(i / 4, i % 4));
+    }
+    IUnit arquero = new Archer(50, 2, map.getCell(0, 0));
+    IEquipableItem arco = new Bow("Bow", 10, 1, 2);
+    arquero.addItem(arco);
+    arco.equipItem(arquero);
+    arquero.setOwner(player1);
+    map.getCell(0, 0).setUnit(arquero);
+    List<IUnit> unidades = new ArrayList<>();
+    for (int i = 1; i < 16; i++) {
+      Location celda = map.getCell(i / 4, i % 4);
+      IUnit alpaca = new Alpaca(50, 2, celda);
+      alpaca.setOwner(i % 2 == 0 ? player1 : player2);
+      celda.setUnit(alpaca);
+      unidades.add(alpaca);
+    }
+    List<IUnit> objetivos = controller.getTargets(arquero);
+    for (IUnit unidad : unidades) {
+      assertEquals(unidad.getOwner() == player2 && arquero.canAttack(unidad),
+          objetivos.contains(unidad));
+    }
+    assertFalse(objetivos.isEmpty());
+    for (IUnit objetivo : controller.getTargets(unidades.get(0))) {
+      assertNotEquals(unidades.get(0).getOwner(), objetivo.getOwner());
+    }
+  }
+
+  /**
+   * Verifica que el mapa sepa donde estan las unidades de cada jugador durante la partida
+   */
+  @Test
+  void unitIndex() {
+
+    controller.initGame(4);
+    Field map = controller.getGameMap();
+    int celda = 0;
+    for (Tactician jugador : controller.getTacticians()) {
+      for (int i = 0; i < 2; i++) {
+        while (!map.isFree(celda / 4, celda % 4)) {
+          celda++;
+        }
+        jugador.setActualUnit(jugador.getPlayerUnits().get(i));
+        jugador.setLocationUnit(celda / 4, celda % 4);
+      }
+    }
+    List<IUnit> unidades = new ArrayList<>();
+    int total = 0;
+    for (Tactician jugador : controller.getTacticians()) {
+      map.getUnitsOf(jugador, unidades);
+      for (IUnit unidad : unidades) {
+        assertSame(jugador, unidad.getOwner());
+        assertSame(unidad, unidad.getLocation().getUnit());
+      }
+      total += unidades.size();
+    }
+    assertEquals(8, total);
+    assertEquals(total, map.getUnitCount());
+
+    Tactician jugador = controller.getTacticians().get(0);
+    IUnit unidad = map.getUnitsOf(jugador, unidades).get(0);
+    Location origen = unidad.getLocation();
+    for (Location destino : origen.getNeighbours()) {
+      if (destino.getUnit() == null) {
+        jugador.setActualUnit(unidad);
+        jugador.moveUnit(destino.getRow(), destino.getColumn());
+        assertTrue(map.isFree(origen.getRow(), origen.getColumn()));
+        assertSame(unidad, map.getUnitAt(destino.getRow(), destino.getColumn()));
+        break;
+      }
+    }
+    for (IUnit enemigo : map.getEnemiesWithin(unidad, 100, unidades)) {
+      assertNotSame(jugador, enemigo.getOwner());
+    }
+    assertEquals(total - map.getUnitsOf(jugador, new ArrayList<>()).size(), unidades.size());
+  }
+
+  /**
+   * Verifica que las distancias a los enemigos de un jugador sigan a las unidades del mapa
+   */
+  @Test
+  void enemyField() {
+
+    Tactician player1 = new Tactician("Player 1", controller);
+    Tactician player2 = new Tactician("Player 2", controller);
+    Field map = controller.getGameMap();
+    assertSame(controller.getEnemyField(player1), controller.getEnemyField(player1));
+    IUnit aliado = new Alpaca(50, 2, map.getCell(0, 0));
+    aliado.setOwner(player1);
+    map.getCell(0, 0).setUnit(aliado);
+    IUnit enemigo = new Alpaca(50, 2, map.getCell(3, 3));
+    enemigo.setOwner(player2);
+    map.getCell(3, 3).setUnit(enemigo);
+    Location origen = map.getCell(0, 0);
+    assertEquals(origen.distanceTo(map.getCell(3, 3)),
+        controller.getEnemyField(player1).getDistance(origen));
+    assertEquals(0, controller.getEnemyField(player2).getDistance(origen));
+    enemigo.die();
+    assertEquals(FlowField.UNREACHABLE, controller.getEnemyField(player1).getDistance(origen));
+  }
+
+  /**
+   * Checks that a snapshot brings back the units, the turns and the random generator of a game
+   */
+  @Test
+  void snapshotAndRestore() {
+
+    GameController game = new GameController(4, 6, new Random(randomSeed));
+    game.initGame(10);
+    Field map = game.getGameMap();
+    int celda = 0;
+    for (Tactician jugador : game.getTacticians()) {
+      game.setActualPlayer(jugador);
+      for (IUnit unidad : jugador.getPlayerUnits()) {
+        while (!map.isFree(celda / 6, celda % 6)) {
+          celda++;
+        }
+        jugador.setActualUnit(unidad);
+        jugador.setLocationUnit(celda / 6, celda % 6);
+      }
+    }
+    game.setActualPlayer(game.getTacticians().get(0));
+    Tactician jugador = game.getTacticians().get(0);
+    IUnit arquero = jugador.getPlayerUnits().get(1);
+    IEquipableItem arco = new Bow("Bow", 10, 2, 3);
+    arquero.addItem(arco);
+    arco.setOwner(arquero);
+    GameSnapshot foto = game.snapshot();
+    List<Tactician> orden = List.copyOf(game.getTacticians());
+
+    arquero.setEquippedItem(arco);
+    arquero.takeDamage(5);
+    arquero.setMove(true);
+    arquero.removeItem(arco);
+    IUnit muerto = orden.get(1).getPlayerUnits().get(3);
+    Location celdaMuerto = muerto.getLocation();
+    muerto.die();
+    IUnit nueva = alpacaFactory.createDefault(jugador);
+    Location libre = map.getCell(5, 5);
+    if (libre.getUnit() == null) {
+      nueva.setLocation(libre);
+      libre.setUnit(nueva);
+    }
+    game.removeTactician(orden.get(2).getName());
+    for (int i = 0; i < 4; i++) {
+      game.endTurn();
+    }
+    assertEquals(2, game.getRoundNumber());
+    List<Tactician> siguienteOrden = List.copyOf(game.getTacticians());
+
+    game.restore(foto);
+    assertEquals(orden, game.getTacticians());
+    assertSame(jugador, game.getTurnOwner());
+    assertEquals(1, game.getRoundNumber());
+    assertEquals(4, game.getNumberOfPlayers());
+    assertNull(game.getWinners());
+    assertEquals(arquero.getMaxHitPoints(), arquero.getCurrentHitPoints());
+    assertFalse(arquero.getMove());
+    assertEquals(List.of(arco), arquero.getItems());
+    assertSame(arquero.getHand(), arquero.getEquippedItem());
+    assertTrue(muerto.getLive());
+    assertSame(muerto, celdaMuerto.getUnit());
+    assertFalse(jugador.getPlayerUnits().contains(nueva));
+    assertNotSame(nueva, libre.getUnit());
+    assertEquals(28, map.getUnitCount());
+    assertSameState(foto, game.snapshot());
+
+    game.removeTactician(orden.get(2).getName());
+    for (int i = 0; i < 4; i++) {
+      game.endTurn();
+    }
+    assertEquals(siguienteOrden, game.getTacticians());
+  }
+
+  /**
+   * Checks that a snapshot can't be restored on a game with other units
+   */
+  @Test
+  void restoreOtherGame() {
+
+    GameController game = new GameController(2, 4, new Random(randomSeed));
+    game.initGame(3);
+    GameSnapshot foto = game.snapshot();
+    GameController twin = new GameController(2, 4, new Random(randomSeed));
+    twin.initGame(3);
+    twin.restore(foto);
+    assertSameState(foto, twin.snapshot());
+    GameController bigger = new GameController(5, 4, new Random(randomSeed));
+    bigger.initGame(3);
+    assertThrows(IllegalArgumentException.class, () -> controller.restore(bigger.snapshot()));
+    assertThrows(IllegalStateException.class, () -> new GameController(2, 4).snapshot());
+  }
+
+  /**
+   * Checks that a game saved to a file is loaded with the same map, units, items and turns
+   */
+  @Test
+  void saveAndLoad(@TempDir Path folder) throws IOException {
+
+    GameController game = new GameController(3, 7, new Random(randomSeed));
+    game.initEndlessGame();
+    Field map = game.getGameMap();
+    int celda = 0;
+    for (Tactician jugador : game.getTacticians()) {
+      game.setActualPlayer(jugador);
+      for (IUnit unidad : jugador.getPlayerUnits()) {
+        while (!map.isFree(celda / 7, celda % 7)) {
+          celda++;
+        }
+        jugador.setActualUnit(unidad);
+        jugador.setLocationUnit(celda / 7, celda % 7);
+      }
+    }
+    game.setActualPlayer(game.getTacticians().get(1));
+    IUnit arquero = game.getTacticians().get(0).getPlayerUnits().get(1);
+    IEquipableItem arco = new Bow("Arco largo", 12, 2, 4);
+    arquero.addItem(arco);
+    arco.setOwner(arquero);
+    arquero.setEquippedItem(arco);
+    arquero.takeDamage(7.5);
+    arquero.setMove(true);
+    game.getTacticians().get(2).getPlayerUnits().get(0).die();
+    Path file = folder.resolve("match.bin");
+    game.save(file);
+
+    GameController loaded = GameController.load(file);
+    assertSameState(game.snapshot(), loaded.snapshot());
+    assertEquals(game.getNumberOfPlayers(), loaded.getNumberOfPlayers());
+    assertEquals(game.getMaxNumberOfPlayers(), loaded.getMaxNumberOfPlayers());
+    assertEquals(game.getTurnOwner().getName(), loaded.getTurnOwner().getName());
+    Field copia = loaded.getGameMap();
+    assertEquals(map.getCellCount(), copia.getCellCount());
+    for (int i = 0; i < map.getCellCount(); i++) {
+      assertEquals(map.getCell(i).getNeighbourCount(), copia.getCell(i).getNeighbourCount());
+    }
+    assertEquals(map.getUnitCount(), copia.getUnitCount());
+    IUnit copiaArquero = loaded.getTacticians().stream()
+        .filter(jugador -> jugador.getName().equals(arquero.getOwner().getName()))
+        .findFirst().orElseThrow().getPlayerUnits().get(1);
+    assertEquals(arquero.getCurrentHitPoints(), copiaArquero.getCurrentHitPoints());
+    assertEquals("Arco largo", copiaArquero.getEquippedItem().getName());
+    assertSame(copiaArquero, copiaArquero.getEquippedItem().getOwner());
+    assertSame(copiaArquero, copiaArquero.getLocation().getUnit());
+
+    for (int i = 0; i < 7; i++) {
+      game.endTurn();
+      loaded.endTurn();
+    }
+    assertSameState(game.snapshot(), loaded.snapshot());
+
+    Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> GameController.load(file));
+  }
+
+  /**
+   * Checks that a copy starts in the same state and doesn't share units with the game
+   */
+  @Test
+  void copy() {
+
+    GameController game = new GameController(2, 6, new Random(randomSeed));
+    game.initGame(5);
+    Tactician jugador = game.getTurnOwner();
+    IUnit unidad = jugador.getPlayerUnits().get(0);
+    jugador.setActualUnit(unidad);
+    jugador.setLocationUnit(0, 0);
+    unidad.takeDamage(3);
+
+    GameController copy = game.copy();
+    assertSameState(game.snapshot(), copy.snapshot());
+    IUnit copiaUnidad = copy.getTurnOwner().getPlayerUnits().get(0);
+    assertNotSame(unidad, copiaUnidad);
+    copiaUnidad.takeDamage(5);
+    assertEquals(unidad.getMaxHitPoints() - 3, unidad.getCurrentHitPoints());
+    game.endTurn();
+    copy.endTurn();
+    assertEquals(game.getTurnOwner().getName(), copy.getTurnOwner().getName());
+  }
+
+  /**
+   * Checks that an inventory of more than 32767 items and names longer than 65535 bytes are saved
+   * and loaded without being cut
+   */
+  @Test
+  void saveLargeInventory(@TempDir Path folder) throws IOException {
+
+    GameController game = new GameController(2, 5, new Random(randomSeed));
+    game.initGame(3);
+    Tactician jugador = game.getTurnOwner();
+    game.getAlpaca(jugador);
+    IUnit alpaca = jugador.getPlayerUnits().get(jugador.getPlayerUnits().size() - 1);
+    String nombre = "a".repeat(70000);
+    for (int i = 0; i < 40000; i++) {
+      IEquipableItem arco = new Bow(i == 0 ? nombre : "Arco", 5, 2, 3);
+      alpaca.addItem(arco);
+      arco.setOwner(alpaca);
+    }
+    Path file = folder.resolve("large.bin");
+    game.save(file);
+    GameController loaded = GameController.load(file);
+    assertSameState(game.snapshot(), loaded.snapshot());
+    Tactician copiaJugador = loaded.getTacticians().stream()
+        .filter(otro -> otro.getName().equals(jugador.getName()))
+        .findFirst().orElseThrow();
+    IUnit copiaAlpaca = copiaJugador.getPlayerUnits().get(copiaJugador.getPlayerUnits().size() - 1);
+    assertEquals(40000, copiaAlpaca.getItems().size());
+    assertEquals(nombre, copiaAlpaca.getItems().get(0).getName());
+    assertSameState(game.snapshot(), game.copy().snapshot());
+  }
+
+  /**
+   * Checks that the generator of the game gives the same numbers as java.util.Random and goes back
+   * to a previous state
+   */
+  @Test
+  void gameRandom() {
+
+    Random random = new Random(randomSeed);
+    GameRandom gameRandom = new GameRandom(randomSeed);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(random.nextInt(1 + i), gameRandom.nextInt(1 + i));
+      assertEquals(random.nextDouble(), gameRandom.nextDouble());
+    }
+    long state = gameRandom.getState();
+    long next = gameRandom.nextLong();
+    gameRandom.setState(state);
+    assertEquals(next, gameRandom.nextLong());
+  }
+
+  /**
+   * Checks that a recorded game is played again the same way on a new controller, from memory and
+   * from a file
+   */
+  @Test
+  void actionLogReplay(@TempDir Path folder) throws IOException {
+
+    ActionLog log = new ActionLog(4, null);
+    GameController game = playRecorded(log);
+    int[] record = new int[ActionLog.RECORD_INTS];
+    log.getAction(1, record);
+    assertArrayEquals(new int[]{ActionLog.INIT_GAME, -1, 10, 0, 0, 0}, record);
+    log.getAction(2, record);
+    assertEquals(ActionLog.SELECT_PLAYER_UNIT, record[0]);
+    log.getAction(log.getActionCount() - 1, record);
+    assertEquals(ActionLog.REMOVE_TACTICIAN, record[0]);
+    for (long i = 0; i < log.getActionCount(); i++) {
+      log.getAction(i, record);
+      assertNotEquals(ActionLog.SET_UNITS, record[0]);
+    }
+    GameController copy = new GameController(3, 8, new Random(randomSeed));
+    ActionReplay.replay(log, copy);
+    assertSameState(game.snapshot(), copy.snapshot());
+
+    Path file = folder.resolve("actions.bin");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE)) {
+      ActionLog fileLog = new ActionLog(3, channel);
+      playRecorded(fileLog);
+      fileLog.flush();
+      assertThrows(IllegalStateException.class, () -> fileLog.getAction(0, record));
+    }
+    ActionLog read = ActionLog.read(file);
+    assertEquals(log.getActionCount(), read.getActionCount());
+    GameController fromFile = new GameController(3, 8, new Random(randomSeed));
+    ActionReplay.replay(read, fromFile);
+    assertSameState(game.snapshot(), fromFile.snapshot());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> ActionReplay.replay(log, new GameController(3, 8, new Random(randomSeed + 1))));
+  }
+
+  /**
+   * Checks that a move along a path is skipped when the player has no selected unit, like the
+   * other actions on the selected unit
+   */
+  @Test
+  void actionLogReplayWithoutUnit() {
+
+    ActionLog log = new ActionLog(4, null);
+    log.append(ActionLog.INIT_GAME, -1, 10, 0, 0, 0);
+    log.append(ActionLog.MOVE_UNIT_ALONG, 0, 1, 1, 0, 0);
+    GameController game = new GameController(3, 8, new Random(randomSeed));
+    ActionReplay.replay(log, game);
+    assertNull(game.getSeat(0).getActualUnit());
+    assertNull(game.getGameMap().getCell(1, 1).getUnit());
+  }
+
+  /**
+   * Plays a short game of three players while it's recorded in the given log
+   */
+  private GameController playRecorded(ActionLog log) {
+
+    GameController game = new GameController(3, 8, new Random(randomSeed));
+    game.setActionLog(log);
+    game.initGame(10);
+    Field map = game.getGameMap();
+    int celda = 0;
+    for (Tactician jugador : game.getTacticians()) {
+      for (IUnit unidad : jugador.getPlayerUnits()) {
+        while (!map.isFree(celda / 8, celda % 8)) {
+          celda++;
+        }
+        jugador.setActualUnit(unidad);
+        jugador.setLocationUnit(celda / 8, celda % 8);
+        celda += 2;
+      }
+    }
+    Tactician primero = game.getTurnOwner();
+    List<Location> camino = new ArrayList<>();
+    for (int u = 0; camino.size() < 2; u++) {
+      primero.setActualUnit(primero.getPlayerUnits().get(u));
+      for (int i = 0; i < map.getCellCount() && camino.size() < 2; i++) {
+        map.findPath(primero.getActualUnit().getLocation(), map.getCell(i), camino);
+      }
+    }
+    Location origen = primero.getActualUnit().getLocation();
+    primero.moveUnitAlong(camino);
+    assertNotSame(origen, primero.getActualUnit().getLocation());
+    primero.attackUnit(game.getTacticians().get(1).getPlayerUnits().get(0));
+    game.endTurn();
+    game.removeTactician(game.getTacticians().get(2).getName());
+    return game;
+  }
+
+  /**
+   * Checks that a client that starts from a snapshot and applies the deltas of every action ends
+   * with the cells, hit points, items and players of the game
+   */
+  @Test
+  void deltaStream() {
+
+    GameController game = new GameController(3, 8, new Random(randomSeed));
+    DeltaStream deltas = game.getDeltaStream();
+    game.initGame(10);
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    deltas.drainTo(buffer);
+    assertEquals(1, buffer.position());
+    assertEquals(DeltaStream.RESYNC, buffer.get(0));
+
+    GameSnapshot foto = game.snapshot();
+    int[] celdas = new int[foto.getUnitCount()];
+    double[] vida = new double[foto.getUnitCount()];
+    boolean[] vivas = new boolean[foto.getUnitCount()];
+    for (int i = 0; i < foto.getUnitCount(); i++) {
+      celdas[i] = foto.getCell(i);
+      vida[i] = foto.getHitPoints(i);
+      vivas[i] = foto.isAlive(i);
+    }
+    Field map = game.getGameMap();
+    int celda = 0;
+    for (Tactician jugador : game.getTacticians()) {
+      for (IUnit unidad : jugador.getPlayerUnits()) {
+        while (!map.isFree(celda / 8, celda % 8)) {
+          celda++;
+        }
+        jugador.setActualUnit(unidad);
+        jugador.setLocationUnit(celda / 8, celda % 8);
+      }
+    }
+    buffer.clear();
+    assertEquals(21 * 13, deltas.drainTo(buffer));
+    applyDeltas(buffer, foto, celdas, vida, vivas, new int[1], new ArrayList<>());
+
+    Tactician primero = game.getTacticians().get(0);
+    IUnit arquero = primero.getPlayerUnits().get(1);
+    IUnit alpaca = primero.getPlayerUnits().get(0);
+    IEquipableItem arco = new Bow("Bow", 10, 2, 3);
+    alpaca.addItem(arco);
+    arco.setOwner(alpaca);
+    alpaca.giveAway(arquero, arco);
+    arquero.takeDamage(12.5);
+    game.getTacticians().get(1).getPlayerUnits().get(2).die();
+    game.endTurn();
+    int[] ultimo = new int[1];
+    buffer.clear();
+    int bytes = deltas.drainTo(buffer);
+    assertTrue(bytes < 100, bytes + " bytes");
+    List<int[]> movidos = new ArrayList<>();
+    applyDeltas(buffer, foto, celdas, vida, vivas, ultimo, movidos);
+    assertEquals(DeltaStream.TURN, ultimo[0]);
+    assertEquals(2, movidos.size());
+    assertArrayEquals(new int[]{game.itemId(arco), -1, game.unitRef(alpaca)}, movidos.get(0));
+    assertArrayEquals(new int[]{game.itemId(arco), game.unitRef(alpaca), game.unitRef(arquero)},
+        movidos.get(1));
+
+    String nombre = game.getTacticians().get(2).getName();
+    game.removeTactician(nombre);
+    buffer.clear();
+    deltas.drainTo(buffer);
+    assertEquals(DeltaStream.PLAYER_REMOVED, buffer.get(0));
+
+    GameSnapshot actual = game.snapshot();
+    for (int i = 0; i < actual.getUnitCount(); i++) {
+      assertEquals(actual.getCell(i), celdas[i], "unit " + i);
+      assertEquals(actual.getHitPoints(i), vida[i], "unit " + i);
+      assertEquals(actual.isAlive(i), vivas[i], "unit " + i);
+    }
+    assertEquals(List.of(arco), arquero.getItems());
+
+    game.restore(foto);
+    buffer.clear();
+    deltas.drainTo(buffer);
+    assertEquals(1, buffer.position());
+    assertEquals(DeltaStream.RESYNC, buffer.get(0));
+    assertThrows(BufferOverflowException.class, () -> {
+      arquero.takeDamage(1);
+      deltas.drainTo(ByteBuffer.allocate(4));
+    });
+    assertEquals(13, deltas.getPendingBytes());
+  }
+
+  /**
+   * Applies the deltas written in a buffer to the cells, hit points and life of the units of a
+   * snapshot, remembering the code of the last one and the items that moved
+   */
+  private void applyDeltas(ByteBuffer buffer, GameSnapshot foto, int[] celdas, double[] vida,
+      boolean[] vivas, int[] ultimo, List<int[]> movidos) {
+
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      ultimo[0] = buffer.get();
+      switch (ultimo[0]) {
+        case DeltaStream.UNIT_MOVED:
+          int movida = entry(foto, buffer.getInt());
+          assertEquals(celdas[movida], buffer.getInt());
+          celdas[movida] = buffer.getInt();
+          break;
+        case DeltaStream.HIT_POINTS:
+          vida[entry(foto, buffer.getInt())] = buffer.getDouble();
+          break;
+        case DeltaStream.ITEM_MOVED:
+          movidos.add(new int[]{buffer.getInt(), buffer.getInt(), buffer.getInt()});
+          break;
+        case DeltaStream.EQUIPPED:
+          buffer.getInt();
+          buffer.getInt();
+          break;
+        case DeltaStream.UNIT_DIED:
+          vivas[entry(foto, buffer.getInt())] = false;
+          break;
+        case DeltaStream.PLAYER_REMOVED:
+          buffer.getInt();
+          break;
+        case DeltaStream.TURN:
+          buffer.getInt();
+          buffer.getInt();
+          break;
+        default:
+          fail("Unexpected delta " + ultimo[0]);
+      }
+    }
+  }
+
+  private int entry(GameSnapshot foto, int ref) {
+
+    return foto.getFirstUnitOf(ref >>> 16) + (ref & 0xFFFF);
+  }
+
+  private void assertSameState(GameSnapshot expected, GameSnapshot actual) {
+
+    assertEquals(expected.getRoundNumber(), actual.getRoundNumber());
+    assertEquals(expected.getMaxRounds(), actual.getMaxRounds());
+    assertEquals(expected.getNumberOfPlayers(), actual.getNumberOfPlayers());
+    assertEquals(expected.getTurnOwner(), actual.getTurnOwner());
+    assertEquals(expected.isFinished(), actual.isFinished());
+    assertEquals(expected.getRandomState(), actual.getRandomState());
+    assertEquals(expected.getTurnOrderSize(), actual.getTurnOrderSize());
+    for (int i = 0; i < expected.getTurnOrderSize(); i++) {
+      assertEquals(expected.getPlayerAt(i), actual.getPlayerAt(i));
+    }
+    assertEquals(expected.getSeatCount(), actual.getSeatCount());
+    for (int i = 0; i < expected.getSeatCount(); i++) {
+      assertEquals(expected.getEndUnitOf(i), actual.getEndUnitOf(i));
+    }
+    assertEquals(expected.getUnitCount(), actual.getUnitCount());
+    for (int i = 0; i < expected.getUnitCount(); i++) {
+      assertEquals(expected.getUnitType(i), actual.getUnitType(i));
+      assertEquals(expected.getOwner(i), actual.getOwner(i));
+      assertEquals(expected.getHitPoints(i), actual.getHitPoints(i));
+      assertEquals(expected.getCell(i), actual.getCell(i));
+      assertEquals(expected.isAlive(i), actual.isAlive(i));
+      assertEquals(expected.hasMoved(i), actual.hasMoved(i));
+      assertEquals(expected.isOnMap(i), actual.isOnMap(i));
+      assertEquals(expected.getEquippedSlot(i), actual.getEquippedSlot(i));
+      assertEquals(expected.getItemCount(i), actual.getItemCount(i));
+      for (int j = 0; j < expected.getItemCount(i); j++) {
+        assertEquals(expected.getItem(i, j), actual.getItem(i, j));
+      }
+    }
+  }
+}
@@ -5,6 +5,7 @@ import factory.item.DarkFactory;
 import factory.unit.*;
 import model.items.IEquipableItem;
 import model.map.Field;
+import model.map.InvalidLocation;
 import model.map.Location;
 import model.units.Archer;
 import model.units.IUnit;
@@ -307,6 +308,37 @@ public class TacticianTest {
 
     }
 
+    @Test
+    void movementAlongPath(){
+
+        Field mapa = tactician.getMap();
+        IUnit arquero = new Archer(50, 2, new InvalidLocation());
+        arquero.setOwner(tactician);
+        tactician.addUnit(arquero);
+        tactician.setActualUnit(arquero);
+        tactician.setLocationUnit(0, 0);
+        Location origen = mapa.getCell(0, 0);
+        Location lejana = mapa.getCell(3, 3);
+        List<Location> camino = mapa.findPath(origen, lejana);
+        assertEquals(origen.distanceTo(lejana), camino.size() - 1);
+        tactician.moveUnitAlong(camino);
+        Location destino = camino.get(Math.min(2, camino.size() - 1));
+        assertEquals(arquero, destino.getUnit());
+        assertEquals(destino, arquero.getLocation());
+        assertNull(origen.getUnit());
+        assertTrue(arquero.getMove());
+
+        tactician.moveUnitAlong(mapa.findPath(destino, origen));
+        assertEquals(destino, arquero.getLocation());
+
+        arquero.setMove(false);
+        List<Location> salto = new ArrayList<>();
+        salto.add(destino);
+        salto.add(origen);
+        tactician.moveUnitAlong(salto);
+        assertEquals(destino.isNeighbour(origen) ? origen : destino, arquero.getLocation());
+    }
+
     @Test
     void movementUnique(){
 
@@ -0,0 +1,110 @@
+package controller.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import controller.GameController;
+import java.util.Random;
+import model.map.Location;
+import model.units.IUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests del simulador de partidas
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+class MatchSimulatorTest {
+
+  private MatchSimulator simulator;
+
+  @BeforeEach
+  void setUp() {
+    simulator = new MatchSimulator(4, 10, 20, new AggressivePolicy());
+  }
+
+  /**
+   * Verifica que una partida dependa solo de su semilla
+   */
+  @Test
+  void sameSeedSameMatch() {
+
+    for (long seed = 0; seed < 20; seed++) {
+
+      MatchResult result = simulator.play(seed);
+      assertEquals(result, simulator.play(seed));
+      assertEquals(result, new MatchSimulator(4, 10, 20, new AggressivePolicy()).play(seed));
+      assertEquals(seed, result.seed());
+    }
+  }
+
+  /**
+   * Verifica que las partidas terminen con ganadores dentro del limite de rondas
+   */
+  @Test
+  void matchesEnd() {
+
+    for (long seed = 0; seed < 50; seed++) {
+
+      MatchResult result = simulator.play(seed);
+      assertTrue(result.rounds() >= 1 && result.rounds() <= 20);
+      assertTrue(result.turns() >= 1);
+      assertNotEquals(0, result.winners());
+      assertEquals(0, result.winners() >>> 4);
+      if (Integer.bitCount(result.winners()) == 1) {
+        assertTrue(result.attacks() > 0 && result.damage() > 0);
+      }
+    }
+  }
+
+  /**
+   * Verifica que se use la estrategia de cada asiento
+   */
+  @Test
+  void policiesBySeat() {
+
+    MatchPolicy passive = new MatchPolicy() {
+      @Override
+      public int chooseItem(IUnit unit, GameController controller, Random random) {
+        return -1;
+      }
+
+      @Override
+      public Location chooseMove(IUnit unit, GameController controller, Random random) {
+        return null;
+      }
+
+      @Override
+      public IUnit chooseTarget(IUnit unit, GameController controller, Random random) {
+        return null;
+      }
+    };
+    MatchResult result = new MatchSimulator(2, 8, 5, passive).play(7);
+    assertEquals(5, result.rounds());
+    assertEquals(10, result.turns());
+    assertEquals(0b11, result.winners());
+    assertEquals(0, result.attacks());
+
+    MatchSimulator mixed = new MatchSimulator(2, 8, 50, new AggressivePolicy(), passive);
+    for (long seed = 0; seed < 20; seed++) {
+      MatchResult mixedResult = mixed.play(seed);
+      assertTrue(mixedResult.isWinner(0));
+      assertTrue(mixedResult.rounds() < 50 || mixedResult.isWinner(1));
+    }
+  }
+
+  @Test
+  void invalidSimulators() {
+
+    assertThrows(IllegalArgumentException.class, () -> new MatchSimulator(1, 8, 5,
+        new AggressivePolicy()));
+    assertThrows(IllegalArgumentException.class, () -> new MatchSimulator(2, 8, 0,
+        new AggressivePolicy()));
+    assertThrows(IllegalArgumentException.class, () -> new MatchSimulator(2, 8, 5));
+    assertThrows(IllegalArgumentException.class,
+        () -> new MatchSimulator(4, 2, 5, new AggressivePolicy()).play(1));
+  }
+}
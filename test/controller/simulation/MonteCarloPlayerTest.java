@@ -0,0 +1,130 @@
+package controller.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import controller.GameController;
+import controller.GameRandom;
+import controller.Tactician;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests del jugador de Monte Carlo
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+class MonteCarloPlayerTest {
+
+  /**
+   * Verifica que el jugador juegue su turno completo y lo termine
+   */
+  @Test
+  void playTurn() {
+
+    GameController game = new MatchSimulator(2, 8, 100, new AggressivePolicy())
+        .start(new GameRandom(7));
+    MonteCarloPlayer player = new MonteCarloPlayer(5, 1, 4, 7);
+    Tactician jugador = game.getTurnOwner();
+    player.playTurn(game);
+    assertNotSame(jugador, game.getTurnOwner());
+    assertTrue(player.getPlayouts() > 0);
+  }
+
+  /**
+   * Verifica que dos jugadores con varios hilos jueguen varias rondas sin acciones invalidas,
+   * reutilizando sus arboles entre turnos
+   */
+  @Test
+  void playRounds() {
+
+    for (long seed = 0; seed < 3; seed++) {
+
+      GameController game = new MatchSimulator(2, 8, 3, new AggressivePolicy())
+          .start(new GameRandom(seed));
+      try (MonteCarloPlayer player = new MonteCarloPlayer(2, 2, 3, 5_000, seed)) {
+
+        int turnos = 0;
+        while (game.getWinners() == null && turnos < 6) {
+
+          player.playTurn(game);
+          turnos++;
+        }
+      }
+      assertTrue(game.getRoundNumber() > 1 || game.getWinners() != null);
+    }
+  }
+
+  /**
+   * Verifica que los hilos de la busqueda se reutilicen entre decisiones y que un jugador cerrado
+   * no juegue mas
+   */
+  @Test
+  void reusesThreads() {
+
+    GameController game = new MatchSimulator(2, 8, 100, new AggressivePolicy())
+        .start(new GameRandom(11));
+    Set<Thread> antes = new HashSet<>(Thread.getAllStackTraces().keySet());
+    MonteCarloPlayer player = new MonteCarloPlayer(1, 3, 3, 5_000, 11);
+    for (int turno = 0; turno < 3 && game.getWinners() == null; turno++) {
+
+      player.playTurn(game);
+    }
+    assertEquals(2, Thread.getAllStackTraces().keySet().stream()
+        .filter(hilo -> hilo.getName().equals("monte-carlo-search") && !antes.contains(hilo))
+        .count());
+    player.close();
+    player.close();
+    assertThrows(IllegalStateException.class, () -> player.playTurn(game));
+  }
+
+  /**
+   * Verifica que iterar despues de preparar juegue una partida al azar por iteracion
+   */
+  @Test
+  void iterate() {
+
+    GameController game = new MatchSimulator(2, 8, 100, new AggressivePolicy())
+        .start(new GameRandom(3));
+    long antes = MonteCarloPlayer.hash(game.snapshot());
+    MonteCarloPlayer player = new MonteCarloPlayer(0, 1, 4, 3);
+    player.prepare(game);
+    for (int i = 0; i < 200; i++) {
+
+      player.iterate();
+    }
+    assertEquals(200, player.getPlayouts());
+    // el controlador original no cambia
+    assertEquals(antes, MonteCarloPlayer.hash(game.snapshot()));
+  }
+
+  /**
+   * Verifica que con el arbol mas chico permitido el jugador igual termine su turno
+   */
+  @Test
+  void smallTree() {
+
+    GameController game = new MatchSimulator(2, 8, 100, new AggressivePolicy())
+        .start(new GameRandom(5));
+    MonteCarloPlayer player = new MonteCarloPlayer(0, 1, 4, 2, 5);
+    Tactician jugador = game.getTurnOwner();
+    player.playTurn(game);
+    assertNotSame(jugador, game.getTurnOwner());
+  }
+
+  /**
+   * Verifica que no se acepten parametros invalidos
+   */
+  @Test
+  void invalidParameters() {
+
+    assertThrows(IllegalArgumentException.class, () -> new MonteCarloPlayer(-1, 1, 4, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MonteCarloPlayer(5, 0, 4, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MonteCarloPlayer(5, 1, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MonteCarloPlayer(5, 1, 4, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MonteCarloPlayer(5, 1, 4, 1, 0));
+  }
+}
@@ -0,0 +1,109 @@
+package controller.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import model.units.Alpaca;
+import model.units.Archer;
+import model.units.Cleric;
+import model.units.Hero;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests del torneo de partidas simuladas
+ * @author Cristóbal Jaramillo Andrade
+ * @since 2.0
+ */
+class TournamentRunnerTest {
+
+  private static final int MATCHES = 100;
+
+  /**
+   * Verifica que el torneo de el mismo resultado con cualquier cantidad de hilos
+   */
+  @Test
+  void sameResultWithAnyParallelism() {
+
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool many = new ForkJoinPool(4);
+    try {
+      TournamentStats stats1 = new TournamentRunner(single, 4, 10, 20, new AggressivePolicy())
+          .run(42, MATCHES);
+      TournamentStats stats2 = new TournamentRunner(many, 4, 10, 20, new AggressivePolicy())
+          .run(42, MATCHES);
+      assertEquals(MATCHES, stats1.getMatches());
+      assertEquals(stats1.getTurns(), stats2.getTurns());
+      assertEquals(stats1.getAverageRounds(), stats2.getAverageRounds());
+      for (Class<?> type : TournamentStats.UNIT_TYPES) {
+        assertEquals(stats1.getFights(type), stats2.getFights(type));
+        assertEquals(stats1.getWinRate(type), stats2.getWinRate(type));
+        assertArrayEquals(stats1.getDamageHistogram(type), stats2.getDamageHistogram(type));
+      }
+      for (int seat = 0; seat < 4; seat++) {
+        assertEquals(stats1.getSeatWinRate(seat), stats2.getSeatWinRate(seat));
+      }
+    } finally {
+      single.shutdown();
+      many.shutdown();
+    }
+  }
+
+  /**
+   * Verifica que las estadisticas sean las de las partidas con las semillas derivadas
+   */
+  @Test
+  void statsOfTheMatches() {
+
+    TournamentStats stats = new TournamentRunner(2, 8, 30, new AggressivePolicy()).run(7, 40);
+    MatchSimulator simulator = new MatchSimulator(2, 8, 30, new AggressivePolicy());
+    long rounds = 0, turns = 0, seat0 = 0;
+    for (int i = 0; i < 40; i++) {
+      MatchResult result = simulator.play(TournamentRunner.matchSeed(7, i));
+      rounds += result.rounds();
+      turns += result.turns();
+      seat0 += result.isWinner(0) ? 1 : 0;
+    }
+    assertEquals(40, stats.getMatches());
+    assertEquals(turns, stats.getTurns());
+    assertEquals(rounds / 40.0, stats.getAverageRounds());
+    assertEquals(seat0 / 40.0, stats.getSeatWinRate(0));
+    assertTrue(stats.getSeatWinRate(0) + stats.getSeatWinRate(1) >= 1);
+
+    // Las alpacas no atacan y los clerics solo curan, pero ambos pueden ser atacados
+    assertEquals(0, Arrays.stream(stats.getDamageHistogram(Alpaca.class)).sum());
+    assertEquals(0, Arrays.stream(stats.getDamageHistogram(Cleric.class)).sum());
+    assertTrue(stats.getFights(Hero.class) > 0);
+    long attacks = 0;
+    for (Class<?> type : TournamentStats.UNIT_TYPES) {
+      assertTrue(stats.getWinRate(type) >= 0 && stats.getWinRate(type) <= 1);
+      attacks += Arrays.stream(stats.getDamageHistogram(type)).sum();
+    }
+    assertTrue(attacks > 0);
+    assertThrows(IllegalArgumentException.class, () -> stats.getWinRate(String.class));
+  }
+
+  /**
+   * Verifica que las semillas de las partidas sean distintas entre si y dependan de la semilla
+   * maestra
+   */
+  @Test
+  void matchSeeds() {
+
+    long[] seeds = new long[1000];
+    for (int i = 0; i < seeds.length; i++) {
+      seeds[i] = TournamentRunner.matchSeed(1, i);
+      assertEquals(seeds[i], TournamentRunner.matchSeed(1, i));
+      assertNotEquals(seeds[i], TournamentRunner.matchSeed(2, i));
+    }
+    assertEquals(seeds.length, Arrays.stream(seeds).distinct().count());
+    assertNotEquals(0, new TournamentRunner(2, 8, 5, new AggressivePolicy()).run(3, 1)
+        .getMatches());
+    assertTrue(new TournamentRunner(2, 8, 5, new AggressivePolicy()).run(3, 0).getMatches() == 0);
+    assertEquals(0, new TournamentStats().getWinRate(Archer.class));
+  }
+}
@@ -5,6 +5,10 @@ import model.map.Field;
 import model.map.Location;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -48,4 +52,96 @@ public class mapFactoryTest {
             }
         }
     }
+
+    /**
+     * Cuenta la cantidad de conexiones del mapa
+     */
+    private int connections(Field field) {
+
+        int count = 0;
+        for (Location location : field.getMap().values()) {
+            count += location.getNeighbourCount();
+        }
+        return count / 2;
+    }
+
+    /**
+     * Verifica que checkMap agregue un solo puente por cada componente extra
+     */
+    @Test
+    void checkMapBridges(){
+
+        Field field = new Field();
+        for(int i = 0; i < 6; i++){
+            for(int j = 0; j < 6; j++){
+                field.addCells(false, new Location(i, j));
+            }
+        }
+        for(int i = 0; i < 6; i++){
+            Location location = field.getCell(i, 3);
+            for (Location vecino : location.getNeighbours()) {
+                location.removeNeighbour(vecino);
+                vecino.removeNeighbour(location);
+            }
+        }
+        assertFalse(field.isConnected());
+        int components = field.getComponentCount();
+        int before = connections(field);
+        mapFactory.checkMap(field);
+        assertTrue(field.isConnected());
+        assertEquals(before + components - 1, connections(field));
+    }
+
+    /**
+     * Verifica que los mapas creados sean conexos y dependan solo de la semilla
+     */
+    @Test
+    void seededMapsAreConnected(){
+
+        for(int seed = 0; seed < 20; seed++){
+            Field field = mapFactory.createMapSeed(12, new Random(seed), new Field());
+            Field same = mapFactory.createMapSeed(12, new Random(seed), new Field());
+            assertTrue(field.isConnected());
+            assertEquals(144, field.getMap().size());
+            for(int i = 0; i < 12; i++){
+                for(int j = 0; j < 12; j++){
+                    Location location = field.getCell(i, j);
+                    Location other = same.getCell(i, j);
+                    assertEquals(location.getNeighbourCount(), other.getNeighbourCount());
+                    for (Location vecino : location.getNeighbours()) {
+                        assertTrue(other.isNeighbour(same.getCell(vecino.getRow(), vecino.getColumn())));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica que los mapas creados en una pasada sean conexos, completos y dependan solo de la semilla
+     */
+    @Test
+    void connectedMaps(){
+
+        for(int seed = 0; seed < 20; seed++){
+            Field field = mapFactory.createConnectedMap(15, new Random(seed), new Field());
+            Field same = mapFactory.createConnectedMap(15, new Random(seed), new Field());
+            assertTrue(field.isConnected());
+            assertEquals(225, field.getMap().size());
+            assertTrue(connections(field) >= 224);
+            assertEquals(connections(field), connections(same));
+            for(int i = 0; i < 15; i++){
+                for(int j = 0; j < 15; j++){
+                    Location location = field.getCell(i, j);
+                    Location other = same.getCell(i, j);
+                    assertEquals(location.getNeighbourCount(), other.getNeighbourCount());
+                    for (Location vecino : location.getNeighbours()) {
+                        assertTrue(vecino.isNeighbour(location));
+                        assertEquals(1, Math.abs(vecino.getRow() - i) + Math.abs(vecino.getColumn() - j));
+                        assertTrue(other.isNeighbour(same.getCell(vecino.getRow(), vecino.getColumn())));
+                    }
+                }
+            }
+        }
+        assertTrue(mapFactory.createConnectedMap(1).isConnected());
+    }
 }
@@ -0,0 +1,84 @@
+package model.items;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.items.attack.magic.AnimaBook;
+import model.items.attack.magic.DarkBook;
+import model.items.attack.magic.LightBook;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import model.items.attack.normal.Sword;
+import model.items.heal.Staff;
+import model.map.Location;
+import model.units.Hero;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test para verificar que la tabla de daño de exactamente los mismos valores que los metodos
+ * counter de los items
+ */
+public class DamageTableTest {
+
+  private static final int[] POWERS = {0, 1, 7, 19, 20, 21, 25, 30, 40, 50, 63, 100, 1000};
+
+  private List<IEquipableItem> items;
+
+  @BeforeEach
+  public void setUp() {
+
+    items = new ArrayList<>();
+    items.add(new Hero(10, 5, new Location(0, 0)).getHand());
+    for (int power : POWERS) {
+      items.add(new Axe("Axe", power, 1, 2));
+      items.add(new Bow("Bow", power, 2, 3));
+      items.add(new Spear("Spear", power, 1, 2));
+      items.add(new Sword("Sword", power, 1, 2));
+      items.add(new AnimaBook("Anima", power, 1, 3));
+      items.add(new DarkBook("Dark", power, 1, 3));
+      items.add(new LightBook("Light", power, 1, 3));
+      items.add(new Staff("Staff", power, 1, 3));
+    }
+  }
+
+  /**
+   * Compara la tabla con el double dispatch para todos los pares de items, bit a bit
+   */
+  @Test
+  public void sameDamageAsAttack() {
+
+    for (IEquipableItem attacker : items) {
+      for (IEquipableItem defender : items) {
+        double expected = attacker.attack(defender);
+        double damage = DamageTable.attack(attacker, defender);
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(damage),
+            attacker.getName() + " " + attacker.getPower() + " vs " + defender.getName());
+      }
+    }
+  }
+
+  /**
+   * Los items de otras clases usan el double dispatch
+   */
+  @Test
+  public void unknownItems() {
+
+    Sword strongSword = new Sword("Sword", 50, 1, 2) {
+      @Override
+      public double counterAxe(IEquipableItem item) {
+        return item.getPower() * 3;
+      }
+    };
+    Axe axe = new Axe("Axe", 40, 1, 2);
+    assertEquals(DamageTable.UNKNOWN, DamageTable.typeOf(strongSword.getClass()));
+    assertEquals(120, DamageTable.attack(axe, strongSword));
+    assertEquals(axe.attack(strongSword), DamageTable.attack(axe, strongSword));
+    assertEquals(strongSword.attack(axe), DamageTable.attack(strongSword, axe));
+    assertEquals(DamageTable.typeOf(Axe.class), DamageTable.typeOf(axe.getClass()));
+    assertEquals(DamageTable.UNKNOWN, DamageTable.typeOf(Sword.class.getSuperclass()));
+    assertEquals(DamageTable.UNKNOWN, DamageTable.typeOf(String.class));
+  }
+}
@@ -0,0 +1,79 @@
+package model.items;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import factory.item.AxeFactory;
+import factory.item.StaffFactory;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Sword;
+import model.items.heal.Staff;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the stats shared by the items of the same kind.
+ */
+class ItemTypeTest {
+
+  @Test
+  public void testCachedTypes() {
+    ItemType type = ItemType.of(Axe.class, "Axe", 40, 1, 2);
+    assertSame(type, ItemType.of(Axe.class, new String("Axe"), 40, 1, 2));
+    assertNotSame(type, ItemType.of(Axe.class, "Axe", 41, 1, 2));
+    assertNotSame(type, ItemType.of(Sword.class, "Axe", 40, 1, 2));
+    assertEquals(1, ItemType.of(Axe.class, "Axe", 40, -3, -5).getMinRange());
+    assertEquals(1, ItemType.of(Axe.class, "Axe", 40, -3, -5).getMaxRange());
+    assertEquals(2, new Bow("Bow", 10, 1, 1).getMinRange());
+  }
+
+  @Test
+  public void testSharedStats() {
+    AxeFactory axes = new AxeFactory();
+    IEquipableItem first = axes.createDefault();
+    IEquipableItem second = axes.createDefault();
+    assertNotSame(first, second);
+    assertSame(first.getType(), second.getType());
+    assertTrue(first.equalsTo(second));
+    assertTrue(first.equalsTo(new Axe("Axe", 40, 1, 2)));
+    assertFalse(first.equalsTo(axes.create(39, 1, 2)));
+    assertFalse(first.equalsTo(new Sword("Axe", 40, 1, 2)));
+    assertFalse(first.equalsTo(null));
+
+    IEquipableItem staff = new StaffFactory().createDefault();
+    assertEquals(-40, staff.getPower());
+    assertEquals(40, ((Staff) staff).getHeal());
+    assertEquals(40, staff.getType().getPower());
+  }
+
+  @Test
+  public void testWrongClass() {
+    ItemType axe = ItemType.of(Axe.class, "Axe", 40, 1, 2);
+    assertThrows(IllegalArgumentException.class, () -> new Sword(axe));
+    assertEquals(DamageTable.typeOf(Axe.class), axe.getDamageType());
+    assertEquals(DamageTable.typeOf(Hand.class), ItemType.of(Hand.class, "Hand", 0, 1, 1)
+        .getDamageType());
+  }
+
+  @Test
+  public void testBoundedCache() {
+    ItemType.Cache cache = new ItemType.Cache(2);
+    ItemType axe = cache.of(Axe.class, "Axe", 40, 1, 2);
+    assertSame(axe, cache.of(Axe.class, new String("Axe"), 40, 0, 2));
+    ItemType sword = cache.of(Sword.class, "Axe", 40, 1, 2);
+    assertNotSame(axe, sword);
+    assertEquals(2, cache.size());
+
+    ItemType stronger = cache.of(Axe.class, "Axe", 41, 1, 2);
+    assertEquals(2, cache.size());
+    assertNotSame(stronger, cache.of(Axe.class, "Axe", 41, 1, 2));
+    assertEquals(stronger, cache.of(Axe.class, "Axe", 41, 1, 2));
+    assertSame(axe, cache.of(Axe.class, "Axe", 40, 1, 2));
+    assertTrue(new Axe(stronger).equalsTo(new Axe(cache.of(Axe.class, "Axe", 41, 1, 2))));
+    assertFalse(new Axe(stronger).equalsTo(new Axe(axe)));
+  }
+}
@@ -0,0 +1,96 @@
+package model.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import factory.MapFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the binary encoding of the cells and connections of a field.
+ */
+class FieldCodecTest {
+
+  private final MapFactory mapFactory = new MapFactory();
+
+  /**
+   * Writes a field and reads it back, checking that all the bytes were used.
+   */
+  private Field copy(final Field field) {
+    ByteBuffer buffer = ByteBuffer.allocate((int) FieldCodec.encodedSize(field));
+    FieldCodec.write(field, buffer);
+    assertEquals(0, buffer.remaining());
+    buffer.flip();
+    Field copy = FieldCodec.read(buffer);
+    assertEquals(0, buffer.remaining());
+    return copy;
+  }
+
+  /**
+   * Checks that two fields have the same cells, in the same order, with the same links.
+   */
+  private void checkSame(final Field expected, final Field actual) {
+    assertEquals(expected.getCellCount(), actual.getCellCount());
+    assertEquals(expected.isCompactNeighbours(), actual.isCompactNeighbours());
+    assertEquals(expected.isDistanceCache(), actual.isDistanceCache());
+    assertEquals(expected.getComponentCount(), actual.getComponentCount());
+    for (int i = 0; i < expected.getCellCount(); i++) {
+      Location cell = expected.getCell(i);
+      Location copy = actual.getCell(i);
+      assertEquals(cell, copy);
+      assertEquals(cell.getNeighbourCount(), copy.getNeighbourCount(), "cell " + cell);
+      for (int j = 0; j < cell.getNeighbourCount(); j++) {
+        Location neighbour = actual.getCell(cell.getNeighbour(j).getRow(),
+            cell.getNeighbour(j).getColumn());
+        assertTrue(copy.isNeighbour(neighbour), "link from " + cell + " to " + neighbour);
+      }
+    }
+  }
+
+  @Test
+  public void testGeneratedMaps() {
+    for (int seed = 0; seed < 5; seed++) {
+      Field field = mapFactory.createConnectedMap(12, new Random(seed), new Field());
+      Field copy = copy(field);
+      checkSame(field, copy);
+      assertTrue(copy.isConnected());
+      assertEquals(field.distance(field.getCell(0, 0), field.getCell(11, 11)),
+          copy.distance(copy.getCell(0, 0), copy.getCell(11, 11)));
+      checkSame(mapFactory.createMapSeed(8, new Random(seed), new Field()),
+          copy(mapFactory.createMapSeed(8, new Random(seed), new Field())));
+    }
+  }
+
+  @Test
+  public void testIrregularLinks() {
+    Field field = new Field();
+    field.addCells(true, new Location(0, 0), new Location(0, 1), new Location(1, 1),
+        new Location(5, 5), new Location(-3, 2));
+    field.getCell(0, 0).addNeighbour(field.getCell(5, 5));
+    field.getCell(5, 5).addNeighbour(field.getCell(-3, 2));
+    field.getCell(0, 1).removeNeighbour(field.getCell(1, 1));
+    Field copy = copy(field);
+    checkSame(field, copy);
+    assertTrue(copy.getCell(1, 1).isNeighbour(copy.getCell(0, 1)));
+    assertFalse(copy.getCell(0, 1).isNeighbour(copy.getCell(1, 1)));
+    assertEquals(2, copy.getCell(0, 0).getNeighbourCount());
+
+    field.setCompactNeighbours(true);
+    field.setDistanceCache(true);
+    checkSame(field, copy(field));
+  }
+
+  @Test
+  public void testInvalidData() {
+    ByteBuffer buffer = ByteBuffer.allocate(5 + 9 + 4);
+    buffer.putInt(1).put((byte) 0).putInt(0).putInt(0).put((byte) 0b1000).putInt(0).flip();
+    assertThrows(IllegalArgumentException.class, () -> FieldCodec.read(buffer));
+    ByteBuffer tooShort = ByteBuffer.allocate(5);
+    tooShort.putInt(100).put((byte) 0).flip();
+    assertThrows(IllegalArgumentException.class, () -> FieldCodec.read(tooShort));
+  }
+}
@@ -0,0 +1,369 @@
+package model.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import factory.MapFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.units.Alpaca;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Regression tests for the shortest path engine of the field.
+ * <p>
+ * The distances are compared against the original depth first search over all the simple paths,
+ * so the maps are kept small.
+ */
+class FieldDistanceTest {
+
+  private final MapFactory mapFactory = new MapFactory();
+
+  /**
+   * Reference implementation of the distance, as it was computed before the field owned the
+   * search.
+   */
+  private double legacyDistance(final Location from, final Location to,
+      final Set<Location> visited) {
+    if (to.equals(from)) {
+      return 0;
+    }
+    visited.add(from);
+    double distance = Double.POSITIVE_INFINITY;
+    for (Location node : from.getNeighbours()) {
+      if (!visited.contains(node)) {
+        distance = Math.min(distance, 1 + legacyDistance(node, to, new HashSet<>(visited)));
+      }
+    }
+    return distance;
+  }
+
+  /**
+   * Checks every pair of cells of a map against the reference implementation
+   */
+  private void checkAllPairs(final Field map, final int size) {
+    for (int i = 0; i < size * size; i++) {
+      Location from = map.getCell(i / size, i % size);
+      for (int j = 0; j < size * size; j++) {
+        Location to = map.getCell(j / size, j % size);
+        double expected = legacyDistance(from, to, new HashSet<>());
+        assertEquals(expected, from.distanceTo(to));
+        assertEquals(expected, map.distance(from, to));
+        for (int radius = 0; radius <= 4; radius++) {
+          assertEquals(expected <= radius ? expected : Double.POSITIVE_INFINITY,
+              from.distanceTo(to, radius));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSeededMaps() {
+    for (int seed = 0; seed < 20; seed++) {
+      for (int size = 2; size <= 4; size++) {
+        Field map = mapFactory.createMapSeed(size, new Random(seed), new Field());
+        checkAllPairs(map, size);
+      }
+    }
+  }
+
+  @Test
+  public void testDisconnectedMap() {
+    Field map = new Field();
+    map.setRandom(new Random(7));
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        map.addCells(false, new Location(row, col));
+      }
+    }
+    Location isolated = map.getCell(1, 1);
+    for (Location neighbour : isolated.getNeighbours()) {
+      isolated.removeNeighbour(neighbour);
+      neighbour.removeNeighbour(isolated);
+    }
+    checkAllPairs(map, 3);
+    assertEquals(Double.POSITIVE_INFINITY, map.getCell(0, 0).distanceTo(isolated));
+  }
+
+  @Test
+  public void testInvalidLocations() {
+    Field map = mapFactory.createMapSeed(3, new Random(3), new Field());
+    Location cell = map.getCell(0, 0);
+    Location invalid = map.getCell(5, 5);
+    assertEquals(Double.POSITIVE_INFINITY, cell.distanceTo(invalid));
+    assertEquals(Double.POSITIVE_INFINITY, cell.distanceTo(new InvalidLocation()));
+    assertEquals(Double.POSITIVE_INFINITY, new InvalidLocation().distanceTo(cell));
+    assertEquals(0, invalid.distanceTo(new InvalidLocation()));
+  }
+
+  @Test
+  public void testLocationsOutsideTheMap() {
+    Location a = new Location(0, 0),
+        b = new Location(0, 1),
+        c = new Location(1, 1);
+    a.addNeighbour(b);
+    b.addNeighbour(c);
+    assertEquals(2, a.distanceTo(c));
+    assertEquals(Double.POSITIVE_INFINITY, a.distanceTo(c, 1));
+
+    Field map = new Field();
+    map.addCells(true, new Location(5, 5));
+    map.getCell(5, 5).addNeighbour(a);
+    assertEquals(3, map.getCell(5, 5).distanceTo(new Location(1, 1)));
+  }
+
+  @Test
+  public void testDistanceCache() {
+    for (int seed = 0; seed < 10; seed++) {
+      Field map = mapFactory.createMapSeed(4, new Random(seed), new Field());
+      assertTrue(map.precomputeDistances());
+      checkAllPairs(map, 4);
+      map.setDistanceCache(false);
+      checkAllPairs(map, 4);
+    }
+  }
+
+  @Test
+  public void testDistanceCacheInvalidation() {
+    Field map = new Field();
+    map.addCells(true, new Location(0, 0), new Location(0, 1), new Location(0, 2),
+        new Location(1, 0), new Location(1, 1), new Location(1, 2));
+    assertTrue(map.precomputeDistances());
+    Location cell00 = map.getCell(0, 0),
+        cell02 = map.getCell(0, 2);
+    assertEquals(2, cell00.distanceTo(cell02));
+
+    map.removeConnection(cell00, map.getCell(0, 1));
+    assertEquals(4, cell00.distanceTo(cell02));
+
+    cell00.removeNeighbour(map.getCell(1, 0));
+    assertEquals(Double.POSITIVE_INFINITY, cell00.distanceTo(cell02));
+
+    cell00.addNeighbour(map.getCell(0, 1));
+    assertEquals(2, cell00.distanceTo(cell02));
+
+    map.addCells(true, new Location(0, 3));
+    assertEquals(3, cell00.distanceTo(map.getCell(0, 3)));
+    checkAllPairs(map, 2);
+  }
+
+  @Test
+  public void testDistanceCacheRows() {
+    for (int seed = 0; seed < 10; seed++) {
+      Field map = mapFactory.createMapSeed(4, new Random(seed), new Field());
+      map.setDistanceCache(true);
+      Location cell00 = map.getCell(0, 0),
+          cell33 = map.getCell(3, 3);
+      assertEquals(legacyDistance(cell00, cell33, new HashSet<>()), cell00.distanceTo(cell33));
+      assertEquals(legacyDistance(cell33, cell00, new HashSet<>()), cell33.distanceTo(cell00));
+
+      Location cell01 = map.getCell(0, 1);
+      if (cell00.isNeighbour(cell01)) {
+        map.removeConnection(cell00, cell01);
+      } else {
+        cell00.addNeighbour(cell01);
+      }
+      checkAllPairs(map, 4);
+    }
+
+    Field map = new Field();
+    map.addCells(true, new Location(0, 0), new Location(0, 1), new Location(0, 2),
+        new Location(1, 0), new Location(1, 1), new Location(1, 2));
+    map.setDistanceCache(true);
+    map.removeConnection(map.getCell(0, 2), map.getCell(0, 1));
+    map.removeConnection(map.getCell(0, 2), map.getCell(1, 2));
+    map.getCell(0, 2).addNeighbour(new Location(0, 3));
+    checkAllPairs(map, 2);
+    assertEquals(1, map.getCell(0, 2).distanceTo(new Location(0, 3)));
+    assertFalse(map.precomputeDistances());
+    assertEquals(2, map.getCell(0, 0).distanceTo(map.getCell(1, 1)));
+  }
+
+  @Test
+  public void testDistanceCacheLimit() {
+    Field map = new Field();
+    for (int i = 0; i <= Field.MAX_CACHED_CELLS; i++) {
+      map.addCells(true, new Location(0, i));
+    }
+    assertFalse(map.precomputeDistances());
+    assertEquals(Field.MAX_CACHED_CELLS,
+        map.getCell(0, 0).distanceTo(map.getCell(0, Field.MAX_CACHED_CELLS)));
+  }
+
+  @Test
+  public void testReachableCells() {
+    CellSet reachable = new CellSet();
+    for (int seed = 0; seed < 10; seed++) {
+      Field map = mapFactory.createMapSeed(4, new Random(seed), new Field());
+      for (int i = 0; i < 16; i++) {
+        Location from = map.getCell(i / 4, i % 4);
+        for (int radius = 0; radius <= 5; radius++) {
+          assertSame(reachable, map.reachableFrom(from, radius, false, reachable));
+          int expected = 0;
+          for (int j = 0; j < 16; j++) {
+            Location to = map.getCell(j / 4, j % 4);
+            boolean inRange = from.distanceTo(to) <= radius;
+            assertEquals(inRange, reachable.contains(to));
+            assertEquals(inRange, reachable.contains(to.getIndex()));
+            expected += inRange ? 1 : 0;
+          }
+          assertEquals(expected, reachable.size());
+          assertSame(from, reachable.getCell(0));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReachableCellsBlocked() {
+    Field map = new Field();
+    map.addCells(true, new Location(0, 0), new Location(0, 1), new Location(0, 2),
+        new Location(1, 0), new Location(1, 1), new Location(1, 2));
+    Location cell00 = map.getCell(0, 0),
+        cell01 = map.getCell(0, 1);
+    cell00.setUnit(new Alpaca(10, 1, cell00));
+    cell01.setUnit(new Alpaca(10, 1, cell01));
+    assertEquals(6, map.reachableFrom(cell00, 3, false).size());
+
+    CellSet reachable = map.reachableFrom(cell00, 3, true);
+    assertEquals(4, reachable.size());
+    assertTrue(reachable.contains(cell00));
+    assertFalse(reachable.contains(cell01));
+    assertFalse(reachable.contains(map.getCell(0, 2)));
+    assertTrue(map.reachableFrom(cell00, 4, true).contains(map.getCell(0, 2)));
+    assertEquals(2, map.reachableFrom(cell00, 1, true).size());
+
+    map.removeConnection(cell00, map.getCell(1, 0));
+    reachable = map.reachableFrom(cell00, 5, true);
+    assertEquals(1, reachable.size());
+    assertFalse(reachable.contains(new Location(0, 0)));
+    assertTrue(map.reachableFrom(new InvalidLocation(), 5, false).isEmpty());
+    assertTrue(map.reachableFrom(cell00, -1, false).isEmpty());
+  }
+
+  /**
+   * Checks that a path is made of free adjacent cells and goes from one location to the other
+   */
+  private void checkPath(final List<Location> path, final Location from, final Location to) {
+    assertSame(from, path.get(0));
+    assertSame(to, path.get(path.size() - 1));
+    for (int i = 1; i < path.size(); i++) {
+      assertTrue(path.get(i - 1).isNeighbour(path.get(i)));
+      assertNull(path.get(i).getUnit());
+    }
+  }
+
+  @Test
+  public void testPaths() {
+    List<Location> path = new ArrayList<>();
+    for (int seed = 0; seed < 10; seed++) {
+      Random random = new Random(seed);
+      Field map = mapFactory.createMapSeed(5, random, new Field());
+      for (int i = 0; i < 6; i++) {
+        Location cell = map.getCell(random.nextInt(5), random.nextInt(5));
+        cell.setUnit(new Alpaca(10, 1, cell));
+      }
+      for (int i = 0; i < 25; i++) {
+        Location from = map.getCell(i / 5, i % 5);
+        for (int j = 0; j < 25; j++) {
+          Location to = map.getCell(j / 5, j % 5);
+          assertSame(path, map.findPath(from, to, path));
+          int expected = -1;
+          for (int radius = 0; radius < 25 && expected < 0 && to.getUnit() == null; radius++) {
+            if (map.reachableFrom(from, radius, true).contains(to)) {
+              expected = radius;
+            }
+          }
+          if (from == to) {
+            assertEquals(List.of(from), path);
+          } else if (expected < 0) {
+            assertTrue(path.isEmpty());
+          } else {
+            assertEquals(expected, path.size() - 1);
+            checkPath(path, from, to);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPathsWithDistantNeighbours() {
+    Field map = new Field();
+    for (int col = 0; col < 6; col++) {
+      map.addCells(false, new Location(0, col));
+    }
+    for (int col = 1; col < 6; col++) {
+      map.getCell(0, col - 1).addNeighbour(map.getCell(0, col));
+    }
+    Location first = map.getCell(0, 0),
+        last = map.getCell(0, 5);
+    first.addNeighbour(map.getCell(0, 4));
+    List<Location> path = map.findPath(first, last);
+    assertEquals(List.of(first, map.getCell(0, 4), last), path);
+
+    map.getCell(0, 4).setUnit(new Alpaca(10, 1, map.getCell(0, 4)));
+    assertTrue(map.findPath(first, last).isEmpty());
+    assertTrue(map.findPath(last, map.getCell(0, 4)).isEmpty());
+    assertTrue(map.findPath(first, new InvalidLocation()).isEmpty());
+    assertEquals(List.of(map.getCell(0, 1), first),
+        map.findPath(new Location(0, 1), new Location(0, 0)));
+  }
+
+  @Test
+  @Timeout(60)
+  public void testConcurrentQueries() throws Exception {
+    int size = 12;
+    Field map = mapFactory.createMapSeed(size, new Random(5), new Field());
+    map.getCell(5, 5).setUnit(new Alpaca(10, 1, map.getCell(5, 5)));
+    int cells = size * size;
+    double[] distances = new double[cells * cells];
+    int[] reachable = new int[cells];
+    List<List<Location>> paths = new ArrayList<>();
+    for (int i = 0; i < cells; i++) {
+      Location from = map.getCell(i / size, i % size);
+      reachable[i] = map.reachableFrom(from, 3, true).size();
+      for (int j = 0; j < cells; j++) {
+        Location to = map.getCell(j / size, j % size);
+        distances[i * cells + j] = map.distance(from, to);
+        paths.add(map.findPath(from, to));
+      }
+    }
+    for (boolean cache : new boolean[]{false, true}) {
+      map.setDistanceCache(cache);
+      ExecutorService pool = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+          int offset = thread;
+          tasks.add(pool.submit(() -> {
+            List<Location> path = new ArrayList<>();
+            for (int k = 0; k < cells * cells; k++) {
+              int pair = (k * 7 + offset * 31) % (cells * cells);
+              Location from = map.getCell(pair / cells / size, pair / cells % size);
+              Location to = map.getCell(pair % cells / size, pair % cells % size);
+              assertEquals(distances[pair], map.distance(from, to));
+              assertEquals(paths.get(pair).size(), map.findPath(from, to, path).size());
+              assertEquals(reachable[pair / cells], map.reachableFrom(from, 3, true).size());
+            }
+          }));
+        }
+        for (Future<?> task : tasks) {
+          task.get();
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+}
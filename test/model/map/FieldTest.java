@@ -2,8 +2,19 @@ package model.map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import factory.MapFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import model.units.Alpaca;
+import model.units.IUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -117,4 +128,211 @@ class FieldTest {
     assertTrue(map.checkConnection(cell00, cell10));
     assertFalse(map.checkConnection(cell01, cell10));
   }
-}
\ No newline at end of file
+
+  /**
+   * Checks that the cells outside of the map are all the same invalid location
+   */
+  @Test
+  public void testInvalidCells() {
+    Location invalid = map.getCell(3, 3);
+    assertTrue(invalid instanceof InvalidLocation);
+    assertSame(invalid, map.getCell(-1, 0));
+    assertSame(invalid, map.getCell(0, 100));
+
+    map.getCell(0, 0).addNeighbour(invalid);
+    assertTrue(invalid.getNeighbours().isEmpty());
+    assertFalse(map.getCell(0, 0).isNeighbour(invalid));
+    invalid.setUnit(new Alpaca(10, 1, invalid));
+    assertNull(map.getCell(3, 3).getUnit());
+  }
+
+  /**
+   * Checks that cells can be added in any order and position
+   */
+  @Test
+  public void testGridGrowth() {
+    Field field = new Field();
+    field.addCells(true, new Location(5, 5), new Location(-2, 7), new Location(0, 0),
+        new Location(12, -3));
+    assertEquals(new Location(5, 5), field.getCell(5, 5));
+    assertEquals(new Location(-2, 7), field.getCell(-2, 7));
+    assertEquals(new Location(0, 0), field.getCell(0, 0));
+    assertEquals(new Location(12, -3), field.getCell(12, -3));
+    assertTrue(field.getCell(5, 6) instanceof InvalidLocation);
+    assertEquals(4, field.getMap().size());
+
+    Location replacement = new Location(5, 5);
+    field.addCells(true, replacement);
+    assertSame(replacement, field.getCell(5, 5));
+    assertEquals(4, field.getMap().size());
+  }
+
+  /**
+   * Checks the compatibility view of the cells
+   */
+  @Test
+  public void testMapView() {
+    assertSame(map.getCell(1, 2), map.getMap().get("(1, 2)"));
+    assertNull(map.getMap().get("(3, 2)"));
+    assertNull(map.getMap().get("1, 2"));
+    assertFalse(map.getMap().containsKey("(-1, -1)"));
+    assertEquals(9, map.getMap().values().size());
+    assertTrue(map.getMap().values().contains(map.getCell(2, 2)));
+
+    map.getMap().clear();
+    assertEquals(0, map.getMap().size());
+    assertTrue(map.getCell(0, 0) instanceof InvalidLocation);
+  }
+
+  /**
+   * @return the ids of a set of locations
+   */
+  private Set<String> ids(final Set<Location> locations) {
+    Set<String> ids = new HashSet<>();
+    for (Location location : locations) {
+      ids.add(location.toString());
+    }
+    return ids;
+  }
+
+  /**
+   * Checks that the compact connections give the same neighbours as the regular ones
+   */
+  @Test
+  public void testCompactNeighbours() {
+    for (int seed = 0; seed < 10; seed++) {
+      Field compact = new MapFactory().createMapSeed(5, new Random(seed), new Field());
+      Field regular = new MapFactory().createMapSeed(5, new Random(seed), new Field());
+      regular.setCompactNeighbours(false);
+      for (int row = 0; row < 5; row++) {
+        for (int col = 0; col < 5; col++) {
+          Location cell = compact.getCell(row, col);
+          assertEquals(ids(regular.getCell(row, col).getNeighbours()), ids(cell.getNeighbours()));
+          assertEquals(cell.getNeighbours().size(), cell.getNeighbourCount());
+          for (int i = 0; i < cell.getNeighbourCount(); i++) {
+            assertTrue(cell.isNeighbour(cell.getNeighbour(i)));
+            assertTrue(cell.getNeighbours().contains(cell.getNeighbour(i)));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks that the connections can still be changed while they're compact
+   */
+  @Test
+  public void testCompactNeighboursChanges() {
+    map.setCompactNeighbours(true);
+    Location cell00 = map.getCell(0, 0),
+        cell01 = map.getCell(0, 1),
+        cell11 = map.getCell(1, 1);
+    assertEquals(2, cell00.getNeighbourCount());
+
+    cell00.removeNeighbour(cell01);
+    assertFalse(cell00.isNeighbour(cell01));
+    assertTrue(cell01.isNeighbour(cell00));
+    assertEquals(1, cell00.getNeighbourCount());
+
+    cell00.addNeighbour(cell11);
+    assertTrue(cell00.isNeighbour(cell11));
+    assertTrue(cell11.isNeighbour(cell00));
+    assertEquals(2, cell00.getNeighbourCount());
+    assertEquals(2, cell00.distanceTo(map.getCell(1, 2)));
+
+    Location outside = new Location(7, 7);
+    cell01.addNeighbour(outside);
+    assertTrue(cell01.isNeighbour(outside));
+    assertEquals(4, cell01.getNeighbourCount());
+
+    Location replacement = new Location(0, 1);
+    map.addCells(true, replacement);
+    assertTrue(map.getCell(0, 2).isNeighbour(cell01));
+    assertEquals(3, replacement.getNeighbourCount());
+
+    map.clear();
+    assertTrue(cell11.isNeighbour(cell00));
+    assertEquals(6, cell11.getNeighbourCount());
+    int replaced = 0,
+        added = 0;
+    for (int i = 0; i < cell11.getNeighbourCount(); i++) {
+      replaced += cell11.getNeighbour(i) == cell01 ? 1 : 0;
+      added += cell11.getNeighbour(i) == replacement ? 1 : 0;
+    }
+    assertEquals(1, replaced);
+    assertEquals(1, added);
+  }
+
+  /**
+   * Checks that the connected components follow the changes of the connections
+   */
+  @Test
+  public void testComponents() {
+    assertTrue(map.isConnected());
+    assertEquals(1, map.getComponentCount());
+    Location cell00 = map.getCell(0, 0),
+        cell01 = map.getCell(0, 1),
+        cell10 = map.getCell(1, 0);
+
+    cell00.removeNeighbour(cell01);
+    cell01.removeNeighbour(cell00);
+    assertTrue(map.isConnected());
+    cell00.removeNeighbour(cell10);
+    cell10.removeNeighbour(cell00);
+    assertFalse(map.isConnected());
+    assertEquals(2, map.getComponentCount());
+    assertNotEquals(map.getComponent(cell00), map.getComponent(cell01));
+    assertEquals(map.getComponent(cell01), map.getComponent(map.getCell(2, 2)));
+    assertEquals(-1, map.getComponent(new Location(0, 0)));
+
+    map.addCells(true, new Location(5, 5));
+    assertEquals(3, map.getComponentCount());
+    map.getCell(5, 5).addNeighbour(cell00);
+    assertEquals(2, map.getComponentCount());
+    cell00.addNeighbour(cell01);
+    assertTrue(map.isConnected());
+  }
+
+  /**
+   * Checks that the index of the units follows the units placed on the cells
+   */
+  @Test
+  public void testOccupancy() {
+    Location cell00 = map.getCell(0, 0),
+        cell22 = map.getCell(2, 2);
+    assertTrue(map.isFree(0, 0));
+    assertFalse(map.isFree(5, 5));
+    assertEquals(0, map.getUnitCount());
+
+    Alpaca alpaca = new Alpaca(10, 1, cell00);
+    cell00.setUnit(alpaca);
+    assertFalse(map.isFree(0, 0));
+    assertSame(alpaca, map.getUnitAt(0, 0));
+    cell00.setUnit(new Alpaca(10, 1, cell00));
+    assertSame(alpaca, map.getUnitAt(0, 0));
+    assertEquals(1, map.getUnitCount());
+
+    Alpaca other = new Alpaca(10, 1, cell22);
+    cell22.setUnit(other);
+    List<IUnit> units = new ArrayList<>();
+    assertEquals(List.of(alpaca, other), map.getUnitsOf(null, units));
+    assertEquals(List.of(other), map.getEnemiesWithin(alpaca, 4, units));
+    assertTrue(map.getEnemiesWithin(alpaca, 3, units).isEmpty());
+
+    cell00.removeUnit();
+    assertTrue(map.isFree(0, 0));
+    assertNull(map.getUnitAt(0, 0));
+    assertEquals(List.of(other), map.getUnitsOf(null, units));
+
+    Location replacement = new Location(2, 2);
+    replacement.setUnit(alpaca);
+    map.addCells(true, replacement);
+    assertSame(alpaca, map.getUnitAt(2, 2));
+    cell22.removeUnit();
+    assertSame(alpaca, map.getUnitAt(2, 2));
+    assertEquals(1, map.getUnitCount());
+
+    map.clear();
+    assertEquals(0, map.getUnitCount());
+  }
+}
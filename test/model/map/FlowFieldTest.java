@@ -0,0 +1,139 @@
+package model.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import factory.MapFactory;
+import java.util.Random;
+import model.units.Alpaca;
+import model.units.Fighter;
+import model.units.IUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the distances to the nearest goal of a field.
+ * <p>
+ * The goals are the cells with alpacas, and the distances are compared against the distance to
+ * every goal after each change of the units.
+ */
+class FlowFieldTest {
+
+  private final MapFactory mapFactory = new MapFactory();
+
+  /**
+   * Checks every distance of the flow field against the distances between the cells
+   */
+  private void checkDistances(final Field map, final FlowField flowField, final int size) {
+    for (int i = 0; i < size * size; i++) {
+      Location cell = map.getCell(i / size, i % size);
+      double expected = Double.POSITIVE_INFINITY;
+      for (int j = 0; j < size * size; j++) {
+        Location goal = map.getCell(j / size, j % size);
+        if (goal.getUnit() instanceof Alpaca) {
+          expected = Math.min(expected, cell.distanceTo(goal));
+        }
+      }
+      int distance = flowField.getDistance(cell);
+      assertEquals(expected, distance == FlowField.UNREACHABLE ? Double.POSITIVE_INFINITY
+          : distance, "cell " + cell);
+      assertEquals(distance, flowField.getDistances()[cell.getIndex()]);
+    }
+  }
+
+  @Test
+  public void testIncrementalUpdates() {
+    for (int seed = 0; seed < 10; seed++) {
+      Random random = new Random(seed);
+      Field map = mapFactory.createMapSeed(6, random, new Field());
+      FlowField flowField = map.createFlowField(unit -> unit instanceof Alpaca);
+      checkDistances(map, flowField, 6);
+      for (int step = 0; step < 60; step++) {
+        for (int change = random.nextInt(4); change >= 0; change--) {
+          Location cell = map.getCell(random.nextInt(6), random.nextInt(6));
+          Location next = cell.getNeighbourCount() == 0 ? cell
+              : cell.getNeighbour(random.nextInt(cell.getNeighbourCount()));
+          if (cell.getUnit() != null && next.getUnit() == null) {
+            IUnit unit = cell.getUnit();
+            cell.removeUnit();
+            next.setUnit(unit);
+          } else if (cell.getUnit() != null) {
+            cell.removeUnit();
+          } else if (random.nextInt(3) > 0) {
+            cell.setUnit(new Alpaca(10, 1, cell));
+          } else {
+            cell.setUnit(new Fighter(10, 1, cell));
+          }
+        }
+        checkDistances(map, flowField, 6);
+      }
+    }
+  }
+
+  @Test
+  public void testFirstGoals() {
+    Field map = mapFactory.createMapSeed(4, new Random(5), new Field());
+    FlowField flowField = map.createFlowField(unit -> unit instanceof Alpaca);
+    assertEquals(FlowField.UNREACHABLE, flowField.getDistance(map.getCell(0, 0)));
+    Location cell = map.getCell(3, 3);
+    cell.setUnit(new Fighter(10, 1, cell));
+    checkDistances(map, flowField, 4);
+
+    cell = map.getCell(1, 2);
+    cell.setUnit(new Alpaca(10, 1, cell));
+    checkDistances(map, flowField, 4);
+    cell.removeUnit();
+    checkDistances(map, flowField, 4);
+    map.getCell(0, 0).setUnit(new Alpaca(10, 1, map.getCell(0, 0)));
+    map.getCell(2, 1).setUnit(new Alpaca(10, 1, map.getCell(2, 1)));
+    checkDistances(map, flowField, 4);
+  }
+
+  @Test
+  public void testMapChanges() {
+    Field map = new Field();
+    map.addCells(true, new Location(0, 0), new Location(0, 1), new Location(0, 2),
+        new Location(1, 0), new Location(1, 1), new Location(1, 2));
+    FlowField flowField = map.createFlowField(unit -> unit instanceof Alpaca);
+    Location cell00 = map.getCell(0, 0),
+        cell02 = map.getCell(0, 2);
+    assertEquals(FlowField.UNREACHABLE, flowField.getDistance(cell00));
+    cell02.setUnit(new Alpaca(10, 1, cell02));
+    assertEquals(2, flowField.getDistance(cell00));
+
+    map.removeConnection(cell00, map.getCell(0, 1));
+    map.getCell(0, 1).removeNeighbour(cell00);
+    assertEquals(4, flowField.getDistance(cell00));
+
+    map.addCells(true, new Location(0, 3));
+    assertEquals(1, flowField.getDistance(map.getCell(0, 3)));
+    assertEquals(FlowField.UNREACHABLE, flowField.getDistance(new Location(0, 0)));
+
+    flowField.detach();
+    cell02.removeUnit();
+    assertEquals(4, flowField.getDistance(cell00));
+  }
+
+  @Test
+  public void testNextStep() {
+    Field map = new Field();
+    map.addCells(true, new Location(0, 0), new Location(0, 1), new Location(0, 2),
+        new Location(1, 0), new Location(1, 1), new Location(1, 2));
+    FlowField flowField = map.createFlowField(unit -> unit instanceof Alpaca);
+    Location cell00 = map.getCell(0, 0);
+    assertNull(flowField.nextStep(cell00));
+
+    map.getCell(1, 2).setUnit(new Alpaca(10, 1, map.getCell(1, 2)));
+    Location step = flowField.nextStep(cell00);
+    assertTrue(step == map.getCell(0, 1) || step == map.getCell(1, 0));
+
+    IUnit blocker = new Fighter(10, 1, step);
+    step.setUnit(blocker);
+    Location other = flowField.nextStep(cell00);
+    assertTrue(other == map.getCell(0, 1) || other == map.getCell(1, 0));
+    assertTrue(other != step);
+    assertSame(null, flowField.nextStep(map.getCell(1, 2)));
+    assertNull(flowField.nextStep(new InvalidLocation()));
+  }
+}
@@ -0,0 +1,62 @@
+package model.map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import controller.GameController;
+import controller.Tactician;
+import java.util.ArrayList;
+import java.util.List;
+import model.units.Alpaca;
+import model.units.IUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the index of the units placed on the cells of a field.
+ */
+class OccupancyTest {
+
+  /**
+   * Creates a unit of an owner
+   */
+  private IUnit unitOf(final Tactician owner) {
+    IUnit unit = new Alpaca(10, 1, new InvalidLocation());
+    unit.setOwner(owner);
+    return unit;
+  }
+
+  @Test
+  public void testOwnersAreReleased() {
+    GameController controller = new GameController(2, 3);
+    Occupancy occupancy = new Occupancy();
+    occupancy.ensureCapacity(9);
+    List<IUnit> units = new ArrayList<>();
+    Tactician previous = new Tactician("Player 2", controller);
+    for (int game = 0; game < 5; game++) {
+      Tactician first = new Tactician("Player 0", controller),
+          second = new Tactician("Player 1", controller);
+      IUnit unit = unitOf(first);
+      occupancy.set(0, unit);
+      occupancy.set(1, unitOf(second));
+      occupancy.set(2, unitOf(second));
+      occupancy.set(3, unitOf(null));
+      assertEquals(3, occupancy.ownerCount());
+      assertNull(occupancy.cellsOf(previous));
+      units.clear();
+      occupancy.unitsOf(first, units);
+      assertEquals(List.of(unit), units);
+      assertArrayEquals(new long[]{0b110}, occupancy.cellsOf(second));
+
+      occupancy.set(1, null);
+      assertEquals(3, occupancy.ownerCount());
+      for (int cell = 0; cell < 4; cell++) {
+        occupancy.remove(cell);
+      }
+      assertEquals(0, occupancy.ownerCount());
+      assertNull(occupancy.cellsOf(first));
+      assertEquals(0, occupancy.size());
+      previous = second;
+    }
+  }
+}
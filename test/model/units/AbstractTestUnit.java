@@ -1,5 +1,6 @@
 package model.units;
 
+import controller.changes.GameListener;
 import model.items.*;
 import model.items.heal.IHeal;
 import model.items.heal.Staff;
@@ -12,6 +13,8 @@ import model.items.attack.normal.Spear;
 import model.items.attack.normal.Sword;
 import model.map.Field;
 import model.map.Location;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -351,6 +354,35 @@ public abstract class AbstractTestUnit implements ITestUnit {
 
   }
 
+  @Override
+  @Test
+  public void testTargets() {
+
+    IUnit unidad = getTestUnit();
+    equipWeapon(unidad);
+    unidad.getLocation().setUnit(unidad);
+    List<IUnit> alpacas = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      Location celda = field.getCell(i / 3, i % 3);
+      if (celda.getUnit() == null) {
+        Alpaca alpaca = new Alpaca(50, 2, celda);
+        celda.setUnit(alpaca);
+        alpacas.add(alpaca);
+      }
+    }
+    List<IUnit> objetivos = unidad.getTargets(new ArrayList<>(alpacas));
+    int alcance = 0;
+    for (IUnit alpaca : alpacas) {
+      assertEquals(unidad.canAttack(alpaca), objetivos.contains(alpaca));
+      alcance += unidad.canAttack(alpaca) ? 1 : 0;
+    }
+    assertEquals(alcance, objetivos.size());
+    for (int i = 1; i < objetivos.size(); i++) {
+      assertTrue(unidad.getLocation().distanceTo(objetivos.get(i - 1).getLocation())
+          <= unidad.getLocation().distanceTo(objetivos.get(i).getLocation()));
+    }
+  }
+
   @Override
   @Test
   public void testHeal() {
@@ -444,6 +476,65 @@ public abstract class AbstractTestUnit implements ITestUnit {
     primero.attackEnemy(segundo);
     assertEquals(segundo.getCurrentHitPoints(), segundo.getMaxHitPoints() - item.getPower());
   }
+
+  @Test
+  @Override
+  public void changeListeners(){
+
+    IUnit unit = getTestUnit();
+    List<String> cambios = new ArrayList<>();
+    GameListener listener = new GameListener() {
+      @Override
+      public void onUnitMoved(IUnit moved, Location from, Location to) {
+        cambios.add("moved " + from + " " + to);
+      }
+
+      @Override
+      public void onHitPointsChanged(IUnit changed, double oldHitPoints, double hitPoints) {
+        cambios.add("hitPoints " + oldHitPoints + " " + hitPoints);
+      }
+
+      @Override
+      public void onItemAdded(IUnit changed, IEquipableItem item) {
+        cambios.add("added " + item.getName());
+      }
+
+      @Override
+      public void onItemRemoved(IUnit changed, IEquipableItem item) {
+        cambios.add("removed " + item.getName());
+      }
+
+      @Override
+      public void onEquippedItemChanged(IUnit changed, IEquipableItem item) {
+        cambios.add("equipped " + (item == changed.getHand()));
+      }
+
+      @Override
+      public void onLifeChanged(IUnit changed, boolean alive) {
+        cambios.add("alive " + alive);
+      }
+    };
+    assertFalse(unit.removeChangeListener(listener));
+    unit.addChangeListener(listener);
+    Location from = unit.getLocation();
+    unit.setLocation(field.getCell(2, 2));
+    unit.setLocation(field.getCell(2, 2));
+    unit.setCurrentHitPoints(20);
+    unit.setCurrentHitPoints(20);
+    IEquipableItem item = getAxe();
+    unit.addItem(item);
+    unit.removeItem(item);
+    unit.setEquippedItem(unit.getHand());
+    unit.setLive(true);
+    unit.setLifeDead();
+    assertEquals(List.of("moved " + from + " " + field.getCell(2, 2), "hitPoints 50.0 20.0",
+        "added Axe", "removed Axe", "alive false"), cambios);
+    assertTrue(unit.removeChangeListener(listener));
+    assertFalse(unit.removeChangeListener(listener));
+    unit.setLive(true);
+    unit.setCurrentHitPoints(10);
+    assertEquals(5, cambios.size());
+  }
 }
 
 
@@ -0,0 +1,136 @@
+package model.units;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.Function;
+import model.items.IEquipableItem;
+import model.items.attack.magic.AnimaBook;
+import model.items.attack.magic.DarkBook;
+import model.items.attack.magic.LightBook;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import model.items.attack.normal.Sword;
+import model.items.heal.Staff;
+import model.map.Field;
+import model.map.Location;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the forecast of the attacks between units.
+ */
+class CombatForecastTest {
+
+  /**
+   * Creates a unit on a cell, armed with the item of the given number, or with its hand.
+   */
+  private static IUnit armedUnit(final int item, final Location cell, final int hitPoints) {
+    Function<IEquipableItem, AbstractUnit> unit;
+    IEquipableItem weapon;
+    switch (item) {
+      case 0:
+        weapon = new Axe("Axe", 40, 1, 2);
+        unit = axe -> new Fighter(50, 1, cell, axe);
+        break;
+      case 1:
+        weapon = new Bow("Bow", 25, 2, 3);
+        unit = bow -> new Archer(50, 1, cell, bow);
+        break;
+      case 2:
+        weapon = new Spear("Spear", 30, 1, 2);
+        unit = spear -> new Hero(50, 1, cell, spear);
+        break;
+      case 3:
+        weapon = new Sword("Sword", 50, 1, 2);
+        unit = sword -> new SwordMaster(50, 1, cell, sword);
+        break;
+      case 4:
+        weapon = new AnimaBook("Anima", 40, 1, 3);
+        unit = book -> new Sorcerer(50, 1, cell, book);
+        break;
+      case 5:
+        weapon = new DarkBook("Dark", 50, 1, 3);
+        unit = book -> new Sorcerer(50, 1, cell, book);
+        break;
+      case 6:
+        weapon = new LightBook("Light", 50, 1, 3);
+        unit = book -> new Sorcerer(50, 1, cell, book);
+        break;
+      case 7:
+        weapon = new Staff("Staff", 40, 1, 2);
+        unit = staff -> new Cleric(50, 1, cell, staff);
+        break;
+      case 8:
+        weapon = null;
+        unit = none -> new Alpaca(50, 1, cell);
+        break;
+      default:
+        weapon = null;
+        unit = none -> new Fighter(50, 1, cell);
+    }
+    AbstractUnit armed = weapon == null ? unit.apply(null) : unit.apply(weapon);
+    if (weapon != null) {
+      weapon.equipItem(armed);
+    }
+    armed.setCurrentHitPoints(hitPoints);
+    cell.setUnit(armed);
+    return armed;
+  }
+
+  @Test
+  public void testSameAsAttack() {
+    CombatForecast forecast = new CombatForecast();
+    int attacks = 0, counters = 0, deaths = 0;
+    for (int attacker = 0; attacker < 10; attacker++) {
+      for (int defender = 0; defender < 10; defender++) {
+        for (int distance = 1; distance <= 3; distance++) {
+          for (int hitPoints : new int[]{5, 30, 50}) {
+            Field field = new Field();
+            for (int column = 0; column <= 3; column++) {
+              field.addCells(true, new Location(0, column));
+            }
+            IUnit first = armedUnit(attacker, field.getCell(0, 0), hitPoints);
+            IUnit second = armedUnit(defender, field.getCell(0, distance), 30);
+            assertSame(forecast, forecast.forecast(first, second));
+            assertEquals(hitPoints, first.getCurrentHitPoints());
+            assertEquals(30, second.getCurrentHitPoints());
+
+            first.attackEnemy(second);
+            String pair = attacker + " on " + defender + " at " + distance;
+            assertEquals(first.getCurrentHitPoints(), forecast.getAttackerHitPoints(), pair);
+            assertEquals(second.getCurrentHitPoints(), forecast.getDefenderHitPoints(), pair);
+            assertEquals(!first.getLive(), forecast.isAttackerKilled(), pair);
+            assertEquals(!second.getLive(), forecast.isDefenderKilled(), pair);
+            assertEquals(30 - second.getCurrentHitPoints(), forecast.getDamage(), pair);
+            attacks += forecast.isAttack() ? 1 : 0;
+            counters += forecast.isCounterattack() ? 1 : 0;
+            deaths += forecast.isAttackerKilled() || forecast.isDefenderKilled() ? 1 : 0;
+          }
+        }
+      }
+    }
+    assertTrue(attacks > 0 && counters > 0 && deaths > 0);
+  }
+
+  @Test
+  public void testNoAttack() {
+    Field field = new Field();
+    field.addCells(true, new Location(0, 0), new Location(0, 1));
+    IUnit alpaca = armedUnit(8, field.getCell(0, 0), 50);
+    IUnit fighter = armedUnit(0, field.getCell(0, 1), 50);
+    CombatForecast forecast = new CombatForecast().forecast(alpaca, fighter);
+    assertFalse(forecast.isAttack());
+    assertFalse(forecast.isCounterattack());
+    assertEquals(0, forecast.getDamage());
+    assertEquals(50, forecast.getDefenderHitPoints());
+
+    forecast.forecast(fighter, alpaca);
+    assertTrue(forecast.isAttack());
+    assertTrue(forecast.isCounterattack());
+    assertEquals(10, forecast.getDefenderHitPoints());
+    assertEquals(50, alpaca.getCurrentHitPoints());
+  }
+}
@@ -224,5 +224,15 @@ public interface ITestUnit {
   @Test
   void attackWithHand();
 
+  /**
+   * Verifica que los objetivos de la unidad sean las unidades que puede atacar
+   */
+  @Test
+  void testTargets();
 
+  /**
+   * Verifica que los listeners de la unidad reciban cada cambio por su metodo
+   */
+  @Test
+  void changeListeners();
 }
@@ -0,0 +1,63 @@
+package model.units;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import model.items.IEquipableItem;
+import model.items.attack.normal.Axe;
+import model.items.attack.normal.Bow;
+import model.items.attack.normal.Spear;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the item storage of the units.
+ */
+class InventoryTest {
+
+  private final IEquipableItem axe = new Axe("Axe", 10, 1, 2);
+  private final IEquipableItem bow = new Bow("Bow", 10, 2, 3);
+  private final IEquipableItem spear = new Spear("Spear", 10, 1, 2);
+
+  @Test
+  public void testFixedCapacity() {
+    Inventory inventory = new Inventory(2);
+    List<IEquipableItem> view = inventory.view();
+    assertTrue(inventory.add(axe));
+    assertTrue(inventory.add(bow));
+    assertFalse(inventory.add(spear));
+    assertFalse(inventory.hasRoom());
+    assertEquals(List.of(axe, bow), view);
+    assertEquals(1, inventory.indexOf(bow));
+    assertEquals(-1, inventory.indexOf(spear));
+
+    assertTrue(inventory.remove(axe));
+    assertFalse(inventory.remove(axe));
+    assertEquals(1, view.size());
+    assertSame(bow, view.get(0));
+    assertFalse(view.contains(axe));
+    assertThrows(IndexOutOfBoundsException.class, () -> view.get(1));
+    assertThrows(UnsupportedOperationException.class, () -> view.add(axe));
+    assertSame(view, inventory.view());
+
+    inventory.clear();
+    assertTrue(view.isEmpty());
+  }
+
+  @Test
+  public void testGrowable() {
+    Inventory inventory = new Inventory(Integer.MAX_VALUE);
+    IEquipableItem[] items = new IEquipableItem[100];
+    for (int i = 0; i < items.length; i++) {
+      items[i] = new Axe("Axe " + i, 10, 1, 2);
+      assertTrue(inventory.add(items[i]));
+    }
+    assertEquals(100, inventory.size());
+    assertTrue(inventory.remove(items[50]));
+    assertSame(items[51], inventory.get(50));
+    assertEquals(98, inventory.view().indexOf(items[99]));
+  }
+}
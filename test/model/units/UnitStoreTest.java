@@ -0,0 +1,94 @@
+package model.units;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.items.IEquipableItem;
+import model.items.attack.normal.Axe;
+import model.map.Field;
+import model.map.InvalidLocation;
+import model.map.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test set for the struct-of-arrays storage of the units.
+ */
+class UnitStoreTest {
+
+  private Field field;
+  private UnitStore store;
+
+  @BeforeEach
+  public void setUp() {
+    field = new Field();
+    field.addCells(true, new Location(0, 0), new Location(0, 1), new Location(1, 0),
+        new Location(1, 1));
+    store = new UnitStore(field, 1);
+  }
+
+  @Test
+  public void testUnitsAreHandles() {
+    Fighter fighter = new Fighter(50, 2, field.getCell(0, 1));
+    fighter.takeDamage(10);
+    fighter.setMove(true);
+    int slot = store.add(fighter);
+    assertEquals(slot, store.add(fighter));
+    assertSame(fighter, store.getUnit(slot));
+    assertEquals(40, store.getHitPoints(slot));
+    assertEquals(50, store.getMaxHitPoints(slot));
+    assertEquals(2, store.getMovement(slot));
+    assertEquals(field.getCellIndex(field.getCell(0, 1)), store.getCell(slot));
+    assertEquals(UnitStore.NONE, store.getOwner(slot));
+    assertEquals(UnitStore.HAND, store.getEquipped(slot));
+    assertTrue(store.hasMoved(slot));
+
+    fighter.takeDamage(15);
+    fighter.setMove(false);
+    fighter.setLocation(new InvalidLocation());
+    IEquipableItem axe = new Axe("Axe", 10, 1, 2);
+    fighter.addItem(axe);
+    axe.equipItem(fighter);
+    assertEquals(25, store.getHitPoints(slot));
+    assertFalse(store.hasMoved(slot));
+    assertEquals(UnitStore.NONE, store.getCell(slot));
+    assertSame(axe, store.getItem(store.getEquipped(slot)));
+
+    fighter.die();
+    assertFalse(store.isAlive(slot));
+    assertFalse(fighter.getLive());
+    assertThrows(IllegalArgumentException.class,
+        () -> new UnitStore(field, 4).add(fighter));
+    assertThrows(IndexOutOfBoundsException.class, () -> store.getHitPoints(1));
+  }
+
+  @Test
+  public void testScansAndFrames() {
+    Alpaca[] alpacas = new Alpaca[5];
+    for (int i = 0; i < alpacas.length; i++) {
+      alpacas[i] = new Alpaca(30, 1, new InvalidLocation());
+      alpacas[i].setMove(true);
+      store.add(alpacas[i]);
+    }
+    assertEquals(5, store.size());
+    UnitStore.Frame frame = store.save(null);
+    alpacas[1].takeDamage(30);
+    alpacas[1].setLifeDead();
+    alpacas[3].setMove(false);
+    int[] slots = new int[2];
+    assertEquals(4, store.livingUnits(UnitStore.NONE, slots));
+    assertEquals(0, slots[0]);
+    assertEquals(2, slots[1]);
+    store.resetMoves(UnitStore.NONE);
+    assertFalse(alpacas[0].getMove());
+
+    store.restore(frame);
+    assertTrue(alpacas[1].getLive());
+    assertEquals(30, alpacas[1].getCurrentHitPoints());
+    assertTrue(alpacas[0].getMove() && alpacas[3].getMove());
+    assertSame(frame, store.save(frame));
+  }
+}